@@ -0,0 +1,128 @@
+package com.example.summit;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.summit.model.Event;
+import com.example.summit.model.EventCatalog;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Syncs the device's {@link EventCatalog} with events that have catalog entries and
+ * with events written before the catalog existed.
+ * These tests run against the Firebase Local Emulator Suite.
+ */
+@RunWith(AndroidJUnit4.class)
+@MediumTest
+public class EventCatalogIntegrationTest {
+
+    static int firestorePort = 8080;
+    static String androidLocalhost = "10.0.2.2";
+
+    private EventCatalog catalog;
+
+    @BeforeClass
+    public static void setup() {
+        try {
+            FirebaseFirestore.getInstance().useEmulator(androidLocalhost, firestorePort);
+        } catch (IllegalStateException e) {
+            // Another test class already connected this instance to the emulator
+        }
+    }
+
+    @Before
+    public void clearCatalog() throws ExecutionException, InterruptedException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        catalog = EventCatalog.get(context);
+        Tasks.await(catalog.clear());
+    }
+
+    /**
+     * Clears all data from the Firestore emulator AFTER EACH TEST.
+     */
+    @After
+    public void tearDown() throws IOException {
+        URL url = new URL("http://" + androidLocalhost + ":" + firestorePort +
+                "/emulator/v1/projects/summit-4de72/databases/(default)/documents");
+        HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
+        try {
+            urlConnection.setRequestMethod("DELETE");
+            Log.i("Response Code", "Emulator Clear Response: " + urlConnection.getResponseCode());
+        } finally {
+            urlConnection.disconnect();
+        }
+    }
+
+    private static Map<String, Object> event(String title, String location) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("title", title);
+        event.put("location", location);
+        return event;
+    }
+
+    private List<String> titles(String query) throws ExecutionException, InterruptedException {
+        List<String> titles = new ArrayList<>();
+        for (Event event : Tasks.await(catalog.search(query))) {
+            titles.add(event.getDescription().getTitle());
+        }
+        return titles;
+    }
+
+    @Test
+    public void testEventsWithoutEntriesAreCopied() throws ExecutionException, InterruptedException, TimeoutException {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        // Written before the catalog existed, and not migrated yet
+        Tasks.await(db.document("events/legacy").set(event("Legacy Swim", "Pool")));
+        // Written by the current app
+        Tasks.await(db.document("events/current").set(event("Current Yoga", "Gym")));
+        Tasks.await(EventCatalog.entryRef("current").set(EventCatalog.entryFor(event("Current Yoga", "Gym"))));
+
+        Tasks.await(catalog.sync(), 1, TimeUnit.MINUTES);
+        assertEquals(Arrays.asList("Current Yoga", "Legacy Swim"), titles(""));
+        assertEquals(Collections.singletonList("Legacy Swim"), titles("swim"));
+        assertEquals(1, catalog.locations().count("Pool"));
+    }
+
+    @Test
+    public void testLaterSyncsOnlyApplyEntries() throws ExecutionException, InterruptedException, TimeoutException {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        Tasks.await(db.document("events/a").set(event("Chess", "Library")));
+        Tasks.await(catalog.sync(), 1, TimeUnit.MINUTES);
+
+        // A deleted event leaves a tombstone; a new event publishes an entry
+        Tasks.await(db.document("events/a").delete());
+        Tasks.await(EventCatalog.entryRef("a").set(EventCatalog.tombstone()));
+        Tasks.await(db.document("events/b").set(event("Choir", "Hall")));
+        Tasks.await(EventCatalog.entryRef("b").set(EventCatalog.entryFor(event("Choir", "Hall"))));
+
+        assertEquals(Integer.valueOf(2), Tasks.await(catalog.sync(), 1, TimeUnit.MINUTES));
+        assertEquals(Collections.singletonList("Choir"), titles(""));
+        assertEquals(0, catalog.locations().count("Library"));
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.summit;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import com.example.summit.model.EventCatalog;
+import com.example.summit.model.SchemaMigrator;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs {@link SchemaMigrator} over legacy documents spanning several pages, and
+ * checks that a run resumes from its checkpoint.
+ * These tests run against the Firebase Local Emulator Suite.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class SchemaMigrationIntegrationTest {
+
+    static int firestorePort = 8080;
+    static String androidLocalhost = "10.0.2.2";
+
+    private static final int EVENTS = 450;
+    private static final int ENTRANTS = 250;
+    private static final int NOTIFICATIONS = 250;
+
+    @BeforeClass
+    public static void setup() {
+        try {
+            FirebaseFirestore.getInstance().useEmulator(androidLocalhost, firestorePort);
+        } catch (IllegalStateException e) {
+            // Another test class already connected this instance to the emulator
+        }
+    }
+
+    /**
+     * Clears all data from the Firestore emulator AFTER EACH TEST.
+     */
+    @After
+    public void tearDown() throws IOException {
+        URL url = new URL("http://" + androidLocalhost + ":" + firestorePort +
+                "/emulator/v1/projects/summit-4de72/databases/(default)/documents");
+        HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
+        try {
+            urlConnection.setRequestMethod("DELETE");
+            Log.i("Response Code", "Emulator Clear Response: " + urlConnection.getResponseCode());
+        } finally {
+            urlConnection.disconnect();
+        }
+    }
+
+    private FirebaseFirestore getDb() {
+        return FirebaseFirestore.getInstance();
+    }
+
+    /**
+     * Writes events, entrants and notifications shaped the way older versions of the app left them.
+     */
+    private void seedLegacyDocuments() throws ExecutionException, InterruptedException {
+        FirebaseFirestore db = getDb();
+        WriteBatch batch = db.batch();
+        int writes = 0;
+        for (int i = 0; i < EVENTS + ENTRANTS + NOTIFICATIONS; i++) {
+            Map<String, Object> doc = new HashMap<>();
+            String path;
+            if (i < EVENTS) {
+                path = String.format("events/event-%04d", i);
+                doc.put("title", "Legacy " + i);
+                doc.put("requireLocation", i % 2 == 0);
+                doc.put("startDate", "2025-04-01");
+                doc.put("maxAttendees", 20);
+                doc.put("waitingList", Arrays.asList("dev-a", "dev-b"));
+                doc.put("selectedList", Collections.singletonList("dev-b"));
+            } else if (i < EVENTS + ENTRANTS) {
+                path = String.format("entrants/dev-%04d", i);
+                doc.put("name", "Entrant " + i);
+            } else {
+                path = String.format("notifications/notif-%04d", i);
+                doc.put("message", "Hello");
+                if (i % 2 == 0) doc.put("expiresAt", 1000L);
+            }
+            batch.set(db.document(path), doc);
+            if (++writes == 450) {
+                Tasks.await(batch.commit());
+                batch = db.batch();
+                writes = 0;
+            }
+        }
+        Tasks.await(batch.commit());
+    }
+
+    @Test
+    public void testMigratesEveryCollection() throws ExecutionException, InterruptedException, TimeoutException {
+        seedLegacyDocuments();
+
+        SchemaMigrator.Report report = Tasks.await(SchemaMigrator.run("full-run", null), 5, TimeUnit.MINUTES);
+        Log.i("SchemaMigration", String.format("Migrated %d of %d documents in %d ms (%.0f docs/s)",
+                report.getMigrated(), report.getScanned(), report.getElapsedMillis(), report.getDocsPerSecond()));
+        assertEquals(EVENTS + ENTRANTS + NOTIFICATIONS, report.getScanned());
+        assertEquals(EVENTS + ENTRANTS + NOTIFICATIONS, report.getMigrated());
+
+        DocumentSnapshot event = Tasks.await(getDb().document("events/event-0000").get());
+        assertEquals(Boolean.TRUE, event.getBoolean("requiredLocation"));
+        assertFalse(event.contains("requireLocation"));
+        assertFalse(event.contains("waitingList"));
+        assertEquals("2025-04-01", event.getString("eventStart"));
+        assertEquals(Long.valueOf(20), event.getLong("capacity"));
+        assertEquals("WAITING", event.getString("entrantStatus.dev-a"));
+        assertEquals("SELECTED", event.getString("entrantStatus.dev-b"));
+        DocumentSnapshot entry = Tasks.await(EventCatalog.entryRef("event-0000").get());
+        assertEquals("Legacy 0", entry.getString("title"));
+
+        DocumentSnapshot entrant = Tasks.await(getDb().document("entrants/dev-0450").get());
+        assertEquals(Boolean.TRUE, entrant.getBoolean("notificationsEnabled"));
+        DocumentSnapshot invitation = Tasks.await(getDb().document("notifications/notif-0700").get());
+        assertEquals("invitation", invitation.getString("type"));
+
+        // A new run finds nothing left to do
+        SchemaMigrator.Report again = Tasks.await(SchemaMigrator.run("second-run", null), 5, TimeUnit.MINUTES);
+        assertEquals(0, again.getMigrated());
+    }
+
+    @Test
+    public void testResumesAfterCheckpoint() throws ExecutionException, InterruptedException, TimeoutException {
+        seedLegacyDocuments();
+
+        // A checkpoint as an interrupted run would have left it, part way through events
+        Map<String, Object> cursor = new HashMap<>();
+        cursor.put("after", "event-0199");
+        cursor.put("done", false);
+        Map<String, Object> checkpoint = new HashMap<>();
+        checkpoint.put("cursors", Collections.singletonMap("events", cursor));
+        Tasks.await(getDb().collection(SchemaMigrator.CHECKPOINTS).document("resumed-run")
+                .set(checkpoint, SetOptions.merge()));
+
+        SchemaMigrator.Report report = Tasks.await(SchemaMigrator.run("resumed-run", null), 5, TimeUnit.MINUTES);
+        assertEquals(EVENTS - 200 + ENTRANTS + NOTIFICATIONS, report.getScanned());
+        assertTrue(Tasks.await(getDb().document("events/event-0199").get()).contains("requireLocation"));
+        assertFalse(Tasks.await(getDb().document("events/event-0200").get()).contains("requireLocation"));
+
+        // Finished, so running it again does nothing
+        assertEquals(0, Tasks.await(SchemaMigrator.run("resumed-run", null), 5, TimeUnit.MINUTES).getScanned());
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.summit;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import com.example.summit.model.AdmissionQueue;
+import com.example.summit.model.Entrant;
+import com.example.summit.model.EntrantStatus;
+import com.example.summit.model.EntrantStatusMap;
+import com.example.summit.model.EventDates;
+import com.example.summit.model.WaitingListStore;
+import com.example.summit.model.WaitingListStore.JoinResult;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that {@link WaitingListStore#join(String, Entrant, String)} and
+ * {@link AdmissionQueue} enforce an event's waiting list limit when hundreds of
+ * entrants join at once.
+ * These tests run against the Firebase Local Emulator Suite.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class WaitingListJoinIntegrationTest {
+
+    static int firestorePort = 8080;
+    static String androidLocalhost = "10.0.2.2";
+
+    private static final String TODAY = "2025-03-15";
+    private static final int JOINERS = 300;
+    private static final long LIMIT = 50;
+
+    @BeforeClass
+    public static void setup() {
+        try {
+            FirebaseFirestore.getInstance().useEmulator(androidLocalhost, firestorePort);
+        } catch (IllegalStateException e) {
+            // Another test class already connected this instance to the emulator
+        }
+    }
+
+    /**
+     * Clears all data from the Firestore emulator AFTER EACH TEST.
+     */
+    @After
+    public void tearDown() throws IOException {
+        URL url = new URL("http://" + androidLocalhost + ":" + firestorePort +
+                "/emulator/v1/projects/summit-4de72/databases/(default)/documents");
+        HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
+        try {
+            urlConnection.setRequestMethod("DELETE");
+            Log.i("Response Code", "Emulator Clear Response: " + urlConnection.getResponseCode());
+        } finally {
+            urlConnection.disconnect();
+        }
+    }
+
+    private FirebaseFirestore getDb() {
+        return FirebaseFirestore.getInstance();
+    }
+
+    private void createEvent(String eventId, boolean subcollection, Map<String, Object> extra)
+            throws ExecutionException, InterruptedException {
+        Map<String, Object> event = new HashMap<>();
+        event.put("title", "Join Test");
+        event.put("registrationStart", "2025-03-01");
+        event.put("registrationEnd", "2025-03-31");
+        event.put("requiredLocation", false);
+        event.put(EntrantStatusMap.FIELD, new HashMap<>());
+        event.put(WaitingListStore.LIMIT_FIELD, LIMIT);
+        if (subcollection) {
+            event.put(WaitingListStore.STORAGE_FIELD, WaitingListStore.STORAGE_SUBCOLLECTION);
+            event.put(WaitingListStore.COUNT_FIELD, 0);
+        }
+        event.putAll(extra);
+        Tasks.await(getDb().collection("events").document(eventId).set(event));
+    }
+
+    /**
+     * Starts every join at once and counts the outcomes; joins that lost the race
+     * on every retry are counted under null.
+     */
+    private Map<JoinResult, Integer> joinAtOnce(String eventId)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        List<Task<JoinResult>> joins = new ArrayList<>();
+        for (int i = 0; i < JOINERS; i++) {
+            joins.add(WaitingListStore.join(eventId, new Entrant("joiner-" + i), TODAY));
+        }
+        Tasks.await(Tasks.whenAllComplete(joins), 2, TimeUnit.MINUTES);
+
+        Map<JoinResult, Integer> outcomes = new HashMap<>();
+        for (Task<JoinResult> join : joins) {
+            if (join.isSuccessful()) {
+                outcomes.merge(join.getResult(), 1, Integer::sum);
+            } else {
+                Exception e = join.getException();
+                assertTrue("Unexpected failure: " + e, e instanceof FirebaseFirestoreException);
+                outcomes.merge(null, 1, Integer::sum);
+            }
+        }
+        Log.i("JoinTest", eventId + ": " + outcomes);
+        return outcomes;
+    }
+
+    private static void assertWithinLimit(Map<JoinResult, Integer> outcomes, long stored) {
+        int joined = outcomes.getOrDefault(JoinResult.JOINED, 0);
+        int full = outcomes.getOrDefault(JoinResult.FULL, 0);
+        int aborted = outcomes.getOrDefault(null, 0);
+
+        assertEquals("Every join must be accounted for", JOINERS, joined + full + aborted);
+        assertTrue("Waiting list grew past its limit: " + stored, stored <= LIMIT);
+        assertEquals("Stored entrants must match successful joins", joined, stored);
+        if (aborted == 0) {
+            assertEquals(LIMIT, joined);
+        }
+    }
+
+    @Test
+    public void testConcurrentJoinsRespectLimitInSubcollection() throws Exception {
+        createEvent("event-sub", true, new HashMap<>());
+
+        Map<JoinResult, Integer> outcomes = joinAtOnce("event-sub");
+
+        DocumentSnapshot event = Tasks.await(getDb().collection("events").document("event-sub").get());
+        int documents = Tasks.await(getDb().collection("events").document("event-sub")
+                .collection(WaitingListStore.COLLECTION).get()).size();
+        assertEquals(documents, WaitingListStore.waitingCount(event));
+        assertWithinLimit(outcomes, documents);
+    }
+
+    @Test
+    public void testConcurrentJoinsRespectLimitInline() throws Exception {
+        createEvent("event-inline", false, new HashMap<>());
+
+        Map<JoinResult, Integer> outcomes = joinAtOnce("event-inline");
+
+        DocumentSnapshot event = Tasks.await(getDb().collection("events").document("event-inline").get());
+        assertWithinLimit(outcomes, EntrantStatusMap.from(event).count(EntrantStatus.WAITING));
+    }
+
+    @Test
+    public void testQueuedJoinsAreDrainedInBatches() throws Exception {
+        // Requests are checked against the server's clock, so registration is open around today
+        Map<String, Object> open = new HashMap<>();
+        open.put("registrationStart", EventDates.format(EventDates.today() - 1));
+        open.put("registrationEnd", EventDates.format(EventDates.today() + 1));
+        createEvent("event-queue", true, open);
+
+        // Queuing only writes the request documents, so none of these contend on the event
+        List<Task<Void>> requests = new ArrayList<>();
+        for (int i = 0; i < JOINERS; i++) {
+            requests.add(AdmissionQueue.enqueue("event-queue", "organizer", new Entrant("joiner-" + i)));
+        }
+        Tasks.await(Tasks.whenAll(requests), 2, TimeUnit.MINUTES);
+
+        // Several drains at once must still apply each request exactly once
+        List<Task<Integer>> drains = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            drains.add(AdmissionQueue.drain("event-queue"));
+        }
+        Tasks.await(Tasks.whenAllComplete(drains), 2, TimeUnit.MINUTES);
+        Tasks.await(AdmissionQueue.drain("event-queue"), 2, TimeUnit.MINUTES);
+
+        Map<String, Integer> outcomes = new HashMap<>();
+        for (DocumentSnapshot request : Tasks.await(getDb().collection("events").document("event-queue")
+                .collection(AdmissionQueue.COLLECTION).get()).getDocuments()) {
+            outcomes.merge(request.getString(AdmissionQueue.STATUS_FIELD), 1, Integer::sum);
+        }
+        assertEquals(Integer.valueOf((int) LIMIT), outcomes.get(JoinResult.JOINED.name()));
+        assertEquals(Integer.valueOf(JOINERS - (int) LIMIT), outcomes.get(JoinResult.FULL.name()));
+
+        DocumentSnapshot event = Tasks.await(getDb().collection("events").document("event-queue").get());
+        int documents = Tasks.await(getDb().collection("events").document("event-queue")
+                .collection(WaitingListStore.COLLECTION).get()).size();
+        assertEquals(LIMIT, WaitingListStore.waitingCount(event));
+        assertEquals(LIMIT, documents);
+    }
+
+    @Test
+    public void testJoinIsCheckedAndCountedOnce() throws Exception {
+        Map<String, Object> closed = new HashMap<>();
+        closed.put("registrationEnd", "2025-03-14");
+        createEvent("event-closed", true, closed);
+        Map<String, Object> located = new HashMap<>();
+        located.put("requiredLocation", true);
+        createEvent("event-located", true, located);
+        createEvent("event-open", true, new HashMap<>());
+
+        Entrant entrant = new Entrant("joiner");
+        assertEquals(JoinResult.REGISTRATION_CLOSED,
+                Tasks.await(WaitingListStore.join("event-closed", entrant, TODAY)));
+        assertEquals(JoinResult.LOCATION_REQUIRED,
+                Tasks.await(WaitingListStore.join("event-located", entrant, TODAY)));
+        assertEquals(JoinResult.NO_EVENT,
+                Tasks.await(WaitingListStore.join("event-missing", entrant, TODAY)));
+
+        assertEquals(JoinResult.JOINED, Tasks.await(WaitingListStore.join("event-open", entrant, TODAY)));
+        assertEquals(JoinResult.ALREADY_JOINED, Tasks.await(WaitingListStore.join("event-open", entrant, TODAY)));
+        DocumentSnapshot event = Tasks.await(getDb().collection("events").document("event-open").get());
+        assertEquals(1, WaitingListStore.waitingCount(event));
+    }
+}
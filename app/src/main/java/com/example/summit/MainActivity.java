@@ -1,6 +1,8 @@
 package com.example.summit;
 
 import android.os.Bundle;
+import android.provider.Settings;
+import android.util.Log;
 import androidx.activity.EdgeToEdge;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
@@ -11,6 +13,8 @@ import androidx.navigation.NavController;
 import androidx.navigation.fragment.NavHostFragment;
 import androidx.navigation.ui.NavigationUI;
 
+import com.example.summit.model.SchemaMigrator;
+
 /**
  * The main activity for the application.
  * <p>
@@ -28,6 +32,7 @@ public class MainActivity extends AppCompatActivity {
      * <li>Enabling edge-to-edge display </li>
      * <li>Setting the content view </li>
      * <li>Finding the {@link NavHostFragment} and linking its {@link NavController} </li>
+     * <li>Bringing stored documents up to the current schema, if no device has yet </li>
      * </ul>
      *
      * @param savedInstanceState If the activity is being re-initialized after
@@ -55,6 +60,16 @@ public class MainActivity extends AppCompatActivity {
             NavController navController = navHostFragment.getNavController();
             NavigationUI.setupActionBarWithNavController(this, navController);
         }
+
+        String deviceId = Settings.Secure.getString(getContentResolver(), Settings.Secure.ANDROID_ID);
+        SchemaMigrator.runIfNeeded(deviceId)
+                .addOnSuccessListener(report -> {
+                    if (report != null) {
+                        Log.d("SchemaMigrator", "Migrated " + report.getMigrated() + " of "
+                                + report.getScanned() + " documents");
+                    }
+                })
+                .addOnFailureListener(e -> Log.e("SchemaMigrator", "Migration failed: " + e));
     }
 
     @Override
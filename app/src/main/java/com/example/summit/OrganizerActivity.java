@@ -7,6 +7,10 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.navigation.NavController;
 import androidx.navigation.fragment.NavHostFragment;
 import androidx.navigation.ui.NavigationUI;
+
+import com.example.summit.model.AdmissionQueue;
+import com.example.summit.model.InvitationExpiry;
+import com.example.summit.model.ReplacementDraw;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
@@ -16,13 +20,20 @@ import com.google.android.material.floatingactionbutton.FloatingActionButton;
  * This activity hosts the organizer's navigation graph (via a {@link NavHostFragment}),
  * sets up the {@link BottomNavigationView} for top-level navigation,
  * and manages a {@link FloatingActionButton} for creating new events.
- * It also retrieves and provides the unique device ID.
+ * It also retrieves and provides the unique device ID, and while it is open it looks
+ * after the organizer's events: it expires unanswered invitations
+ * ({@link InvitationExpiry.Scheduler}), applies entrants' queued join requests
+ * ({@link AdmissionQueue.Drainer}) and refills spots that declined entrants left
+ * open ({@link ReplacementDraw.Watcher}).
  */
 
 public class OrganizerActivity extends AppCompatActivity {
 
     private NavController navController;
     private String deviceId;
+    private InvitationExpiry.Scheduler invitationExpiry;
+    private AdmissionQueue.Drainer joinRequests;
+    private ReplacementDraw.Watcher replacements;
 
     /**
      * Initializes the activity, sets the content view, and configures navigation.
@@ -60,6 +71,25 @@ public class OrganizerActivity extends AppCompatActivity {
                 fab.hide();
             }
         });
+
+        invitationExpiry = new InvitationExpiry.Scheduler(deviceId);
+        invitationExpiry.start();
+        joinRequests = new AdmissionQueue.Drainer(deviceId);
+        joinRequests.start();
+        replacements = new ReplacementDraw.Watcher(deviceId);
+        replacements.start();
+    }
+
+    /**
+     * Stops expiring invitations, applying join requests and refilling declined spots
+     * when the activity is destroyed.
+     */
+    @Override
+    protected void onDestroy() {
+        invitationExpiry.stop();
+        joinRequests.stop();
+        replacements.stop();
+        super.onDestroy();
     }
 
     public String getDeviceID() {
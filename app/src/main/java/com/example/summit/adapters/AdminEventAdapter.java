@@ -8,6 +8,8 @@ import android.widget.CheckBox;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.summit.R;
@@ -17,6 +19,7 @@ import com.example.summit.model.EventDescription;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -47,8 +50,25 @@ public class AdminEventAdapter extends RecyclerView.Adapter<AdminEventAdapter.Vi
         void onSelectionChanged();
     }
 
+    /**
+     * Rows are the same event if their IDs match, and unchanged if they are the same
+     * {@link Event} object, since a reload creates new objects for every event.
+     */
+    private static final DiffUtil.ItemCallback<Event> SAME_EVENT = new DiffUtil.ItemCallback<Event>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Event oldEvent, @NonNull Event newEvent) {
+            return Objects.equals(oldEvent.getId(), newEvent.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Event oldEvent, @NonNull Event newEvent) {
+            return oldEvent == newEvent;
+        }
+    };
+
     private List<Event> events = new ArrayList<>();
-    private List<Event> filteredEvents = new ArrayList<>();
+    // Diffs the displayed list on a background thread and applies the result on the main thread
+    private final AsyncListDiffer<Event> filteredEvents = new AsyncListDiffer<>(this, SAME_EVENT);
     private Context context;
     private Set<String> selectedEventIds = new HashSet<>();
     private OnSelectionChangedListener selectionListener;
@@ -80,7 +100,7 @@ public class AdminEventAdapter extends RecyclerView.Adapter<AdminEventAdapter.Vi
      */
     public void updateEvents(List<Event> newEvents) {
         this.events = newEvents;
-        this.filteredEvents = new ArrayList<>(newEvents);
+        filteredEvents.submitList(new ArrayList<>(newEvents));
         selectedEventIds.clear();
         notifyDataSetChanged();
     }
@@ -89,13 +109,15 @@ public class AdminEventAdapter extends RecyclerView.Adapter<AdminEventAdapter.Vi
      * Updates the adapter with a filtered list of events.
      * <p>
      * Does not modify the complete events list or clear selection.
-     * Used after applying search/filter/sort operations.
+     * Used after applying search/filter/sort operations. Only the rows that were
+     * removed, added, moved or replaced by a newer copy of their event are redrawn.
+     * The difference is worked out off the main thread, so the rows change shortly
+     * after this returns; a newer list submitted meanwhile replaces this one.
      *
-     * @param filtered The filtered list of events to display
+     * @param filtered The filtered list of events to display; must not be changed afterwards
      */
     public void filterEvents(List<Event> filtered) {
-        this.filteredEvents = filtered;
-        notifyDataSetChanged();
+        filteredEvents.submitList(filtered);
     }
 
     /**
@@ -120,7 +142,7 @@ public class AdminEventAdapter extends RecyclerView.Adapter<AdminEventAdapter.Vi
      */
     public void selectAll() {
         selectedEventIds.clear();
-        for (Event event : filteredEvents) {
+        for (Event event : filteredEvents.getCurrentList()) {
             selectedEventIds.add(event.getId());
         }
         notifyDataSetChanged();
@@ -191,13 +213,13 @@ public class AdminEventAdapter extends RecyclerView.Adapter<AdminEventAdapter.Vi
      */
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Event event = filteredEvents.get(position);
+        Event event = filteredEvents.getCurrentList().get(position);
         EventDescription desc = event.getDescription();
         String eventId = event.getId();
 
         holder.eventId.setText("Event ID: " + (eventId != null ? eventId : "N/A"));
         holder.eventTitle.setText(desc.getTitle());
-        holder.eventDate.setText("Date: " + desc.getStartDate());
+        holder.eventDate.setText("Date: " + desc.getEventStart());
         holder.eventLocation.setText("Location: N/A");
 
         holder.eventCheckbox.setChecked(selectedEventIds.contains(eventId));
@@ -226,6 +248,6 @@ public class AdminEventAdapter extends RecyclerView.Adapter<AdminEventAdapter.Vi
      */
     @Override
     public int getItemCount() {
-        return filteredEvents.size();
+        return filteredEvents.getCurrentList().size();
     }
 }
@@ -8,6 +8,7 @@ import android.widget.CheckBox;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.summit.R;
@@ -16,6 +17,7 @@ import com.example.summit.model.UserProfile;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -81,10 +83,13 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.View
 
     /**
      * Updates the displayed users based on filter results and resets pagination.
+     * Only the displayed page is compared with the one shown before, so the cost
+     * does not grow with the number of users.
      *
      * @param filtered The filtered list of users to display
      */
     public void filterUsers(List<UserProfile> filtered) {
+        List<UserProfile> old = displayedUsers;
         this.allUsers = new ArrayList<>(filtered);
         currentlyDisplayed = Math.min(PAGE_SIZE, allUsers.size());
         if (currentlyDisplayed > 0) {
@@ -92,7 +97,26 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.View
         } else {
             displayedUsers = new ArrayList<>();
         }
-        notifyDataSetChanged();
+        List<UserProfile> shown = displayedUsers;
+        DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() { return old.size(); }
+
+            @Override
+            public int getNewListSize() { return shown.size(); }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                UserProfile a = old.get(oldPosition);
+                UserProfile b = shown.get(newPosition);
+                return Objects.equals(a.getDeviceId(), b.getDeviceId()) && Objects.equals(a.getRole(), b.getRole());
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                return old.get(oldPosition) == shown.get(newPosition);
+            }
+        }).dispatchUpdatesTo(this);
     }
 
     /**
@@ -14,7 +14,9 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.example.summit.R;
 import com.example.summit.model.Event;
+import com.example.summit.model.EventCatalog;
 import com.example.summit.model.EventDescription;
+import com.example.summit.utils.EventSearchIndex;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -48,6 +50,10 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>
      */
     private List<Event> events = new ArrayList<>();
     private List<Event> fullList = new ArrayList<>();
+    /**
+     * Keyword index over {@link #fullList}, updated as the list changes.
+     */
+    private final EventSearchIndex searchIndex = new EventSearchIndex();
     /**
      * The application context, used for inflating layouts and Glide.
      */
@@ -77,6 +83,7 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>
     public void updateEvents(List<Event> newEvents) {
         this.events = newEvents;
         this.fullList = new ArrayList<>(newEvents);
+        searchIndex.sync(fullList);
         notifyDataSetChanged();
     }
 
@@ -88,6 +95,7 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>
         TextView eventTitle;
         TextView eventDates;
         ImageView eventPoster;
+        String boundEventId;
 
         /**
          * Constructs a new ViewHolder and finds the view references for the child views.
@@ -141,18 +149,32 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>
         );
 
         String base64 = event.getDescription().getPosterBase64();
+        holder.boundEventId = event.getId();
 
         if (base64 != null && !base64.isEmpty()) {
-            byte[] decoded = Base64.decode(base64, Base64.DEFAULT);
-            Glide.with(context).asBitmap().load(decoded).into(holder.eventPoster);
+            showPoster(holder, base64);
         } else {
             holder.eventPoster.setImageResource(R.drawable.placeholder_event);
+            if (event.getId() != null) {
+                // Catalog results carry no poster; fetch it now that the card is on screen
+                String eventId = event.getId();
+                EventCatalog.loadPoster(eventId).addOnSuccessListener(poster -> {
+                    if (poster != null && !poster.isEmpty() && eventId.equals(holder.boundEventId)) {
+                        showPoster(holder, poster);
+                    }
+                });
+            }
         }
 
 
         holder.itemView.setOnClickListener(v -> listener.onEventClick(event));
     }
 
+    private void showPoster(ViewHolder holder, String base64) {
+        byte[] decoded = Base64.decode(base64, Base64.DEFAULT);
+        Glide.with(context).asBitmap().load(decoded).into(holder.eventPoster);
+    }
+
     /**
      * Returns the total number of items (events) in the data set held by the adapter.
      *
@@ -163,21 +185,14 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>
         return events.size();
     }
 
+    /**
+     * Shows only the events matching every word of a keyword, best match first.
+     *
+     * @param keyword What the user typed; an empty keyword shows every event
+     */
     public void filterByKeyword(String keyword) {
-        keyword = keyword.toLowerCase().trim();
-        List<Event> filtered = new ArrayList<>();
-
-        for(Event e : fullList) {
-            EventDescription ed = e.getDescription();
-
-            if(ed == null) continue;
-
-            if((ed.getTitle() != null && ed.getTitle().toLowerCase().contains(keyword)) ||
-            (ed.getDescription() != null && ed.getDescription().toLowerCase().contains(keyword))) {
-                filtered.add(e);
-            }
-        }
-        this.events = filtered;
+        keyword = keyword.trim();
+        this.events = keyword.isEmpty() ? new ArrayList<>(fullList) : searchIndex.search(keyword);
         notifyDataSetChanged();
     }
 
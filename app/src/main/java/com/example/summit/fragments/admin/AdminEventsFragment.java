@@ -16,23 +16,31 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.summit.R;
 import com.example.summit.adapters.AdminEventAdapter;
+import com.example.summit.model.BatchLottery;
 import com.example.summit.model.Event;
+import com.example.summit.model.EventDates;
 import com.example.summit.model.EventDescription;
+import com.example.summit.utils.EventDateIndex;
+import com.example.summit.utils.IncrementalSearch;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Fragment for managing events in the admin dashboard.
@@ -43,6 +51,7 @@ import java.util.Set;
  * - Sorting events by multiple criteria (ID, title, date)
  * - Selecting single or multiple events for batch operations
  * - Deleting selected events with confirmation
+ * - Running the lottery for every event whose registration has closed
  * <p>
  * The fragment maintains two lists: allEvents (complete dataset) and filteredEvents (after search/filter).
  * Event deletion removes both the event document and its associated QR code from Firestore.
@@ -58,10 +67,26 @@ public class AdminEventsFragment extends Fragment {
     private Button selectAllButton;
     private Button clearSelectionButton;
     private Button deleteButton;
+    private Button runLotteriesButton;
     private TextView selectedCountText;
 
+    // How long typing must pause before searching
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+
+    // Orders the search keeps its results in; one instance each so it can reuse a sort
+    private static final Comparator<IncrementalSearch.Entry<Event>> BY_ID =
+            Comparator.comparing(e -> e.getItem().getId() != null ? e.getItem().getId() : "");
+    private static final Comparator<IncrementalSearch.Entry<Event>> BY_TITLE = IncrementalSearch.bySortKey();
+    // Events without a start date go last either way
+    private static final Comparator<IncrementalSearch.Entry<Event>> OLDEST_FIRST = Comparator.comparing(
+            e -> EventDates.eventStart(e.getItem().getDescription()), Comparator.nullsLast(Comparator.naturalOrder()));
+    private static final Comparator<IncrementalSearch.Entry<Event>> NEWEST_FIRST = Comparator.comparing(
+            e -> EventDates.eventStart(e.getItem().getDescription()), Comparator.nullsLast(Comparator.reverseOrder()));
+
     private List<Event> allEvents = new ArrayList<>();
     private List<Event> filteredEvents = new ArrayList<>();
+    private EventDateIndex dateIndex = new EventDateIndex(allEvents);
+    private IncrementalSearch<Event> search;
 
     /**
      * Creates and returns the view hierarchy associated with the fragment.
@@ -104,6 +129,7 @@ public class AdminEventsFragment extends Fragment {
         selectAllButton = view.findViewById(R.id.selectAllButton);
         clearSelectionButton = view.findViewById(R.id.clearSelectionButton);
         deleteButton = view.findViewById(R.id.deleteButton);
+        runLotteriesButton = view.findViewById(R.id.runLotteriesButton);
         selectedCountText = view.findViewById(R.id.selectedCountText);
 
         // Setup RecyclerView
@@ -112,6 +138,12 @@ public class AdminEventsFragment extends Fragment {
         adapter.setOnSelectionChangedListener(() -> updateSelectionUI());
         recyclerView.setAdapter(adapter);
 
+        // Searches the event ID and title; the two are kept apart so a query cannot span them
+        search = new IncrementalSearch<>(ContextCompat.getMainExecutor(requireContext()), SEARCH_DEBOUNCE_MS,
+                event -> (event.getId() != null ? event.getId() : "") + '\u0000'
+                        + (event.getDescription().getTitle() != null ? event.getDescription().getTitle() : ""),
+                event -> event.getDescription().getTitle());
+
         // Setup filter spinner
         ArrayAdapter<CharSequence> filterAdapter = ArrayAdapter.createFromResource(
                 getContext(),
@@ -201,6 +233,9 @@ public class AdminEventsFragment extends Fragment {
 
         // Delete button
         deleteButton.setOnClickListener(v -> showDeleteConfirmationDialog());
+
+        // Run Lotteries button
+        runLotteriesButton.setOnClickListener(v -> runAllLotteries());
     }
 
     /**
@@ -230,6 +265,8 @@ public class AdminEventsFragment extends Fragment {
                             allEvents.add(event);
                         }
                     }
+                    dateIndex = new EventDateIndex(allEvents);
+                    search.setItems(allEvents);
                     applyFiltersAndSort();
                 });
     }
@@ -237,75 +274,70 @@ public class AdminEventsFragment extends Fragment {
     /**
      * Applies current search, filter, and sort criteria to the event list.
      * <p>
+     * The work runs in the background once typing pauses for {@link #SEARCH_DEBOUNCE_MS}
+     * (see {@link IncrementalSearch}); a newer change cancels it, and the results are
+     * handed to the adapter as a diff.
+     * <p>
      * Processing order:
-     * 1. Search filtering - Matches search query against event ID and title (case-insensitive)
+     * 1. Search filtering - Matches search query against event ID and title (case-insensitive),
+     *    among events with registration open today or taking place this week if that filter is chosen
      * 2. Sorting - Applies selected sort option:
      *    - Event ID (alphabetical)
      *    - Title (A-Z, case-insensitive)
      *    - Date (Oldest First or Newest First)
-     * 3. Updates adapter with filtered/sorted results
+     * 3. Updates adapter with filtered/sorted results, on the main thread
      * 4. Updates selection UI to reflect current state
      * <p>
      * Called automatically on search text changes, filter changes, sort changes, and after loading events.
      */
     private void applyFiltersAndSort() {
-        String searchQuery = searchEditText.getText() != null ?
-                searchEditText.getText().toString().toLowerCase().trim() : "";
-
-        // Filter events
-        filteredEvents = new ArrayList<>();
-        for (Event event : allEvents) {
-            EventDescription desc = event.getDescription();
-            String eventId = event.getId() != null ? event.getId().toLowerCase() : "";
-            String title = desc.getTitle() != null ? desc.getTitle().toLowerCase() : "";
-
-            // Search filter
-            if (!searchQuery.isEmpty()) {
-                if (!eventId.contains(searchQuery) && !title.contains(searchQuery)) {
-                    continue;
-                }
-            }
-
-            filteredEvents.add(event);
+        String searchQuery = searchEditText.getText() != null ? searchEditText.getText().toString() : "";
+
+        // Date filters come straight from the index; the rest narrow every event
+        String filterOption = filterSpinner.getSelectedItem() != null ?
+                filterSpinner.getSelectedItem().toString() : "All Events";
+        long today = EventDates.today();
+        Predicate<Event> filter;
+        switch (filterOption) {
+            case "Registration Open":
+                filter = identitySet(dateIndex.registrationOpen(today))::contains;
+                break;
+            case "This Week":
+                filter = identitySet(dateIndex.overlapping(today, today + 6))::contains;
+                break;
+            default:
+                filter = event -> true;
         }
 
-        // Sort events
         String sortOption = sortSpinner.getSelectedItem() != null ?
                 sortSpinner.getSelectedItem().toString() : "Event ID";
-
+        Comparator<IncrementalSearch.Entry<Event>> order;
         switch (sortOption) {
-            case "Event ID":
-                Collections.sort(filteredEvents, (e1, e2) -> {
-                    String id1 = e1.getId() != null ? e1.getId() : "";
-                    String id2 = e2.getId() != null ? e2.getId() : "";
-                    return id1.compareTo(id2);
-                });
-                break;
             case "Title (A-Z)":
-                Collections.sort(filteredEvents, (e1, e2) -> {
-                    String t1 = e1.getDescription().getTitle() != null ? e1.getDescription().getTitle() : "";
-                    String t2 = e2.getDescription().getTitle() != null ? e2.getDescription().getTitle() : "";
-                    return t1.compareToIgnoreCase(t2);
-                });
+                order = BY_TITLE;
                 break;
             case "Date (Oldest First)":
-                Collections.sort(filteredEvents, (e1, e2) -> {
-                    String d1 = e1.getDescription().getStartDate() != null ? e1.getDescription().getStartDate() : "";
-                    String d2 = e2.getDescription().getStartDate() != null ? e2.getDescription().getStartDate() : "";
-                    return d1.compareTo(d2);
-                });
+                order = OLDEST_FIRST;
                 break;
             case "Date (Newest First)":
-                Collections.sort(filteredEvents, (e1, e2) -> {
-                    String d1 = e1.getDescription().getStartDate() != null ? e1.getDescription().getStartDate() : "";
-                    String d2 = e2.getDescription().getStartDate() != null ? e2.getDescription().getStartDate() : "";
-                    return d2.compareTo(d1);
-                });
+                order = NEWEST_FIRST;
                 break;
+            default:
+                order = BY_ID;
         }
 
-        adapter.filterEvents(filteredEvents);
-        updateSelectionUI();
+        search.search(searchQuery, filterOption + "@" + today, filter, order, (query, results) -> {
+            if (!isAdded()) return;
+            filteredEvents = results;
+            adapter.filterEvents(filteredEvents);
+            updateSelectionUI();
+        });
+    }
+
+    private static Set<Event> identitySet(List<Event> events) {
+        Set<Event> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(events);
+        return set;
     }
 
     /**
@@ -379,4 +411,32 @@ public class AdminEventsFragment extends Fragment {
             }
         });
     }
+
+    /**
+     * Runs the lottery for every event whose registration has closed.
+     * <p>
+     * Uses {@link BatchLottery} to draw for all of them in one pass, then shows an
+     * AlertDialog with one line per event.
+     */
+    private void runAllLotteries() {
+        runLotteriesButton.setEnabled(false);
+
+        BatchLottery.runClosedEvents(null, LocalDate.now().toString())
+                .addOnSuccessListener(report -> {
+                    runLotteriesButton.setEnabled(true);
+                    if (!isAdded()) return;
+                    String summary = report.getEvents().isEmpty()
+                            ? "No events have closed registration."
+                            : report.toText();
+                    new AlertDialog.Builder(getContext())
+                            .setTitle("Lottery Results (" + report.getTotalInvited() + " invited)")
+                            .setMessage(summary)
+                            .setPositiveButton("OK", null)
+                            .show();
+                })
+                .addOnFailureListener(e -> {
+                    runLotteriesButton.setEnabled(true);
+                    Toast.makeText(getContext(), "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                });
+    }
 }
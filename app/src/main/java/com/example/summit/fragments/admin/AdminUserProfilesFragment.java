@@ -16,6 +16,7 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -26,13 +27,14 @@ import com.example.summit.interfaces.DeleteCallback;
 import com.example.summit.interfaces.UserLoadCallback;
 import com.example.summit.model.Firebase;
 import com.example.summit.model.UserProfile;
+import com.example.summit.utils.FacetCounts;
+import com.example.summit.utils.IncrementalSearch;
 import com.google.android.material.textfield.TextInputEditText;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Fragment for managing user profiles in the admin dashboard.
@@ -62,9 +64,18 @@ public class AdminUserProfilesFragment extends Fragment {
     private TextView selectedCountText;
     private TextView paginationText;
 
+    // How long typing must pause before searching
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+    private static final Comparator<IncrementalSearch.Entry<UserProfile>> BY_NAME = IncrementalSearch.bySortKey();
+
     private List<UserProfile> allUsers = new ArrayList<>();
     private List<UserProfile> filteredUsers = new ArrayList<>();
-    private Set<String> uniqueCities = new HashSet<>();
+    // Users per city and per role, keyed by role and device ID
+    private final FacetCounts cityCounts = new FacetCounts();
+    private final FacetCounts roleCounts = new FacetCounts();
+    private ArrayAdapter<Object> cityAdapter;
+    private ArrayAdapter<Object> roleAdapter;
+    private IncrementalSearch<UserProfile> search;
 
     /**
      * Creates and returns the view hierarchy associated with the fragment.
@@ -116,14 +127,18 @@ public class AdminUserProfilesFragment extends Fragment {
         adapter.setOnSelectionChangedListener(this::updateSelectionUI);
         recyclerView.setAdapter(adapter);
 
-        // Setup role filter spinner with static options from strings.xml
-        ArrayAdapter<CharSequence> roleAdapter = ArrayAdapter.createFromResource(
-                getContext(),
-                R.array.user_filter_role_options,
-                android.R.layout.simple_spinner_item
-        );
+        // Names are searched and sorted by; their lowercase text and collation keys are made once per load
+        search = new IncrementalSearch<>(ContextCompat.getMainExecutor(requireContext()), SEARCH_DEBOUNCE_MS,
+                UserProfile::getName, UserProfile::getName);
+
+        // Setup filter spinners; their options are filled in with counts once users load
+        cityAdapter = new ArrayAdapter<>(getContext(), android.R.layout.simple_spinner_item, new ArrayList<>());
+        cityAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        filterCitySpinner.setAdapter(cityAdapter);
+        roleAdapter = new ArrayAdapter<>(getContext(), android.R.layout.simple_spinner_item, new ArrayList<>());
         roleAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         filterRoleSpinner.setAdapter(roleAdapter);
+        updateFacetFilters();
 
         // Setup listeners
         setupListeners();
@@ -200,11 +215,25 @@ public class AdminUserProfilesFragment extends Fragment {
      */
     private void loadAllUsersRealtime() {
         Firebase.loadAllUsersRealtime(new UserLoadCallback() {
+            @Override
+            public void onUsersChanged(String role, List<UserProfile> changed, List<String> removedIds) {
+                for (UserProfile user : changed) {
+                    String key = role + "/" + user.getDeviceId();
+                    cityCounts.put(key, user.getCity());
+                    roleCounts.put(key, role);
+                }
+                for (String deviceId : removedIds) {
+                    cityCounts.remove(role + "/" + deviceId);
+                    roleCounts.remove(role + "/" + deviceId);
+                }
+            }
+
             @Override
             public void onUsersLoaded(List<UserProfile> users) {
                 allUsers.clear();
                 allUsers.addAll(users);
-                updateCityFilter();
+                search.setItems(allUsers);
+                updateFacetFilters();
                 applyFilters();
             }
 
@@ -217,95 +246,93 @@ public class AdminUserProfilesFragment extends Fragment {
     }
 
     /**
-     * Dynamically populates the city filter spinner with unique cities from loaded user data.
+     * Refreshes the city and role filter options with how many users each has.
+     * Reads the counts kept by {@link #loadAllUsersRealtime()}, so it costs the number
+     * of cities and roles, not users. The selected option stays selected.
      */
-    private void updateCityFilter() {
-        uniqueCities.clear();
-        uniqueCities.add("All Cities");
-
-        // Extract unique cities from users (excluding "N/A")
-        for (UserProfile user : allUsers) {
-            String city = user.getCity();
-            if (city != null && !city.equals("N/A") && !city.isEmpty()) {
-                uniqueCities.add(city);
-            }
+    private void updateFacetFilters() {
+        List<Object> cities = new ArrayList<>();
+        cities.add("All Cities");
+        FacetCounts.Facet unknown = null;
+        for (FacetCounts.Facet facet : cityCounts.facets()) {
+            // Keep "N/A" last
+            if ("N/A".equals(facet.getValue())) unknown = facet;
+            else cities.add(facet);
+        }
+        cities.add(unknown != null ? unknown : new FacetCounts.Facet("N/A", 0));
+        showOptions(filterCitySpinner, cityAdapter, cities);
+
+        // Roles keep their order from strings.xml
+        List<Object> roles = new ArrayList<>();
+        String[] roleOptions = getResources().getStringArray(R.array.user_filter_role_options);
+        roles.add(roleOptions[0]);
+        for (int i = 1; i < roleOptions.length; i++) {
+            roles.add(new FacetCounts.Facet(roleOptions[i], roleCounts.count(roleOptions[i])));
         }
+        showOptions(filterRoleSpinner, roleAdapter, roles);
+    }
 
-        // "N/A" option
-        uniqueCities.add("N/A");
+    private static void showOptions(Spinner spinner, ArrayAdapter<Object> adapter, List<Object> options) {
+        String selected = selectedValue(spinner, null);
+        adapter.clear();
+        adapter.addAll(options);
+        // Falls back to the first option, "All ...", if the selected one is gone
+        int position = 0;
+        for (int i = 0; i < options.size(); i++) {
+            if (valueOf(options.get(i)).equals(selected)) {
+                position = i;
+                break;
+            }
+        }
+        spinner.setSelection(position);
+    }
 
-        // Create and set adapter
-        List<String> cityList = new ArrayList<>(uniqueCities);
-        Collections.sort(cityList, (a, b) -> {
-            // Keep "All Cities" first
-            if (a.equals("All Cities")) return -1;
-            if (b.equals("All Cities")) return 1;
-            // Keep "N/A" last
-            if (a.equals("N/A")) return 1;
-            if (b.equals("N/A")) return -1;
-            return a.compareToIgnoreCase(b);
-        });
+    /**
+     * @return The value of a filter spinner's selected option, without its count
+     */
+    private static String selectedValue(Spinner spinner, String fallback) {
+        Object item = spinner.getSelectedItem();
+        return item != null ? valueOf(item) : fallback;
+    }
 
-        ArrayAdapter<String> cityAdapter = new ArrayAdapter<>(
-                getContext(),
-                android.R.layout.simple_spinner_item,
-                cityList
-        );
-        cityAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-        filterCitySpinner.setAdapter(cityAdapter);
+    private static String valueOf(Object option) {
+        return option instanceof FacetCounts.Facet ? ((FacetCounts.Facet) option).getValue() : option.toString();
     }
 
     /**
      * Applies search and filter criteria to the user list.
      * Filters by search query (name), city, and role, then sorts alphabetically by name.
+     * The work runs in the background once typing pauses (see {@link IncrementalSearch}),
+     * and a newer change cancels it.
      */
     private void applyFilters() {
-        String searchQuery = searchEditText.getText() != null ?
-                searchEditText.getText().toString().toLowerCase().trim() : "";
-        String cityFilter = filterCitySpinner.getSelectedItem() != null ?
-                filterCitySpinner.getSelectedItem().toString() : "All Cities";
-        String roleFilter = filterRoleSpinner.getSelectedItem() != null ?
-                filterRoleSpinner.getSelectedItem().toString() : "All Roles";
-
-        filteredUsers.clear();
-
-        for (UserProfile user : allUsers) {
-            // Search filter - match name
-            if (!searchQuery.isEmpty()) {
-                String name = user.getName() != null ? user.getName().toLowerCase() : "";
-                if (!name.contains(searchQuery)) {
-                    continue;
-                }
-            }
+        String searchQuery = searchEditText.getText() != null ? searchEditText.getText().toString() : "";
+        String cityFilter = selectedValue(filterCitySpinner, "All Cities");
+        String roleFilter = selectedValue(filterRoleSpinner, "All Roles");
 
+        Predicate<UserProfile> filter = user -> {
             // City filter
             if (!"All Cities".equals(cityFilter)) {
                 String userCity = user.getCity() != null ? user.getCity() : "N/A";
                 if (!cityFilter.equals(userCity)) {
-                    continue;
+                    return false;
                 }
             }
 
             // Role filter
             if (!"All Roles".equals(roleFilter)) {
                 String userRole = user.getRole() != null ? user.getRole() : "";
-                if (!roleFilter.equals(userRole)) {
-                    continue;
-                }
+                return roleFilter.equals(userRole);
             }
+            return true;
+        };
 
-            filteredUsers.add(user);
-        }
-
-        // Sort alphabetically by name
-        Collections.sort(filteredUsers, (u1, u2) -> {
-            String name1 = u1.getName() != null ? u1.getName() : "";
-            String name2 = u2.getName() != null ? u2.getName() : "";
-            return name1.compareToIgnoreCase(name2);
+        search.search(searchQuery, cityFilter + "|" + roleFilter, filter, BY_NAME, (query, results) -> {
+            if (!isAdded()) return;
+            filteredUsers = results;
+            adapter.filterUsers(filteredUsers);
+            updatePaginationUI();
         });
-
-        adapter.filterUsers(filteredUsers);
-        updatePaginationUI();
     }
 
     /**
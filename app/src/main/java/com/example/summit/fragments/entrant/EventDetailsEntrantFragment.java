@@ -18,16 +18,19 @@ import androidx.navigation.fragment.NavHostFragment;
 import com.bumptech.glide.Glide;
 import com.example.summit.R;
 
+import com.example.summit.model.AdmissionQueue;
 import com.example.summit.model.Event;
 import com.example.summit.model.EventDescription;
 import com.example.summit.model.Entrant;
+import com.example.summit.model.EntrantStatus;
+import com.example.summit.model.EntrantStatusMap;
+import com.example.summit.model.WaitingListStore;
 import com.example.summit.session.Session;
-import com.google.firebase.firestore.DocumentReference;
-import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.time.LocalDate;
 
-import java.util.ArrayList;
-import java.util.List;
 
 
 public class EventDetailsEntrantFragment extends Fragment {
@@ -36,6 +39,10 @@ public class EventDetailsEntrantFragment extends Fragment {
     private String eventId;
     private Button joinBtn;
     private Event currentEvent;
+    private String organizerId;
+    private ListenerRegistration requestListener;
+    private boolean queued;
+    private boolean joining;
 
     public EventDetailsEntrantFragment() {
         super(R.layout.fragment_event_details_entrant);
@@ -59,10 +66,22 @@ public class EventDetailsEntrantFragment extends Fragment {
             NavHostFragment.findNavController(this).navigateUp();
         });
 
+        // Joining needs the event, so wait until it has loaded
+        joinBtn.setEnabled(false);
         loadEventDetails(title, desc, capacity, dates, poster);
 
         joinBtn.setOnClickListener(v -> joinEvent());
+        listenForJoinRequest();
+
+    }
 
+    @Override
+    public void onDestroyView() {
+        if (requestListener != null) {
+            requestListener.remove();
+            requestListener = null;
+        }
+        super.onDestroyView();
     }
 
     private void loadEventDetails(TextView title, TextView desc, TextView capacity,
@@ -74,6 +93,7 @@ public class EventDetailsEntrantFragment extends Fragment {
 
                     currentEvent = new Event();
                     currentEvent.setId(doc.getId());
+                    organizerId = doc.getString("organizerId");
 
                     // Build EventDescription manually
                     EventDescription d = new EventDescription();
@@ -89,25 +109,26 @@ public class EventDetailsEntrantFragment extends Fragment {
 
                     currentEvent.setDescription(d);
 
-                    // Load list fields
-                    List<String> registered = (List<String>) doc.get("acceptedList");
-                    List<String> declined = (List<String>) doc.get("declinedList");
-
-                    if (registered == null) registered = new ArrayList<>();
-                    if (declined == null) declined = new ArrayList<>();
-
-                    currentEvent.setRegisteredEntrants(registered);
-                    currentEvent.setDeclinedEntrants(declined);
-
-                    // Firestore may not have waitingList at all
-                    List<String> waitlist = (List<String>) doc.get("waitingList");
-                    if (waitlist == null) waitlist = new ArrayList<>();
-                    currentEvent.setWaitingList(waitlist);
+                    // Load entrant statuses
+                    currentEvent.setEntrantStatuses(EntrantStatusMap.from(doc));
 
                     // Update UI
                     renderUI(title, desc, capacity, dates, poster);
                     updateButtonState();
 
+                    // A waiting list in the subcollection is not on the event; look up just this entrant
+                    String entrantId = Session.getEntrant().getDeviceId();
+                    EntrantStatus status = currentEvent.getStatusOf(entrantId);
+                    if (WaitingListStore.usesSubcollection(doc) && (status == null || !status.holdsSpot())) {
+                        WaitingListStore.isWaiting(eventId, entrantId)
+                                .addOnSuccessListener(waiting -> {
+                                    if (waiting) {
+                                        currentEvent.getEntrantStatuses().set(entrantId, EntrantStatus.WAITING);
+                                        updateButtonState();
+                                    }
+                                });
+                    }
+
                 })
                 .addOnFailureListener(e -> {
                     Toast.makeText(getContext(),
@@ -149,24 +170,32 @@ public class EventDetailsEntrantFragment extends Fragment {
 
         String entrantId = Session.getEntrant().getDeviceId();
 
-        List<String> waitingList = currentEvent.getWaitingList();
-        List<String> registeredList = currentEvent.getRegisteredEntrants();
+        EntrantStatus status = currentEvent.getStatusOf(entrantId);
 
-        if (waitingList == null) waitingList = new ArrayList<>();
-        if (registeredList == null) registeredList = new ArrayList<>();
-
-        if(registeredList.contains(entrantId)) {
+        if (status != null && status.holdsSpot()) {
             joinBtn.setText("You've Been Selected!");
             joinBtn.setEnabled(false);
             joinBtn.setBackgroundResource(R.drawable.join_event_button_grn);
             joinBtn.setTextColor(Color.WHITE);
         }
-        else if (waitingList.contains(entrantId)) {
+        else if (status == EntrantStatus.WAITING) {
             joinBtn.setText("Already on Waitlist");
             joinBtn.setEnabled(false);
             joinBtn.setBackgroundResource(R.drawable.join_event_button_gray);
             joinBtn.setTextColor(Color.WHITE);
         }
+        else if (queued) {
+            joinBtn.setText("Join Requested...");
+            joinBtn.setEnabled(false);
+            joinBtn.setBackgroundResource(R.drawable.join_event_button_gray);
+            joinBtn.setTextColor(Color.WHITE);
+        }
+        else if (joining) {
+            joinBtn.setText("Joining...");
+            joinBtn.setEnabled(false);
+            joinBtn.setBackgroundResource(R.drawable.join_event_button_gray);
+            joinBtn.setTextColor(Color.WHITE);
+        }
         else {
             joinBtn.setText("Join Event");
             joinBtn.setEnabled(true);
@@ -177,38 +206,102 @@ public class EventDetailsEntrantFragment extends Fragment {
     }
 
      private void joinEvent() {
+        if (currentEvent == null) return;
         Entrant entrant = Session.getEntrant();
-        String entrantId = entrant.getDeviceId();
 
-        DocumentReference eventRef = db.collection("events").document(eventId);
+        // The limit, registration window and location are checked in the same transaction as the join
+        joining = true;
+        updateButtonState();
+        WaitingListStore.join(eventId, entrant, LocalDate.now().toString())
+                .addOnSuccessListener(result -> {
+                    joining = false;
+                    showJoinResult(result);
+                })
+                .addOnFailureListener(e -> {
+                    joining = false;
+                    if (AdmissionQueue.isContention(e) && organizerId != null) {
+                        queueJoin(entrant);
+                        return;
+                    }
+                    updateButtonState();
+                    Toast.makeText(getContext(),
+                            "Failed: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                });
+    }
 
-        eventRef.get().addOnSuccessListener(document -> {
+    /**
+     * Queues the join when too many entrants are joining at once; the request listener
+     * reports the outcome once the organizer's app applies it.
+     */
+    private void queueJoin(Entrant entrant) {
+        queued = true;
+        updateButtonState();
+        AdmissionQueue.enqueue(eventId, organizerId, entrant)
+                .addOnSuccessListener(v -> Toast.makeText(getContext(),
+                        "This event is busy. Join requested! We'll confirm your spot shortly.",
+                        Toast.LENGTH_SHORT).show())
+                .addOnFailureListener(e -> {
+                    queued = false;
+                    updateButtonState();
+                    Toast.makeText(getContext(),
+                            "Failed: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                });
+    }
 
-            boolean isLocationRequired = Boolean.TRUE.equals(document.getBoolean("requiredLocation"));
-            boolean entrantLocationValid =
-                    entrant.getLocationShared() && entrant.getLocation() != null;
+    /**
+     * Watches this entrant's join request, if any, and confirms it once it is applied.
+     */
+    private void listenForJoinRequest() {
+        String entrantId = Session.getEntrant().getDeviceId();
+        requestListener = AdmissionQueue.requestRef(eventId, entrantId)
+                .addSnapshotListener((snapshot, e) -> {
+                    if (e != null || snapshot == null || !snapshot.exists()) return;
+
+                    String status = snapshot.getString(AdmissionQueue.STATUS_FIELD);
+                    if (AdmissionQueue.QUEUED.equals(status)) {
+                        // Possibly queued on an earlier visit; the organizer's app applies it
+                        queued = true;
+                        updateButtonState();
+                        return;
+                    }
+                    // Only confirm requests made while this screen was watching
+                    if (!queued) return;
+                    queued = false;
+                    showJoinResult(WaitingListStore.JoinResult.valueOf(status));
+                });
+    }
 
-            // ADD: geolocation validation (from main)
-            if (isLocationRequired && !entrantLocationValid) {
+    private void showJoinResult(WaitingListStore.JoinResult result) {
+        switch (result) {
+            case JOINED:
+                Toast.makeText(getContext(),
+                        "Joined waitlist successfully!", Toast.LENGTH_SHORT).show();
+                if (currentEvent != null) {
+                    currentEvent.getEntrantStatuses().set(Session.getEntrant().getDeviceId(), EntrantStatus.WAITING);
+                }
+                break;
+            case ALREADY_JOINED:
+                Toast.makeText(getContext(),
+                        "You have already joined this event.", Toast.LENGTH_SHORT).show();
+                break;
+            case FULL:
+                Toast.makeText(getContext(),
+                        "The waiting list for this event is full.", Toast.LENGTH_SHORT).show();
+                break;
+            case REGISTRATION_CLOSED:
+                Toast.makeText(getContext(),
+                        "Registration for this event is not open.", Toast.LENGTH_SHORT).show();
+                break;
+            case LOCATION_REQUIRED:
                 Toast.makeText(getContext(),
                         "This event requires your location. Please enable location sharing.",
                         Toast.LENGTH_SHORT).show();
-                return;
-            }
-
-            eventRef.update("waitingList", FieldValue.arrayUnion(entrantId))
-                    .addOnSuccessListener(aVoid -> {
-                        Toast.makeText(getContext(),
-                                "Joined waitlist successfully!", Toast.LENGTH_SHORT).show();
-
-                        if (currentEvent.getWaitingList() == null) currentEvent.setWaitingList(new ArrayList<>());
-
-                        currentEvent.getWaitingList().add(entrantId);
-                        updateButtonState();
-                    })
-                    .addOnFailureListener(e ->
-                            Toast.makeText(getContext(),
-                                    "Failed: " + e.getMessage(), Toast.LENGTH_SHORT).show());
-        });
+                break;
+            case NO_EVENT:
+                Toast.makeText(getContext(),
+                        "This event no longer exists.", Toast.LENGTH_SHORT).show();
+                break;
+        }
+        updateButtonState();
     }
 }
\ No newline at end of file
@@ -18,11 +18,17 @@ import androidx.fragment.app.Fragment;
 import androidx.navigation.fragment.NavHostFragment;
 
 import com.example.summit.R;
+import com.example.summit.model.EntrantStatus;
+import com.example.summit.model.EntrantStatusMap;
 import com.example.summit.model.Notification;
+import com.example.summit.model.ReplacementDraw;
 import com.example.summit.session.Session;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.Date;
 
@@ -85,6 +91,13 @@ public class NotificationsFragment extends Fragment {
 
                         if (status == null) status = "pending";
 
+                        // Overdue invitations can no longer be answered, even before the expiry sweep runs
+                        Long expiresAt = doc.getLong("expiresAt");
+                        if ("pending".equals(status) && expiresAt != null
+                                && expiresAt <= System.currentTimeMillis()) {
+                            status = "expired";
+                        }
+
                         final String fMessage = msg;
                         final Long fTimestamp = timestamp;
                         final String fStatus = status;
@@ -205,23 +218,37 @@ public class NotificationsFragment extends Fragment {
     }
 
     /**
-     * Handles updating Firestore lists for accepted/declined
+     * Handles updating the entrant's status for accepted/declined
+     * <p>
+     * The entrant's {@link EntrantStatus} and the notification status are written in one batch.
+     * Either answer clears the entrant's {@code invitationExpiresAt} deadline.
+     * A decline also frees the entrant's spot and, in the same batch, records a pending
+     * {@link ReplacementDraw} for the organizer's app to invite someone from the waiting list.
      */
     private void handleResponse(String notifId, String eventId, boolean accepted) {
         try {
             String entrantId = Session.getEntrant().getDeviceId();
-            String addTo = accepted ? "acceptedList" : "declinedList";
-            String removeFrom = accepted ? "declinedList" : "acceptedList";
-
-            db.collection("events").document(eventId)
-                    .update(
-                            addTo, FieldValue.arrayUnion(entrantId),
-                            removeFrom, FieldValue.arrayRemove(entrantId)
-                    )
+            EntrantStatus status = accepted ? EntrantStatus.ACCEPTED : EntrantStatus.DECLINED;
+
+            DocumentReference eventRef = db.collection("events").document(eventId);
+            WriteBatch batch = db.batch();
+            // Answered invitations no longer have a deadline
+            FieldPath deadline = FieldPath.of("invitationExpiresAt", entrantId);
+            if (accepted) {
+                batch.update(eventRef,
+                        EntrantStatusMap.fieldFor(entrantId), status.name(),
+                        deadline, FieldValue.delete());
+            } else {
+                batch.update(eventRef,
+                        EntrantStatusMap.fieldFor(entrantId), status.name(),
+                        deadline, FieldValue.delete(),
+                        ReplacementDraw.PENDING_FIELD, FieldValue.increment(1));
+            }
+            batch.update(db.collection("notifications").document(notifId),
+                    "status", accepted ? "accepted" : "declined");
+
+            batch.commit()
                     .addOnSuccessListener(aVoid -> {
-                        db.collection("notifications").document(notifId)
-                                .update("status", accepted ? "accepted" : "declined");
-
                         Toast.makeText(
                                 getContext(),
                                 accepted ? "You accepted the invitation!" : "You declined the invitation.",
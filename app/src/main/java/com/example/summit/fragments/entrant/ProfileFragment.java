@@ -28,19 +28,36 @@ import com.example.summit.MainActivity;
 import com.example.summit.R;
 import com.example.summit.adapters.EntrantEventAdapter;
 import com.example.summit.model.Entrant;
+import com.example.summit.model.EntrantStatus;
+import com.example.summit.model.EntrantStatusMap;
 import com.example.summit.model.Event;
 import com.example.summit.model.EventDescription;
 import com.example.summit.model.Firebase;
+import com.example.summit.model.SchemaMigrator;
+import com.example.summit.model.WaitingListStore;
+import com.example.summit.utils.EventSearchIndex;
+import com.example.summit.utils.FacetCounts;
 import com.example.summit.utils.ProfileEventFilterUtil;
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.GeoPoint;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 
 /**
@@ -74,6 +91,8 @@ public class ProfileFragment extends Fragment {
 
     private List<Event> allUserEvents = new ArrayList<>();
     private List<String> allUserStatuses = new ArrayList<>();
+    private final EventSearchIndex searchIndex = new EventSearchIndex();
+    private final FacetCounts locationCounts = new FacetCounts();
 
     /**
      * Inflates the fragment layout, initializes Firebase, and triggers the setup of UI and data loading.
@@ -211,7 +230,7 @@ public class ProfileFragment extends Fragment {
         searchBtn.setOnClickListener(v -> {
             String keyword = searchInput.getText().toString().trim();
             ProfileEventFilterUtil.FilterResult result =
-                    ProfileEventFilterUtil.searchByKeyword(allUserEvents, allUserStatuses, keyword);
+                    ProfileEventFilterUtil.searchByKeyword(searchIndex, allUserEvents, allUserStatuses, keyword);
             eventAdapter.updateEvents(result.events, result.statuses);
         });
 
@@ -221,6 +240,7 @@ public class ProfileFragment extends Fragment {
                     requireContext(),
                     allUserEvents,
                     allUserStatuses,
+                    locationCounts,
                     new ProfileEventFilterUtil.ProfileFilterCallback() {
                         @Override
                         public void onFilterApplied(List<Event> filteredEvents, List<String> filteredStatuses) {
@@ -237,20 +257,67 @@ public class ProfileFragment extends Fragment {
     }
 
     /**
-     * Queries Firestore for all events and filters them locally to find ones associated with this user.
+     * Queries Firestore for just the events this user is part of.
      * <p>
-     * It checks if the user's Device ID is present in the 'accepted', 'waiting', or 'declined' lists
-     * of any event.
+     * Events where the user's Device ID is accepted, waiting, or declined in the status
+     * map come from one query on that entry of the map. Until {@link SchemaMigrator} has
+     * folded the legacy {@code waitingList}, {@code acceptedList} and {@code declinedList}
+     * arrays into the map, those arrays are queried as well. Events that keep their waiting
+     * list in a subcollection are found through a collection group query on the user's
+     * waiting list documents; any not already loaded are read one by one.
      *
      * @param deviceId The unique Device ID of the current user.
      */
     private void loadUserEvents(String deviceId) {
-        db.collection("events").get()
-                .addOnSuccessListener(querySnapshot -> {
-                    allUserEvents.clear();
-                    allUserStatuses.clear();
+        List<Task<QuerySnapshot>> withStatus = new ArrayList<>();
+        Task<QuerySnapshot> waitingEntries = db.collectionGroup(WaitingListStore.COLLECTION)
+                .whereEqualTo("deviceId", deviceId)
+                .get();
+        // By ID, the order a read of the whole collection had
+        Map<String, DocumentSnapshot> eventDocs = new TreeMap<>();
+        // Events whose waiting list subcollection has this user
+        Set<String> waitingIn = new HashSet<>();
+
+        SchemaMigrator.isBackfilled()
+                .continueWithTask(backfilled -> {
+                    withStatus.add(db.collection("events")
+                            .whereIn(EntrantStatusMap.fieldFor(deviceId), Arrays.asList(
+                                    EntrantStatus.ACCEPTED.name(), EntrantStatus.WAITING.name(),
+                                    EntrantStatus.DECLINED.name()))
+                            .get());
+                    // Events not migrated yet still keep the user in the legacy status arrays
+                    if (!Boolean.TRUE.equals(backfilled.getResult())) {
+                        for (String legacyList : new String[]{"waitingList", "acceptedList", "declinedList"}) {
+                            withStatus.add(db.collection("events").whereArrayContains(legacyList, deviceId).get());
+                        }
+                    }
+                    List<Task<?>> all = new ArrayList<>(withStatus);
+                    all.add(waitingEntries);
+                    return Tasks.whenAllSuccess(all);
+                })
+                .continueWithTask(found -> {
+                    for (Task<QuerySnapshot> query : withStatus) {
+                        for (DocumentSnapshot doc : query.getResult()) {
+                            eventDocs.put(doc.getId(), doc);
+                        }
+                    }
+                    List<Task<DocumentSnapshot>> missing = new ArrayList<>();
+                    for (DocumentSnapshot entry : waitingEntries.getResult()) {
+                        DocumentReference eventRef = entry.getReference().getParent().getParent();
+                        if (eventRef == null) continue;
+                        waitingIn.add(eventRef.getId());
+                        if (!eventDocs.containsKey(eventRef.getId())) missing.add(eventRef.get());
+                    }
+                    return Tasks.<DocumentSnapshot>whenAllSuccess(missing);
+                })
+                .addOnSuccessListener(missingDocs -> {
+                    for (DocumentSnapshot doc : missingDocs) {
+                        if (doc.exists()) eventDocs.put(doc.getId(), doc);
+                    }
 
-                    querySnapshot.forEach(doc -> {
+                    List<Event> events = new ArrayList<>();
+                    List<EntrantStatus> statuses = new ArrayList<>();
+                    for (DocumentSnapshot doc : eventDocs.values()) {
                         Event event = new Event();
                         event.setId(doc.getId());
 
@@ -263,22 +330,41 @@ public class ProfileFragment extends Fragment {
                         d.setEventEnd(doc.getString("eventEnd"));
                         d.setPosterUrl(doc.getString("posterBase64"));
                         event.setDescription(d);
+                        events.add(event);
+
+                        EntrantStatus status = EntrantStatusMap.from(doc).statusOf(deviceId);
+                        if (WaitingListStore.usesSubcollection(doc)
+                                && (status == null || status == EntrantStatus.DECLINED)
+                                && waitingIn.contains(doc.getId())) {
+                            // The waiting list is not on the event
+                            status = EntrantStatus.WAITING;
+                        }
+                        statuses.add(status);
+                    }
 
-                        List<String> acceptedList = (List<String>) doc.get("acceptedList");
-                        List<String> waitingList = (List<String>) doc.get("waitingList");
-                        List<String> declinedList = (List<String>) doc.get("declinedList");
+                    allUserEvents.clear();
+                    allUserStatuses.clear();
 
-                        if (acceptedList != null && acceptedList.contains(deviceId)) {
-                            allUserEvents.add(event);
+                    for (int i = 0; i < events.size(); i++) {
+                        EntrantStatus status = statuses.get(i);
+
+                        if (status == EntrantStatus.ACCEPTED) {
+                            allUserEvents.add(events.get(i));
                             allUserStatuses.add("Selected");
-                        } else if (waitingList != null && waitingList.contains(deviceId)) {
-                            allUserEvents.add(event);
+                        } else if (status == EntrantStatus.WAITING) {
+                            allUserEvents.add(events.get(i));
                             allUserStatuses.add("Waitlist");
-                        } else if (declinedList != null && declinedList.contains(deviceId)) {
-                            allUserEvents.add(event);
+                        } else if (status == EntrantStatus.DECLINED) {
+                            allUserEvents.add(events.get(i));
                             allUserStatuses.add("Declined");
                         }
-                    });
+                    }
+                    searchIndex.sync(allUserEvents);
+                    Map<String, String> locations = new HashMap<>();
+                    for (Event event : allUserEvents) {
+                        locations.put(event.getId(), event.getDescription().getLocation());
+                    }
+                    locationCounts.sync(locations);
 
                     eventAdapter.updateEvents(allUserEvents, allUserStatuses);
 
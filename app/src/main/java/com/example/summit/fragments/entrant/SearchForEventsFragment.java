@@ -21,7 +21,7 @@ import com.example.summit.R;
 import com.example.summit.adapters.EventAdapter;
 import com.example.summit.model.Event;
 import com.example.summit.model.EventDescription;
-import com.example.summit.model.Firebase;
+import com.example.summit.model.EventCatalog;
 import com.example.summit.utils.EventFilterUtil;
 import com.google.firebase.firestore.FirebaseFirestore;
 import java.util.ArrayList;
@@ -56,6 +56,7 @@ public class SearchForEventsFragment extends Fragment {
     private EditText searchInput;
 
     private final List<Event> eventList = new ArrayList<>();
+    private EventCatalog catalog;
 
 
     @Nullable
@@ -70,6 +71,7 @@ public class SearchForEventsFragment extends Fragment {
         recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
 
         db = FirebaseFirestore.getInstance();
+        catalog = EventCatalog.get(requireContext());
 
         adapter = new EventAdapter(requireContext(), event -> {
             Bundle args = new Bundle();
@@ -82,7 +84,8 @@ public class SearchForEventsFragment extends Fragment {
         loadEvents();
 
         view.findViewById(R.id.btn_filter).setOnClickListener(v ->
-                EventFilterUtil.showFilterDialog(requireContext(), eventList, new EventFilterUtil.FilterCallback() {
+                EventFilterUtil.showFilterDialog(requireContext(), eventList, catalog.locations(),
+                        new EventFilterUtil.FilterCallback() {
                     @Override
                     public void onFilterApplied(List<Event> filteredEvents) {
                         adapter.updateEvents(filteredEvents);
@@ -95,12 +98,8 @@ public class SearchForEventsFragment extends Fragment {
                 })
         );
 
-        // Search button
-        view.findViewById(R.id.btn_search).setOnClickListener(v -> {
-            String keyword = searchInput.getText().toString().trim();
-            List<Event> results = EventFilterUtil.searchByKeyword(eventList, keyword);
-            adapter.updateEvents(results);
-        });
+        // Search button; searches the local catalog, so it works offline
+        view.findViewById(R.id.btn_search).setOnClickListener(v -> showSearchResults());
 
         return view;
     }
@@ -111,11 +110,29 @@ public class SearchForEventsFragment extends Fragment {
         loadEvents();
     }
 
+    /**
+     * Shows the events already on the device at once, then fetches what changed
+     * since the last visit and refreshes the list if anything did.
+     */
     private void loadEvents() {
-        Firebase.loadEvents(events -> {
+        showCatalog();
+        catalog.sync().addOnSuccessListener(changed -> {
+            if (changed > 0 && isAdded()) showCatalog();
+        });
+    }
+
+    private void showCatalog() {
+        catalog.search("").addOnSuccessListener(events -> {
             eventList.clear();
             eventList.addAll(events);
-            adapter.updateEvents(events);
+            if (isAdded()) showSearchResults();
+        });
+    }
+
+    private void showSearchResults() {
+        String keyword = searchInput.getText().toString().trim();
+        catalog.search(keyword).addOnSuccessListener(results -> {
+            if (isAdded()) adapter.updateEvents(results);
         });
     }
 }
\ No newline at end of file
@@ -28,12 +28,17 @@ import androidx.navigation.fragment.NavHostFragment;
 
 import com.bumptech.glide.Glide;
 import com.example.summit.R;
+import com.example.summit.model.EntrantStatusMap;
+import com.example.summit.model.EventCatalog;
+import com.example.summit.model.EventDates;
+import com.example.summit.model.WaitingListStore;
 import com.example.summit.session.Session;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Map;
@@ -42,7 +47,7 @@ public class CreateEventFragment extends Fragment {
 
    
     // UI Elements
-    private EditText titleInput, descInput, capacityInput, regStartInput, regEndInput,
+    private EditText titleInput, descInput, capacityInput, maxWaitingListInput, regStartInput, regEndInput,
             locationInput, eventStartInput, eventEndInput;
     private CheckBox requireLocation;
     private ImageView posterImage;
@@ -80,6 +85,7 @@ public class CreateEventFragment extends Fragment {
         titleInput = view.findViewById(R.id.input_title);
         descInput = view.findViewById(R.id.input_description);
         capacityInput = view.findViewById(R.id.input_capacity);
+        maxWaitingListInput = view.findViewById(R.id.input_max_waiting_list);
         regStartInput = view.findViewById(R.id.input_reg_start);
         regEndInput = view.findViewById(R.id.input_reg_end);
         locationInput = view.findViewById(R.id.input_location);
@@ -180,6 +186,7 @@ public class CreateEventFragment extends Fragment {
         String title = titleInput.getText().toString().trim();
         String desc = descInput.getText().toString().trim();
         String cap = capacityInput.getText().toString().trim();
+        String maxWaiting = maxWaitingListInput.getText().toString().trim();
         String regStart = regStartInput.getText().toString().trim();
         String regEnd = regEndInput.getText().toString().trim();
         String location = locationInput.getText().toString().trim();
@@ -201,6 +208,9 @@ public class CreateEventFragment extends Fragment {
         eventData.put("title", title);
         eventData.put("description", desc);
         eventData.put("capacity", Integer.parseInt(cap));
+        if (!TextUtils.isEmpty(maxWaiting)) {
+            eventData.put(WaitingListStore.LIMIT_FIELD, Long.parseLong(maxWaiting));
+        }
         eventData.put("registrationStart", regStart);
         eventData.put("registrationEnd", regEnd);
         eventData.put("location", location);
@@ -209,15 +219,20 @@ public class CreateEventFragment extends Fragment {
         eventData.put("posterBase64", posterBase64);
         eventData.put("organizerId", organizerId);
 
-        // initialize empty lists
-        eventData.put("waitingList", new ArrayList<>());
-        eventData.put("selectedList", new ArrayList<>());
-        eventData.put("acceptedList", new ArrayList<>());
+        // initialize empty entrant statuses; the waiting list lives in a subcollection
+        eventData.put(EntrantStatusMap.FIELD, new HashMap<>());
+        eventData.put(WaitingListStore.STORAGE_FIELD, WaitingListStore.STORAGE_SUBCOLLECTION);
+        eventData.put(WaitingListStore.COUNT_FIELD, 0);
         eventData.put("requiredLocation", selectedRequiredLocation);
-
-        db.collection("events")
-                .add(eventData)
-                .addOnSuccessListener(docRef -> {
+        eventData.putAll(EventDates.typedFields(eventData));
+
+        // The event and its searchable catalog entry are written together
+        DocumentReference docRef = db.collection("events").document();
+        WriteBatch batch = db.batch();
+        batch.set(docRef, eventData);
+        batch.set(EventCatalog.entryRef(docRef.getId()), EventCatalog.entryFor(eventData));
+        batch.commit()
+                .addOnSuccessListener(aVoid -> {
                     Bundle args = new Bundle();
                     args.putString("eventId", docRef.getId());
                     NavHostFragment.findNavController(this)
@@ -18,8 +18,14 @@ import androidx.navigation.fragment.NavHostFragment;
 
 import com.bumptech.glide.Glide;
 import com.example.summit.R;
+import com.example.summit.model.EventCatalog;
+import com.example.summit.model.EventDates;
+import com.example.summit.model.WaitingListStore;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.io.InputStream;
 import java.util.HashMap;
@@ -31,7 +37,7 @@ public class EditEventFragment extends Fragment {
     private FirebaseFirestore db = FirebaseFirestore.getInstance();
 
     private ImageView posterImage;
-    private EditText titleInput, descInput, capacityInput, regStartInput, regEndInput;
+    private EditText titleInput, descInput, capacityInput, maxWaitingListInput, regStartInput, regEndInput;
     private Button changePosterBtn, saveBtn;
 
     private Uri selectedImageUri;
@@ -60,6 +66,7 @@ public class EditEventFragment extends Fragment {
         titleInput = view.findViewById(R.id.edit_title);
         descInput = view.findViewById(R.id.edit_description);
         capacityInput = view.findViewById(R.id.edit_capacity);
+        maxWaitingListInput = view.findViewById(R.id.edit_max_waiting_list);
         regStartInput = view.findViewById(R.id.edit_registration_start);
         regEndInput = view.findViewById(R.id.edit_registration_end);
 
@@ -95,6 +102,8 @@ public class EditEventFragment extends Fragment {
         titleInput.setText(doc.getString("title"));
         descInput.setText(doc.getString("description"));
         capacityInput.setText(String.valueOf(doc.getLong("capacity")));
+        Long maxWaiting = doc.getLong(WaitingListStore.LIMIT_FIELD);
+        maxWaitingListInput.setText(maxWaiting != null ? String.valueOf(maxWaiting) : "");
 
         regStartInput.setText(doc.getString("registrationStart"));
         regEndInput.setText(doc.getString("registrationEnd"));
@@ -141,14 +150,20 @@ public class EditEventFragment extends Fragment {
         updates.put("title", titleInput.getText().toString());
         updates.put("description", descInput.getText().toString());
         updates.put("capacity", Integer.parseInt(capacityInput.getText().toString()));
+        String maxWaiting = maxWaitingListInput.getText().toString().trim();
+        updates.put(WaitingListStore.LIMIT_FIELD,
+                maxWaiting.isEmpty() ? FieldValue.delete() : Long.parseLong(maxWaiting));
         updates.put("registrationStart", regStartInput.getText().toString());
         updates.put("registrationEnd", regEndInput.getText().toString());
+        updates.putAll(EventDates.typedFields(updates));
 
         if (posterBase64 != null)
             updates.put("posterBase64", posterBase64);
 
-        db.collection("events").document(eventId)
-                .update(updates)
+        WriteBatch batch = db.batch();
+        batch.update(db.collection("events").document(eventId), updates);
+        batch.set(EventCatalog.entryRef(eventId), EventCatalog.entryFor(updates), SetOptions.merge());
+        batch.commit()
                 .addOnSuccessListener(aVoid -> {
                     Toast.makeText(getContext(), "Event updated successfully!", Toast.LENGTH_SHORT).show();
                     NavHostFragment.findNavController(this).popBackStack();
@@ -23,25 +23,33 @@ import androidx.navigation.fragment.NavHostFragment;
 import com.bumptech.glide.Glide;
 import com.example.summit.R;
 import com.example.summit.model.Entrant;
+import com.example.summit.model.EntrantImport;
+import com.example.summit.model.EntrantStatus;
+import com.example.summit.model.EntrantStatusMap;
 import com.example.summit.model.Event;
 import com.example.summit.model.EventDescription;
-import com.example.summit.model.LotterySystem;
-import com.example.summit.model.WaitingList;
+import com.example.summit.model.LotteryDraw;
+import com.example.summit.model.StreamingLottery;
+import com.example.summit.model.WaitingListStore;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FieldPath;
-import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QuerySnapshot;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * A {@link Fragment} for an organizer to view the detailed dashboard for a specific event.
@@ -55,10 +63,14 @@ public class EventDetailsOrganizerFragment extends Fragment {
     private TextView titleText, descText, regDatesText, capacityText,
             waitingCountText, invitedCountText, acceptedCountText;
     private ImageView posterImage;
-    private Button manageEntrantsBtn, runLotteryBtn, editEventBtn, btnViewQr, exportEventBtn, btnViewMap;
+    private Button manageEntrantsBtn, runLotteryBtn, editEventBtn, btnViewQr, exportEventBtn, btnViewMap,
+            importEntrantsBtn;
     private List<Entrant> entrants;
+    private EntrantStatusMap entrantStatuses;
     private DocumentSnapshot eventSnapshot;
     private String eventId;
+    // ID of a lottery draw that has not been confirmed yet; reused when retrying
+    private String pendingDrawId;
 
     private FirebaseFirestore db = FirebaseFirestore.getInstance();
 
@@ -73,6 +85,15 @@ public class EventDetailsOrganizerFragment extends Fragment {
             }
     );
 
+    private final ActivityResultLauncher<String[]> importCsvLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(),
+            uri -> {
+                if (uri != null) {
+                    importEntrants(uri);
+                }
+            }
+    );
+
     public EventDetailsOrganizerFragment() {
         super(R.layout.fragment_event_details_organizer);
     }
@@ -128,18 +149,25 @@ public class EventDetailsOrganizerFragment extends Fragment {
         btnViewQr = view.findViewById(R.id.button_view_qr);
         exportEventBtn = view.findViewById(R.id.button_export_event);
         btnViewMap = view.findViewById(R.id.button_view_map);
+        importEntrantsBtn = view.findViewById(R.id.button_import_entrants);
     }
 
     /**
      * Fetches the event document from Firestore using {@code eventId} and
      * calls {@link #updateUIFromFirestore(DocumentSnapshot)} on success.
+     * <p>
+     * Entrant profiles are loaded right away only when the event keeps its waiting
+     * list inline; a waiting list in the subcollection is read when it is exported.
      */
     private void loadEventData() {
         db.collection("events").document(eventId).get()
                 .addOnSuccessListener(documentSnapshot -> {
                     eventSnapshot = documentSnapshot;
+                    entrants = null;
                     updateUIFromFirestore(documentSnapshot);
-                    loadEntrantsFromIds(documentSnapshot);
+                    if (!WaitingListStore.usesSubcollection(documentSnapshot)) {
+                        loadEntrants(documentSnapshot);
+                    }
                 })
                 .addOnFailureListener(error ->
                         Toast.makeText(getContext(), "Load failed: " + error.getMessage(),
@@ -147,10 +175,25 @@ public class EventDetailsOrganizerFragment extends Fragment {
     }
 
     /**
-     * Fetches full {@link Entrant} objects from Firestore based on the IDs found in the event lists.
+     * Loads every entrant's status and profile into {@code entrantStatuses} and {@code entrants}.
      * <p>
-     * This method aggregates IDs from the {@code waitingList}, {@code acceptedList},
-     * {@code declinedList}, and {@code selectedList}.
+     * Statuses come from {@link WaitingListStore#loadStatuses(DocumentSnapshot)}, which
+     * reads a waiting list kept in the subcollection one page at a time.
+     *
+     * @param eventDoc The {@link DocumentSnapshot} of the current event.
+     * @return A task holding the loaded entrants.
+     */
+    private Task<List<Entrant>> loadEntrants(DocumentSnapshot eventDoc) {
+        return WaitingListStore.loadStatuses(eventDoc)
+                .onSuccessTask(statuses -> {
+                    entrantStatuses = statuses;
+                    return loadEntrantsFromIds(new ArrayList<>(statuses.ids()));
+                })
+                .addOnSuccessListener(loaded -> entrants = loaded);
+    }
+
+    /**
+     * Fetches full {@link Entrant} objects from Firestore based on their IDs.
      * <p>
      * <b>Implementation Note:</b>
      * Firestore's {@code whereIn} query is limited to a maximum of 10 items per query.
@@ -158,24 +201,12 @@ public class EventDetailsOrganizerFragment extends Fragment {
      * {@link Task} for each chunk, and executes them in parallel.
      * The results are aggregated only after all tasks complete successfully.
      *
-     * @param eventDoc The {@link DocumentSnapshot} of the current event containing the list arrays.
+     * @param ids Device IDs of the entrants to fetch.
+     * @return A task holding the fetched entrants.
      */
-    private void loadEntrantsFromIds(DocumentSnapshot eventDoc) {
-        List<String> ids = new ArrayList<>();
-
-        List<String> waiting  = (List<String>) eventDoc.get("waitingList");
-        List<String> accepted = (List<String>) eventDoc.get("acceptedList");
-        List<String> declined = (List<String>) eventDoc.get("declinedList");
-        List<String> selected = (List<String>) eventDoc.get("selectedList");
-
-        if (waiting  != null) ids.addAll(waiting);
-        if (accepted != null) ids.addAll(accepted);
-        if (declined != null) ids.addAll(declined);
-        if (selected != null) ids.addAll(selected);
-
+    private Task<List<Entrant>> loadEntrantsFromIds(List<String> ids) {
         if (ids.isEmpty()) {
-            entrants = new ArrayList<>();
-            return;
+            return Tasks.forResult(new ArrayList<>());
         }
 
         List<Task<QuerySnapshot>> tasks = new ArrayList<>();
@@ -190,12 +221,13 @@ public class EventDetailsOrganizerFragment extends Fragment {
             tasks.add(task);
         }
 
-        Tasks.whenAllSuccess(tasks).addOnSuccessListener(results -> {
-            entrants = new ArrayList<>();
+        return Tasks.whenAllSuccess(tasks).onSuccessTask(results -> {
+            List<Entrant> loaded = new ArrayList<>();
             for (Object obj : results) {
                 QuerySnapshot snapshot = (QuerySnapshot) obj;
-                entrants.addAll(snapshot.toObjects(Entrant.class));
+                loaded.addAll(snapshot.toObjects(Entrant.class));
             }
+            return Tasks.forResult(loaded);
         });
     }
 
@@ -232,9 +264,10 @@ public class EventDetailsOrganizerFragment extends Fragment {
         regDatesText.setText("Registration: " + regStart + " - " + regEnd);
         capacityText.setText("Capacity: " + capacity);
 
-        long waiting = getCount(doc, "waitingList");
-        long invited = getCount(doc, "invited");
-        long accepted = getCount(doc, "accepted");
+        EntrantStatusMap statuses = EntrantStatusMap.from(doc);
+        long waiting = WaitingListStore.waitingCount(doc);
+        long invited = statuses.countHoldingSpots();
+        long accepted = statuses.count(EntrantStatus.ACCEPTED);
 
         waitingCountText.setText("Waiting: " + waiting);
         invitedCountText.setText("Invited: " + invited);
@@ -246,18 +279,6 @@ public class EventDetailsOrganizerFragment extends Fragment {
 //                .into(posterImage);
     }
 
-    /**
-     * Helper to safely get the size of a list field from a {@link DocumentSnapshot}.
-     *
-     * @param doc The Firestore document.
-     * @param field The name of the array/list field.
-     * @return The size of the list, or 0 if the field is null or missing.
-     */
-    private long getCount(DocumentSnapshot doc, String field) {
-        return doc.get(field) != null ?
-                ((java.util.List<?>) doc.get(field)).size() : 0;
-    }
-
     /**
      * Configures click listeners for all primary action buttons
      * (Manage Entrants, Run Lottery, Edit, View QR).
@@ -296,25 +317,94 @@ public class EventDetailsOrganizerFragment extends Fragment {
         });
 
         exportEventBtn.setOnClickListener(v -> {
-            if (entrants == null || eventSnapshot == null) {
+            if (eventSnapshot == null) {
                 Toast.makeText(getContext(), "Data is still loading...", Toast.LENGTH_SHORT).show();
                 return;
             }
-
-            if (entrants.isEmpty()) {
-                Toast.makeText(getContext(), "No entrants to export", Toast.LENGTH_SHORT).show();
+            if (entrants != null) {
+                exportCsv();
                 return;
             }
-            currentCsvContent = generateCSV(entrants, eventSnapshot);
-
-            Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
-            intent.addCategory(Intent.CATEGORY_OPENABLE);
-            intent.setType("text/csv");
-            intent.putExtra(Intent.EXTRA_TITLE, "event_entrants.csv");
 
-            saveCsvLauncher.launch(intent);
+            // Entrants are not loaded yet, e.g. the waiting list is in the subcollection
+            exportEventBtn.setEnabled(false);
+            loadEntrants(eventSnapshot)
+                    .addOnSuccessListener(loaded -> {
+                        exportEventBtn.setEnabled(true);
+                        exportCsv();
+                    })
+                    .addOnFailureListener(e -> {
+                        exportEventBtn.setEnabled(true);
+                        Toast.makeText(getContext(), "Load failed: " + e.getMessage(),
+                                Toast.LENGTH_SHORT).show();
+                    });
         });
 
+        importEntrantsBtn.setOnClickListener(v ->
+                importCsvLauncher.launch(new String[]{"text/csv", "text/comma-separated-values", "text/plain"}));
+
+    }
+
+    /**
+     * Imports a CSV file of entrants into this event's waiting list with {@link EntrantImport}.
+     * <p>
+     * The import is named after the event and the file, so importing the same file
+     * again after a failure resumes from the last chunk that committed.
+     *
+     * @param uri The CSV file chosen by the organizer.
+     */
+    private void importEntrants(Uri uri) {
+        Reader csv;
+        try {
+            InputStream in = requireContext().getContentResolver().openInputStream(uri);
+            if (in == null) throw new IOException("Cannot open " + uri);
+            csv = new InputStreamReader(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Toast.makeText(getContext(), "Error opening file", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        String importId = eventId + "_" + UUID.nameUUIDFromBytes(uri.toString().getBytes(StandardCharsets.UTF_8));
+        importEntrantsBtn.setEnabled(false);
+        importEntrantsBtn.setText("Importing...");
+        EntrantImport.run(eventId, importId, csv, (committed, rejected) ->
+                        importEntrantsBtn.post(() -> importEntrantsBtn.setText(
+                                "Importing... " + committed + " saved, " + rejected + " skipped")))
+                .addOnSuccessListener(report -> {
+                    importEntrantsBtn.setEnabled(true);
+                    importEntrantsBtn.setText("Import Entrants");
+                    Toast.makeText(getContext(), "Imported " + report.getAdded() + " new entrant(s), "
+                                    + report.getUpdated() + " already joined, skipped " + report.getRejected() + " row(s)",
+                            Toast.LENGTH_LONG).show();
+                    for (String rejection : report.getRejections()) {
+                        Log.w("EntrantImport", rejection);
+                    }
+                    loadEventData();
+                })
+                .addOnFailureListener(e -> {
+                    importEntrantsBtn.setEnabled(true);
+                    importEntrantsBtn.setText("Import Entrants");
+                    Toast.makeText(getContext(), "Import stopped: " + e.getMessage()
+                            + ". Import the same file again to resume.", Toast.LENGTH_LONG).show();
+                });
+    }
+
+    /**
+     * Builds the CSV from the loaded entrants and asks the user where to save it.
+     */
+    private void exportCsv() {
+        if (entrants.isEmpty()) {
+            Toast.makeText(getContext(), "No entrants to export", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        currentCsvContent = generateCSV(entrants, entrantStatuses);
+
+        Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("text/csv");
+        intent.putExtra(Intent.EXTRA_TITLE, "event_entrants.csv");
+
+        saveCsvLauncher.launch(intent);
     }
 
     /**
@@ -322,38 +412,25 @@ public class EventDetailsOrganizerFragment extends Fragment {
      * <p>
      * The CSV format is: <code>Name,Email,Status</code>.
      * <p>
-     * The "Status" field is determined by checking which list (Waiting, Declined, Selected, or Accepted)
-     * the entrant's device ID currently resides in within the {@code eventDoc}.
+     * The "Status" field is the entrant's {@link EntrantStatus} label, looked up by device ID
+     * in {@code statuses}.
      *
      * @param entrants  The list of {@link Entrant} objects to include in the report.
-     * @param eventDoc  The {@link DocumentSnapshot} of the event, used to determine the
+     * @param statuses  The event's entrant statuses, used to determine the
      * status (e.g., "Waiting", "Selected") of each entrant.
      * @return A String containing the formatted CSV data, including a header row.
      */
-    private static String generateCSV(List<Entrant> entrants, DocumentSnapshot eventDoc) {
+    private static String generateCSV(List<Entrant> entrants, EntrantStatusMap statuses) {
         StringBuilder csv = new StringBuilder();
         csv.append("Name,Email,Status\n");
 
-        List<String> waiting = eventDoc.get("waitingList") != null ? (List<String>) eventDoc.get("waitingList") : new ArrayList<>();
-        List<String> declined = eventDoc.get("declinedList") != null ? (List<String>) eventDoc.get("declinedList") : new ArrayList<>();
-        List<String> selected = eventDoc.get("selectedList") != null ? (List<String>) eventDoc.get("selectedList") : new ArrayList<>();
-        String status;
-
         for (Entrant entrant: entrants) {
-            String id = entrant.getDeviceId();
-
-            if (waiting.contains(id)) {
-                status = "Waiting";
-            } else if (declined.contains(id)) {
-                status = "Declined";
-            } else if (selected.contains(id)) {
-                status = "Selected";
-            } else {
-                status = "Accepted";
-            }
+            EntrantStatus status = statuses.statusOf(entrant.getDeviceId());
+            if (status == null) status = EntrantStatus.ACCEPTED;
+
             csv.append(entrant.getName()).append(",");
             csv.append(entrant.getEmail()).append(",");
-            csv.append(status).append("\n");
+            csv.append(status.getLabel()).append("\n");
         }
 
         return csv.toString();
@@ -388,90 +465,70 @@ public class EventDetailsOrganizerFragment extends Fragment {
     /**
      * Executes the lottery logic.
      *
-     * Fetches the event, calculates remaining capacity, and samples entrants
-     * from the {@code waitingList}. It then updates Firestore, moving selected
-     * entrants from {@code waitingList} to {@code selectedList}, and triggers
-     * {@link #sendSelectionNotifications(List, String)}.
+     * Runs a {@link LotteryDraw} for every open spot in the event. The draw checks
+     * capacity, marks the drawn entrants {@link EntrantStatus#SELECTED}, logs the
+     * draw and writes their invitations in a single
+     * Firestore transaction.
+     * <p>
+     * Events with {@code waitingListStorage} set to {@code "subcollection"} are drawn
+     * with a {@link StreamingLottery}, which reads the waiting list a page at a time.
+     * <p>
+     * The draw ID is kept until the draw is confirmed, so pressing the button again
+     * after a failure retries the same draw and can never apply it twice.
      */
     private void runLottery() {
-        db.collection("events").document(eventId).get()
-                .addOnSuccessListener(doc -> {
-                    if (!doc.exists()) return;
-
-                    // Get event fields
-                    Long capacityLong = doc.getLong("capacity");
-                    List<String> waitingList = (List<String>) doc.get("waitingList");
-                    List<String> selectedList = (List<String>) doc.get("selectedList");
-
-                    if (waitingList == null || waitingList.isEmpty()) {
-                        Toast.makeText(getContext(), "No entrants in waiting list", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-
-                    int capacity = capacityLong != null ? capacityLong.intValue() : 0;
-                    int remaining = capacity - (selectedList != null ? selectedList.size() : 0);
-
-                    if (remaining <= 0) {
-                        Toast.makeText(getContext(), "Event is already full!", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-
-                    WaitingList wl = new WaitingList();
-                    for (String entrantId : waitingList) {
-                        wl.addEntrant(new Entrant(entrantId));
-                    }
-
-                    LotterySystem lottery = new LotterySystem(capacity);
-                    List<Entrant> invited = lottery.sampleEntrants(wl, remaining);
+        if (pendingDrawId == null) {
+            pendingDrawId = UUID.randomUUID().toString();
+        }
+        String drawId = pendingDrawId;
+
+        // Use full profiles when they are loaded so weight policies can read them;
+        // otherwise the draw loads them itself if the event draws by city
+        Map<String, Entrant> profiles = null;
+        if (entrants != null) {
+            profiles = new HashMap<>();
+            for (Entrant e : entrants) {
+                profiles.put(e.getDeviceId(), e);
+            }
+        }
 
-                    List<String> invitedIds = new ArrayList<>();
-                    for (Entrant e : invited) {
-                        invitedIds.add(e.getDeviceId());
+        // Events whose waiting list lives in the subcollection are drawn by streaming it
+        boolean streaming = eventSnapshot != null && WaitingListStore.usesSubcollection(eventSnapshot);
+        Task<LotteryDraw.Result> draw = streaming
+                ? StreamingLottery.run(eventId, drawId)
+                : LotteryDraw.run(eventId, drawId, profiles);
+
+        runLotteryBtn.setEnabled(false);
+        draw
+                .addOnSuccessListener(result -> {
+                    pendingDrawId = null;
+                    runLotteryBtn.setEnabled(true);
+
+                    switch (result.getStatus()) {
+                        case APPLIED:
+                        case ALREADY_APPLIED:
+                            Toast.makeText(getContext(),
+                                    "Lottery run successfully! " + result.getInvitedIds().size() + " entrants selected.",
+                                    Toast.LENGTH_SHORT).show();
+                            loadEventData();
+                            break;
+                        case EMPTY_WAITING_LIST:
+                            Toast.makeText(getContext(), "No entrants in waiting list", Toast.LENGTH_SHORT).show();
+                            break;
+                        case FULL:
+                            Toast.makeText(getContext(), "Event is already full!", Toast.LENGTH_SHORT).show();
+                            break;
+                        case NOT_FOUND:
+                            break;
                     }
-
-                    db.collection("events").document(eventId)
-                            .update(
-                                    "selectedList", FieldValue.arrayUnion(invitedIds.toArray()),
-                                    "waitingList", FieldValue.arrayRemove(invitedIds.toArray())
-                            )
-                            .addOnSuccessListener(aVoid -> {
-                                Toast.makeText(getContext(),
-                                        "Lottery run successfully! " + invitedIds.size() + " entrants selected.",
-                                        Toast.LENGTH_SHORT).show();
-
-                                sendSelectionNotifications(invitedIds, doc.getString("title"));
-                            })
-                            .addOnFailureListener(e ->
-                                    Toast.makeText(getContext(), "Error updating Firestore: " + e.getMessage(),
-                                            Toast.LENGTH_SHORT).show()
-                            );
+                })
+                .addOnFailureListener(e -> {
+                    runLotteryBtn.setEnabled(true);
+                    Toast.makeText(getContext(), "Error updating Firestore: " + e.getMessage(),
+                            Toast.LENGTH_SHORT).show();
                 });
     }
 
-    /**
-     * Creates and saves a new notification document in the "notifications"
-     * collection for each newly invited entrant.
-     *
-     * @param invitedIds List of entrant IDs who were selected.
-     * @param eventTitle The title of the event, for the notification message.
-     */
-    private void sendSelectionNotifications(List<String> invitedIds, String eventTitle) {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        long timestamp = System.currentTimeMillis();
-
-        for (String entrantId : invitedIds) {
-            Map<String, Object> notif = new HashMap<>();
-            notif.put("entrantId", entrantId);
-            notif.put("eventId", eventId);
-            notif.put("eventTitle", eventTitle);
-            notif.put("message", "You have been selected for \"" + eventTitle + "\"! Please accept or decline.");
-            notif.put("timestamp", timestamp);
-            notif.put("status", "pending");
-
-            db.collection("notifications").add(notif);
-        }
-    }
-
 }
 
 
@@ -15,16 +15,17 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.summit.R;
 import com.example.summit.adapters.EntrantAdapter;
+import com.google.android.gms.tasks.Tasks;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 import com.example.summit.model.Entrant;
+import com.example.summit.model.EntrantStatusMap;
+import com.example.summit.model.WaitingListStore;
 
 /**
  * A {@link Fragment} for an organizer to view a list of all entrants
@@ -79,8 +80,9 @@ public class ManageEntrantsFragment extends Fragment {
     /**
      * Loads all entrants for the current event.
      *
-     * Fetches the event document, aggregates all unique entrant IDs from
-     * the 'waitingList', 'selectedList', 'acceptedList', and 'declinedList' fields.
+     * Fetches the event document and takes every entrant ID from its
+     * {@link EntrantStatusMap}, reading a waiting list kept in the subcollection
+     * a page at a time (see {@link WaitingListStore}).
      * It then fetches each entrant's document from the "entrants" collection
      * and adds them to the {@link EntrantAdapter}.
      */
@@ -88,20 +90,12 @@ public class ManageEntrantsFragment extends Fragment {
         db.collection("events")
                 .document(eventId)
                 .get()
-                .addOnSuccessListener(doc -> {
-                    if (!doc.exists()) return;
-
-                    List<String> waitingList = (List<String>) doc.get("waitingList");
-                    List<String> selectedList = (List<String>) doc.get("selectedList");
-                    List<String> acceptedList = (List<String>) doc.get("acceptedList");
-                    List<String> declinedList = (List<String>) doc.get("declinedList");
-
-// Combine all entrants
-                    Set<String> waitingIds = new HashSet<>();
-                    if (waitingList != null) waitingIds.addAll(waitingList);
-                    if (selectedList != null) waitingIds.addAll(selectedList);
-                    if (acceptedList != null) waitingIds.addAll(acceptedList);
-                    if (declinedList != null) waitingIds.addAll(declinedList);
+                .onSuccessTask(doc -> doc.exists()
+                        ? WaitingListStore.loadStatuses(doc)
+                        : Tasks.forResult(new EntrantStatusMap()))
+                .addOnSuccessListener(statuses -> {
+                    // Every entrant, whatever their status
+                    Set<String> waitingIds = statuses.ids();
 
                     if (waitingIds == null || waitingIds.isEmpty()) {
                         Toast.makeText(getContext(), "No entrants yet", Toast.LENGTH_SHORT).show();
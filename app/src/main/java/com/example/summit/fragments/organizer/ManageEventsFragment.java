@@ -1,9 +1,11 @@
 package com.example.summit.fragments.organizer;
 
+import android.app.AlertDialog;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Button;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
@@ -15,6 +17,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.summit.R;
 import com.example.summit.adapters.EventAdapter;
+import com.example.summit.model.BatchLottery;
 import com.example.summit.model.Event;
 import com.example.summit.model.EventDescription;
 import com.example.summit.session.Session;
@@ -22,6 +25,7 @@ import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,7 +34,8 @@ import java.util.List;
  *
  * This fragment queries the "events" collection based on the organizer's ID
  * (from the {@link Session}) and displays them in a {@link RecyclerView}.
- * It also ensures the "Add Event" FAB is visible.
+ * It also ensures the "Add Event" FAB is visible, and lets the organizer run the
+ * lottery for all of their closed events at once.
  */
 public class ManageEventsFragment extends Fragment {
 
@@ -87,6 +92,37 @@ public class ManageEventsFragment extends Fragment {
 
         recyclerView.setAdapter(adapter);
         loadMyEvents();
+
+        Button runAllButton = view.findViewById(R.id.btn_run_all_lotteries);
+        runAllButton.setOnClickListener(v -> runAllLotteries(runAllButton));
+    }
+
+    /**
+     * Runs the lottery for every event of this organizer whose registration has closed,
+     * then shows a summary for each event.
+     */
+    private void runAllLotteries(Button button) {
+        String organizerId = Session.getOrganizer().getDeviceId();
+        button.setEnabled(false);
+
+        BatchLottery.runClosedEvents(organizerId, LocalDate.now().toString())
+                .addOnSuccessListener(report -> {
+                    button.setEnabled(true);
+                    if (!isAdded()) return;
+                    String summary = report.getEvents().isEmpty()
+                            ? "No events have closed registration."
+                            : report.toText();
+                    new AlertDialog.Builder(requireContext())
+                            .setTitle("Lottery Results (" + report.getTotalInvited() + " invited)")
+                            .setMessage(summary)
+                            .setPositiveButton("OK", null)
+                            .show();
+                })
+                .addOnFailureListener(e -> {
+                    button.setEnabled(true);
+                    Toast.makeText(getContext(), "Failed to run lotteries: " + e.getMessage(),
+                            Toast.LENGTH_SHORT).show();
+                });
     }
 
     /**
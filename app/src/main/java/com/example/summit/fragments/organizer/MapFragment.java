@@ -19,6 +19,9 @@ import androidx.fragment.app.Fragment;
 import androidx.navigation.fragment.NavHostFragment;
 
 import com.example.summit.R;
+import com.example.summit.model.EntrantStatusMap;
+import com.example.summit.model.WaitingListStore;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.ArrayList;
@@ -101,8 +104,8 @@ public class MapFragment extends Fragment {
      * Steps:
      * <ol>
      * <li>Fetches the Event document.</li>
-     * <li>Aggregates user IDs from 'waitingList', 'acceptedList', 'selectedList', and 'declinedList'.</li>
-     * <li>Maps each User ID to their status (e.g., "ID_123" -> "Waiting").</li>
+     * <li>Reads the event's {@link EntrantStatusMap}, paging through a waiting list kept in the subcollection.</li>
+     * <li>Maps each User ID to their status label (e.g., "ID_123" -> "Waiting").</li>
      * <li>Iterates through the map and calls {@link #fetchAndPlotEntrant} for each user.</li>
      * <li>Uses an {@link AtomicInteger} counter to detect when all asynchronous fetches are complete to trigger the zoom.</li>
      * </ol>
@@ -111,14 +114,16 @@ public class MapFragment extends Fragment {
         if (eventId == null) return;
 
         db.collection("events").document(eventId).get()
-                .addOnSuccessListener(document -> {
-                    if (document.exists()) {
+                .onSuccessTask(document -> document.exists()
+                        ? WaitingListStore.loadStatuses(document)
+                        : Tasks.forResult((EntrantStatusMap) null))
+                .addOnSuccessListener(statuses -> {
+                    if (statuses != null) {
                         Map<String, String> entrantStatusMap = new HashMap<>();
 
-                        fillStatusMap(entrantStatusMap, document, "acceptedList", "Accepted");
-                        fillStatusMap(entrantStatusMap, document, "selectedList", "Selected");
-                        fillStatusMap(entrantStatusMap, document, "waitingList", "Waiting");
-                        fillStatusMap(entrantStatusMap, document, "declinedList", "Declined");
+                        for (String id : statuses.ids()) {
+                            entrantStatusMap.put(id, statuses.statusOf(id).getLabel());
+                        }
 
                         if (!entrantStatusMap.isEmpty()) {
 
@@ -142,23 +147,6 @@ public class MapFragment extends Fragment {
                 });
     }
 
-    /**
-     * Helper method to extract a list of IDs from a Firestore document and add them to the status map.
-     *
-     * @param map         The master map to populate.
-     * @param doc         The Event document snapshot.
-     * @param fieldName   The name of the array field in Firestore (e.g., "waitingList").
-     * @param statusLabel The human-readable status to assign (e.g., "Waiting").
-     */
-    private void fillStatusMap(Map<String, String> map, com.google.firebase.firestore.DocumentSnapshot doc, String fieldName, String statusLabel) {
-        List<String> list = (List<String>) doc.get(fieldName);
-        if (list != null) {
-            for (String id : list) {
-                map.put(id, statusLabel);
-            }
-        }
-    }
-
     /**
      * Fetches an individual Entrant's profile, verifies privacy settings, and adds a marker.
      *
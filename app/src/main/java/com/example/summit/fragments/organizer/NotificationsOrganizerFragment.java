@@ -13,7 +13,13 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
 import com.example.summit.R;
+import com.example.summit.model.EntrantStatus;
+import com.example.summit.model.EntrantStatusMap;
+import com.example.summit.model.WaitingListStore;
 import com.example.summit.session.Session;
+import com.example.summit.utils.RoaringBitmap;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.ArrayList;
@@ -96,7 +102,7 @@ public class NotificationsOrganizerFragment extends Fragment {
      *
      * Gathers the message and target selections. Fetches the target event(s)
      * and determines the recipient list based on the selected group
-     * (e.g., "waitingList"). Creates a new document in the "notifications"
+     * (e.g., "Waiting"). Creates a new document in the "notifications"
      * collection for each recipient.
      */
     private void sendNotification() {
@@ -124,43 +130,12 @@ public class NotificationsOrganizerFragment extends Fragment {
                         if (!chosenEventId.equals("ALL") && !chosenEventId.equals(eventId))
                             continue;
 
-                        List<String> recipients = new ArrayList<>();
-
-                        switch (targetGroup) {
-                            case "Waiting":
-                                recipients = (List<String>) eventDoc.get("waitingList");
-                                break;
-                            case "Selected":
-                                recipients = (List<String>) eventDoc.get("selectedList");
-                                break;
-                            case "Accepted":
-                                recipients = (List<String>) eventDoc.get("acceptedList");
-                                break;
-                            case "All Entrants":
-                                recipients = new ArrayList<>();
-                                if (eventDoc.get("waitingList") != null)
-                                    recipients.addAll((List<String>) eventDoc.get("waitingList"));
-                                if (eventDoc.get("selectedList") != null)
-                                    recipients.addAll((List<String>) eventDoc.get("selectedList"));
-                                if (eventDoc.get("acceptedList") != null)
-                                    recipients.addAll((List<String>) eventDoc.get("acceptedList"));
-                                break;
-                        }
-
-                        if (recipients == null || recipients.isEmpty())
-                            continue;
-
-                        for (String entrantId : recipients) {
-                            Map<String, Object> notification = new HashMap<>();
-                            notification.put("eventId", eventId);
-                            notification.put("entrantId", entrantId);
-                            notification.put("message", message);
-                            notification.put("timestamp", System.currentTimeMillis());
-                            notification.put("status", "info"); // custom messages are info only
-                            notification.put("type", "custom"); //
-
-                            db.collection("notifications").add(notification);
-                        }
+                        // Only the waiting list can live in the subcollection; skip paging it when unused
+                        boolean needsWaiting = targetGroup.equals("Waiting") || targetGroup.equals("All Entrants");
+                        Task<EntrantStatusMap> statuses = needsWaiting
+                                ? WaitingListStore.loadStatuses(eventDoc)
+                                : Tasks.forResult(EntrantStatusMap.from(eventDoc));
+                        statuses.addOnSuccessListener(loaded -> sendToGroup(eventId, loaded, targetGroup, message));
                     }
 
                     Toast.makeText(getContext(), "Notifications sent successfully ✅", Toast.LENGTH_SHORT).show();
@@ -169,4 +144,48 @@ public class NotificationsOrganizerFragment extends Fragment {
                 .addOnFailureListener(
                         e -> Toast.makeText(getContext(), "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show());
     }
+
+    /**
+     * Creates a notification document for every entrant of one event in the target group.
+     *
+     * @param eventId     The event the message is about.
+     * @param statuses    The event's entrant statuses.
+     * @param targetGroup The group selected in the spinner (e.g., "Waiting").
+     * @param message     The message to send.
+     */
+    private void sendToGroup(String eventId, EntrantStatusMap statuses, String targetGroup, String message) {
+        RoaringBitmap recipients;
+
+        switch (targetGroup) {
+            case "Waiting":
+                recipients = statuses.membersWith(EntrantStatus.WAITING);
+                break;
+            case "Selected":
+                // Accepted entrants were selected too
+                recipients = statuses.membersWith(EntrantStatus.SELECTED, EntrantStatus.ACCEPTED);
+                break;
+            case "Accepted":
+                recipients = statuses.membersWith(EntrantStatus.ACCEPTED);
+                break;
+            case "All Entrants":
+                recipients = statuses.membersWith(EntrantStatus.values())
+                        .andNot(statuses.membersWith(EntrantStatus.DECLINED));
+                break;
+            default:
+                recipients = new RoaringBitmap();
+                break;
+        }
+
+        for (String entrantId : statuses.idsOf(recipients)) {
+            Map<String, Object> notification = new HashMap<>();
+            notification.put("eventId", eventId);
+            notification.put("entrantId", entrantId);
+            notification.put("message", message);
+            notification.put("timestamp", System.currentTimeMillis());
+            notification.put("status", "info"); // custom messages are info only
+            notification.put("type", "custom"); //
+
+            db.collection("notifications").add(notification);
+        }
+    }
 }
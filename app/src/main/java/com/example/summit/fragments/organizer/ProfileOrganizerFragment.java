@@ -26,7 +26,7 @@ import com.example.summit.adapters.EventAdapter;
 import com.example.summit.fragments.entrant.ProfileFragment;
 import com.example.summit.model.Entrant;
 import com.example.summit.model.Event;
-import com.example.summit.model.EventDescription;
+import com.example.summit.model.EventQueryPlanner;
 import com.example.summit.model.Firebase;
 import com.example.summit.model.Organizer;
 import com.google.firebase.firestore.FirebaseFirestore;
@@ -143,11 +143,9 @@ public class ProfileOrganizerFragment extends Fragment {
                 .setTitle("Delete Account")
                 .setMessage("Are you sure you want to delete your account?")
                 .setPositiveButton("Delete", (dialog, which) -> {
-                    Firebase.loadEvents(events -> {
+                    Firebase.loadEvents(EventQueryPlanner.forOrganizer(deviceId), events -> {
                         for (Event event : events) {
-                            EventDescription desc = event.getDescription();
-                            if (desc.getOrganizerId() != null && desc.getOrganizerId().equals(deviceId))
-                                Firebase.deleteEvent(event);
+                            Firebase.deleteEvent(event);
                         }
 
                         Firebase.deleteOrganizer(organizer);
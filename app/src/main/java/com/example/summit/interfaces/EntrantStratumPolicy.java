@@ -0,0 +1,28 @@
+package com.example.summit.interfaces;
+
+import com.example.summit.model.Entrant;
+
+/**
+ * Splits the waiting list into groups (strata) that have seats reserved for them.
+ * <p>
+ * Used by {@link com.example.summit.model.LotterySystem} when a stratum policy is set.
+ * Each stratum's reserved seats are drawn from its own entrants first; seats a stratum
+ * cannot fill, and seats not reserved for anyone, go to everyone left.
+ */
+public interface EntrantStratumPolicy {
+    /**
+     * Returns the stratum an entrant belongs to.
+     *
+     * @param entrant The entrant on the waiting list
+     * @return Key of the entrant's stratum, or null if the entrant belongs to none
+     */
+    String stratumOf(Entrant entrant);
+
+    /**
+     * Returns the number of seats reserved for a stratum.
+     *
+     * @param stratum A key returned by {@link #stratumOf(Entrant)}
+     * @return Seats reserved for the stratum; 0 if none
+     */
+    int quotaOf(String stratum);
+}
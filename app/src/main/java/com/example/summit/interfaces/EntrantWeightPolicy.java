@@ -0,0 +1,19 @@
+package com.example.summit.interfaces;
+
+import com.example.summit.model.Entrant;
+
+/**
+ * Decides how likely an entrant is to be picked in a weighted lottery draw.
+ * <p>
+ * Used by {@link com.example.summit.model.LotterySystem} when a weight policy is set.
+ * An entrant with twice the weight of another is twice as likely to be drawn first.
+ */
+public interface EntrantWeightPolicy {
+    /**
+     * Returns the draw weight for an entrant.
+     *
+     * @param entrant The entrant on the waiting list
+     * @return A finite weight of at least 0; entrants weighted 0 are never drawn
+     */
+    double weightOf(Entrant entrant);
+}
@@ -17,6 +17,16 @@ public interface UserLoadCallback {
      */
     void onUsersLoaded(List<UserProfile> users);
 
+    /**
+     * Called with just the users of one role that changed since the previous snapshot,
+     * before {@link #onUsersLoaded}. The first snapshot reports every user as changed.
+     *
+     * @param role       The role whose collection changed
+     * @param changed    Users added or modified
+     * @param removedIds Device IDs of users removed
+     */
+    default void onUsersChanged(String role, List<UserProfile> changed, List<String> removedIds) {}
+
     /**
      * Called when user loading fails.
      *
@@ -0,0 +1,316 @@
+package com.example.summit.model;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Takes join requests for busy events without writing the event document per join.
+ * <p>
+ * Entrants normally join with {@link WaitingListStore#join(String, Entrant, String)},
+ * one transaction on the event. A single Firestore document sustains roughly one
+ * write per second, though, so hundreds of entrants joining the moment registration
+ * opens contend on {@code events/{eventId}} and their transactions fail. A join that
+ * fails that way ({@link #isContention}) falls back to
+ * {@link #enqueue(String, String, Entrant)}, which writes a request to
+ * {@code events/{eventId}/joinQueue/{deviceId}} instead. Device IDs are random, so
+ * the requests spread across the collection's key range and never touch the event.
+ * <p>
+ * {@link #drain(String)} applies the queue to the event in arrival order, up to
+ * {@link #PAGE_SIZE} requests per transaction. Each request is checked with
+ * {@link WaitingListStore#checkJoin}, exactly as a direct join would be, and the
+ * event is written once per page. Each request's {@code status} then changes from
+ * {@link #QUEUED} to the {@link WaitingListStore.JoinResult} name. The entrant who
+ * queued it listens to that document for the confirmation.
+ * <p>
+ * Entrants never drain. Requests carry the event's organizer, and the organizer's
+ * app runs a {@link Drainer} that watches for their queued requests and drains each
+ * event as they arrive, so only one device writes the event. Requests wait while the
+ * organizer's app is closed and are applied in order when it opens. The registration
+ * window is checked against the day the request reached Firestore ({@code queuedAt},
+ * a server timestamp), not a date the entrant's device supplies. Drains that still
+ * overlap only re-read requests that are still queued, so a request is never applied
+ * twice. The drain query filters on {@code status} and orders by {@code queuedAt},
+ * and the drainer's query filters on {@code organizerId} and {@code status} across
+ * every event's queue; both need composite indexes.
+ */
+public class AdmissionQueue {
+
+    /**
+     * Name of each event's queue subcollection.
+     */
+    public static final String COLLECTION = "joinQueue";
+
+    /**
+     * Request field holding {@link #QUEUED} or the join's outcome.
+     */
+    public static final String STATUS_FIELD = "status";
+
+    /**
+     * Status of a request that has not been applied yet.
+     */
+    public static final String QUEUED = "QUEUED";
+
+    /**
+     * Requests applied per transaction. Each one can write its request and a waiting
+     * list document, which keeps a page under Firestore's 500 write limit.
+     */
+    static final int PAGE_SIZE = 200;
+
+    /**
+     * Request field holding the event's organizer.
+     */
+    public static final String ORGANIZER_FIELD = "organizerId";
+
+    /**
+     * Request field holding the server time it was queued.
+     */
+    public static final String QUEUED_AT_FIELD = "queuedAt";
+
+    private static final String TAG = "AdmissionQueue";
+
+    private AdmissionQueue() {}
+
+    /**
+     * @param eventId   The event
+     * @param entrantId An entrant's device ID
+     * @return The entrant's join request for the event
+     */
+    public static DocumentReference requestRef(String eventId, String entrantId) {
+        return queueOf(eventId).document(entrantId);
+    }
+
+    /**
+     * Queues an entrant's request to join an event's waiting list.
+     * <p>
+     * Queuing again replaces the entrant's earlier request, so an entrant never has
+     * more than one.
+     *
+     * @param eventId     The event to join
+     * @param organizerId The event's organizer, whose app applies the request
+     * @param entrant     The entrant joining
+     * @return A task that completes once the request is stored; it fails with an
+     *         {@link IllegalArgumentException} if the organizer is null, since no
+     *         {@link Drainer} would ever apply the request
+     */
+    public static Task<Void> enqueue(String eventId, String organizerId, Entrant entrant) {
+        if (organizerId == null) {
+            return Tasks.forException(new IllegalArgumentException("Event " + eventId + " has no organizer"));
+        }
+        Map<String, Object> request = new HashMap<>();
+        request.put("entrant", entrant);
+        request.put(STATUS_FIELD, QUEUED);
+        request.put(ORGANIZER_FIELD, organizerId);
+        request.put(QUEUED_AT_FIELD, FieldValue.serverTimestamp());
+        return requestRef(eventId, entrant.getDeviceId()).set(request);
+    }
+
+    /**
+     * @param e Why a direct join failed
+     * @return Whether it failed because too many writes contended on the event, so
+     *         the join should be queued instead
+     */
+    public static boolean isContention(Exception e) {
+        if (!(e instanceof FirebaseFirestoreException)) return false;
+        FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) e).getCode();
+        // A transaction that lost every retry to other writers ends with one of these
+        return code == FirebaseFirestoreException.Code.ABORTED
+                || code == FirebaseFirestoreException.Code.FAILED_PRECONDITION;
+    }
+
+    /**
+     * @param queuedAt When a request reached Firestore, or null if unknown
+     * @param zone     The time zone event dates are in
+     * @return The day the registration window is checked against, as "yyyy-MM-dd";
+     *         null, which leaves the window open, if the time is unknown
+     */
+    public static String requestDay(Date queuedAt, ZoneId zone) {
+        if (queuedAt == null) return null;
+        return Instant.ofEpochMilli(queuedAt.getTime()).atZone(zone).toLocalDate().toString();
+    }
+
+    /**
+     * Applies every queued request to the event, oldest first.
+     *
+     * @param eventId The event
+     * @return A task holding the number of entrants admitted
+     */
+    public static Task<Integer> drain(String eventId) {
+        return drainPages(eventId, 0);
+    }
+
+    private static Task<Integer> drainPages(String eventId, int admittedSoFar) {
+        return queueOf(eventId)
+                .whereEqualTo(STATUS_FIELD, QUEUED)
+                .orderBy(QUEUED_AT_FIELD)
+                .orderBy(FieldPath.documentId())
+                .limit(PAGE_SIZE)
+                .get()
+                .onSuccessTask(snapshot -> {
+                    List<DocumentSnapshot> page = snapshot.getDocuments();
+                    if (page.isEmpty()) {
+                        return Tasks.forResult(admittedSoFar);
+                    }
+                    return applyPage(eventId, page).onSuccessTask(admitted ->
+                            page.size() < PAGE_SIZE
+                                    ? Tasks.forResult(admittedSoFar + admitted)
+                                    : drainPages(eventId, admittedSoFar + admitted));
+                });
+    }
+
+    private static Task<Integer> applyPage(String eventId, List<DocumentSnapshot> page) {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        DocumentReference eventRef = db.collection("events").document(eventId);
+
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot eventDoc = transaction.get(eventRef);
+            // Another drain may have applied some of the page since it was queried
+            List<DocumentSnapshot> requests = new ArrayList<>();
+            for (DocumentSnapshot queued : page) {
+                DocumentSnapshot request = transaction.get(queued.getReference());
+                if (QUEUED.equals(request.getString(STATUS_FIELD))) {
+                    requests.add(request);
+                }
+            }
+
+            Map<DocumentReference, WaitingListStore.JoinResult> results = new LinkedHashMap<>();
+            List<Entrant> admitted = new ArrayList<>();
+            EntrantStatusMap statuses = eventDoc.exists() ? EntrantStatusMap.from(eventDoc) : null;
+            long waiting = eventDoc.exists() ? WaitingListStore.waitingCount(eventDoc) : 0;
+            for (DocumentSnapshot request : requests) {
+                Entrant entrant = request.get("entrant", Entrant.class);
+                WaitingListStore.JoinResult result = !eventDoc.exists()
+                        ? WaitingListStore.JoinResult.NO_EVENT
+                        : WaitingListStore.checkJoin(transaction, eventDoc, statuses, entrant, waiting,
+                                requestDay(request.getDate(QUEUED_AT_FIELD), ZoneId.systemDefault()));
+                if (result == WaitingListStore.JoinResult.JOINED) {
+                    admitted.add(entrant);
+                    statuses.set(entrant.getDeviceId(), EntrantStatus.WAITING);
+                    waiting++;
+                }
+                results.put(request.getReference(), result);
+            }
+
+            if (!admitted.isEmpty()) {
+                if (WaitingListStore.usesSubcollection(eventDoc)) {
+                    for (Entrant entrant : admitted) {
+                        transaction.set(eventRef.collection(WaitingListStore.COLLECTION)
+                                .document(entrant.getDeviceId()), entrant);
+                    }
+                    transaction.update(eventRef, WaitingListStore.COUNT_FIELD,
+                            FieldValue.increment(admitted.size()));
+                } else {
+                    List<Object> moreUpdates = new ArrayList<>();
+                    for (Entrant entrant : admitted.subList(1, admitted.size())) {
+                        moreUpdates.add(EntrantStatusMap.fieldFor(entrant.getDeviceId()));
+                        moreUpdates.add(EntrantStatus.WAITING.name());
+                    }
+                    transaction.update(eventRef, EntrantStatusMap.fieldFor(admitted.get(0).getDeviceId()),
+                            EntrantStatus.WAITING.name(), moreUpdates.toArray());
+                }
+            }
+            long now = System.currentTimeMillis();
+            for (Map.Entry<DocumentReference, WaitingListStore.JoinResult> entry : results.entrySet()) {
+                transaction.update(entry.getKey(), STATUS_FIELD, entry.getValue().name(), "resolvedAt", now);
+            }
+            return admitted.size();
+        });
+    }
+
+    /**
+     * Drains an organizer's events while their app is open.
+     * <p>
+     * Listens for the organizer's queued requests across every event and drains each
+     * event that has some. An event is drained by one drain at a time; requests that
+     * arrive during a drain start another once it finishes. Listener and completion
+     * callbacks all run on the main thread, so no locking is needed.
+     */
+    public static class Drainer {
+        private final String organizerId;
+        private final Set<String> draining = new HashSet<>();
+        private final Set<String> drainAgain = new HashSet<>();
+        private ListenerRegistration registration;
+
+        /**
+         * @param organizerId The organizer whose events are drained
+         */
+        public Drainer(String organizerId) {
+            this.organizerId = organizerId;
+        }
+
+        /**
+         * Starts watching for queued requests.
+         */
+        public void start() {
+            if (registration != null) return;
+            registration = FirebaseFirestore.getInstance().collectionGroup(COLLECTION)
+                    .whereEqualTo(ORGANIZER_FIELD, organizerId)
+                    .whereEqualTo(STATUS_FIELD, QUEUED)
+                    .addSnapshotListener((snapshot, e) -> {
+                        if (e != null) {
+                            Log.e(TAG, "Watching join requests failed", e);
+                            return;
+                        }
+                        if (snapshot == null) return;
+                        Set<String> eventIds = new HashSet<>();
+                        for (DocumentSnapshot request : snapshot.getDocuments()) {
+                            DocumentReference eventRef = request.getReference().getParent().getParent();
+                            if (eventRef != null) eventIds.add(eventRef.getId());
+                        }
+                        for (String eventId : eventIds) {
+                            drainEvent(eventId);
+                        }
+                    });
+        }
+
+        /**
+         * Stops watching; drains already running finish.
+         */
+        public void stop() {
+            if (registration == null) return;
+            registration.remove();
+            registration = null;
+        }
+
+        private void drainEvent(String eventId) {
+            if (!draining.add(eventId)) {
+                drainAgain.add(eventId);
+                return;
+            }
+            drain(eventId).addOnCompleteListener(done -> {
+                if (!done.isSuccessful()) {
+                    Log.e(TAG, "Draining join requests for " + eventId + " failed", done.getException());
+                }
+                draining.remove(eventId);
+                if (drainAgain.remove(eventId) && registration != null) {
+                    drainEvent(eventId);
+                }
+            });
+        }
+    }
+
+    private static CollectionReference queueOf(String eventId) {
+        return FirebaseFirestore.getInstance()
+                .collection("events").document(eventId).collection(COLLECTION);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.summit.model;
+
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Draws distinct indices with probability proportional to their weights.
+ * <p>
+ * The sampler builds a Vose alias table once, after which each pick costs O(1).
+ * Picks are made without replacement: an index that was already drawn is
+ * rejected and the pick is retried. Once the drawn indices hold half of the
+ * table's weight, the table is rebuilt over the indices that are left, so the
+ * expected number of retries per pick stays below two.
+ * <p>
+ * Indices with a weight of 0 are never drawn.
+ */
+public class AliasSampler implements IndexSampler {
+    private final double[] weights;
+    private final boolean[] taken;
+    private final long seed;
+    private final SplittableRandom random;
+
+    private int remaining;
+    private double remainingWeight;
+
+    // Current alias table, built over the indices in active
+    private int[] active;
+    private double[] probability;
+    private int[] alias;
+    private double tableWeight;
+
+    /**
+     * Creates a sampler over {@code weights.length} indices.
+     *
+     * @param weights Weight of each index; must be finite and not negative.
+     * @param seed    Seed that fixes the draw order.
+     */
+    public AliasSampler(double[] weights, long seed) {
+        this.weights = weights.clone();
+        this.taken = new boolean[weights.length];
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+
+        for (double weight : this.weights) {
+            if (weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Invalid weight: " + weight);
+            }
+            if (weight > 0) {
+                remaining++;
+            }
+        }
+        if (remaining > 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Draws the next index, favouring indices with larger weights.
+     *
+     * @return An index that has not been returned before.
+     * @throws NoSuchElementException if every index with a positive weight has been drawn.
+     */
+    @Override
+    public int next() {
+        if (remaining == 0) {
+            throw new NoSuchElementException("No weighted indices left to draw");
+        }
+        while (true) {
+            int slot = random.nextInt(active.length);
+            int index = random.nextDouble() < probability[slot]
+                    ? active[slot] : active[alias[slot]];
+            if (taken[index]) {
+                continue;
+            }
+            taken[index] = true;
+            remaining--;
+            remainingWeight -= weights[index];
+            if (remaining > 0 && remainingWeight < tableWeight / 2) {
+                rebuild();
+            }
+            return index;
+        }
+    }
+
+    /**
+     * @return Number of indices with a positive weight that have not been drawn yet.
+     */
+    @Override
+    public int remaining() {
+        return remaining;
+    }
+
+    /**
+     * @return The seed this sampler was created with.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Rebuilds the alias table over the indices that can still be drawn (Vose's method).
+     */
+    private void rebuild() {
+        int n = remaining;
+        active = new int[n];
+        double total = 0;
+        int k = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (!taken[i] && weights[i] > 0) {
+                active[k++] = i;
+                total += weights[i];
+            }
+        }
+
+        probability = new double[n];
+        alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+
+        for (int slot = 0; slot < n; slot++) {
+            scaled[slot] = weights[active[slot]] * n / total;
+            if (scaled[slot] < 1.0) {
+                small[smallCount++] = slot;
+            } else {
+                large[largeCount++] = slot;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left is 1.0 up to rounding error
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+
+        tableWeight = total;
+        remainingWeight = total;
+    }
+}
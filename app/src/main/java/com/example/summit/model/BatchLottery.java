@@ -0,0 +1,321 @@
+package com.example.summit.model;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the lottery for every event whose registration has closed, in one pass.
+ * <p>
+ * The events are found with one query ({@code registrationEnd < today}, optionally
+ * limited to one organizer; see {@link #closedBetween} for which field it ranges on). Events with nobody waiting or no open spot are reported
+ * from the query's data alone ({@link #precheck}); every other event is drawn at once
+ * by its own {@link LotteryDraw#run} transaction, which re-checks capacity and continues
+ * the event's stored draw order, so a manual draw made in the meantime is never
+ * overfilled. Events that keep their waiting list in a subcollection (see
+ * {@link WaitingListStore}) are drawn by a {@link StreamingLottery} instead.
+ * <p>
+ * All draws of one day share a run ID ({@link #runIdFor}) and each event's draw ID is
+ * derived from it ({@link #drawIdFor}), so running the batch again the same day, by the
+ * organizer or an admin, applies nothing twice.
+ * <p>
+ * Once every event of a run was drawn, the day is saved in the caller's cursor
+ * {@code lotteryRuns/{organizerId}} (or {@code lotteryRuns/all}), and later runs only
+ * query events whose registration ended since. A run with a failed event leaves the
+ * cursor where it was, so the event is tried again next time.
+ */
+public class BatchLottery {
+
+    /**
+     * Most writes Firestore accepts in one {@link com.google.firebase.firestore.WriteBatch}
+     * or transaction.
+     */
+    public static final int MAX_BATCH_OPS = 500;
+
+    /**
+     * Collection holding each caller's cursor.
+     */
+    public static final String RUNS_COLLECTION = "lotteryRuns";
+
+    /**
+     * Cursor field: the day after the last registration end every event was drawn for,
+     * as a {@link EventDates} epoch day.
+     */
+    public static final String CLOSED_BEFORE_FIELD = "closedBefore";
+
+    private BatchLottery() {}
+
+    /**
+     * What happened to one event in a batch run.
+     */
+    public static class EventSummary {
+        private final String eventId;
+        private final String title;
+        private final LotteryDraw.Status status;
+        private final List<String> invitedIds;
+        private final String error;
+
+        EventSummary(String eventId, String title, LotteryDraw.Status status,
+                     List<String> invitedIds, String error) {
+            this.eventId = eventId;
+            this.title = title;
+            this.status = status;
+            this.invitedIds = invitedIds;
+            this.error = error;
+        }
+
+        /**
+         * @param eventId The event
+         * @param title   Its title, may be null
+         * @param result  What its draw did
+         * @return The event's summary
+         */
+        public static EventSummary drawn(String eventId, String title, LotteryDraw.Result result) {
+            return new EventSummary(eventId, title, result.getStatus(), result.getInvitedIds(), null);
+        }
+
+        /**
+         * @param eventId The event
+         * @param title   Its title, may be null
+         * @param error   Why its draw failed
+         * @return The event's summary
+         */
+        public static EventSummary failed(String eventId, String title, String error) {
+            return new EventSummary(eventId, title, null, new ArrayList<>(), error);
+        }
+
+        public String getEventId() { return eventId; }
+        public String getTitle() { return title; }
+
+        /**
+         * @return The draw's status, or null if it failed
+         */
+        public LotteryDraw.Status getStatus() { return status; }
+
+        /**
+         * @return Device IDs invited for this event; empty if the draw was not applied
+         */
+        public List<String> getInvitedIds() { return invitedIds; }
+
+        /**
+         * @return Why the draw failed, or null if it did not fail
+         */
+        public String getError() { return error; }
+    }
+
+    /**
+     * The outcome of {@link #runClosedEvents(String, String)}.
+     */
+    public static class Report {
+        private final String drawId;
+        private final List<EventSummary> events;
+
+        public Report(String drawId, List<EventSummary> events) {
+            this.drawId = drawId;
+            this.events = events;
+        }
+
+        /**
+         * @return The run's ID; each event's draw ID is derived from it by {@link #drawIdFor}
+         */
+        public String getDrawId() { return drawId; }
+
+        public List<EventSummary> getEvents() { return events; }
+
+        /**
+         * @return Whether every event was drawn, so the run's cursor may move past them
+         */
+        public boolean isComplete() {
+            for (EventSummary e : events) {
+                if (e.getError() != null) return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return Total entrants invited across all events
+         */
+        public int getTotalInvited() {
+            int total = 0;
+            for (EventSummary e : events) {
+                total += e.getInvitedIds().size();
+            }
+            return total;
+        }
+
+        /**
+         * @return One line per event, e.g. "Swim Lessons: APPLIED (12 invited)"
+         */
+        public String toText() {
+            StringBuilder sb = new StringBuilder();
+            for (EventSummary e : events) {
+                if (sb.length() > 0) sb.append('\n');
+                sb.append(e.getTitle() != null ? e.getTitle() : e.getEventId()).append(": ");
+                if (e.getError() != null) {
+                    sb.append("FAILED (").append(e.getError()).append(')');
+                } else {
+                    sb.append(e.getStatus());
+                    if (e.getStatus() == LotteryDraw.Status.APPLIED) {
+                        sb.append(" (").append(e.getInvitedIds().size()).append(" invited)");
+                    }
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Draws entrants for every event whose registration ended before {@code today},
+     * and since the caller's last complete run.
+     *
+     * @param organizerId Only run the organizer's own events, or null to run every event
+     * @param today       Today's date as "yyyy-MM-dd"
+     * @return A task holding one summary per event
+     */
+    public static Task<Report> runClosedEvents(String organizerId, String today) {
+        Long todayDay = EventDates.parse(today);
+        if (todayDay == null) {
+            return Tasks.forException(new IllegalArgumentException("Not a date: " + today));
+        }
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        DocumentReference cursorRef = db.collection(RUNS_COLLECTION).document(cursorIdFor(organizerId));
+        String runId = runIdFor(today);
+
+        return SchemaMigrator.isBackfilled().onSuccessTask(typed -> cursorRef.get().onSuccessTask(cursor -> {
+            Query query = closedBetween(db.collection("events"), Boolean.TRUE.equals(typed),
+                    cursor.getLong(CLOSED_BEFORE_FIELD), todayDay);
+            if (organizerId != null) {
+                query = query.whereEqualTo("organizerId", organizerId);
+            }
+            return query.get();
+        })).onSuccessTask(snapshot -> {
+            List<DocumentSnapshot> docs = snapshot.getDocuments();
+            List<Task<LotteryDraw.Result>> draws = new ArrayList<>();
+            for (DocumentSnapshot doc : docs) {
+                draws.add(draw(doc, runId));
+            }
+            return Tasks.whenAllComplete(draws).onSuccessTask(done -> {
+                Report report = new Report(runId, summarize(docs, draws));
+                if (!report.isComplete()) {
+                    return Tasks.forResult(report);
+                }
+                return cursorRef.set(Collections.singletonMap(CLOSED_BEFORE_FIELD, todayDay), SetOptions.merge())
+                        .continueWith(saved -> report);
+            });
+        });
+    }
+
+    /**
+     * Adds the registration end range to an events query.
+     * <p>
+     * Until {@link SchemaMigrator} has given every event its typed dates, the range is
+     * on the text {@code registrationEnd}, which sorts by date for the "yyyy-MM-dd"
+     * dates events are created with; afterwards it is on {@link EventDates#REGISTRATION_END_DAY},
+     * which also covers events whose text is in another format.
+     *
+     * @param events       The events collection, or a query on it
+     * @param typed        Whether every event has its typed dates
+     * @param closedBefore First registration end day to include, or null for no lower bound
+     * @param today        Registration end days before this are included
+     * @return The query with the range added
+     */
+    static Query closedBetween(Query events, boolean typed, Long closedBefore, long today) {
+        if (typed) {
+            Query query = events.whereLessThan(EventDates.REGISTRATION_END_DAY, today);
+            return closedBefore != null
+                    ? query.whereGreaterThanOrEqualTo(EventDates.REGISTRATION_END_DAY, closedBefore)
+                    : query;
+        }
+        Query query = events.whereLessThan("registrationEnd", EventDates.format(today));
+        return closedBefore != null
+                ? query.whereGreaterThanOrEqualTo("registrationEnd", EventDates.format(closedBefore))
+                : query;
+    }
+
+    /**
+     * Works out from an event's fields whether it needs a draw at all.
+     *
+     * @param data The event's fields
+     * @return {@link LotteryDraw.Status#EMPTY_WAITING_LIST} or {@link LotteryDraw.Status#FULL}
+     * if there is nothing to draw, or null if the event needs a draw
+     */
+    public static LotteryDraw.Status precheck(Map<String, Object> data) {
+        EntrantStatusMap statuses = EntrantStatusMap.fromData(data);
+        boolean waiting;
+        if (WaitingListStore.STORAGE_SUBCOLLECTION.equals(data.get(WaitingListStore.STORAGE_FIELD))) {
+            Object count = data.get(WaitingListStore.COUNT_FIELD);
+            waiting = count instanceof Number && ((Number) count).longValue() > 0;
+        } else {
+            waiting = statuses.count(EntrantStatus.WAITING) > 0;
+        }
+        if (!waiting) {
+            return LotteryDraw.Status.EMPTY_WAITING_LIST;
+        }
+        Object capacity = data.get("capacity");
+        int open = (capacity instanceof Number ? ((Number) capacity).intValue() : 0) - statuses.countHoldingSpots();
+        return open <= 0 ? LotteryDraw.Status.FULL : null;
+    }
+
+    /**
+     * @param today Today's date as "yyyy-MM-dd"
+     * @return The ID every batch run of that day shares
+     */
+    public static String runIdFor(String today) {
+        return "batch-" + today;
+    }
+
+    /**
+     * @param organizerId The organizer running the batch, or null for every event
+     * @return The ID of the caller's cursor document in {@link #RUNS_COLLECTION}
+     */
+    public static String cursorIdFor(String organizerId) {
+        return organizerId != null ? organizerId : "all";
+    }
+
+    /**
+     * @param runId   The ID of a batch run
+     * @param eventId One of the events in the run
+     * @return The ID of that event's draw; distinct per event, so an entrant drawn for
+     * two events in one run gets two invitations
+     */
+    public static String drawIdFor(String runId, String eventId) {
+        return runId + "_" + eventId;
+    }
+
+    private static Task<LotteryDraw.Result> draw(DocumentSnapshot doc, String runId) {
+        LotteryDraw.Status skipped = precheck(doc.getData());
+        if (skipped != null) {
+            return Tasks.forResult(new LotteryDraw.Result(skipped, new ArrayList<>()));
+        }
+        String drawId = drawIdFor(runId, doc.getId());
+        return WaitingListStore.usesSubcollection(doc)
+                ? StreamingLottery.run(doc.getId(), drawId)
+                : LotteryDraw.run(doc.getId(), drawId, null);
+    }
+
+    private static List<EventSummary> summarize(List<DocumentSnapshot> docs,
+                                                List<Task<LotteryDraw.Result>> draws) {
+        List<EventSummary> summaries = new ArrayList<>();
+        for (int i = 0; i < docs.size(); i++) {
+            DocumentSnapshot doc = docs.get(i);
+            Task<LotteryDraw.Result> draw = draws.get(i);
+            if (draw.isSuccessful()) {
+                summaries.add(EventSummary.drawn(doc.getId(), doc.getString("title"), draw.getResult()));
+            } else {
+                Exception e = draw.getException();
+                summaries.add(EventSummary.failed(doc.getId(), doc.getString("title"),
+                        e != null ? e.getMessage() : "Draw failed"));
+            }
+        }
+        return summaries;
+    }
+}
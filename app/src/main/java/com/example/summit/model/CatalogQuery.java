@@ -0,0 +1,142 @@
+package com.example.summit.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parts of an {@link EventCatalog} search that need no database: building the
+ * full-text query, correcting misspelled words, and scoring matches.
+ */
+public class CatalogQuery {
+
+    /**
+     * Weight of a hit in each indexed column: title, description, location.
+     */
+    static final double[] COLUMN_WEIGHTS = {3, 1, 1};
+
+    private CatalogQuery() {}
+
+    /**
+     * Builds a full-text query matching rows that contain every word, each as a
+     * whole word or the start of one.
+     *
+     * @param words Lowercased words of only letters and digits
+     * @return The query for {@code MATCH}
+     */
+    public static String match(List<String> words) {
+        StringBuilder query = new StringBuilder();
+        for (String word : words) {
+            if (query.length() > 0) query.append(' ');
+            query.append(word).append('*');
+        }
+        return query.toString();
+    }
+
+    /**
+     * Most edits allowed between a word and its correction; short words get fewer so
+     * that "cat" does not turn into "art".
+     *
+     * @param word A query word
+     * @return 0 for up to 2 letters, 1 for up to 5, 2 beyond
+     */
+    static int maxEdits(String word) {
+        return word.length() <= 2 ? 0 : word.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Picks the indexed word a misspelled query word most likely meant. A word only
+     * partly typed is compared with the same length of each candidate, so "yohg"
+     * still finds "yoghurt".
+     *
+     * @param word       A query word with no matches
+     * @param vocabulary Candidate indexed words and how many events contain each
+     * @return The candidate needing the fewest edits, the most common one on a tie;
+     *         null if none is within {@link #maxEdits(String)}
+     */
+    public static String correct(String word, Map<String, Integer> vocabulary) {
+        int max = maxEdits(word);
+        String best = null;
+        int bestEdits = max + 1;
+        int bestCount = 0;
+        for (Map.Entry<String, Integer> candidate : vocabulary.entrySet()) {
+            String term = candidate.getKey();
+            int edits = editDistance(word, term, max);
+            if (term.length() > word.length()) {
+                edits = Math.min(edits, editDistance(word, term.substring(0, word.length()), max));
+            }
+            int count = candidate.getValue();
+            if (edits < bestEdits || (edits == bestEdits && edits <= max
+                    && (count > bestCount || (count == bestCount && term.compareTo(best) < 0)))) {
+                best = term;
+                bestEdits = edits;
+                bestCount = count;
+            }
+        }
+        return bestEdits <= max ? best : null;
+    }
+
+    /**
+     * Counts the insertions, deletions, substitutions and swaps of neighbouring
+     * letters needed to turn one word into another.
+     *
+     * @param a   One word
+     * @param b   The other
+     * @param max Stop counting past this many
+     * @return The number of edits, or {@code max + 1} if it is more than {@code max}
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, previous2[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) return max + 1;
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * Scores a row from its {@code matchinfo(table, 'pcnx')} blob: each hit counts its
+     * column's weight, times how rare the word is across all rows.
+     *
+     * @param matchinfo The blob, native-endian 32-bit ints
+     * @return The row's score; higher is better
+     */
+    public static double score(byte[] matchinfo) {
+        IntBuffer info = ByteBuffer.wrap(matchinfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phrases = info.get(0);
+        int columns = info.get(1);
+        int rows = info.get(2);
+        double score = 0;
+        for (int p = 0; p < phrases; p++) {
+            for (int c = 0; c < columns; c++) {
+                int at = 3 + 3 * (p * columns + c);
+                int hitsHere = info.get(at);
+                int rowsWithHits = info.get(at + 2);
+                if (hitsHere == 0) continue;
+                double weight = c < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[c] : 1;
+                score += weight * hitsHere * Math.log(1 + (double) rows / Math.max(1, rowsWithHits));
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.summit.model;
+
+import com.example.summit.interfaces.EntrantStratumPolicy;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reserves lottery seats for entrants from particular cities.
+ * <p>
+ * City names are matched ignoring case and surrounding whitespace.
+ * Entrants whose city is missing or not listed only compete for the overflow seats.
+ */
+public class CityQuotaPolicy implements EntrantStratumPolicy {
+    private final Map<String, Integer> cityQuotas;
+
+    /**
+     * @param cityQuotas Seats reserved for each city, e.g. {@code {"Edmonton": 10}}
+     */
+    public CityQuotaPolicy(Map<String, ? extends Number> cityQuotas) {
+        this.cityQuotas = new HashMap<>();
+        if (cityQuotas != null) {
+            for (Map.Entry<String, ? extends Number> entry : cityQuotas.entrySet()) {
+                if (entry.getKey() != null && entry.getValue() != null && entry.getValue().intValue() > 0) {
+                    this.cityQuotas.merge(normalize(entry.getKey()), entry.getValue().intValue(), Integer::sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a policy with the seats already taken by earlier draws removed.
+     *
+     * @param taken Entrants who already hold a seat
+     * @return A new policy; quotas never drop below 0
+     */
+    public CityQuotaPolicy minus(Collection<Entrant> taken) {
+        Map<String, Integer> remaining = new HashMap<>(cityQuotas);
+        for (Entrant entrant : taken) {
+            String city = stratumOf(entrant);
+            if (city != null) {
+                remaining.computeIfPresent(city, (k, q) -> q > 1 ? q - 1 : null);
+            }
+        }
+        return new CityQuotaPolicy(remaining);
+    }
+
+    @Override
+    public String stratumOf(Entrant entrant) {
+        String city = entrant.getCity();
+        return city != null ? normalize(city) : null;
+    }
+
+    @Override
+    public int quotaOf(String stratum) {
+        Integer quota = cityQuotas.get(stratum);
+        return quota != null ? quota : 0;
+    }
+
+    private static String normalize(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+}
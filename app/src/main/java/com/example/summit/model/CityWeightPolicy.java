@@ -0,0 +1,48 @@
+package com.example.summit.model;
+
+import com.example.summit.interfaces.EntrantWeightPolicy;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Weights lottery entrants by the city on their profile.
+ * <p>
+ * City names are matched ignoring case and surrounding whitespace.
+ * Entrants whose city is missing or not listed get the default weight.
+ */
+public class CityWeightPolicy implements EntrantWeightPolicy {
+    private final Map<String, Double> cityWeights;
+    private final double defaultWeight;
+
+    /**
+     * @param cityWeights   Weight for each city, e.g. {@code {"Edmonton": 2}}
+     * @param defaultWeight Weight for entrants in any other city
+     */
+    public CityWeightPolicy(Map<String, ? extends Number> cityWeights, double defaultWeight) {
+        this.cityWeights = new HashMap<>();
+        if (cityWeights != null) {
+            for (Map.Entry<String, ? extends Number> entry : cityWeights.entrySet()) {
+                if (entry.getKey() != null && entry.getValue() != null) {
+                    this.cityWeights.put(normalize(entry.getKey()), entry.getValue().doubleValue());
+                }
+            }
+        }
+        this.defaultWeight = defaultWeight;
+    }
+
+    @Override
+    public double weightOf(Entrant entrant) {
+        String city = entrant.getCity();
+        if (city == null) {
+            return defaultWeight;
+        }
+        Double weight = cityWeights.get(normalize(city));
+        return weight != null ? weight : defaultWeight;
+    }
+
+    private static String normalize(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+}
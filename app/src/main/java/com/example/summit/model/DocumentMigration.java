@@ -0,0 +1,58 @@
+package com.example.summit.model;
+
+import java.util.Map;
+
+/**
+ * One versioned change to the documents of a collection, run by {@link SchemaMigrator}.
+ * <p>
+ * A migration is a pure function from a document's data to the fields that should
+ * change, so it can be tested without Firestore. The changes are merged into the
+ * document: a nested map only sets the keys it holds, and a null value removes the
+ * field. A migration must return no changes for a document it has already been
+ * applied to, so running it twice is harmless.
+ */
+public class DocumentMigration {
+
+    /**
+     * Works out the changes for one document.
+     */
+    public interface Transform {
+        /**
+         * @param data The document's fields, as left by earlier migrations; must not be modified
+         * @param changes Receives the fields to set, with null for fields to remove
+         */
+        void apply(Map<String, Object> data, Map<String, Object> changes);
+    }
+
+    private final String collection;
+    private final int version;
+    private final String description;
+    private final Transform transform;
+
+    /**
+     * @param collection  The top-level collection it applies to
+     * @param version     Schema version the documents are at afterwards; increasing from 1 per collection
+     * @param description What it changes, for logs
+     * @param transform   The change
+     */
+    public DocumentMigration(String collection, int version, String description, Transform transform) {
+        this.collection = collection;
+        this.version = version;
+        this.description = description;
+        this.transform = transform;
+    }
+
+    public String getCollection() { return collection; }
+
+    public int getVersion() { return version; }
+
+    public String getDescription() { return description; }
+
+    /**
+     * @param data The document's fields
+     * @param changes Receives the changes
+     */
+    public void apply(Map<String, Object> data, Map<String, Object> changes) {
+        transform.apply(data, changes);
+    }
+}
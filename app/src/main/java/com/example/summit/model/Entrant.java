@@ -35,6 +35,23 @@ public class Entrant extends User {
         return "Entrant";
     }
 
+    /**
+     * Entrants are equal when they have the same device ID.
+     * Entrants without a device ID are only equal to themselves.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Entrant)) return false;
+        String otherId = ((Entrant) o).deviceId;
+        return deviceId != null && deviceId.equals(otherId);
+    }
+
+    @Override
+    public int hashCode() {
+        return deviceId != null ? deviceId.hashCode() : System.identityHashCode(this);
+    }
+
     //entrant specific methods below
     public void setLocation(GeoPoint location) {
         this.location = location;
@@ -0,0 +1,197 @@
+package com.example.summit.model;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reads entrants from a CSV file one row at a time, for {@link EntrantImport}.
+ * <p>
+ * The first line is a header naming the columns; {@code name} and {@code email}
+ * are required, {@code phone} and {@code deviceId} are optional, and any other
+ * columns are ignored. Fields may be quoted, with {@code ""} for a quote inside
+ * one. Rows without a name or a valid email are rejected, as are repeats of an
+ * entrant already read. An entrant without a device ID (who may never have
+ * opened the app) is given one derived from their email, so importing the same
+ * person again always finds the same document.
+ */
+public class EntrantCsvReader implements Closeable {
+
+    /**
+     * Most rejection messages kept; the count keeps going past it.
+     */
+    static final int MAX_REJECTIONS = 100;
+
+    private final BufferedReader in;
+    private final int nameColumn, emailColumn, phoneColumn, deviceIdColumn;
+    private final Set<String> seen = new HashSet<>();
+    private final List<String> rejections = new ArrayList<>();
+    private int line = 1;
+    private int rejected;
+
+    /**
+     * Reads the header line.
+     *
+     * @param in The CSV file
+     * @throws IOException If the file cannot be read or has no usable header
+     */
+    public EntrantCsvReader(Reader in) throws IOException {
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        String header = this.in.readLine();
+        if (header == null) {
+            throw new IOException("The file is empty");
+        }
+        List<String> columns = parseLine(header.replace("\uFEFF", ""));
+        int name = -1, email = -1, phone = -1, deviceId = -1;
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i).trim().toLowerCase(Locale.ROOT).replace(" ", "");
+            if (column.equals("name")) name = i;
+            else if (column.equals("email")) email = i;
+            else if (column.equals("phone")) phone = i;
+            else if (column.equals("deviceid")) deviceId = i;
+        }
+        if (name < 0 || email < 0) {
+            throw new IOException("The header must have name and email columns");
+        }
+        nameColumn = name;
+        emailColumn = email;
+        phoneColumn = phone;
+        deviceIdColumn = deviceId;
+    }
+
+    /**
+     * @return The next valid entrant not read before, or null at the end of the file
+     * @throws IOException If the file cannot be read
+     */
+    public Entrant next() throws IOException {
+        String text;
+        while ((text = in.readLine()) != null) {
+            line++;
+            if (text.trim().isEmpty()) continue;
+
+            List<String> fields = parseLine(text);
+            String name = field(fields, nameColumn);
+            String email = field(fields, emailColumn).toLowerCase(Locale.ROOT);
+            String phone = field(fields, phoneColumn);
+            String deviceId = field(fields, deviceIdColumn);
+
+            if (name.isEmpty()) {
+                reject("missing name");
+            } else if (!isEmail(email)) {
+                reject("invalid email \"" + email + "\"");
+            } else {
+                if (deviceId.isEmpty()) deviceId = deviceIdFor(email);
+                if (deviceId.contains("/")) {
+                    reject("invalid device ID \"" + deviceId + "\"");
+                } else if (seen.contains(deviceId) || seen.contains("email:" + email)) {
+                    reject("duplicate of an earlier row");
+                } else {
+                    seen.add(deviceId);
+                    seen.add("email:" + email);
+                    return new Entrant(name, email, deviceId, phone);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param max Most entrants to read
+     * @return Up to {@code max} more entrants; empty at the end of the file
+     * @throws IOException If the file cannot be read
+     */
+    public List<Entrant> nextChunk(int max) throws IOException {
+        List<Entrant> chunk = new ArrayList<>();
+        Entrant entrant;
+        while (chunk.size() < max && (entrant = next()) != null) {
+            chunk.add(entrant);
+        }
+        return chunk;
+    }
+
+    /**
+     * @return Number of rows rejected so far
+     */
+    public int getRejectedCount() {
+        return rejected;
+    }
+
+    /**
+     * @return Why rows were rejected, e.g. "Line 7: missing name"; at most {@value #MAX_REJECTIONS}
+     */
+    public List<String> getRejections() {
+        return rejections;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * @param email An entrant's email
+     * @return The device ID given to an imported entrant who has none
+     */
+    public static String deviceIdFor(String email) {
+        return "import-" + UUID.nameUUIDFromBytes(email.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Splits one CSV line into fields, unquoting quoted ones.
+     *
+     * @param text The line
+     * @return Its fields
+     */
+    static List<String> parseLine(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column).trim() : "";
+    }
+
+    private static boolean isEmail(String email) {
+        int at = email.indexOf('@');
+        return at > 0 && at == email.lastIndexOf('@') && email.indexOf('.', at) > at + 1
+                && !email.endsWith(".") && !email.contains(" ");
+    }
+
+    private void reject(String reason) {
+        rejected++;
+        if (rejections.size() < MAX_REJECTIONS) {
+            rejections.add("Line " + line + ": " + reason);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.summit.model;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Imports a CSV file of entrants into an event's waiting list.
+ * <p>
+ * The file is read a chunk of {@link #CHUNK_SIZE} entrants at a time with an
+ * {@link EntrantCsvReader}, so it is never held in memory. Each chunk is applied in one
+ * transaction that re-reads the event, creates the profiles of entrants who have none
+ * (existing profiles belong to their users and are left alone), and adds the entrants
+ * not yet part of the event to its waiting list (in the subcollection or the status
+ * map, see {@link WaitingListStore}). Whether an entrant is already part of the event
+ * and whether the waiting list has room are decided inside the transaction with
+ * {@link WaitingListStore#checkJoin}, so entrants joining from the app at the same
+ * time are neither counted twice nor pushed past the event's limit. Rows that do not
+ * fit are rejected. Chunks are applied one after another, no faster than
+ * {@link #WRITES_PER_SECOND} writes per second, Firestore's recommended starting rate
+ * for a collection.
+ * <p>
+ * Each transaction also records its chunk in {@code imports/{importId}}, so a chunk and
+ * its checkpoint commit together. Running the same import again after a failure
+ * skips the chunks already recorded and picks up with the first one that did not
+ * commit.
+ */
+public class EntrantImport {
+
+    /**
+     * Entrants per transaction. Each one writes at most its profile and one waiting list
+     * document, plus the event and the checkpoint, which keeps a transaction under
+     * Firestore's 500 write limit.
+     */
+    static final int CHUNK_SIZE = 200;
+
+    /**
+     * Most writes started per second.
+     */
+    static final int WRITES_PER_SECOND = 500;
+
+    // Firestore allows at most 30 values in a whereIn query
+    private static final int IN_QUERY_LIMIT = 30;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "entrant-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private EntrantImport() {}
+
+    /**
+     * Receives progress while the import runs. It may be called from the import's
+     * background thread, so listeners that touch views should post to the main thread.
+     */
+    public interface ProgressListener {
+        /**
+         * @param committed Entrants whose chunk has committed, including chunks skipped on resume
+         * @param rejected  Rows rejected so far
+         */
+        void onProgress(int committed, int rejected);
+    }
+
+    /**
+     * Summary of a finished import.
+     */
+    public static class Report {
+        private int added;
+        private int updated;
+        private int resumed;
+        private int rejected;
+        private List<String> rejections = new ArrayList<>();
+
+        /** @return Entrants added to the waiting list */
+        public int getAdded() { return added; }
+
+        /** @return Entrants already part of the event, left as they were */
+        public int getUpdated() { return updated; }
+
+        /** @return Entrants in chunks committed by an earlier run and skipped */
+        public int getResumed() { return resumed; }
+
+        /** @return Rows rejected as invalid or duplicate, or because the waiting list was full */
+        public int getRejected() { return rejected; }
+
+        /** @return Why rows were rejected, e.g. "Line 7: missing name" */
+        public List<String> getRejections() { return rejections; }
+    }
+
+    /**
+     * Imports the entrants in a CSV file into an event.
+     *
+     * @param eventId  The event
+     * @param importId Names this import's checkpoint; pass the same ID to resume a failed import
+     * @param csv      The file; closed when the import ends
+     * @param listener Told about progress, may be null
+     * @return A task holding the summary; fails with the first failed chunk
+     */
+    public static Task<Report> run(String eventId, String importId, Reader csv, ProgressListener listener) {
+        return Tasks.call(executor, () -> importAll(eventId, importId, csv, listener));
+    }
+
+    /**
+     * Who in one chunk joins the waiting list, decided against the event as read in
+     * the chunk's transaction.
+     */
+    public static class Chunk {
+        private final List<Entrant> joining = new ArrayList<>();
+        private final List<Entrant> alreadyJoined = new ArrayList<>();
+        private final List<Entrant> full = new ArrayList<>();
+
+        /** @return Entrants to add to the waiting list */
+        public List<Entrant> getJoining() { return joining; }
+
+        /** @return Entrants already waiting, drawn or declined */
+        public List<Entrant> getAlreadyJoined() { return alreadyJoined; }
+
+        /** @return Entrants who did not fit under the waiting list's limit */
+        public List<Entrant> getFull() { return full; }
+    }
+
+    /**
+     * Sorts a chunk's entrants with {@link WaitingListStore#checkJoin}. The organizer
+     * adds them, so the registration window and location requirement do not apply;
+     * the waiting list's limit does.
+     *
+     * @param rows     The chunk's entrants
+     * @param statuses The event's status map
+     * @param inSubcollection Entrants of the chunk with a waiting list document
+     * @param limit    The event's waiting list limit, null or 0 for none
+     * @param waiting  Number of entrants waiting now
+     * @return The chunk, sorted
+     */
+    public static Chunk sort(List<Entrant> rows, EntrantStatusMap statuses, Set<String> inSubcollection,
+                             Long limit, long waiting) {
+        Chunk chunk = new Chunk();
+        for (Entrant entrant : rows) {
+            String id = entrant.getDeviceId();
+            if (statuses.statusOf(id) != null || inSubcollection.contains(id)) {
+                chunk.alreadyJoined.add(entrant);
+            } else if (WaitingListStore.checkJoin(null, null, false, entrant, limit, waiting, null)
+                    == WaitingListStore.JoinResult.FULL) {
+                chunk.full.add(entrant);
+            } else {
+                chunk.joining.add(entrant);
+                waiting++;
+            }
+        }
+        return chunk;
+    }
+
+    private static Report importAll(String eventId, String importId, Reader csv, ProgressListener listener)
+            throws Exception {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference importRef = db.collection("imports").document(importId);
+
+        DocumentSnapshot eventDoc = Tasks.await(eventRef.get());
+        if (!eventDoc.exists()) {
+            throw new IllegalArgumentException("Event " + eventId + " does not exist");
+        }
+
+        Report report = new Report();
+        int committed = 0;
+        int full = 0;
+        List<String> fullRejections = new ArrayList<>();
+        long nextStart = 0;
+
+        try (EntrantCsvReader reader = new EntrantCsvReader(csv)) {
+            for (int chunkIndex = 0; ; chunkIndex++) {
+                List<Entrant> rows = reader.nextChunk(CHUNK_SIZE);
+                if (rows.isEmpty()) break;
+
+                // Pace chunk starts to the write rate
+                long now = System.currentTimeMillis();
+                if (nextStart > now) Thread.sleep(nextStart - now);
+                nextStart = Math.max(now, nextStart) + (2L * rows.size() + 2) * 1000L / WRITES_PER_SECOND;
+
+                Set<String> existing = existingProfiles(db, rows);
+                String key = String.valueOf(chunkIndex);
+                Chunk chunk = Tasks.await(db.runTransaction(transaction ->
+                        applyChunk(transaction, db, eventRef, importRef, eventId, key, rows, existing)));
+
+                if (chunk == null) {
+                    report.resumed += rows.size();
+                } else {
+                    report.added += chunk.joining.size();
+                    report.updated += chunk.alreadyJoined.size();
+                    full += chunk.full.size();
+                    for (Entrant entrant : chunk.full) {
+                        if (fullRejections.size() < EntrantCsvReader.MAX_REJECTIONS) {
+                            fullRejections.add(entrant.getEmail() + ": the waiting list is full");
+                        }
+                    }
+                }
+                committed += rows.size();
+                notify(listener, committed, reader.getRejectedCount() + full);
+            }
+
+            report.rejected = reader.getRejectedCount() + full;
+            report.rejections = new ArrayList<>(reader.getRejections());
+            report.rejections.addAll(fullRejections);
+            notify(listener, committed, report.rejected);
+        }
+        return report;
+    }
+
+    /**
+     * Applies one chunk in a transaction.
+     *
+     * @return The sorted chunk, or null if an earlier run already applied it
+     */
+    private static Chunk applyChunk(Transaction transaction, FirebaseFirestore db, DocumentReference eventRef,
+                                    DocumentReference importRef, String eventId, String key,
+                                    List<Entrant> rows, Set<String> existing) throws FirebaseFirestoreException {
+        DocumentSnapshot checkpoint = transaction.get(importRef);
+        Map<String, Object> done = checkpoint.exists() ? (Map<String, Object>) checkpoint.get("chunks") : null;
+        if (done != null && done.containsKey(key)) {
+            return null;
+        }
+        DocumentSnapshot eventDoc = transaction.get(eventRef);
+        if (!eventDoc.exists()) {
+            throw new FirebaseFirestoreException("Event " + eventId + " does not exist",
+                    FirebaseFirestoreException.Code.NOT_FOUND);
+        }
+        boolean subcollection = WaitingListStore.usesSubcollection(eventDoc);
+
+        // Every read comes before the first write
+        Set<String> inSubcollection = new HashSet<>();
+        Set<String> missingProfiles = new HashSet<>();
+        for (Entrant entrant : rows) {
+            String id = entrant.getDeviceId();
+            if (subcollection && transaction.get(
+                    eventRef.collection(WaitingListStore.COLLECTION).document(id)).exists()) {
+                inSubcollection.add(id);
+            }
+            // Checked again, in case the profile was created since it was looked up
+            if (!existing.contains(id) && !transaction.get(db.collection("entrants").document(id)).exists()) {
+                missingProfiles.add(id);
+            }
+        }
+        Chunk chunk = sort(rows, EntrantStatusMap.from(eventDoc), inSubcollection,
+                eventDoc.getLong(WaitingListStore.LIMIT_FIELD), WaitingListStore.waitingCount(eventDoc));
+
+        for (Entrant entrant : rows) {
+            if (missingProfiles.contains(entrant.getDeviceId())) {
+                transaction.set(db.collection("entrants").document(entrant.getDeviceId()), entrant);
+            }
+        }
+        addToWaitingList(transaction, eventRef, subcollection, chunk.joining);
+
+        Map<String, Object> chunkDone = new HashMap<>();
+        chunkDone.put(key, rows.size());
+        Map<String, Object> mark = new HashMap<>();
+        mark.put("eventId", eventId);
+        mark.put("chunks", chunkDone);
+        mark.put("updatedAt", System.currentTimeMillis());
+        transaction.set(importRef, mark, SetOptions.merge());
+        return chunk;
+    }
+
+    private static void addToWaitingList(Transaction transaction, DocumentReference eventRef, boolean subcollection,
+                                         List<Entrant> joining) {
+        if (joining.isEmpty()) return;
+        if (subcollection) {
+            for (Entrant entrant : joining) {
+                transaction.set(eventRef.collection(WaitingListStore.COLLECTION).document(entrant.getDeviceId()),
+                        entrant);
+            }
+            transaction.update(eventRef, WaitingListStore.COUNT_FIELD, FieldValue.increment(joining.size()));
+        } else {
+            List<Object> moreUpdates = new ArrayList<>();
+            for (Entrant entrant : joining.subList(1, joining.size())) {
+                moreUpdates.add(EntrantStatusMap.fieldFor(entrant.getDeviceId()));
+                moreUpdates.add(EntrantStatus.WAITING.name());
+            }
+            transaction.update(eventRef, EntrantStatusMap.fieldFor(joining.get(0).getDeviceId()),
+                    EntrantStatus.WAITING.name(), moreUpdates.toArray());
+        }
+    }
+
+    private static Set<String> existingProfiles(FirebaseFirestore db, List<Entrant> rows) throws Exception {
+        List<Task<QuerySnapshot>> lookups = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i += IN_QUERY_LIMIT) {
+            List<String> ids = new ArrayList<>();
+            for (Entrant entrant : rows.subList(i, Math.min(i + IN_QUERY_LIMIT, rows.size()))) {
+                ids.add(entrant.getDeviceId());
+            }
+            lookups.add(db.collection("entrants").whereIn(FieldPath.documentId(), ids).get());
+        }
+        Set<String> existing = new HashSet<>();
+        List<QuerySnapshot> results = Tasks.await(Tasks.<QuerySnapshot>whenAllSuccess(lookups));
+        for (QuerySnapshot result : results) {
+            for (DocumentSnapshot doc : result.getDocuments()) {
+                existing.add(doc.getId());
+            }
+        }
+        return existing;
+    }
+
+    private static void notify(ProgressListener listener, int committed, int rejected) {
+        if (listener != null) {
+            listener.onProgress(committed, rejected);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.summit.model;
+
+/**
+ * Where an entrant stands in an event's lottery.
+ * <p>
+ * Stored by name in the event's {@code entrantStatus} map, keyed by device ID.
+ */
+public enum EntrantStatus {
+    /** On the waiting list, not drawn yet. */
+    WAITING("Waiting"),
+    /** Drawn and invited; has not answered yet. */
+    SELECTED("Selected"),
+    /** Accepted the invitation. */
+    ACCEPTED("Accepted"),
+    /** Declined the invitation, or let it expire. */
+    DECLINED("Declined");
+
+    private final String label;
+
+    EntrantStatus(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return Name shown to users, e.g. "Waiting"
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return Whether an entrant with this status holds one of the event's spots
+     */
+    public boolean holdsSpot() {
+        return this == SELECTED || this == ACCEPTED;
+    }
+
+    /**
+     * Parses a stored status.
+     *
+     * @param value A status name as stored in Firestore
+     * @return The status, or null if the value is missing or unknown
+     */
+    public static EntrantStatus fromValue(Object value) {
+        if (!(value instanceof String)) {
+            return null;
+        }
+        try {
+            return valueOf((String) value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
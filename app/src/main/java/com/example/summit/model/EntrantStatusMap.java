@@ -0,0 +1,264 @@
+package com.example.summit.model;
+
+import com.example.summit.utils.IdDictionary;
+import com.example.summit.utils.RoaringBitmap;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+
+import java.util.AbstractSet;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Every entrant of one event and their {@link EntrantStatus}, keyed by device ID.
+ * <p>
+ * Events store this as a single {@code entrantStatus} map field, so looking up an
+ * entrant's status is O(1) and moving an entrant to another status is one field
+ * write ({@link #fieldFor(String)}) instead of a paired {@code arrayUnion} and
+ * {@code arrayRemove} across the old {@code waitingList}, {@code selectedList},
+ * {@code acceptedList} and {@code declinedList} arrays.
+ * <p>
+ * Events created before the map existed still have those arrays. They are read as
+ * a starting point and the map is applied on top, so the map always wins.
+ * <p>
+ * In memory, each device ID gets a code in an {@link IdDictionary} owned by this map,
+ * so codes are dense from 0 and the dictionary is released with the map. Each status
+ * keeps its entrants' codes as a {@link RoaringBitmap}. The map still holds every
+ * device ID once; what the bitmaps buy is that counts are cardinalities, and groups
+ * such as "selected or accepted" or "waiting but not declined" are unions and
+ * differences of bitmaps ({@link #membersWith}) rather than scans over ID lists.
+ * They are resolved back to IDs with {@link #idsOf}.
+ */
+public class EntrantStatusMap {
+
+    /**
+     * Name of the event field holding the map.
+     */
+    public static final String FIELD = "entrantStatus";
+
+    private final IdDictionary dictionary = new IdDictionary();
+    private final Map<EntrantStatus, RoaringBitmap> members = new EnumMap<>(EntrantStatus.class);
+
+    public EntrantStatusMap() {
+        for (EntrantStatus status : EntrantStatus.values()) {
+            members.put(status, new RoaringBitmap());
+        }
+    }
+
+    /**
+     * Reads the statuses stored on an event document.
+     *
+     * @param eventDoc The event
+     * @return The event's statuses; empty if the event has none
+     */
+    public static EntrantStatusMap from(DocumentSnapshot eventDoc) {
+        return fromFields(eventDoc.get(FIELD),
+                (List<String>) eventDoc.get("waitingList"),
+                (List<String>) eventDoc.get("selectedList"),
+                (List<String>) eventDoc.get("acceptedList"),
+                (List<String>) eventDoc.get("declinedList"));
+    }
+
+    /**
+     * Reads the statuses from an event's fields.
+     *
+     * @param eventData The event's fields, may be null
+     * @return The event's statuses; empty if the event has none
+     */
+    public static EntrantStatusMap fromData(Map<String, Object> eventData) {
+        if (eventData == null) return new EntrantStatusMap();
+        return fromFields(eventData.get(FIELD),
+                (List<String>) eventData.get("waitingList"),
+                (List<String>) eventData.get("selectedList"),
+                (List<String>) eventData.get("acceptedList"),
+                (List<String>) eventData.get("declinedList"));
+    }
+
+    /**
+     * Builds the statuses from an event's stored fields.
+     *
+     * @param statusField The {@code entrantStatus} map, may be null
+     * @param waiting     Legacy {@code waitingList}, may be null
+     * @param selected    Legacy {@code selectedList}, may be null
+     * @param accepted    Legacy {@code acceptedList}, may be null
+     * @param declined    Legacy {@code declinedList}, may be null
+     * @return The merged statuses
+     */
+    public static EntrantStatusMap fromFields(Object statusField, List<String> waiting, List<String> selected,
+                                              List<String> accepted, List<String> declined) {
+        EntrantStatusMap map = new EntrantStatusMap();
+        // Later lists win; an accepted entrant also stayed in selectedList
+        map.setAll(waiting, EntrantStatus.WAITING);
+        map.setAll(selected, EntrantStatus.SELECTED);
+        map.setAll(declined, EntrantStatus.DECLINED);
+        map.setAll(accepted, EntrantStatus.ACCEPTED);
+        if (statusField instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) statusField).entrySet()) {
+                EntrantStatus status = EntrantStatus.fromValue(entry.getValue());
+                if (entry.getKey() instanceof String && status != null) {
+                    map.set((String) entry.getKey(), status);
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * @param deviceId An entrant's device ID
+     * @return The field path of that entrant's status, for a single-field update
+     */
+    public static FieldPath fieldFor(String deviceId) {
+        return FieldPath.of(FIELD, deviceId);
+    }
+
+    /**
+     * @param deviceId An entrant's device ID
+     * @return The entrant's status, or null if they are not part of the event
+     */
+    public EntrantStatus statusOf(String deviceId) {
+        int code = dictionary.codeOf(deviceId);
+        if (code < 0) return null;
+        for (Map.Entry<EntrantStatus, RoaringBitmap> entry : members.entrySet()) {
+            if (entry.getValue().contains(code)) return entry.getKey();
+        }
+        return null;
+    }
+
+    /**
+     * Sets an entrant's status.
+     *
+     * @param deviceId An entrant's device ID
+     * @param status   The new status, or null to remove the entrant
+     */
+    public void set(String deviceId, EntrantStatus status) {
+        int code = status != null ? dictionary.intern(deviceId) : dictionary.codeOf(deviceId);
+        if (code < 0) return;
+        for (Map.Entry<EntrantStatus, RoaringBitmap> entry : members.entrySet()) {
+            if (entry.getKey() == status) {
+                entry.getValue().add(code);
+            } else {
+                entry.getValue().remove(code);
+            }
+        }
+    }
+
+    /**
+     * @param statuses The statuses to count
+     * @return Number of entrants with any of the statuses
+     */
+    public int count(EntrantStatus... statuses) {
+        int total = 0;
+        for (EntrantStatus status : statuses) {
+            total += members.get(status).getCardinality();
+        }
+        return total;
+    }
+
+    /**
+     * @return Number of entrants holding one of the event's spots
+     */
+    public int countHoldingSpots() {
+        return count(EntrantStatus.SELECTED, EntrantStatus.ACCEPTED);
+    }
+
+    /**
+     * Returns the entrants with any of the statuses as a set of this map's codes, to
+     * combine with {@link RoaringBitmap#and} or {@link RoaringBitmap#andNot} before
+     * resolving them with {@link #idsOf}. Codes are only meaningful to this map.
+     *
+     * @param statuses The statuses to include
+     * @return A new set of the entrants' codes
+     */
+    public RoaringBitmap membersWith(EntrantStatus... statuses) {
+        RoaringBitmap union = new RoaringBitmap();
+        for (EntrantStatus status : statuses) {
+            union = union.or(members.get(status));
+        }
+        return union;
+    }
+
+    /**
+     * @param codes Entrant codes, e.g. from {@link #membersWith}
+     * @return Their device IDs in a new list, in the order the map first saw them;
+     *         sort it if the order has to be the same on every device
+     */
+    public List<String> idsOf(RoaringBitmap codes) {
+        return dictionary.idsOf(codes);
+    }
+
+    /**
+     * @param statuses The statuses to include
+     * @return Device IDs of the entrants with any of the statuses, as {@link #idsOf} returns them
+     */
+    public List<String> idsWith(EntrantStatus... statuses) {
+        return idsOf(membersWith(statuses));
+    }
+
+    /**
+     * @return A read-only view of the device IDs of every entrant of the event,
+     * reflecting later changes to the map
+     */
+    public Set<String> ids() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<String>() {
+                    private int next = nextMember(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next >= 0;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (next < 0) throw new NoSuchElementException();
+                        String id = dictionary.idOf(next);
+                        next = nextMember(next + 1);
+                        return id;
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && statusOf((String) o) != null;
+            }
+
+            @Override
+            public int size() {
+                return EntrantStatusMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * @return Number of entrants of the event
+     */
+    public int size() {
+        return count(EntrantStatus.values());
+    }
+
+    /**
+     * @return The first code at or after {@code from} that has a status, or -1
+     */
+    private int nextMember(int from) {
+        for (int code = from; code < dictionary.size(); code++) {
+            for (RoaringBitmap bitmap : members.values()) {
+                if (bitmap.contains(code)) return code;
+            }
+        }
+        return -1;
+    }
+
+    private void setAll(List<String> ids, EntrantStatus status) {
+        if (ids == null) return;
+        for (String id : ids) {
+            if (id != null) set(id, status);
+        }
+    }
+}
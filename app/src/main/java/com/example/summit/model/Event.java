@@ -11,11 +11,13 @@ public class Event {
     private List<String> registeredEntrants;
     private List<String> waitingList;
     private List<String> declinedEntrants;
+    private EntrantStatusMap entrantStatuses;
 
     public Event() {
         this.registeredEntrants = new ArrayList<>();
         this.waitingList = new ArrayList<>();
         this.declinedEntrants = new ArrayList<>();
+        this.entrantStatuses = new EntrantStatusMap();
     }
 
     public Event(EventDescription desc) {
@@ -23,7 +25,7 @@ public class Event {
         this.registeredEntrants = new ArrayList<>();
         this.waitingList = new ArrayList<>();
         this.declinedEntrants = new ArrayList<>();
-
+        this.entrantStatuses = new EntrantStatusMap();
     }
 
     public String getId() { return id; }
@@ -41,5 +43,15 @@ public class Event {
 
     public List<String> getDeclinedEntrants() { return declinedEntrants; }
     public void setDeclinedEntrants(List<String> list) { this.declinedEntrants = list; }
-}
 
+    public EntrantStatusMap getEntrantStatuses() { return entrantStatuses; }
+    public void setEntrantStatuses(EntrantStatusMap statuses) { this.entrantStatuses = statuses; }
+
+    /**
+     * @param deviceId An entrant's device ID
+     * @return The entrant's status, or null if they are not part of this event
+     */
+    public EntrantStatus getStatusOf(String deviceId) {
+        return entrantStatuses != null ? entrantStatuses.statusOf(deviceId) : null;
+    }
+}
@@ -0,0 +1,475 @@
+package com.example.summit.model;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import com.example.summit.utils.EventSearchIndex;
+import com.example.summit.utils.FacetCounts;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A copy of the event catalog kept on the device in SQLite, so entrants can browse
+ * and search events without waiting on the network.
+ * <p>
+ * Only the text of each event is kept: title, description, location, dates,
+ * capacity and organizer, never the poster. The app publishes that text to a small
+ * {@code eventCatalog/{eventId}} document whenever it creates, edits or deletes an
+ * event ({@link #entryFor(Map)}, {@link #tombstone()}), stamped with the server's
+ * time in {@code updatedAt}. {@link #sync()} asks only for entries stamped after the
+ * last one it applied, so keeping up costs a few small documents instead of the
+ * whole {@code events} collection with its posters. Posters are fetched one event
+ * at a time with {@link #loadPoster(String)} when a result is shown.
+ * <p>
+ * Titles, descriptions and locations are indexed in an FTS4 table with accents
+ * folded. {@link #search(String)} matches every word of the query as a word or the
+ * start of one, replaces a word that matches nothing with the closest indexed word
+ * ({@link CatalogQuery#correct}), and ranks rows by weighted, rarity-scaled hits
+ * ({@link CatalogQuery#score}). Reads and writes run on one background thread.
+ * <p>
+ * Events created before the catalog existed only get entries when
+ * {@link SchemaMigrator} publishes them. Until its run has finished, the first sync
+ * on a device also copies every event straight from {@code events}, one page at a
+ * time, so no event is missing from search in the meantime.
+ * <p>
+ * {@link #locations()} counts the catalog's events per location. The counts are
+ * read from the database once and then follow each entry a sync applies.
+ */
+public class EventCatalog {
+
+    /**
+     * Firestore collection holding the published text of each event.
+     */
+    public static final String COLLECTION = "eventCatalog";
+
+    /**
+     * Field stamped with the server time of each change to an entry.
+     */
+    public static final String UPDATED_FIELD = "updatedAt";
+
+    /**
+     * Event fields copied into the catalog.
+     */
+    static final String[] TEXT_FIELDS = {"title", "description", "location", "registrationStart",
+            "registrationEnd", "eventStart", "eventEnd", "capacity", "organizerId"};
+
+    /**
+     * Entries fetched per sync page.
+     */
+    static final int PAGE_SIZE = 300;
+
+    /**
+     * Most results a search returns.
+     */
+    static final int MAX_RESULTS = 100;
+
+    // Columns of the events table read back into an Event, in this order
+    private static final String COLUMNS = "events.id, events.title, events.description, events.location,"
+            + " events.registration_start, events.registration_end, events.event_start, events.event_end,"
+            + " events.capacity, events.organizer_id";
+    private static final int COLUMN_COUNT = 10;
+
+    // Posters kept in memory, most recently shown last
+    private static final int POSTER_CACHE_SIZE = 20;
+
+    private static EventCatalog instance;
+
+    private static final Map<String, String> posters = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > POSTER_CACHE_SIZE;
+        }
+    };
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "event-catalog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Store store;
+    private final FacetCounts locations = new FacetCounts();
+
+    private EventCatalog(Context context) {
+        store = new Store(context.getApplicationContext());
+        // Runs before any sync, which the executor queues behind it
+        executor.execute(this::countLocations);
+    }
+
+    /**
+     * @param context Any context
+     * @return The app's catalog
+     */
+    public static synchronized EventCatalog get(Context context) {
+        if (instance == null) {
+            instance = new EventCatalog(context);
+        }
+        return instance;
+    }
+
+    /**
+     * @param eventId An event's ID
+     * @return The event's catalog entry in Firestore
+     */
+    public static DocumentReference entryRef(String eventId) {
+        return FirebaseFirestore.getInstance().collection(COLLECTION).document(eventId);
+    }
+
+    /**
+     * Picks out what the catalog keeps from an event's fields, to be merged into its entry.
+     *
+     * @param eventData Some or all of an event's fields, as written to {@code events}
+     * @return The text fields present, with a server timestamp
+     */
+    public static Map<String, Object> entryFor(Map<String, Object> eventData) {
+        Map<String, Object> entry = new HashMap<>();
+        for (String field : TEXT_FIELDS) {
+            if (eventData.containsKey(field)) entry.put(field, eventData.get(field));
+        }
+        entry.put("deleted", false);
+        entry.put(UPDATED_FIELD, FieldValue.serverTimestamp());
+        return entry;
+    }
+
+    /**
+     * @return An entry marking a deleted event, so devices drop it on their next sync
+     */
+    public static Map<String, Object> tombstone() {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("deleted", true);
+        entry.put(UPDATED_FIELD, FieldValue.serverTimestamp());
+        return entry;
+    }
+
+    /**
+     * Applies the catalog entries changed since the last sync.
+     *
+     * @return A task holding the number of events added, changed or removed;
+     *         fails if the server cannot be reached, leaving the local copy as it was
+     */
+    public Task<Integer> sync() {
+        return Tasks.call(executor, this::syncNow);
+    }
+
+    /**
+     * Forgets the local copy, so the next sync starts over.
+     *
+     * @return A task that completes once the copy is empty
+     */
+    public Task<Void> clear() {
+        return Tasks.call(executor, () -> {
+            SQLiteDatabase sql = store.getWritableDatabase();
+            sql.beginTransaction();
+            try {
+                for (String table : new String[]{"event_text", "events", "sync_cursor", "seeded"}) {
+                    sql.delete(table, null, null);
+                }
+                sql.setTransactionSuccessful();
+            } finally {
+                sql.endTransaction();
+            }
+            locations.sync(new HashMap<>());
+            return null;
+        });
+    }
+
+    /**
+     * Searches the local copy.
+     *
+     * @param query What the user typed; every event, by title, if it has no words
+     * @return A task holding the matching events, best first, without posters
+     */
+    public Task<List<Event>> search(String query) {
+        return Tasks.call(executor, () -> searchNow(query));
+    }
+
+    /**
+     * @return Events per location in the local copy, kept up to date by {@link #sync()}
+     */
+    public FacetCounts locations() {
+        return locations;
+    }
+
+    /**
+     * Fetches one event's poster, for showing a search result.
+     *
+     * @param eventId The event
+     * @return A task holding the poster as base64, or null if the event has none
+     */
+    public static Task<String> loadPoster(String eventId) {
+        synchronized (posters) {
+            if (posters.containsKey(eventId)) return Tasks.forResult(posters.get(eventId));
+        }
+        return FirebaseFirestore.getInstance().collection("events").document(eventId).get()
+                .continueWith(task -> {
+                    String poster = task.isSuccessful() ? task.getResult().getString("posterBase64") : null;
+                    if (task.isSuccessful()) {
+                        synchronized (posters) {
+                            posters.put(eventId, poster);
+                        }
+                    }
+                    return poster;
+                });
+    }
+
+    private int syncNow() throws Exception {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        SQLiteDatabase sql = store.getWritableDatabase();
+        Timestamp since = null;
+        String lastId = null;
+        try (Cursor cursor = sql.rawQuery("SELECT seconds, nanos, last_id FROM sync_cursor", null)) {
+            if (cursor.moveToFirst()) {
+                since = new Timestamp(cursor.getLong(0), cursor.getInt(1));
+                lastId = cursor.getString(2);
+            }
+        }
+
+        int applied = seedIfNeeded(db, sql);
+        while (true) {
+            Query query = db.collection(COLLECTION).orderBy(UPDATED_FIELD).orderBy(FieldPath.documentId())
+                    .limit(PAGE_SIZE);
+            if (since != null) query = query.startAfter(since, lastId);
+            QuerySnapshot page = Tasks.await(query.get(Source.SERVER));
+
+            // Applied to the counts once the page is stored; null for a removed event
+            Map<String, String> pageLocations = new HashMap<>();
+            sql.beginTransaction();
+            try {
+                for (DocumentSnapshot doc : page.getDocuments()) {
+                    Timestamp updated = doc.getTimestamp(UPDATED_FIELD);
+                    if (updated == null) continue;
+                    deleteRow(sql, doc.getId());
+                    if (!Boolean.TRUE.equals(doc.getBoolean("deleted"))) {
+                        insertRow(sql, doc);
+                        pageLocations.put(doc.getId(), doc.getString("location"));
+                    } else {
+                        pageLocations.put(doc.getId(), null);
+                    }
+                    since = updated;
+                    lastId = doc.getId();
+                    applied++;
+                }
+                if (since != null) {
+                    sql.execSQL("INSERT OR REPLACE INTO sync_cursor (id, seconds, nanos, last_id) VALUES (0, ?, ?, ?)",
+                            new Object[]{since.getSeconds(), since.getNanoseconds(), lastId});
+                }
+                sql.setTransactionSuccessful();
+            } finally {
+                sql.endTransaction();
+            }
+            for (Map.Entry<String, String> entry : pageLocations.entrySet()) {
+                locations.put(entry.getKey(), entry.getValue());
+            }
+            if (page.size() < PAGE_SIZE) break;
+        }
+        return applied;
+    }
+
+    /**
+     * Copies every event from {@code events} unless this device has already, or every
+     * event has a catalog entry.
+     *
+     * @return The number of events copied
+     */
+    private int seedIfNeeded(FirebaseFirestore db, SQLiteDatabase sql) throws Exception {
+        try (Cursor cursor = sql.rawQuery("SELECT 1 FROM seeded", null)) {
+            if (cursor.moveToFirst()) return 0;
+        }
+
+        int copied = 0;
+        if (!Tasks.await(SchemaMigrator.isBackfilled())) {
+            String after = null;
+            while (true) {
+                Query query = db.collection("events").orderBy(FieldPath.documentId()).limit(PAGE_SIZE);
+                if (after != null) query = query.startAfter(after);
+                QuerySnapshot page = Tasks.await(query.get(Source.SERVER));
+
+                Map<String, String> pageLocations = new HashMap<>();
+                sql.beginTransaction();
+                try {
+                    for (DocumentSnapshot doc : page.getDocuments()) {
+                        deleteRow(sql, doc.getId());
+                        insertRow(sql, doc);
+                        pageLocations.put(doc.getId(), doc.getString("location"));
+                        after = doc.getId();
+                        copied++;
+                    }
+                    sql.setTransactionSuccessful();
+                } finally {
+                    sql.endTransaction();
+                }
+                for (Map.Entry<String, String> entry : pageLocations.entrySet()) {
+                    locations.put(entry.getKey(), entry.getValue());
+                }
+                if (page.size() < PAGE_SIZE) break;
+            }
+        }
+        // Only once every page is in; an interrupted copy starts over next sync
+        sql.execSQL("INSERT OR REPLACE INTO seeded (id) VALUES (0)");
+        return copied;
+    }
+
+    private void countLocations() {
+        try (Cursor cursor = store.getReadableDatabase().rawQuery("SELECT id, location FROM events", null)) {
+            while (cursor.moveToNext()) {
+                locations.put(cursor.getString(0), cursor.getString(1));
+            }
+        }
+    }
+
+    private List<Event> searchNow(String query) {
+        SQLiteDatabase sql = store.getReadableDatabase();
+        List<String> words = EventSearchIndex.words(query);
+        if (words.isEmpty()) {
+            try (Cursor cursor = sql.rawQuery("SELECT " + COLUMNS + " FROM events ORDER BY title COLLATE NOCASE", null)) {
+                List<Event> all = new ArrayList<>();
+                while (cursor.moveToNext()) all.add(toEvent(cursor));
+                return all;
+            }
+        }
+
+        List<String> terms = new ArrayList<>();
+        for (String word : words) {
+            String term = hasPrefix(sql, word) ? word : CatalogQuery.correct(word, vocabularyNear(sql, word));
+            if (term == null) return new ArrayList<>();
+            terms.add(term);
+        }
+
+        List<Event> results = new ArrayList<>();
+        Map<String, Double> scores = new HashMap<>();
+        try (Cursor cursor = sql.rawQuery("SELECT " + COLUMNS + ", matchinfo(event_text, 'pcnx')"
+                        + " FROM event_text JOIN events ON events.rowid = event_text.docid"
+                        + " WHERE event_text MATCH ?",
+                new String[]{CatalogQuery.match(terms)})) {
+            while (cursor.moveToNext()) {
+                Event event = toEvent(cursor);
+                scores.put(event.getId(), CatalogQuery.score(cursor.getBlob(COLUMN_COUNT)));
+                results.add(event);
+            }
+        }
+        Collections.sort(results, (a, b) -> Double.compare(scores.get(b.getId()), scores.get(a.getId())));
+        return results.size() > MAX_RESULTS ? new ArrayList<>(results.subList(0, MAX_RESULTS)) : results;
+    }
+
+    private static boolean hasPrefix(SQLiteDatabase sql, String word) {
+        try (Cursor cursor = sql.rawQuery("SELECT 1 FROM event_terms WHERE col = '*' AND term >= ? AND term < ? LIMIT 1",
+                new String[]{word, word + '\uFFFF'})) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    /**
+     * Indexed words starting with the same letter as a word and near its length, with
+     * how many events contain each. A typo in the first letter is not corrected.
+     */
+    private static Map<String, Integer> vocabularyNear(SQLiteDatabase sql, String word) {
+        Map<String, Integer> vocabulary = new HashMap<>();
+        String first = word.substring(0, 1);
+        try (Cursor cursor = sql.rawQuery("SELECT term, documents FROM event_terms"
+                        + " WHERE col = '*' AND term >= ? AND term < ? AND length(term) >= ?",
+                new String[]{first, first + '\uFFFF', String.valueOf(word.length() - 2)})) {
+            while (cursor.moveToNext()) {
+                vocabulary.put(cursor.getString(0), cursor.getInt(1));
+            }
+        }
+        return vocabulary;
+    }
+
+    private static Event toEvent(Cursor cursor) {
+        EventDescription d = new EventDescription();
+        d.setTitle(cursor.getString(1));
+        d.setDescription(cursor.getString(2));
+        d.setLocation(cursor.getString(3));
+        d.setRegistrationStart(cursor.getString(4));
+        d.setRegistrationEnd(cursor.getString(5));
+        d.setEventStart(cursor.getString(6));
+        d.setEventEnd(cursor.getString(7));
+        d.setCapacity(cursor.isNull(8) ? null : cursor.getLong(8));
+        d.setOrganizerId(cursor.getString(9));
+        Event event = new Event(d);
+        event.setId(cursor.getString(0));
+        d.setId(event.getId());
+        return event;
+    }
+
+    private static void deleteRow(SQLiteDatabase sql, String eventId) {
+        sql.execSQL("DELETE FROM event_text WHERE docid = (SELECT rowid FROM events WHERE id = ?)",
+                new Object[]{eventId});
+        sql.delete("events", "id = ?", new String[]{eventId});
+    }
+
+    private static void insertRow(SQLiteDatabase sql, DocumentSnapshot doc) {
+        ContentValues row = new ContentValues();
+        row.put("id", doc.getId());
+        row.put("title", doc.getString("title"));
+        row.put("description", doc.getString("description"));
+        row.put("location", doc.getString("location"));
+        row.put("registration_start", doc.getString("registrationStart"));
+        row.put("registration_end", doc.getString("registrationEnd"));
+        row.put("event_start", doc.getString("eventStart"));
+        row.put("event_end", doc.getString("eventEnd"));
+        row.put("capacity", doc.getLong("capacity"));
+        row.put("organizer_id", doc.getString("organizerId"));
+        long rowId = sql.insertWithOnConflict("events", null, row, SQLiteDatabase.CONFLICT_REPLACE);
+        sql.execSQL("INSERT INTO event_text (docid, title, description, location) VALUES (?, ?, ?, ?)",
+                new Object[]{rowId, doc.getString("title"), doc.getString("description"), doc.getString("location")});
+    }
+
+    /**
+     * The database file: one row per event, its full-text index, the sync cursor, and
+     * whether the events were copied from {@code events}.
+     */
+    private static class Store extends SQLiteOpenHelper {
+
+        private static final String NAME = "event_catalog.db";
+        private static final int VERSION = 2;
+
+        Store(Context context) {
+            super(context, NAME, null, VERSION);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE events (id TEXT UNIQUE NOT NULL, title TEXT, description TEXT, location TEXT,"
+                    + " registration_start TEXT, registration_end TEXT, event_start TEXT, event_end TEXT,"
+                    + " capacity INTEGER, organizer_id TEXT)");
+            db.execSQL("CREATE VIRTUAL TABLE event_text USING fts4(title, description, location,"
+                    + " tokenize=unicode61 \"remove_diacritics=1\")");
+            db.execSQL("CREATE VIRTUAL TABLE event_terms USING fts4aux(event_text)");
+            db.execSQL("CREATE TABLE sync_cursor (id INTEGER PRIMARY KEY CHECK (id = 0),"
+                    + " seconds INTEGER NOT NULL, nanos INTEGER NOT NULL, last_id TEXT NOT NULL)");
+            db.execSQL("CREATE TABLE seeded (id INTEGER PRIMARY KEY CHECK (id = 0))");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            // The catalog is a copy; start over and let the next sync fill it
+            db.execSQL("DROP TABLE IF EXISTS event_terms");
+            db.execSQL("DROP TABLE IF EXISTS event_text");
+            db.execSQL("DROP TABLE IF EXISTS events");
+            db.execSQL("DROP TABLE IF EXISTS sync_cursor");
+            db.execSQL("DROP TABLE IF EXISTS seeded");
+            onCreate(db);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.summit.model;
+
+import com.google.firebase.firestore.Query;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Event dates as epoch days (days since 1970-01-01).
+ * <p>
+ * Events have always stored their dates as text, normally "yyyy-MM-dd", and
+ * comparing that text only works while every writer uses the same format. Each
+ * date now also has a typed field holding the same day as a number
+ * ({@link #EVENT_START_DAY} for {@code eventStart}, and so on), written whenever the
+ * text is and added to older events by {@link SchemaMigrator}. Comparisons and
+ * Firestore range queries use the typed fields; the text stays for display.
+ */
+public class EventDates {
+
+    public static final String EVENT_START_DAY = "eventStartDay";
+    public static final String EVENT_END_DAY = "eventEndDay";
+    public static final String REGISTRATION_START_DAY = "registrationStartDay";
+    public static final String REGISTRATION_END_DAY = "registrationEndDay";
+
+    /**
+     * Each text date field and the typed field holding the same day.
+     */
+    static final String[][] FIELDS = {
+            {"eventStart", EVENT_START_DAY},
+            {"eventEnd", EVENT_END_DAY},
+            {"registrationStart", REGISTRATION_START_DAY},
+            {"registrationEnd", REGISTRATION_END_DAY},
+    };
+
+    // Also accepts single-digit months and days, and slashes, as older versions wrote them
+    private static final DateTimeFormatter[] FORMATS = {
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("uuuu-M-d"),
+            DateTimeFormatter.ofPattern("uuuu/M/d"),
+    };
+
+    private EventDates() {}
+
+    /**
+     * @param date A date as text, may be null
+     * @return The day, or null if the text is empty or not a date
+     */
+    public static Long parse(String date) {
+        if (date == null) return null;
+        String text = date.trim();
+        if (text.isEmpty()) return null;
+        for (DateTimeFormatter format : FORMATS) {
+            try {
+                return LocalDate.parse(text, format).toEpochDay();
+            } catch (DateTimeParseException ignored) {
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param day An epoch day
+     * @return The day as "yyyy-MM-dd"
+     */
+    public static String format(long day) {
+        return LocalDate.ofEpochDay(day).toString();
+    }
+
+    /**
+     * @return Today on this device
+     */
+    public static long today() {
+        return LocalDate.now().toEpochDay();
+    }
+
+    /**
+     * Works out the typed fields to write along with some event fields.
+     *
+     * @param eventData Fields about to be written to an event
+     * @return The typed field of each text date among them; null where the text is not a date
+     */
+    public static Map<String, Object> typedFields(Map<String, Object> eventData) {
+        Map<String, Object> typed = new HashMap<>();
+        for (String[] field : FIELDS) {
+            if (eventData.containsKey(field[0])) {
+                Object text = eventData.get(field[0]);
+                typed.put(field[1], text instanceof String ? parse((String) text) : null);
+            }
+        }
+        return typed;
+    }
+
+    /** @return The event's first day, or null if unknown */
+    public static Long eventStart(EventDescription d) {
+        return d.getEventStartDay() != null ? d.getEventStartDay() : parse(d.getEventStart());
+    }
+
+    /** @return The event's last day, or null if unknown */
+    public static Long eventEnd(EventDescription d) {
+        return d.getEventEndDay() != null ? d.getEventEndDay() : parse(d.getEventEnd());
+    }
+
+    /** @return The first day of registration, or null if unknown */
+    public static Long registrationStart(EventDescription d) {
+        return d.getRegistrationStartDay() != null ? d.getRegistrationStartDay() : parse(d.getRegistrationStart());
+    }
+
+    /** @return The last day of registration, or null if unknown */
+    public static Long registrationEnd(EventDescription d) {
+        return d.getRegistrationEndDay() != null ? d.getRegistrationEndDay() : parse(d.getRegistrationEnd());
+    }
+
+    /**
+     * Narrows an events query to events taking place on any day from {@code from} to
+     * {@code to}. Range filters on two fields need a composite index on
+     * ({@link #EVENT_START_DAY}, {@link #EVENT_END_DAY}).
+     *
+     * @param query An events query
+     * @param from  First day, inclusive
+     * @param to    Last day, inclusive
+     * @return The narrowed query
+     */
+    public static Query whereOverlapping(Query query, long from, long to) {
+        return query.whereLessThanOrEqualTo(EVENT_START_DAY, to)
+                .whereGreaterThanOrEqualTo(EVENT_END_DAY, from);
+    }
+
+    /**
+     * Narrows an events query to events taking registrations on a day. Needs a
+     * composite index on ({@link #REGISTRATION_START_DAY}, {@link #REGISTRATION_END_DAY}).
+     *
+     * @param query An events query
+     * @param day   The day
+     * @return The narrowed query
+     */
+    public static Query whereRegistrationOpen(Query query, long day) {
+        return query.whereLessThanOrEqualTo(REGISTRATION_START_DAY, day)
+                .whereGreaterThanOrEqualTo(REGISTRATION_END_DAY, day);
+    }
+}
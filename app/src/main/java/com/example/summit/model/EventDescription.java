@@ -1,7 +1,10 @@
 package com.example.summit.model;
 
+import com.google.firebase.firestore.Exclude;
+
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 public class EventDescription {
     private String id;
@@ -15,15 +18,25 @@ public class EventDescription {
     private int maxAttendees; //for organizer limits;
     private String posterUrl;   //for event poster image
 
+    // Entrant statuses by device ID; see EntrantStatusMap
+    private Map<String, String> entrantStatus;
+
+    // Legacy status arrays, only present on events created before entrantStatus
     private List<String> waitingList;
     private List<String> selectedList;
     private List<String> acceptedList;
     private List<String> declinedList;
     private String location;
     private Long capacity;
+    private Long maxWaitingList; // most entrants the waiting list takes; null for no limit
     private String eventStart;
     private String eventEnd;
-    private Boolean requireLocation = false;
+    private Boolean requiredLocation = false;
+    // The dates above as epoch days; see EventDates
+    private Long eventStartDay;
+    private Long eventEndDay;
+    private Long registrationStartDay;
+    private Long registrationEndDay;
 
     private String posterBase64;
 
@@ -31,6 +44,17 @@ public class EventDescription {
     public void setPosterBase64(String posterBase64) { this.posterBase64 = posterBase64; }
 
 
+    public Map<String, String> getEntrantStatus() { return entrantStatus; }
+    public void setEntrantStatus(Map<String, String> entrantStatus) { this.entrantStatus = entrantStatus; }
+
+    /**
+     * @return Every entrant's status, merging the legacy arrays with {@code entrantStatus}
+     */
+    @Exclude
+    public EntrantStatusMap getStatusMap() {
+        return EntrantStatusMap.fromFields(entrantStatus, waitingList, selectedList, acceptedList, declinedList);
+    }
+
     // Getters and setters for these (can stay empty if unused)
     public List<String> getWaitingList() { return waitingList; }
     public void setWaitingList(List<String> waitingList) { this.waitingList = waitingList; }
@@ -53,12 +77,27 @@ public class EventDescription {
     public Long getCapacity() { return capacity; }
     public void setCapacity(Long capacity) { this.capacity = capacity; }
 
+    public Long getMaxWaitingList() { return maxWaitingList; }
+    public void setMaxWaitingList(Long maxWaitingList) { this.maxWaitingList = maxWaitingList; }
+
     public String getEventStart() { return eventStart; }
     public void setEventStart(String eventStart) { this.eventStart = eventStart; }
 
     public String getEventEnd() { return eventEnd; }
     public void setEventEnd(String eventEnd) { this.eventEnd = eventEnd; }
 
+    public Long getEventStartDay() { return eventStartDay; }
+    public void setEventStartDay(Long eventStartDay) { this.eventStartDay = eventStartDay; }
+
+    public Long getEventEndDay() { return eventEndDay; }
+    public void setEventEndDay(Long eventEndDay) { this.eventEndDay = eventEndDay; }
+
+    public Long getRegistrationStartDay() { return registrationStartDay; }
+    public void setRegistrationStartDay(Long registrationStartDay) { this.registrationStartDay = registrationStartDay; }
+
+    public Long getRegistrationEndDay() { return registrationEndDay; }
+    public void setRegistrationEndDay(Long registrationEndDay) { this.registrationEndDay = registrationEndDay; }
+
     public EventDescription(String title, String description,
                             String startDate, String endDate,
                             String registrationStart, String registrationEnd,
@@ -105,7 +144,7 @@ public class EventDescription {
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
-    public Boolean getRequireLocation() {return requireLocation; }
-    public void setRequiredLocation(Boolean requireLocation) {this.requireLocation = requireLocation; }
+    public Boolean getRequiredLocation() {return requiredLocation; }
+    public void setRequiredLocation(Boolean requiredLocation) {this.requiredLocation = requiredLocation; }
 
 }
@@ -0,0 +1,87 @@
+package com.example.summit.model;
+
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds the events queries the app sends to Firestore, so a screen only downloads
+ * the events it shows.
+ * <p>
+ * Only equality filters are planned. Firestore answers them by merging its automatic
+ * single-field indexes, so no plan needs a composite index. The filter dialogs'
+ * criteria (keyword, location, capacity and dates) are still checked on the device,
+ * on events that are already local: the offline {@link EventCatalog}, or the user's
+ * own events.
+ */
+public class EventQueryPlanner {
+
+    /**
+     * One equality filter sent to Firestore.
+     */
+    public static final class Filter {
+        private final String field;
+        private final Object value;
+
+        Filter(String field, Object value) {
+            this.field = field;
+            this.value = value;
+        }
+
+        public String getField() { return field; }
+
+        public Object getValue() { return value; }
+
+        @Override
+        public String toString() {
+            return field + " == " + value;
+        }
+    }
+
+    /**
+     * The filters of one events query.
+     */
+    public static final class Plan {
+        private final List<Filter> serverFilters;
+
+        Plan(List<Filter> serverFilters) {
+            this.serverFilters = Collections.unmodifiableList(serverFilters);
+        }
+
+        /** @return Filters sent to Firestore */
+        public List<Filter> getServerFilters() { return serverFilters; }
+
+        /**
+         * @param events The events collection, or a query on it
+         * @return The query with the server filters added
+         */
+        public Query apply(Query events) {
+            Query query = events;
+            for (Filter filter : serverFilters) {
+                query = query.whereEqualTo(filter.field, filter.value);
+            }
+            return query;
+        }
+    }
+
+    private EventQueryPlanner() {}
+
+    /**
+     * @return A plan for every event
+     */
+    public static Plan all() {
+        return new Plan(new ArrayList<>());
+    }
+
+    /**
+     * @param organizerId An organizer's device ID
+     * @return A plan for all of the organizer's events
+     */
+    public static Plan forOrganizer(String organizerId) {
+        List<Filter> server = new ArrayList<>();
+        server.add(new Filter("organizerId", organizerId));
+        return new Plan(server);
+    }
+}
@@ -14,14 +14,17 @@ import com.example.summit.interfaces.UserLoadCallback;
 import com.google.firebase.firestore.Query;
 import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * A utility class for handling interactions with the Firebase Firestore database.
@@ -122,6 +125,7 @@ public class Firebase {
                 .delete()
                 .addOnSuccessListener(a -> Log.d("Firebase", "Event deleted"))
                 .addOnFailureListener(e -> Log.e("Firebase", "Error: " + e));
+        EventCatalog.entryRef(event.getId()).set(EventCatalog.tombstone());
     }
 
     /**
@@ -135,7 +139,18 @@ public class Firebase {
      * of {@link EventDescription} objects on success, or to handle the error.
      */
     public static void loadEvents(EventLoadCallback callback) {
-        db.collection("events")
+        loadEvents(EventQueryPlanner.all(), callback);
+    }
+
+    /**
+     * Asynchronously loads the events matching a plan. Only events matching its
+     * server filters are read from Firestore.
+     *
+     * @param plan     The query, from {@link EventQueryPlanner}
+     * @param callback Given the matching events, with their IDs set
+     */
+    public static void loadEvents(EventQueryPlanner.Plan plan, EventLoadCallback callback) {
+        plan.apply(db.collection("events"))
                 .get()
                 .addOnSuccessListener(query -> {
                     List<Event> result = new ArrayList<>();
@@ -176,7 +191,7 @@ public class Firebase {
      * <p>
      * Iterates through the list of event IDs and deletes each event
      * document from the 'events' collection and its corresponding QR code from
-     * the 'qrcodes' collection. It tracks the deletion progress and invokes
+     * the 'qrcodes' collection, and marks its {@link EventCatalog} entry deleted. It tracks the deletion progress and invokes
      * the callback when all deletions are complete or if an error occurs.
      *
      * @param eventIds The list of event IDs to delete.
@@ -200,6 +215,9 @@ public class Firebase {
                         Log.e("Firebase", "Error deleting event: " + eventId, e);
                     });
 
+            // Tell devices with a local catalog to drop it
+            EventCatalog.entryRef(eventId).set(EventCatalog.tombstone());
+
             // Delete associated QR code
             db.collection("qrcodes")
                     .document(eventId)
@@ -234,6 +252,13 @@ public class Firebase {
                 return;
             }
 
+            if (value != null) {
+                reportUserChanges(value, "Entrant", doc -> {
+                    Entrant user = doc.toObject(Entrant.class);
+                    return user != null ? new UserProfile(user) : null;
+                }, callback);
+            }
+
             synchronized (allUsers) {
                 // Remove old entrants from the list
                 allUsers.removeIf(u -> "Entrant".equals(u.getRole()));
@@ -269,6 +294,13 @@ public class Firebase {
                 return;
             }
 
+            if (value != null) {
+                reportUserChanges(value, "Organizer", doc -> {
+                    Organizer user = doc.toObject(Organizer.class);
+                    return user != null ? new UserProfile(user) : null;
+                }, callback);
+            }
+
             synchronized (allUsers) {
                 // Remove old organizers from the list
                 allUsers.removeIf(u -> "Organizer".equals(u.getRole()));
@@ -296,6 +328,13 @@ public class Firebase {
                 return;
             }
 
+            if (value != null) {
+                reportUserChanges(value, "Admin", doc -> {
+                    Admin user = doc.toObject(Admin.class);
+                    return user != null ? new UserProfile(user) : null;
+                }, callback);
+            }
+
             synchronized (allUsers) {
                 // Remove old admins from the list
                 allUsers.removeIf(u -> "Admin".equals(u.getRole()));
@@ -316,6 +355,25 @@ public class Firebase {
         });
     }
 
+    /**
+     * Tells a callback which users of one role a snapshot added, modified or removed.
+     */
+    private static void reportUserChanges(QuerySnapshot value, String role,
+                                          Function<DocumentSnapshot, UserProfile> toProfile,
+                                          UserLoadCallback callback) {
+        List<UserProfile> changed = new ArrayList<>();
+        List<String> removedIds = new ArrayList<>();
+        for (DocumentChange change : value.getDocumentChanges()) {
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                removedIds.add(change.getDocument().getId());
+            } else {
+                UserProfile profile = toProfile.apply(change.getDocument());
+                if (profile != null) changed.add(profile);
+            }
+        }
+        callback.onUsersChanged(role, changed, removedIds);
+    }
+
     /**
      * Deletes a single user from the appropriate Firestore collection based on their role.
      *
@@ -533,15 +591,12 @@ public class Firebase {
      * Loads event IDs for a specific organizer.
      */
     public static void loadOrganizerEventIds(String organizerId, EventIdsCallback callback) {
-        db.collection("events")
+        EventQueryPlanner.forOrganizer(organizerId).apply(db.collection("events"))
             .get()
             .addOnSuccessListener(query -> {
                 List<String> eventIds = new ArrayList<>();
                 for (DocumentSnapshot doc : query.getDocuments()) {
-                    EventDescription desc = doc.toObject(EventDescription.class);
-                    if (desc != null && organizerId.equals(desc.getOrganizerId())) {
-                        eventIds.add(doc.getId());
-                    }
+                    eventIds.add(doc.getId());
                 }
                 callback.onEventIdsLoaded(eventIds);
             })
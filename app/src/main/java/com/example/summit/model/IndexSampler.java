@@ -0,0 +1,25 @@
+package com.example.summit.model;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Draws distinct positions from a list without replacement.
+ * <p>
+ * {@link LotterySystem} uses an IndexSampler to decide which waiting list
+ * entrants are invited next, so different draw modes (uniform, weighted)
+ * can be swapped without changing how the lottery hands out invitations.
+ */
+public interface IndexSampler {
+    /**
+     * Draws the next position.
+     *
+     * @return A position that has not been returned before.
+     * @throws NoSuchElementException if no positions are left to draw.
+     */
+    int next();
+
+    /**
+     * @return Number of positions that can still be drawn.
+     */
+    int remaining();
+}
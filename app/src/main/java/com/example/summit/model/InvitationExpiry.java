@@ -0,0 +1,379 @@
+package com.example.summit.model;
+
+import android.util.Log;
+
+import com.example.summit.utils.TimerWheel;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Expires lottery invitations that were not answered in time.
+ * <p>
+ * Every invitation carries an {@code expiresAt} deadline, and the event keeps the
+ * same deadline in its {@code invitationExpiresAt} map (device ID to deadline).
+ * {@link #sweep(String, long)} expires the invitations of one organizer's events.
+ * It finds overdue invitations with a query on {@code eventId in [...]},
+ * {@code status == "pending"} and {@code expiresAt <= now} (a composite index on
+ * the "notifications" collection), {@link #EVENTS_PER_QUERY} events at a time, so it
+ * never scans every notification and never touches other organizers' events. Overdue
+ * invitations are turned into declines page by page, each page in one transaction
+ * that also records a pending {@link ReplacementDraw} on every event that lost an invitee.
+ * <p>
+ * {@link Scheduler} runs in the organizer's app and keeps the upcoming deadlines of
+ * their events in a {@link TimerWheel}, so the sweep query only runs when a
+ * deadline has actually passed.
+ */
+public class InvitationExpiry {
+    private static final String TAG = "InvitationExpiry";
+
+    /**
+     * How long entrants have to answer when the event does not set
+     * {@code invitationWindowMillis}.
+     */
+    public static final long DEFAULT_RESPONSE_WINDOW_MS = TimeUnit.HOURS.toMillis(48);
+
+    /**
+     * Invitations handled per transaction. Each one can write the notification and
+     * its event, which keeps a page under Firestore's 500 write limit.
+     */
+    private static final int SWEEP_PAGE_SIZE = 200;
+
+    /**
+     * Events per notifications query; {@code whereIn} takes at most 30 values.
+     */
+    static final int EVENTS_PER_QUERY = 30;
+
+    private InvitationExpiry() {}
+
+    /**
+     * Returns the deadline for an invitation sent now.
+     *
+     * @param eventDoc  The event the invitation is for
+     * @param timestamp Time the invitation is sent, in epoch milliseconds
+     * @return The deadline in epoch milliseconds
+     */
+    public static long deadlineFor(DocumentSnapshot eventDoc, long timestamp) {
+        Long window = eventDoc.getLong("invitationWindowMillis");
+        return timestamp + (window != null && window > 0 ? window : DEFAULT_RESPONSE_WINDOW_MS);
+    }
+
+    /**
+     * @param eventData The fields of the event the invitation is for
+     * @param timestamp Time the invitation is sent, in epoch milliseconds
+     * @return The deadline in epoch milliseconds
+     */
+    public static long deadlineFor(Map<String, Object> eventData, long timestamp) {
+        Object window = eventData.get("invitationWindowMillis");
+        return timestamp + (window instanceof Number && ((Number) window).longValue() > 0
+                ? ((Number) window).longValue() : DEFAULT_RESPONSE_WINDOW_MS);
+    }
+
+    /**
+     * Turns every pending invitation of an organizer's events whose deadline is at or
+     * before {@code now} into a decline.
+     *
+     * @param organizerId The organizer whose events are swept
+     * @param now         The current time in epoch milliseconds
+     * @return A task holding the number of invitations that expired
+     */
+    public static Task<Integer> sweep(String organizerId, long now) {
+        return eventIdChunks(organizerId).onSuccessTask(chunks -> sweepChunks(chunks, 0, now));
+    }
+
+    /**
+     * Loads the IDs of an organizer's events, split into lists of at most
+     * {@link #EVENTS_PER_QUERY}.
+     */
+    private static Task<List<List<String>>> eventIdChunks(String organizerId) {
+        return FirebaseFirestore.getInstance().collection("events")
+                .whereEqualTo("organizerId", organizerId)
+                .get()
+                .onSuccessTask(events -> {
+                    List<List<String>> chunks = new ArrayList<>();
+                    List<DocumentSnapshot> docs = events.getDocuments();
+                    for (int i = 0; i < docs.size(); i += EVENTS_PER_QUERY) {
+                        List<String> chunk = new ArrayList<>();
+                        for (DocumentSnapshot doc : docs.subList(i, Math.min(i + EVENTS_PER_QUERY, docs.size()))) {
+                            chunk.add(doc.getId());
+                        }
+                        chunks.add(chunk);
+                    }
+                    return Tasks.forResult(chunks);
+                });
+    }
+
+    private static Task<Integer> sweepChunks(List<List<String>> chunks, int index, long now) {
+        if (index >= chunks.size()) {
+            return Tasks.forResult(0);
+        }
+        return sweepEvents(chunks.get(index), now).onSuccessTask(count ->
+                sweepChunks(chunks, index + 1, now).onSuccessTask(more -> Tasks.forResult(count + more)));
+    }
+
+    /**
+     * Expires the overdue invitations of up to {@link #EVENTS_PER_QUERY} events.
+     */
+    private static Task<Integer> sweepEvents(List<String> eventIds, long now) {
+        Query overdue = FirebaseFirestore.getInstance().collection("notifications")
+                .whereIn("eventId", eventIds)
+                .whereEqualTo("status", "pending")
+                .whereLessThanOrEqualTo("expiresAt", now)
+                .orderBy("expiresAt")
+                .limit(SWEEP_PAGE_SIZE);
+
+        return overdue.get().onSuccessTask(page -> {
+            if (page.isEmpty()) {
+                return Tasks.forResult(0);
+            }
+            List<DocumentReference> refs = new ArrayList<>();
+            for (DocumentSnapshot doc : page.getDocuments()) {
+                refs.add(doc.getReference());
+            }
+            boolean fullPage = page.size() == SWEEP_PAGE_SIZE;
+
+            return expire(refs, now).onSuccessTask(count -> {
+                if (!fullPage) {
+                    return Tasks.forResult(count);
+                }
+                return sweepEvents(eventIds, now).onSuccessTask(more -> Tasks.forResult(count + more));
+            });
+        });
+    }
+
+    /**
+     * Declines one page of overdue invitations in a single transaction.
+     * <p>
+     * Each invitation is re-read first, so one answered since the query ran is left alone.
+     *
+     * @return A task holding the number of invitations that expired
+     */
+    private static Task<Integer> expire(List<DocumentReference> refs, long now) {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        return db.runTransaction(transaction -> {
+            Map<String, List<String>> expiredByEvent = new HashMap<>();
+            List<DocumentReference> expiredRefs = new ArrayList<>();
+            for (DocumentReference ref : refs) {
+                DocumentSnapshot doc = transaction.get(ref);
+                Long expiresAt = doc.getLong("expiresAt");
+                String eventId = doc.getString("eventId");
+                String entrantId = doc.getString("entrantId");
+                if (!"pending".equals(doc.getString("status")) || expiresAt == null || expiresAt > now
+                        || eventId == null || entrantId == null) {
+                    continue;
+                }
+                expiredRefs.add(ref);
+                expiredByEvent.computeIfAbsent(eventId, k -> new ArrayList<>()).add(entrantId);
+            }
+
+            for (DocumentReference ref : expiredRefs) {
+                transaction.update(ref, "status", "declined", "expired", true);
+            }
+            for (Map.Entry<String, List<String>> entry : expiredByEvent.entrySet()) {
+                // One update per event keeps the page within the write limit
+                List<String> ids = entry.getValue();
+                List<Object> moreUpdates = new ArrayList<>();
+                for (int i = 0; i < ids.size(); i++) {
+                    if (i > 0) {
+                        moreUpdates.add(EntrantStatusMap.fieldFor(ids.get(i)));
+                        moreUpdates.add(EntrantStatus.DECLINED.name());
+                    }
+                    moreUpdates.add(FieldPath.of("invitationExpiresAt", ids.get(i)));
+                    moreUpdates.add(FieldValue.delete());
+                }
+                moreUpdates.add(ReplacementDraw.PENDING_FIELD);
+                moreUpdates.add(FieldValue.increment(ids.size()));
+                transaction.update(db.collection("events").document(entry.getKey()),
+                        EntrantStatusMap.fieldFor(ids.get(0)), EntrantStatus.DECLINED.name(),
+                        moreUpdates.toArray());
+            }
+            return expiredRefs.size();
+        });
+    }
+
+    /**
+     * Runs {@link #sweep(String, long)} for one organizer whenever a tracked invitation
+     * deadline passes.
+     * <p>
+     * On start it sweeps once, then loads the next pending deadlines of the
+     * organizer's events into a {@link TimerWheel} and checks the wheel every tick.
+     * The sweep query only runs when the wheel reports an expired deadline, and the
+     * upcoming deadlines are reloaded after each sweep. They are also reloaded every
+     * {@link #RELOAD_TICKS} ticks, so invitations sent after the scheduler started,
+     * from this device or another, are tracked too.
+     */
+    public static class Scheduler {
+        private static final long TICK_MS = TimeUnit.MINUTES.toMillis(1);
+        private static final int WHEEL_SLOTS = 512;
+        private static final int UPCOMING_LIMIT = 1000;
+
+        /**
+         * Ticks between reloads of the upcoming deadlines when nothing expired.
+         */
+        public static final int RELOAD_TICKS = 5;
+
+        /**
+         * Where the scheduler finds and expires invitations.
+         */
+        public interface Deadlines {
+            /**
+             * Expires every invitation due at or before {@code now}.
+             *
+             * @param now  The current time in epoch milliseconds
+             * @param done Run once they are expired; not run if expiring failed
+             */
+            void expire(long now, Runnable done);
+
+            /**
+             * Finds the pending invitations due after {@code since}.
+             *
+             * @param since Time of the last load, in epoch milliseconds
+             * @param found Given each invitation's notification ID and deadline
+             */
+            void loadUpcoming(long since, BiConsumer<String, Long> found);
+        }
+
+        private final Deadlines deadlines;
+        private final LongSupplier clock;
+        private final TimerWheel<String> wheel;
+        private ScheduledExecutorService executor;
+        private int ticksSinceReload;
+        // Deadlines after this were loaded into the wheel
+        private volatile long loadedAfter;
+
+        /**
+         * @param organizerId The organizer whose events' invitations are expired
+         */
+        public Scheduler(String organizerId) {
+            this(new FirestoreDeadlines(organizerId), System::currentTimeMillis);
+        }
+
+        /**
+         * @param deadlines Where invitations are found and expired, replaceable for testing
+         * @param clock     Source of the current time, replaceable for testing
+         */
+        public Scheduler(Deadlines deadlines, LongSupplier clock) {
+            this.deadlines = deadlines;
+            this.clock = clock;
+            this.wheel = new TimerWheel<>(clock, TICK_MS, WHEEL_SLOTS);
+        }
+
+        /**
+         * Sweeps once and starts checking deadlines every tick.
+         */
+        public synchronized void start() {
+            if (executor != null) return;
+            executor = Executors.newSingleThreadScheduledExecutor();
+            sweepAndReload();
+            executor.scheduleWithFixedDelay(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Stops checking deadlines.
+         */
+        public synchronized void stop() {
+            if (executor == null) return;
+            executor.shutdownNow();
+            executor = null;
+        }
+
+        /**
+         * Tracks a newly sent invitation without waiting for the next reload.
+         *
+         * @param notificationId ID of the invitation's notification document
+         * @param expiresAt      The invitation's deadline
+         */
+        public void track(String notificationId, long expiresAt) {
+            wheel.schedule(notificationId, expiresAt);
+        }
+
+        /**
+         * Checks the wheel once. {@link #start()} runs this every tick.
+         */
+        public synchronized void tick() {
+            if (!wheel.expire().isEmpty()) {
+                sweepAndReload();
+            } else if (++ticksSinceReload >= RELOAD_TICKS) {
+                // Invitations that fell due since the last load go in the wheel as
+                // already expired, so the next tick sweeps them
+                long since = loadedAfter;
+                ticksSinceReload = 0;
+                loadedAfter = clock.getAsLong();
+                deadlines.loadUpcoming(since, wheel::schedule);
+            }
+        }
+
+        private void sweepAndReload() {
+            long now = clock.getAsLong();
+            ticksSinceReload = 0;
+            deadlines.expire(now, () -> {
+                loadedAfter = now;
+                deadlines.loadUpcoming(now, wheel::schedule);
+            });
+        }
+    }
+
+    /**
+     * Finds and expires the invitations of one organizer's events in Firestore.
+     */
+    private static class FirestoreDeadlines implements Scheduler.Deadlines {
+        private final String organizerId;
+
+        FirestoreDeadlines(String organizerId) {
+            this.organizerId = organizerId;
+        }
+
+        @Override
+        public void expire(long now, Runnable done) {
+            sweep(organizerId, now)
+                    .addOnSuccessListener(count -> {
+                        if (count > 0) Log.d(TAG, count + " invitation(s) expired");
+                        done.run();
+                    })
+                    .addOnFailureListener(e -> Log.e(TAG, "Expiry sweep failed", e));
+        }
+
+        @Override
+        public void loadUpcoming(long since, BiConsumer<String, Long> found) {
+            eventIdChunks(organizerId)
+                    .addOnSuccessListener(chunks -> {
+                        for (List<String> chunk : chunks) {
+                            loadUpcoming(chunk, since, found);
+                        }
+                    })
+                    .addOnFailureListener(e -> Log.e(TAG, "Loading deadlines failed", e));
+        }
+
+        private void loadUpcoming(List<String> eventIds, long since, BiConsumer<String, Long> found) {
+            FirebaseFirestore.getInstance().collection("notifications")
+                    .whereIn("eventId", eventIds)
+                    .whereEqualTo("status", "pending")
+                    .whereGreaterThan("expiresAt", since)
+                    .orderBy("expiresAt")
+                    .limit(Scheduler.UPCOMING_LIMIT)
+                    .get()
+                    .addOnSuccessListener(query -> {
+                        for (DocumentSnapshot doc : query.getDocuments()) {
+                            Long expiresAt = doc.getLong("expiresAt");
+                            if (expiresAt != null) found.accept(doc.getId(), expiresAt);
+                        }
+                    })
+                    .addOnFailureListener(e -> Log.e(TAG, "Loading deadlines failed", e));
+        }
+    }
+}
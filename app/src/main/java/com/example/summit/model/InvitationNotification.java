@@ -0,0 +1,40 @@
+package com.example.summit.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the Firestore document for a lottery invitation.
+ * <p>
+ * Every path that invites an entrant (the organizer's lottery and automatic
+ * replacement draws) writes the same fields, so entrants see the same
+ * accept/decline prompt in {@code NotificationsFragment}.
+ */
+public class InvitationNotification {
+
+    private InvitationNotification() {}
+
+    /**
+     * Creates the notification fields for a pending invitation.
+     *
+     * @param eventId    The event the entrant was selected for
+     * @param eventTitle The event's title, shown in the message
+     * @param entrantId  Device ID of the invited entrant
+     * @param timestamp  Time the invitation was sent, in epoch milliseconds
+     * @param expiresAt  Time the invitation expires if unanswered, see {@link InvitationExpiry}
+     * @return A map ready to be written to the "notifications" collection
+     */
+    public static Map<String, Object> create(String eventId, String eventTitle,
+                                             String entrantId, long timestamp,
+                                             long expiresAt) {
+        Map<String, Object> notif = new HashMap<>();
+        notif.put("entrantId", entrantId);
+        notif.put("eventId", eventId);
+        notif.put("eventTitle", eventTitle);
+        notif.put("message", "You have been selected for \"" + eventTitle + "\"! Please accept or decline.");
+        notif.put("timestamp", timestamp);
+        notif.put("status", "pending");
+        notif.put("expiresAt", expiresAt);
+        return notif;
+    }
+}
@@ -0,0 +1,469 @@
+package com.example.summit.model;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a lottery draw for an event as a single, idempotent Firestore transaction.
+ * <p>
+ * Every draw is identified by a draw ID chosen by the caller. The transaction
+ * reads the draw log entry {@code events/{eventId}/draws/{drawId}} first; if it
+ * already exists, the draw was applied before (for example by a retry whose
+ * response was lost) and its stored result is returned without writing anything.
+ * <p>
+ * Otherwise the transaction checks capacity, draws waiting entrants for the open
+ * spots (capacity minus the entrants holding a spot in the {@link EntrantStatusMap}),
+ * marks them {@link EntrantStatus#SELECTED}, saves the event's
+ * {@link LotteryState}, writes the draw log entry and writes one invitation per
+ * entrant with its {@link InvitationExpiry} deadline. Invitation documents are named {@code {drawId}_{entrantId}}, so an
+ * invitation can never be written twice for the same draw. Because Firestore
+ * retries transactions that raced with another write, two organizer devices
+ * drawing at once cannot overfill the event.
+ * <p>
+ * One transaction invites at most {@link #MAX_INVITES} entrants, which keeps it
+ * within Firestore's 500 writes. A draw with more open spots is committed in parts:
+ * each part is its own transaction with its own draw ID ({@link #partId}), and
+ * continues the draw order the previous part stored in the event, until the spots
+ * are filled or the waiting list runs out. Retrying the draw walks the same parts,
+ * so parts that were applied are not applied again.
+ */
+public class LotteryDraw {
+
+    /**
+     * What happened when a draw was run.
+     */
+    public enum Status {
+        /** Entrants were drawn and invited. */
+        APPLIED,
+        /** A draw with this ID was already applied; nothing was written. */
+        ALREADY_APPLIED,
+        /** The event has no open spots. */
+        FULL,
+        /** Nobody is on the waiting list. */
+        EMPTY_WAITING_LIST,
+        /** The event does not exist. */
+        NOT_FOUND
+    }
+
+    /**
+     * The outcome of {@link #run(String, String, Map)}.
+     */
+    public static class Result {
+        private final Status status;
+        private final List<String> invitedIds;
+
+        public Result(Status status, List<String> invitedIds) {
+            this.status = status;
+            this.invitedIds = invitedIds;
+        }
+
+        public Status getStatus() { return status; }
+
+        /**
+         * @return Device IDs invited by this draw; empty unless the status is
+         * {@link Status#APPLIED} or {@link Status#ALREADY_APPLIED}
+         */
+        public List<String> getInvitedIds() { return invitedIds; }
+    }
+
+    /**
+     * Most entrants one transaction invites: with the event update and the draw log,
+     * one invitation each, that is {@link BatchLottery#MAX_BATCH_OPS} writes.
+     */
+    public static final int MAX_INVITES = BatchLottery.MAX_BATCH_OPS - 2;
+
+    /**
+     * Most IDs Firestore accepts in one {@code whereIn} filter.
+     */
+    static final int PROFILE_CHUNK = 30;
+
+    private LotteryDraw() {}
+
+    /**
+     * Draws entrants into every open spot of an event.
+     * <p>
+     * If the event has a {@code lotteryCityQuotas} map, that many seats are reserved
+     * for each city, less those already held by selected entrants. Otherwise, if it
+     * has a {@code lotteryCityWeights} map, the draw is weighted by city (unlisted
+     * cities get a weight of 1). Both use {@code profiles} to look up each entrant's
+     * city; if none are given, they are loaded first. Otherwise the draw continues
+     * the event's stored order.
+     *
+     * @param eventId  The event to draw for
+     * @param drawId   Unique ID for this draw; reuse it when retrying the same draw
+     * @param profiles Loaded entrant profiles by device ID, may be null
+     * @return A task holding the draw's result
+     */
+    public static Task<Result> run(String eventId, String drawId, Map<String, Entrant> profiles) {
+        if (profiles != null) {
+            return runParts(eventId, drawId, profiles, 0, new ArrayList<>());
+        }
+        return FirebaseFirestore.getInstance().collection("events").document(eventId).get()
+                .onSuccessTask(doc -> doc.exists() && needsProfiles(doc.getData())
+                        ? loadProfiles(EntrantStatusMap.from(doc).ids())
+                        : Tasks.forResult(null))
+                .onSuccessTask(loaded -> runParts(eventId, drawId, loaded, 0, new ArrayList<>()));
+    }
+
+    /**
+     * @param data An event's fields
+     * @return Whether the event draws by city, so its draws need the entrants' profiles
+     */
+    public static boolean needsProfiles(Map<String, Object> data) {
+        Object weights = data.get("lotteryCityWeights");
+        Object quotas = data.get("lotteryCityQuotas");
+        return weights instanceof Map && !((Map<?, ?>) weights).isEmpty()
+                || quotas instanceof Map && !((Map<?, ?>) quotas).isEmpty();
+    }
+
+    /**
+     * Loads entrant profiles, {@link #PROFILE_CHUNK} IDs per query.
+     *
+     * @param ids Device IDs
+     * @return A task holding the profiles found, by device ID
+     */
+    public static Task<Map<String, Entrant>> loadProfiles(Collection<String> ids) {
+        List<String> all = new ArrayList<>(ids);
+        List<Task<QuerySnapshot>> queries = new ArrayList<>();
+        CollectionReference entrants = FirebaseFirestore.getInstance().collection("entrants");
+        for (int i = 0; i < all.size(); i += PROFILE_CHUNK) {
+            queries.add(entrants.whereIn(FieldPath.documentId(),
+                    all.subList(i, Math.min(i + PROFILE_CHUNK, all.size()))).get());
+        }
+        return Tasks.whenAllSuccess(queries).onSuccessTask(results -> {
+            Map<String, Entrant> profiles = new HashMap<>();
+            for (Object result : results) {
+                for (Entrant e : ((QuerySnapshot) result).toObjects(Entrant.class)) {
+                    profiles.put(e.getDeviceId(), e);
+                }
+            }
+            return Tasks.forResult(profiles);
+        });
+    }
+
+    /**
+     * Picks entrants by the event's city quotas or weights.
+     *
+     * @param data    The event's fields
+     * @param waiting Entrants to draw from, with their cities
+     * @param taken   Entrants already holding a spot, with their cities; they count
+     *                against their city's quota
+     * @param open    Spots to fill
+     * @param seed    Seed for the draw
+     * @return The drawn entrants' device IDs, or null if the event does not draw by city
+     */
+    public static List<String> drawByCity(Map<String, Object> data, WaitingList waiting,
+                                          Collection<Entrant> taken, int open, long seed) {
+        LotterySystem lottery = cityLottery(data, open, seed, taken);
+        if (lottery == null) return null;
+        List<String> invitedIds = new ArrayList<>();
+        for (Entrant e : lottery.sampleEntrants(waiting, open)) {
+            invitedIds.add(e.getDeviceId());
+        }
+        return invitedIds;
+    }
+
+    private static LotterySystem cityLottery(Map<String, Object> data, int open, long seed,
+                                             Collection<Entrant> taken) {
+        Map<String, Number> cityWeights = (Map<String, Number>) data.get("lotteryCityWeights");
+        Map<String, Number> cityQuotas = (Map<String, Number>) data.get("lotteryCityQuotas");
+        if (cityQuotas != null && !cityQuotas.isEmpty()) {
+            LotterySystem lottery = new LotterySystem(open, seed);
+            lottery.setStratumPolicy(new CityQuotaPolicy(cityQuotas).minus(taken));
+            return lottery;
+        }
+        if (cityWeights != null && !cityWeights.isEmpty()) {
+            LotterySystem lottery = new LotterySystem(open, seed);
+            lottery.setWeightPolicy(new CityWeightPolicy(cityWeights, 1.0));
+            return lottery;
+        }
+        return null;
+    }
+
+    /**
+     * @param drawId A draw's ID
+     * @param part   Which of its transactions, from 0
+     * @return The ID that part is logged and its invitations are named under
+     */
+    public static String partId(String drawId, int part) {
+        return part == 0 ? drawId : drawId + "-" + part;
+    }
+
+    /**
+     * @param part What one part of a draw did
+     * @return Whether it invited as many as a part may, so spots may still be open
+     */
+    public static boolean filledPart(Result part) {
+        return filledPart(part, MAX_INVITES);
+    }
+
+    /**
+     * @param part       What one part of a draw did
+     * @param maxInvites Most entrants a part of that draw invites
+     * @return Whether it invited that many, so spots may still be open
+     */
+    public static boolean filledPart(Result part, int maxInvites) {
+        return (part.getStatus() == Status.APPLIED || part.getStatus() == Status.ALREADY_APPLIED)
+                && part.getInvitedIds().size() >= maxInvites;
+    }
+
+    /**
+     * Combines the parts of one draw.
+     *
+     * @param parts What each part did, in order; the first one decides the status
+     *              unless anyone was invited
+     * @return The draw's result, with everyone any part invited
+     */
+    public static Result combine(List<Result> parts) {
+        if (parts.size() == 1) return parts.get(0);
+        List<String> invitedIds = new ArrayList<>();
+        boolean applied = false;
+        for (Result part : parts) {
+            invitedIds.addAll(part.getInvitedIds());
+            if (part.getStatus() == Status.APPLIED) applied = true;
+        }
+        if (invitedIds.isEmpty()) return parts.get(0);
+        return new Result(applied ? Status.APPLIED : Status.ALREADY_APPLIED, invitedIds);
+    }
+
+    private static Task<Result> runParts(String eventId, String drawId, Map<String, Entrant> profiles,
+                                         int part, List<Result> done) {
+        return runPart(eventId, partId(drawId, part), profiles).onSuccessTask(result -> {
+            done.add(result);
+            return filledPart(result)
+                    ? runParts(eventId, drawId, profiles, part + 1, done)
+                    : Tasks.forResult(combine(done));
+        });
+    }
+
+    private static Task<Result> runPart(String eventId, String drawId, Map<String, Entrant> profiles) {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference drawRef = eventRef.collection("draws").document(drawId);
+        long freshSeed = new SecureRandom().nextLong();
+
+        return db.runTransaction(transaction -> {
+            // All reads happen before any write
+            DocumentSnapshot previous = transaction.get(drawRef);
+            if (previous.exists()) {
+                List<String> ids = (List<String>) previous.get("invitedIds");
+                return new Result(Status.ALREADY_APPLIED, ids != null ? ids : new ArrayList<>());
+            }
+
+            DocumentSnapshot doc = transaction.get(eventRef);
+            Plan plan = plan(doc, freshSeed, profiles, MAX_INVITES);
+            if (plan.result.getStatus() == Status.APPLIED) {
+                plan.writeTo(writerFor(transaction), drawId, System.currentTimeMillis());
+            }
+            return plan.result;
+        });
+    }
+
+    /**
+     * Works out a draw from an event snapshot without writing anything.
+     *
+     * @param doc        The event
+     * @param freshSeed  Seed used if the event has no stored draw order, or for weighted draws
+     * @param profiles   Loaded entrant profiles by device ID, may be null
+     * @param maxInvites Most entrants to invite, even if more spots are open
+     * @return The planned draw; its result is {@link Status#APPLIED} if anyone would be invited
+     */
+    static Plan plan(DocumentSnapshot doc, long freshSeed, Map<String, Entrant> profiles, int maxInvites) {
+        if (!doc.exists()) {
+            return new Plan(doc.getId(), null, new Result(Status.NOT_FOUND, new ArrayList<>()), 0, null);
+        }
+        return plan(doc.getId(), doc.getData(), freshSeed, profiles, maxInvites);
+    }
+
+    /**
+     * Works out a draw from an event's fields without writing anything.
+     *
+     * @param eventId    The event
+     * @param data       The event's fields
+     * @param freshSeed  Seed used if the event has no stored draw order, or for weighted draws
+     * @param profiles   Loaded entrant profiles by device ID, may be null
+     * @param maxInvites Most entrants to invite, even if more spots are open
+     * @return The planned draw; its result is {@link Status#APPLIED} if anyone would be invited
+     */
+    public static Plan plan(String eventId, Map<String, Object> data, long freshSeed,
+                            Map<String, Entrant> profiles, int maxInvites) {
+        Object capacityField = data.get("capacity");
+        EntrantStatusMap statuses = EntrantStatusMap.fromData(data);
+        if (statuses.count(EntrantStatus.WAITING) == 0) {
+            return new Plan(eventId, data, new Result(Status.EMPTY_WAITING_LIST, new ArrayList<>()), 0, null);
+        }
+        int capacity = capacityField instanceof Number ? ((Number) capacityField).intValue() : 0;
+        int open = Math.min(capacity - statuses.countHoldingSpots(), maxInvites);
+        if (open <= 0) {
+            return new Plan(eventId, data, new Result(Status.FULL, new ArrayList<>()), 0, null);
+        }
+
+        // The stored map's order differs between reads; every device must draw from the same order
+        List<String> waitingList = statuses.idsWith(EntrantStatus.WAITING);
+        Collections.sort(waitingList);
+        WaitingList wl = new WaitingList();
+        for (String entrantId : waitingList) {
+            Entrant profile = profiles != null ? profiles.get(entrantId) : null;
+            wl.addEntrant(profile != null ? profile : new Entrant(entrantId));
+        }
+
+        // Continue the event's stored draw order, or start one on the first run
+        LotteryState state = LotteryState.fromMap((Map<String, Object>) data.get("lotteryState"));
+        if (state == null) {
+            state = new LotteryState(freshSeed);
+        }
+
+        // Seats already held by selected entrants count against their city's quota
+        List<Entrant> taken = new ArrayList<>();
+        if (profiles != null) {
+            for (String entrantId : statuses.idsWith(EntrantStatus.SELECTED, EntrantStatus.ACCEPTED)) {
+                Entrant profile = profiles.get(entrantId);
+                if (profile != null) taken.add(profile);
+            }
+        }
+        LotterySystem lottery = cityLottery(data, open, freshSeed, taken);
+        if (lottery == null) {
+            lottery = new LotterySystem(open, state);
+        }
+
+        List<String> invitedIds = new ArrayList<>();
+        for (Entrant e : lottery.sampleEntrants(wl, open)) {
+            invitedIds.add(e.getDeviceId());
+        }
+        return new Plan(eventId, data, new Result(Status.APPLIED, invitedIds), lottery.getSeed(), state);
+    }
+
+    /**
+     * A draw worked out by {@link #plan} but not yet written.
+     */
+    public static class Plan {
+        final String eventId;
+        final Map<String, Object> eventData;
+        final Result result;
+        final long seed;
+        final LotteryState state;
+
+        Plan(String eventId, Map<String, Object> eventData, Result result, long seed, LotteryState state) {
+            this.eventId = eventId;
+            this.eventData = eventData;
+            this.result = result;
+            this.seed = seed;
+            this.state = state;
+        }
+
+        public Result getResult() { return result; }
+
+        /**
+         * @return Number of writes {@link #writeTo} makes: the event, the draw log
+         * and one invitation per entrant
+         */
+        public int writeCount() {
+            return result.getStatus() == Status.APPLIED ? result.getInvitedIds().size() + 2 : 0;
+        }
+
+        /**
+         * Writes the event update, the draw log entry and the invitations.
+         */
+        void writeTo(Writer writer, String drawId, long timestamp) {
+            FirebaseFirestore db = FirebaseFirestore.getInstance();
+            DocumentReference eventRef = db.collection("events").document(eventId);
+            List<String> invitedIds = result.getInvitedIds();
+            long expiresAt = InvitationExpiry.deadlineFor(eventData, timestamp);
+
+            List<Object> moreUpdates = new ArrayList<>();
+            for (String entrantId : invitedIds) {
+                moreUpdates.add(EntrantStatusMap.fieldFor(entrantId));
+                moreUpdates.add(EntrantStatus.SELECTED.name());
+            }
+            moreUpdates.add(FieldPath.of("lotteryState"));
+            moreUpdates.add(state.toMap());
+            for (String entrantId : invitedIds) {
+                moreUpdates.add(FieldPath.of("invitationExpiresAt", entrantId));
+                moreUpdates.add(expiresAt);
+            }
+            writer.update(eventRef,
+                    FieldPath.of("lotterySeed"), seed,
+                    moreUpdates.toArray());
+
+            Map<String, Object> log = new HashMap<>();
+            log.put("drawId", drawId);
+            log.put("invitedIds", invitedIds);
+            log.put("seed", seed);
+            log.put("timestamp", timestamp);
+            writer.set(eventRef.collection("draws").document(drawId), log);
+
+            Object title = eventData.get("title");
+            for (String entrantId : invitedIds) {
+                writer.set(db.collection("notifications").document(drawId + "_" + entrantId),
+                        InvitationNotification.create(eventId, title instanceof String ? (String) title : null,
+                                entrantId, timestamp, expiresAt));
+            }
+        }
+    }
+
+    /**
+     * The writes a draw makes. {@link Transaction} and {@link WriteBatch}
+     * both have these methods but share no interface.
+     */
+    public interface Writer {
+        void set(DocumentReference ref, Map<String, Object> data);
+
+        void update(DocumentReference ref, FieldPath field, Object value, Object... moreFieldsAndValues);
+
+        void delete(DocumentReference ref);
+    }
+
+    static Writer writerFor(Transaction transaction) {
+        return new Writer() {
+            @Override
+            public void set(DocumentReference ref, Map<String, Object> data) {
+                transaction.set(ref, data);
+            }
+
+            @Override
+            public void update(DocumentReference ref, FieldPath field, Object value, Object... more) {
+                transaction.update(ref, field, value, more);
+            }
+
+            @Override
+            public void delete(DocumentReference ref) {
+                transaction.delete(ref);
+            }
+        };
+    }
+
+    static Writer writerFor(WriteBatch batch) {
+        return new Writer() {
+            @Override
+            public void set(DocumentReference ref, Map<String, Object> data) {
+                batch.set(ref, data);
+            }
+
+            @Override
+            public void update(DocumentReference ref, FieldPath field, Object value, Object... more) {
+                batch.update(ref, field, value, more);
+            }
+
+            @Override
+            public void delete(DocumentReference ref) {
+                batch.delete(ref);
+            }
+        };
+    }
+}
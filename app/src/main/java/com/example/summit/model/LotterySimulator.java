@@ -0,0 +1,317 @@
+package com.example.summit.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Estimates how many entrants to invite so that enough of them accept.
+ * <p>
+ * Each simulated trial draws invitees with a {@link LotterySystem}, has each of them
+ * accept with the event's acceptance rate, and counts how many accepted. The rate is
+ * not fixed: every trial picks one from a Beta distribution fitted to the accept and
+ * decline counts in the {@link History}, so a short history gives wider results than
+ * a long one. Trials run in parallel on all cores, and every trial has its own seed
+ * derived from the simulator's seed, so results do not depend on the thread count.
+ * <p>
+ * The oversampling factor is the number of invitations divided by the capacity.
+ * {@link #recommend(double, double, double)} tries factors in steps and picks the
+ * smallest one that fills the event with the requested probability.
+ */
+public class LotterySimulator {
+
+    /**
+     * z value for the 95% confidence bounds.
+     */
+    private static final double Z_95 = 1.96;
+
+    /**
+     * Past responses used to estimate how likely an invitee is to accept.
+     */
+    public static class History {
+        private final int accepted;
+        private final int declined;
+
+        public History(int accepted, int declined) {
+            if (accepted < 0 || declined < 0) {
+                throw new IllegalArgumentException("Counts must not be negative");
+            }
+            this.accepted = accepted;
+            this.declined = declined;
+        }
+
+        /**
+         * Counts the responses stored on an event. Events that still have the legacy
+         * {@code acceptedList} and {@code declinedList} arrays are covered too, since
+         * {@link EntrantStatusMap#from} merges them.
+         *
+         * @param statuses The event's statuses
+         * @return The event's history
+         */
+        public static History of(EntrantStatusMap statuses) {
+            return new History(statuses.count(EntrantStatus.ACCEPTED), statuses.count(EntrantStatus.DECLINED));
+        }
+
+        /**
+         * @return A history holding the responses of both
+         */
+        public History plus(History other) {
+            return new History(accepted + other.accepted, declined + other.declined);
+        }
+
+        public int getAccepted() { return accepted; }
+        public int getDeclined() { return declined; }
+
+        /**
+         * @return Share of responses that were accepts, or 0.5 with no responses
+         */
+        public double getAcceptRate() {
+            int total = accepted + declined;
+            return total == 0 ? 0.5 : (double) accepted / total;
+        }
+    }
+
+    /**
+     * The simulated results of inviting a given number of entrants.
+     */
+    public static class Outcome {
+        private final double factor;
+        private final int invites;
+        private final double meanAccepted;
+        private final int acceptedLow;
+        private final int acceptedHigh;
+        private final double fillProbability;
+        private final double fillLower;
+        private final double fillUpper;
+        private final double overbookProbability;
+
+        Outcome(double factor, int invites, double meanAccepted, int acceptedLow, int acceptedHigh,
+                double fillProbability, double fillLower, double fillUpper, double overbookProbability) {
+            this.factor = factor;
+            this.invites = invites;
+            this.meanAccepted = meanAccepted;
+            this.acceptedLow = acceptedLow;
+            this.acceptedHigh = acceptedHigh;
+            this.fillProbability = fillProbability;
+            this.fillLower = fillLower;
+            this.fillUpper = fillUpper;
+            this.overbookProbability = overbookProbability;
+        }
+
+        /** @return Invitations per spot */
+        public double getFactor() { return factor; }
+
+        /** @return Invitations sent; never more than the waiting list holds */
+        public int getInvites() { return invites; }
+
+        /** @return Average number of invitees who accepted */
+        public double getMeanAccepted() { return meanAccepted; }
+
+        /** @return 5th percentile of the number who accepted */
+        public int getAcceptedLow() { return acceptedLow; }
+
+        /** @return 95th percentile of the number who accepted */
+        public int getAcceptedHigh() { return acceptedHigh; }
+
+        /** @return Share of trials where at least the capacity accepted */
+        public double getFillProbability() { return fillProbability; }
+
+        /** @return Lower 95% bound of the fill probability */
+        public double getFillLower() { return fillLower; }
+
+        /** @return Upper 95% bound of the fill probability */
+        public double getFillUpper() { return fillUpper; }
+
+        /** @return Share of trials where more than the capacity accepted */
+        public double getOverbookProbability() { return overbookProbability; }
+    }
+
+    /**
+     * The factor chosen by {@link #recommend(double, double, double)} and every factor tried.
+     */
+    public static class Recommendation {
+        private final Outcome chosen;
+        private final List<Outcome> outcomes;
+        private final boolean targetMet;
+
+        Recommendation(Outcome chosen, List<Outcome> outcomes, boolean targetMet) {
+            this.chosen = chosen;
+            this.outcomes = outcomes;
+            this.targetMet = targetMet;
+        }
+
+        /**
+         * @return The smallest factor that met the target, or the factor with the
+         * highest fill probability if none did
+         */
+        public Outcome getChosen() { return chosen; }
+
+        public List<Outcome> getOutcomes() { return outcomes; }
+
+        /**
+         * @return Whether the chosen factor's lower bound reached the target
+         */
+        public boolean isTargetMet() { return targetMet; }
+    }
+
+    private final int capacity;
+    private final WaitingList waitingList;
+    private final History history;
+    private final long[] trialSeeds;
+
+    /**
+     * @param capacity        Spots to fill
+     * @param waitingListSize Entrants available to invite
+     * @param history         Past responses the acceptance rate is estimated from
+     * @param trials          Number of simulated draws per factor
+     * @param seed            Seed that fixes the results
+     */
+    public LotterySimulator(int capacity, int waitingListSize, History history, int trials, long seed) {
+        if (capacity <= 0 || waitingListSize < 0 || trials <= 0) {
+            throw new IllegalArgumentException("capacity and trials must be positive, waitingListSize not negative");
+        }
+        this.capacity = capacity;
+        this.history = history;
+        this.waitingList = new WaitingList();
+        for (int i = 0; i < waitingListSize; i++) {
+            waitingList.addEntrant(new Entrant("sim-" + i));
+        }
+        this.trialSeeds = new SplittableRandom(seed).longs(trials).toArray();
+    }
+
+    /**
+     * Simulates inviting {@code ceil(capacity * factor)} entrants.
+     *
+     * @param factor Invitations per spot, at least 1
+     * @return The simulated results
+     */
+    public Outcome simulate(double factor) {
+        if (factor < 1) {
+            throw new IllegalArgumentException("factor must be at least 1");
+        }
+        int invites = (int) Math.min(waitingList.getTotalEntrants(), Math.ceil(capacity * factor));
+
+        // Trials share seeds across factors, so factors are compared on the same rates
+        int[] accepted = IntStream.range(0, trialSeeds.length)
+                .parallel()
+                .map(trial -> runTrial(trialSeeds[trial], invites))
+                .toArray();
+
+        int trials = accepted.length;
+        long sum = 0;
+        int filled = 0;
+        int overbooked = 0;
+        for (int a : accepted) {
+            sum += a;
+            if (a >= capacity) filled++;
+            if (a > capacity) overbooked++;
+        }
+        Arrays.sort(accepted);
+        double fill = (double) filled / trials;
+        double[] bounds = wilsonBounds(filled, trials);
+        return new Outcome(factor, invites, (double) sum / trials,
+                accepted[(int) (0.05 * (trials - 1))], accepted[(int) Math.ceil(0.95 * (trials - 1))],
+                fill, bounds[0], bounds[1], (double) overbooked / trials);
+    }
+
+    /**
+     * Finds the smallest oversampling factor that fills the event with the target probability.
+     * <p>
+     * A factor qualifies when the lower 95% bound of its fill probability is at least
+     * {@code targetProbability}. Factors are tried from 1 up to {@code maxFactor}.
+     *
+     * @param targetProbability Wanted chance of filling every spot, e.g. 0.9
+     * @param maxFactor         Largest factor to try
+     * @param step              Increase between factors tried
+     * @return The recommendation and every outcome simulated
+     */
+    public Recommendation recommend(double targetProbability, double maxFactor, double step) {
+        if (step <= 0 || maxFactor < 1) {
+            throw new IllegalArgumentException("step must be positive and maxFactor at least 1");
+        }
+        List<Outcome> outcomes = new ArrayList<>();
+        Outcome best = null;
+        int steps = (int) Math.floor((maxFactor - 1) / step + 1e-9);
+        for (int i = 0; i <= steps; i++) {
+            Outcome outcome = simulate(1 + i * step);
+            outcomes.add(outcome);
+            if (outcome.getFillLower() >= targetProbability) {
+                return new Recommendation(outcome, outcomes, true);
+            }
+            if (best == null || outcome.getFillProbability() > best.getFillProbability()) {
+                best = outcome;
+            }
+            if (outcome.getInvites() == waitingList.getTotalEntrants()) {
+                break; // inviting everyone already; larger factors change nothing
+            }
+        }
+        return new Recommendation(best, outcomes, false);
+    }
+
+    /**
+     * Runs one simulated draw and returns how many invitees accepted.
+     */
+    private int runTrial(long trialSeed, int invites) {
+        SplittableRandom random = new SplittableRandom(trialSeed);
+        double acceptRate = nextBeta(random, history.getAccepted() + 1, history.getDeclined() + 1);
+
+        LotterySystem lottery = new LotterySystem(invites, random.nextLong());
+        for (Entrant invitee : lottery.sampleEntrants(waitingList, invites)) {
+            lottery.handleEntrantResponse(invitee, random.nextDouble() < acceptRate);
+        }
+        return lottery.getAccepted().size();
+    }
+
+    /**
+     * Wilson score interval for a proportion.
+     *
+     * @return The lower and upper bound
+     */
+    static double[] wilsonBounds(int successes, int trials) {
+        double p = (double) successes / trials;
+        double z2 = Z_95 * Z_95;
+        double denominator = 1 + z2 / trials;
+        double center = (p + z2 / (2.0 * trials)) / denominator;
+        double margin = Z_95 * Math.sqrt(p * (1 - p) / trials + z2 / (4.0 * trials * trials)) / denominator;
+        return new double[] {Math.max(0, center - margin), Math.min(1, center + margin)};
+    }
+
+    // Beta(a, b) as X / (X + Y) with X ~ Gamma(a) and Y ~ Gamma(b)
+    private static double nextBeta(SplittableRandom random, double a, double b) {
+        double x = nextGamma(random, a);
+        double y = nextGamma(random, b);
+        return x / (x + y);
+    }
+
+    // Marsaglia and Tsang's method; shape is always at least 1 here
+    private static double nextGamma(SplittableRandom random, double shape) {
+        double d = shape - 1.0 / 3.0;
+        double c = 1.0 / Math.sqrt(9 * d);
+        while (true) {
+            double x = nextGaussian(random);
+            double v = 1 + c * x;
+            if (v <= 0) continue;
+            v = v * v * v;
+            double u = 1.0 - random.nextDouble();
+            if (u < 1 - 0.0331 * x * x * x * x
+                    || Math.log(u) < 0.5 * x * x + d * (1 - v + Math.log(v))) {
+                return d * v;
+            }
+        }
+    }
+
+    // Marsaglia's polar method
+    private static double nextGaussian(SplittableRandom random) {
+        double u;
+        double v;
+        double s;
+        do {
+            u = 2 * random.nextDouble() - 1;
+            v = 2 * random.nextDouble() - 1;
+            s = u * u + v * v;
+        } while (s >= 1 || s == 0);
+        return u * Math.sqrt(-2 * Math.log(s) / s);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.summit.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The persisted position of an event's lottery, stored on the event document
+ * as {@code lotteryState}.
+ * <p>
+ * Instead of saving the shuffled waiting list, an event stores only the seed
+ * of its draw order and a cursor into that order. The order itself is
+ * regenerated on demand by {@link SeededOrderSampler}: every device ID gets a
+ * rank from the seed, and entrants are drawn in increasing rank. The cursor is
+ * the rank of the last entrant drawn, so the next round continues right after
+ * it, even though drawn entrants have since left the waiting list and new
+ * entrants may have joined.
+ */
+public class LotteryState {
+    private long seed;
+    private long cursor;
+    private long drawn;
+
+    public LotteryState() {} // Firestore needs empty constructor
+
+    /**
+     * Creates the state for an event that has not been drawn yet.
+     *
+     * @param seed Seed that fixes the event's draw order
+     */
+    public LotteryState(long seed) {
+        this.seed = seed;
+        this.cursor = 0;
+        this.drawn = 0;
+    }
+
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+
+    /**
+     * @return Rank of the last entrant drawn; only meaningful once {@link #getDrawn()} is above 0
+     */
+    public long getCursor() { return cursor; }
+    public void setCursor(long cursor) { this.cursor = cursor; }
+
+    /**
+     * @return Total number of entrants drawn for this event across all rounds
+     */
+    public long getDrawn() { return drawn; }
+    public void setDrawn(long drawn) { this.drawn = drawn; }
+
+    /**
+     * Moves the cursor past an entrant that was just drawn.
+     *
+     * @param rank The drawn entrant's rank
+     */
+    void advance(long rank) {
+        this.cursor = rank;
+        this.drawn++;
+    }
+
+    /**
+     * @return The state as a map, for writing inside a Firestore update
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("seed", seed);
+        map.put("cursor", cursor);
+        map.put("drawn", drawn);
+        return map;
+    }
+
+    /**
+     * Reads a state written by {@link #toMap()}.
+     *
+     * @param map The {@code lotteryState} field of an event, may be null
+     * @return The stored state, or {@code null} if the map is missing or incomplete
+     */
+    public static LotteryState fromMap(Map<String, Object> map) {
+        if (map == null || !(map.get("seed") instanceof Number)) {
+            return null;
+        }
+        LotteryState state = new LotteryState(((Number) map.get("seed")).longValue());
+        if (map.get("cursor") instanceof Number) {
+            state.cursor = ((Number) map.get("cursor")).longValue();
+        }
+        if (map.get("drawn") instanceof Number) {
+            state.drawn = ((Number) map.get("drawn")).longValue();
+        }
+        return state;
+    }
+}
@@ -1,14 +1,24 @@
 package com.example.summit.model;
 
-import static java.util.Collections.shuffle;
+import com.example.summit.interfaces.EntrantStratumPolicy;
+import com.example.summit.interfaces.EntrantWeightPolicy;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public class LotterySystem {
-    // Represents the next in like entrants
+    // Entrants being drawn from, in waiting list order
     List<Entrant> waitingListEntrantOrder;
+    // Draws entrants from the waiting list in a seeded random order
+    IndexSampler sampler;
+    long seed;
+    // When set, entrants are drawn with odds proportional to their weight
+    EntrantWeightPolicy weightPolicy;
+    // When set, each stratum's reserved seats are drawn from its own entrants first
+    EntrantStratumPolicy stratumPolicy;
+    // When set, draws continue the event's persisted order instead of starting a new one
+    LotteryState state;
     int totalEntrantsAcceptedInvited = 0;
     int totalSpots;
     // Represents currently invited entrants
@@ -18,11 +28,40 @@ public class LotterySystem {
     List<Entrant> acceptedEntrants;
 
     public LotterySystem(int totalSpots) {
+        this(totalSpots, new Random().nextLong());
+    }
+
+    /***
+     * Creates a lottery whose draw order is fixed by the given seed
+     * <br>
+     * Running the same seed against the same waiting list picks the same entrants,
+     * so a recorded seed is enough to reproduce a draw
+     *
+     * @param totalSpots - Total number of spots available for the event
+     * @param seed - Seed for the random draw order
+     */
+    public LotterySystem(int totalSpots, long seed) {
         this.totalSpots = totalSpots;
+        this.seed = seed;
         this.invitedEntrantList = new ArrayList<>();
         this.acceptedEntrants = new ArrayList<>();
     }
 
+    /***
+     * Creates a lottery that continues an event's persisted draw order
+     * <br>
+     * Entrants are drawn in the order fixed by the state's seed, starting after its cursor.
+     * The state is advanced as entrants are drawn, so saving it after the round lets the
+     * next round carry on from the same place
+     *
+     * @param totalSpots - Total number of spots available for the event
+     * @param state - Persisted draw order; updated by sampleEntrants
+     */
+    public LotterySystem(int totalSpots, LotteryState state) {
+        this(totalSpots, state.getSeed());
+        this.state = state;
+    }
+
 
 
 
@@ -30,6 +69,9 @@ public class LotterySystem {
      * Randomly samples entrants from a waiting list
      * <br>
      * The list is stored within lottery system, and subsequent calls sample from the same list
+     * <br>
+     * Only the entrants actually drawn are visited, so the cost grows with the number of
+     * spots rather than the size of the waiting list. The waiting list itself is not reordered.
      *
      * <h1>
      *    This function assumes that the WaitingList passed in does not change!
@@ -38,22 +80,19 @@ public class LotterySystem {
      * returns - ArrayList of randomly invited entrants
      */
     public List<Entrant> sampleEntrants(WaitingList list, int spots) {
-        if(this.totalEntrantsAcceptedInvited == 0) {
+        if(this.sampler == null) {
             // Create the random order to sample entrants in
-            List<Entrant> entrants = (List<Entrant>)list.getEntrants();
-            Collections.shuffle(entrants);
-            this.waitingListEntrantOrder = entrants;
+            this.waitingListEntrantOrder = list.getEntrants();
+            this.sampler = createSampler(waitingListEntrantOrder);
         }
         int availableSpots = totalSpots - totalEntrantsAcceptedInvited;
         int canInvite = Math.min(spots, availableSpots);
 
-        int remainingEntrants = waitingListEntrantOrder.size() - totalEntrantsAcceptedInvited;
-        canInvite = Math.min(canInvite, remainingEntrants);
+        canInvite = Math.min(canInvite, sampler.remaining());
 
         List<Entrant> newInvites = new ArrayList<>();
         for(int i = 0; i < canInvite; i++) {
-            int index = totalEntrantsAcceptedInvited + i;
-            Entrant nextEntrant = waitingListEntrantOrder.get(index);
+            Entrant nextEntrant = waitingListEntrantOrder.get(sampler.next());
             newInvites.add(nextEntrant);
             this.invitedEntrantList.add(nextEntrant);
         }
@@ -61,13 +100,76 @@ public class LotterySystem {
         return newInvites;
     }
 
+    /***
+     * Picks the sampler for the current draw mode
+     * <br>
+     * Weighted draws build an alias table once per draw; stratified draws bucket the
+     * waiting list once; uniform draws continue the persisted order if there is one,
+     * and otherwise use a partial shuffle
+     */
+    private IndexSampler createSampler(List<Entrant> entrants) {
+        if (stratumPolicy != null) {
+            return new StratifiedSampler(entrants, stratumPolicy, seed);
+        }
+        if (weightPolicy == null) {
+            if (state != null) {
+                return new SeededOrderSampler(entrants, state);
+            }
+            return new PartialShuffleSampler(entrants.size(), seed);
+        }
+        double[] weights = new double[entrants.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = weightPolicy.weightOf(entrants.get(i));
+        }
+        return new AliasSampler(weights, seed);
+    }
+
+    /***
+     * Switches the lottery to weighted mode
+     * <br>
+     * Entrants are drawn without replacement, with odds proportional to the weight the
+     * policy gives them. Entrants weighted 0 are never drawn. Must be set before the first
+     * call to sampleEntrants; passing null goes back to a uniform draw.
+     *
+     * @param weightPolicy - Policy giving each entrant's draw weight
+     */
+    public void setWeightPolicy(EntrantWeightPolicy weightPolicy) {
+        if (this.sampler != null) {
+            throw new IllegalStateException("Weight policy must be set before the first draw");
+        }
+        if (weightPolicy != null && stratumPolicy != null) {
+            throw new IllegalStateException("A lottery cannot be both weighted and stratified");
+        }
+        this.weightPolicy = weightPolicy;
+    }
+
+    /***
+     * Switches the lottery to stratified mode
+     * <br>
+     * Each stratum's reserved seats are drawn first, from that stratum's entrants only.
+     * Seats a stratum cannot fill, and seats not reserved for any stratum, are drawn
+     * uniformly from everyone left. Must be set before the first call to sampleEntrants;
+     * passing null goes back to a uniform draw.
+     *
+     * @param stratumPolicy - Policy giving each entrant's stratum and each stratum's quota
+     */
+    public void setStratumPolicy(EntrantStratumPolicy stratumPolicy) {
+        if (this.sampler != null) {
+            throw new IllegalStateException("Stratum policy must be set before the first draw");
+        }
+        if (stratumPolicy != null && weightPolicy != null) {
+            throw new IllegalStateException("A lottery cannot be both weighted and stratified");
+        }
+        this.stratumPolicy = stratumPolicy;
+    }
+
     /***
      *
      * @param entrant - Entrant that responded to invitation
      * @param accepted - boolean representing whether or not entrant accepted invitation
      * <br>
      *    This method adds entrants to the correct list depending on response
-     *    It does not replace the entrant
+     *    It does not replace the entrant; declines stored in Firestore are refilled by ReplacementDraw
      */
     public void handleEntrantResponse(Entrant entrant, boolean accepted) {
         if(accepted) {
@@ -95,4 +197,20 @@ public class LotterySystem {
         return this.invitedEntrantList;
     }
 
+    /***
+     *
+     * @return Seed that fixes this lottery's draw order
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /***
+     *
+     * @return Persisted draw state, or null if this lottery was not created from one
+     */
+    public LotteryState getState() {
+        return this.state;
+    }
+
 }
@@ -0,0 +1,119 @@
+package com.example.summit.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Draws distinct indices from {@code [0, size)} in a random order fixed by a seed.
+ * <p>
+ * This is a lazy partial Fisher-Yates shuffle. Instead of shuffling a full index
+ * array up front, only the positions that have actually been swapped are stored,
+ * so drawing {@code k} indices costs O(k) time and memory no matter how large
+ * the waiting list is.
+ * <p>
+ * Two samplers built with the same size and seed always return the same sequence,
+ * which lets a lottery draw be reproduced from its recorded seed.
+ */
+public class PartialShuffleSampler implements IndexSampler {
+    private final int size;
+    private final long seed;
+    private final SplittableRandom random;
+
+    // Positions that have been swapped away from their identity value
+    private final Map<Integer, Integer> swapped;
+    private int cursor;
+
+    /**
+     * Creates a sampler over the indices {@code 0 .. size - 1}.
+     *
+     * @param size Number of indices to sample from.
+     * @param seed Seed that fixes the draw order.
+     */
+    public PartialShuffleSampler(int size, long seed) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative");
+        }
+        this.size = size;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.swapped = new HashMap<>();
+        this.cursor = 0;
+    }
+
+    /**
+     * Draws the next index in the shuffled order.
+     *
+     * @return An index that has not been returned before.
+     * @throws NoSuchElementException if every index has already been drawn.
+     */
+    @Override
+    public int next() {
+        if (cursor >= size) {
+            throw new NoSuchElementException("All " + size + " indices have been drawn");
+        }
+        int j = cursor + random.nextInt(size - cursor);
+        int atJ = valueAt(j);
+        int atCursor = valueAt(cursor);
+
+        // Position cursor is never read again, so only j needs to be remembered
+        if (atCursor == j) {
+            swapped.remove(j);
+        } else {
+            swapped.put(j, atCursor);
+        }
+        swapped.remove(cursor);
+        cursor++;
+        return atJ;
+    }
+
+    /**
+     * Draws up to {@code count} indices in the shuffled order.
+     *
+     * @param count Maximum number of indices to draw.
+     * @return The drawn indices; shorter than {@code count} if the sampler runs out.
+     */
+    public int[] next(int count) {
+        int n = Math.max(0, Math.min(count, remaining()));
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = next();
+        }
+        return result;
+    }
+
+    private int valueAt(int position) {
+        Integer value = swapped.get(position);
+        return value != null ? value : position;
+    }
+
+    /**
+     * @return Number of indices that have not been drawn yet.
+     */
+    @Override
+    public int remaining() {
+        return size - cursor;
+    }
+
+    /**
+     * @return Number of indices drawn so far.
+     */
+    public int getCursor() {
+        return cursor;
+    }
+
+    /**
+     * @return The seed this sampler was created with.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return Number of indices this sampler draws from.
+     */
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.summit.model;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Refills lottery spots that open up when invited entrants decline.
+ * <p>
+ * A decline moves the entrant to {@link EntrantStatus#DECLINED} in the event's
+ * {@link EntrantStatusMap}, which frees their spot. The same write increments the
+ * event's {@link #PENDING_FIELD} counter, so a decline is never recorded without
+ * the redraw it owes, even if the declining device goes offline straight away.
+ * The organizer's app runs a {@link Watcher} that picks up events with pending
+ * redraws and calls {@link #refillOpenSpots(String)} for each.
+ * <p>
+ * The refill is a {@link LotteryDraw} (a {@link StreamingLottery} if the waiting list
+ * lives in the subcollection): one Firestore transaction that marks the
+ * drawn entrants {@link EntrantStatus#SELECTED} and writes their
+ * invitation notifications. Because the open spots are re-counted inside the transaction,
+ * every decline recorded before it ran is covered by one redraw, and a redraw that
+ * finds no open spots writes nothing. The counter is only cleared if no decline
+ * arrived while the redraw ran; otherwise the watcher redraws again.
+ * <p>
+ * Replacements continue the event's {@link LotteryState}, so they are the next
+ * entrants in the same draw order as the original lottery.
+ */
+public class ReplacementDraw {
+    private static final String TAG = "ReplacementDraw";
+
+    /**
+     * Event field counting declines that have not been refilled yet.
+     * Writers of a decline add {@code FieldValue.increment(1)} to it in the same write.
+     */
+    public static final String PENDING_FIELD = "pendingRedraws";
+
+    private ReplacementDraw() {}
+
+    /**
+     * Draws entrants from the waiting list into every open spot of an event, then
+     * clears the event's pending redraws unless another decline arrived meanwhile.
+     *
+     * @param eventId The event to refill
+     * @return A task holding the draw's result; no entrants are invited if no spot was open
+     */
+    public static Task<LotteryDraw.Result> refillOpenSpots(String eventId) {
+        String drawId = "replacement-" + UUID.randomUUID();
+        DocumentReference eventRef = FirebaseFirestore.getInstance()
+                .collection("events").document(eventId);
+        return eventRef.get().onSuccessTask(doc -> {
+            Long pending = doc.getLong(PENDING_FIELD);
+            Task<LotteryDraw.Result> draw = WaitingListStore.usesSubcollection(doc)
+                    ? StreamingLottery.run(eventId, drawId)
+                    : LotteryDraw.run(eventId, drawId, null);
+            if (pending == null) {
+                return draw;
+            }
+            return draw.onSuccessTask(result ->
+                    clearPending(eventRef, pending).onSuccessTask(cleared -> Tasks.forResult(result)));
+        });
+    }
+
+    /**
+     * Deletes the event's pending redraw counter if it still holds {@code seen}.
+     */
+    private static Task<Void> clearPending(DocumentReference eventRef, long seen) {
+        return FirebaseFirestore.getInstance().runTransaction(transaction -> {
+            DocumentSnapshot doc = transaction.get(eventRef);
+            if (Objects.equals(doc.getLong(PENDING_FIELD), seen)) {
+                transaction.update(eventRef, PENDING_FIELD, FieldValue.delete());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Watches an organizer's events for pending redraws and refills them.
+     * <p>
+     * One refill runs per event at a time. Declines that arrive during a refill
+     * are handled by a single follow-up refill once it finishes. A refill that
+     * fails is retried after {@link #retryDelay(int)}, backing off while it keeps failing.
+     */
+    public static class Watcher {
+        /** Delay before the first retry of a failed refill. */
+        public static final long RETRY_BASE_MS = 2_000;
+        /** Longest delay between retries of a failed refill. */
+        public static final long RETRY_MAX_MS = 5 * 60_000;
+
+        private final String organizerId;
+        private final Set<String> refilling = new HashSet<>();
+        private final Set<String> refillAgain = new HashSet<>();
+        private final Map<String, Integer> failures = new HashMap<>();
+        private final Handler handler = new Handler(Looper.getMainLooper());
+        private ListenerRegistration registration;
+
+        /**
+         * @param organizerId The organizer whose events are refilled
+         */
+        public Watcher(String organizerId) {
+            this.organizerId = organizerId;
+        }
+
+        /**
+         * Starts watching for pending redraws.
+         */
+        public void start() {
+            if (registration != null) return;
+            registration = FirebaseFirestore.getInstance().collection("events")
+                    .whereEqualTo("organizerId", organizerId)
+                    .whereGreaterThan(PENDING_FIELD, 0)
+                    .addSnapshotListener((snapshot, e) -> {
+                        if (e != null) {
+                            Log.e(TAG, "Watching pending redraws failed", e);
+                            return;
+                        }
+                        if (snapshot == null) return;
+                        for (DocumentSnapshot event : snapshot.getDocuments()) {
+                            refill(event.getId());
+                        }
+                    });
+        }
+
+        /**
+         * Stops watching; refills already running finish, and failed refills waiting
+         * to retry are dropped until the next {@link #start()} picks them up again.
+         */
+        public void stop() {
+            if (registration == null) return;
+            registration.remove();
+            registration = null;
+            handler.removeCallbacksAndMessages(null);
+        }
+
+        /**
+         * How long to wait before retrying an event whose refill has failed in a row.
+         *
+         * @param failures The number of consecutive failures, at least 1
+         * @return The delay in milliseconds, doubling from {@link #RETRY_BASE_MS} up to {@link #RETRY_MAX_MS}
+         */
+        public static long retryDelay(int failures) {
+            int doublings = Math.min(failures - 1, 30);
+            return Math.min(RETRY_BASE_MS << doublings, RETRY_MAX_MS);
+        }
+
+        private void refill(String eventId) {
+            if (!refilling.add(eventId)) {
+                refillAgain.add(eventId);
+                return;
+            }
+            refillOpenSpots(eventId).addOnCompleteListener(done -> {
+                refilling.remove(eventId);
+                if (done.isSuccessful()) {
+                    Log.d(TAG, "Replacement draw for " + eventId + " invited "
+                            + done.getResult().getInvitedIds().size());
+                    failures.remove(eventId);
+                } else {
+                    // The pending counter is still set, so the listener won't fire again
+                    // for this event on its own; retry it ourselves
+                    int failed = failures.containsKey(eventId) ? failures.get(eventId) + 1 : 1;
+                    failures.put(eventId, failed);
+                    Log.e(TAG, "Replacement draw failed for " + eventId + " (attempt " + failed + ")",
+                            done.getException());
+                    refillAgain.remove(eventId);
+                    handler.postDelayed(() -> {
+                        if (registration != null) refill(eventId);
+                    }, retryDelay(failed));
+                    return;
+                }
+                if (refillAgain.remove(eventId) && registration != null) {
+                    refill(eventId);
+                }
+            });
+        }
+    }
+}
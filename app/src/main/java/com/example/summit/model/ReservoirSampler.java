@@ -0,0 +1,87 @@
+package com.example.summit.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Picks a uniform random sample of {@code k} items from a stream of unknown length.
+ * <p>
+ * Items are offered one at a time and only the current sample is kept, so memory
+ * stays at O(k) however long the stream is. This uses Li's "Algorithm L", which
+ * computes how many items to skip before the next replacement instead of drawing
+ * a random number for every item.
+ *
+ * @param <T> Type of the sampled items
+ */
+public class ReservoirSampler<T> {
+    private final int k;
+    private final SplittableRandom random;
+    private final List<T> reservoir;
+
+    private long seen;
+    private long nextReplacement;
+    private double w;
+
+    /**
+     * @param k    Size of the sample to keep
+     * @param seed Seed that fixes which items are picked
+     */
+    public ReservoirSampler(int k, long seed) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        this.k = k;
+        this.random = new SplittableRandom(seed);
+        this.reservoir = new ArrayList<>(k);
+        this.seen = 0;
+        if (k > 0) {
+            this.w = Math.exp(Math.log(uniform()) / k);
+            this.nextReplacement = k + skip();
+        }
+    }
+
+    /**
+     * Offers the next item of the stream.
+     *
+     * @param item The item
+     */
+    public void offer(T item) {
+        if (k == 0) {
+            seen++;
+            return;
+        }
+        if (seen < k) {
+            reservoir.add(item);
+        } else if (seen == nextReplacement) {
+            reservoir.set(random.nextInt(k), item);
+            w *= Math.exp(Math.log(uniform()) / k);
+            nextReplacement += skip() + 1;
+        }
+        seen++;
+    }
+
+    /**
+     * @return The current sample; holds {@code min(k, seen)} items
+     */
+    public List<T> getSample() {
+        return new ArrayList<>(reservoir);
+    }
+
+    /**
+     * @return Number of items offered so far
+     */
+    public long getSeen() {
+        return seen;
+    }
+
+    private long skip() {
+        double skip = Math.floor(Math.log(uniform()) / Math.log(1 - w));
+        return skip >= Long.MAX_VALUE / 2 ? Long.MAX_VALUE / 2 : (long) skip;
+    }
+
+    // Uniform in (0, 1], so its log is finite
+    private double uniform() {
+        return 1.0 - random.nextDouble();
+    }
+}
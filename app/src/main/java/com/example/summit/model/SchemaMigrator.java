@@ -0,0 +1,493 @@
+package com.example.summit.model;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Brings the documents in {@code events}, {@code entrants} and {@code notifications}
+ * up to the current schema.
+ * <p>
+ * Each document records the version it is at in {@link #VERSION_FIELD} (missing
+ * means 0). The collections are scanned in document ID order, {@link #PAGE_SIZE}
+ * documents at a time, and every document behind the latest version gets the
+ * {@link #MIGRATIONS} it is missing, merged into one write; a migrated event is
+ * also published to the {@link EventCatalog}. A page's writes go out
+ * as one {@link WriteBatch} together with the run's checkpoint in
+ * {@code migrations/{runId}}, which holds the last document ID done in each
+ * collection. Running the same run ID again after a failure starts after that
+ * cursor instead of from the beginning, and a finished run does nothing.
+ * <p>
+ * Reading the next page overlaps with committing the last one, so a run is bound
+ * by whichever is slower. Documents written by the app while a run is going are
+ * merged into, never replaced.
+ * <p>
+ * The app calls {@link #runIfNeeded(String)} when it starts. Its run ID,
+ * {@link #currentRunId()}, names the latest version of each collection, so adding a
+ * migration starts a new run and a finished run costs one read. One device at a time
+ * holds the run through a lease in the checkpoint, renewed with every page; if that
+ * device stops, another takes over from the cursor once the lease runs out. Code
+ * querying a field a migration adds can ask {@link #isBackfilled()} whether every
+ * document has it yet.
+ */
+public class SchemaMigrator {
+
+    /**
+     * Field holding the schema version a document is at.
+     */
+    public static final String VERSION_FIELD = "schemaVersion";
+
+    /**
+     * Collection holding one checkpoint document per run.
+     */
+    public static final String CHECKPOINTS = "migrations";
+
+    /**
+     * Checkpoint field naming the device running the migration.
+     */
+    static final String OWNER_FIELD = "owner";
+
+    /**
+     * Checkpoint field holding when the owner's claim lapses, in epoch milliseconds.
+     */
+    static final String LEASE_FIELD = "leaseUntil";
+
+    /**
+     * How long a claim lasts without a page being committed.
+     */
+    static final long LEASE_MILLIS = 10 * 60 * 1000;
+
+    /**
+     * Documents per page; with each event's {@link EventCatalog} entry and the
+     * checkpoint, one page stays under the 500 write batch limit.
+     */
+    static final int PAGE_SIZE = 200;
+
+    /**
+     * The collections migrated, in the order they are scanned.
+     */
+    static final String[] COLLECTIONS = {"events", "entrants", "notifications"};
+
+    /**
+     * Every migration, in version order within each collection.
+     */
+    static final List<DocumentMigration> MIGRATIONS = Arrays.asList(
+            new DocumentMigration("events", 1,
+                    "Rename requireLocation to requiredLocation",
+                    SchemaMigrator::renameRequireLocation),
+            new DocumentMigration("events", 2,
+                    "Copy startDate, endDate and maxAttendees into eventStart, eventEnd and capacity",
+                    SchemaMigrator::copyLegacyDates),
+            new DocumentMigration("events", 3,
+                    "Fold the legacy status arrays into entrantStatus",
+                    SchemaMigrator::foldStatusArrays),
+            // Changes nothing itself; every migrated event is published to the catalog
+            new DocumentMigration("events", 4,
+                    "Publish to the event catalog",
+                    (data, changes) -> {}),
+            new DocumentMigration("events", 5,
+                    "Store the dates as epoch days as well as text",
+                    SchemaMigrator::addTypedDates),
+            new DocumentMigration("entrants", 1,
+                    "Default missing notification preferences to on",
+                    SchemaMigrator::defaultNotificationPreferences),
+            new DocumentMigration("notifications", 1,
+                    "Fill in missing status and type",
+                    SchemaMigrator::fillNotificationStatus)
+    );
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "schema-migrator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Set once the current run is known to be finished; it never becomes unfinished
+    private static volatile boolean backfilled;
+
+    private SchemaMigrator() {}
+
+    /**
+     * Receives progress after each page. It is called from the migrator's background thread.
+     */
+    public interface ProgressListener {
+        /**
+         * @param collection The collection being scanned
+         * @param scanned    Documents scanned so far in this run
+         * @param migrated   Documents changed so far in this run
+         */
+        void onProgress(String collection, int scanned, int migrated);
+    }
+
+    /**
+     * Summary of a finished run.
+     */
+    public static class Report {
+        private int scanned;
+        private int migrated;
+        private long elapsedMillis;
+
+        /** @return Documents read; documents before a resumed cursor are not counted */
+        public int getScanned() { return scanned; }
+
+        /** @return Documents written */
+        public int getMigrated() { return migrated; }
+
+        /** @return Wall time of the run */
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        /** @return Documents scanned per second of wall time */
+        public double getDocsPerSecond() {
+            return scanned * 1000.0 / Math.max(1, elapsedMillis);
+        }
+    }
+
+    /**
+     * Migrates every collection.
+     *
+     * @param runId    Names this run's checkpoint; pass the same ID to resume a failed run
+     * @param listener Told about progress, may be null
+     * @return A task holding the summary; fails with the first failed read or batch
+     */
+    public static Task<Report> run(String runId, ProgressListener listener) {
+        return Tasks.call(executor, () -> migrateAll(runId, listener, null));
+    }
+
+    /**
+     * Runs the current migrations unless they are finished or another device is
+     * running them.
+     *
+     * @param owner Identifies this device in the checkpoint, such as its device ID
+     * @return A task holding the summary, or null if nothing was run
+     */
+    public static Task<Report> runIfNeeded(String owner) {
+        return Tasks.call(executor, () -> {
+            String runId = currentRunId();
+            FirebaseFirestore db = FirebaseFirestore.getInstance();
+            DocumentReference checkpointRef = db.collection(CHECKPOINTS).document(runId);
+            if (isComplete(Tasks.await(checkpointRef.get()).getData())) {
+                backfilled = true;
+                return null;
+            }
+
+            boolean claimed = Tasks.await(db.runTransaction(transaction -> {
+                long now = System.currentTimeMillis();
+                if (!mayClaim(transaction.get(checkpointRef).getData(), owner, now)) return false;
+                Map<String, Object> lease = new HashMap<>();
+                lease.put(OWNER_FIELD, owner);
+                lease.put(LEASE_FIELD, now + LEASE_MILLIS);
+                transaction.set(checkpointRef, lease, SetOptions.merge());
+                return true;
+            }));
+            if (!claimed) return null;
+
+            Report report = migrateAll(runId, null, owner);
+            backfilled = true;
+            return report;
+        });
+    }
+
+    /**
+     * @return A task holding whether the current migrations have been through every
+     *         document, so queries on the fields they add see every document
+     */
+    public static Task<Boolean> isBackfilled() {
+        if (backfilled) return Tasks.forResult(true);
+        return FirebaseFirestore.getInstance().collection(CHECKPOINTS).document(currentRunId()).get()
+                .continueWith(task -> {
+                    if (task.isSuccessful() && isComplete(task.getResult().getData())) backfilled = true;
+                    return backfilled;
+                });
+    }
+
+    /**
+     * @return The ID of the run bringing every collection to its latest version
+     */
+    public static String currentRunId() {
+        StringBuilder runId = new StringBuilder("schema");
+        for (String collection : COLLECTIONS) {
+            runId.append('-').append(collection).append(latestVersion(collection));
+        }
+        return runId.toString();
+    }
+
+    /**
+     * @param checkpoint A run's checkpoint fields, null if it has none
+     * @return Whether the run has been through every collection
+     */
+    public static boolean isComplete(Map<String, Object> checkpoint) {
+        Object cursors = checkpoint != null ? checkpoint.get("cursors") : null;
+        if (!(cursors instanceof Map)) return false;
+        for (String collection : COLLECTIONS) {
+            Object cursor = ((Map<?, ?>) cursors).get(collection);
+            if (!(cursor instanceof Map) || !Boolean.TRUE.equals(((Map<?, ?>) cursor).get("done"))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param checkpoint The run's checkpoint fields, null if it has none
+     * @param owner      The device asking
+     * @param now        The time, in epoch milliseconds
+     * @return Whether the device may run the migrations: the run is unfinished and
+     *         unclaimed, claimed by this device, or its claim has lapsed
+     */
+    public static boolean mayClaim(Map<String, Object> checkpoint, String owner, long now) {
+        if (checkpoint == null) return true;
+        if (isComplete(checkpoint)) return false;
+        Object until = checkpoint.get(LEASE_FIELD);
+        return owner.equals(checkpoint.get(OWNER_FIELD))
+                || !(until instanceof Number) || ((Number) until).longValue() < now;
+    }
+
+    /**
+     * @param collection A collection name
+     * @return The version its documents are at once migrated; 0 if it has no migrations
+     */
+    public static int latestVersion(String collection) {
+        int latest = 0;
+        for (DocumentMigration migration : MIGRATIONS) {
+            if (migration.getCollection().equals(collection)) {
+                latest = Math.max(latest, migration.getVersion());
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Works out everything that has to change to bring one document to the latest version.
+     *
+     * @param collection The document's collection
+     * @param data       The document's fields
+     * @return The changes to merge into the document, null values meaning removal;
+     *         empty if it is up to date
+     */
+    public static Map<String, Object> migrate(String collection, Map<String, Object> data) {
+        Map<String, Object> changes = new HashMap<>();
+        Object stored = data.get(VERSION_FIELD);
+        int version = stored instanceof Number ? ((Number) stored).intValue() : 0;
+        int latest = latestVersion(collection);
+        if (version >= latest) return changes;
+
+        // Later migrations see the document as the earlier ones left it
+        Map<String, Object> current = new HashMap<>(data);
+        for (DocumentMigration migration : MIGRATIONS) {
+            if (!migration.getCollection().equals(collection) || migration.getVersion() <= version) continue;
+            Map<String, Object> step = new HashMap<>();
+            migration.apply(current, step);
+            merge(current, step);
+            current.values().removeIf(value -> value == null);
+            merge(changes, step);
+        }
+        changes.put(VERSION_FIELD, latest);
+        return changes;
+    }
+
+    private static Report migrateAll(String runId, ProgressListener listener, String owner) throws Exception {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        DocumentReference checkpointRef = db.collection(CHECKPOINTS).document(runId);
+        DocumentSnapshot checkpoint = Tasks.await(checkpointRef.get());
+
+        Report report = new Report();
+        long started = System.currentTimeMillis();
+        Task<Void> pending = null;
+
+        for (String collection : COLLECTIONS) {
+            if (Boolean.TRUE.equals(checkpoint.get("cursors." + collection + ".done", Boolean.class))) {
+                continue;
+            }
+            String after = checkpoint.get("cursors." + collection + ".after", String.class);
+
+            while (true) {
+                Query query = db.collection(collection).orderBy(FieldPath.documentId()).limit(PAGE_SIZE);
+                if (after != null) query = query.startAfter(after);
+                QuerySnapshot page = Tasks.await(query.get());
+                if (page.isEmpty()) break;
+
+                WriteBatch batch = db.batch();
+                int migrated = 0;
+                for (DocumentSnapshot doc : page.getDocuments()) {
+                    Map<String, Object> changes = migrate(collection, doc.getData());
+                    if (!changes.isEmpty()) {
+                        batch.set(doc.getReference(), forWrite(changes), SetOptions.merge());
+                        if (collection.equals("events")) {
+                            Map<String, Object> migratedData = new HashMap<>(doc.getData());
+                            merge(migratedData, changes);
+                            batch.set(EventCatalog.entryRef(doc.getId()), EventCatalog.entryFor(migratedData),
+                                    SetOptions.merge());
+                        }
+                        migrated++;
+                    }
+                }
+                List<DocumentSnapshot> docs = page.getDocuments();
+                after = docs.get(docs.size() - 1).getId();
+                batch.set(checkpointRef, checkpointFor(collection, after, false, docs.size(), migrated, owner),
+                        SetOptions.merge());
+
+                // Commits from one client apply in order, so only one needs waiting on
+                if (pending != null) Tasks.await(pending);
+                pending = batch.commit();
+                report.scanned += docs.size();
+                report.migrated += migrated;
+                if (listener != null) listener.onProgress(collection, report.scanned, report.migrated);
+
+                if (docs.size() < PAGE_SIZE) break;
+            }
+
+            if (pending != null) Tasks.await(pending);
+            pending = checkpointRef.set(checkpointFor(collection, after, true, 0, 0, owner), SetOptions.merge());
+        }
+        if (pending != null) Tasks.await(pending);
+
+        report.elapsedMillis = System.currentTimeMillis() - started;
+        return report;
+    }
+
+    private static Map<String, Object> checkpointFor(String collection, String after, boolean done,
+                                                     int scanned, int migrated, String owner) {
+        Map<String, Object> cursor = new HashMap<>();
+        if (after != null) cursor.put("after", after);
+        cursor.put("done", done);
+        Map<String, Object> cursors = new HashMap<>();
+        cursors.put(collection, cursor);
+
+        Map<String, Object> mark = new HashMap<>();
+        mark.put("cursors", cursors);
+        mark.put("scanned", FieldValue.increment(scanned));
+        mark.put("migrated", FieldValue.increment(migrated));
+        mark.put("updatedAt", System.currentTimeMillis());
+        if (owner != null) mark.put(LEASE_FIELD, System.currentTimeMillis() + LEASE_MILLIS);
+        return mark;
+    }
+
+    /**
+     * Merges changes into a map the way a merging set merges them into a document.
+     */
+    private static void merge(Map<String, Object> target, Map<String, Object> changes) {
+        for (Map.Entry<String, Object> entry : changes.entrySet()) {
+            Object value = entry.getValue();
+            Object existing = target.get(entry.getKey());
+            if (value instanceof Map && existing instanceof Map) {
+                Map<String, Object> nested = new HashMap<>((Map<String, Object>) existing);
+                merge(nested, (Map<String, Object>) value);
+                target.put(entry.getKey(), nested);
+            } else if (value instanceof Map) {
+                target.put(entry.getKey(), new HashMap<>((Map<String, Object>) value));
+            } else {
+                target.put(entry.getKey(), value);
+            }
+        }
+    }
+
+    /**
+     * Replaces the null values in a set of changes with {@link FieldValue#delete()}.
+     */
+    private static Map<String, Object> forWrite(Map<String, Object> changes) {
+        Map<String, Object> write = new HashMap<>();
+        for (Map.Entry<String, Object> entry : changes.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null) {
+                write.put(entry.getKey(), FieldValue.delete());
+            } else if (value instanceof Map) {
+                write.put(entry.getKey(), forWrite((Map<String, Object>) value));
+            } else {
+                write.put(entry.getKey(), value);
+            }
+        }
+        return write;
+    }
+
+    // Migrations
+
+    static void renameRequireLocation(Map<String, Object> data, Map<String, Object> changes) {
+        if (!data.containsKey("requireLocation")) return;
+        if (data.get("requiredLocation") == null) {
+            changes.put("requiredLocation", Boolean.TRUE.equals(data.get("requireLocation")));
+        }
+        changes.put("requireLocation", null);
+    }
+
+    static void copyLegacyDates(Map<String, Object> data, Map<String, Object> changes) {
+        copyIfMissing(data, changes, "startDate", "eventStart");
+        copyIfMissing(data, changes, "endDate", "eventEnd");
+        Object maxAttendees = data.get("maxAttendees");
+        if (data.get("capacity") == null && maxAttendees instanceof Number
+                && ((Number) maxAttendees).longValue() > 0) {
+            changes.put("capacity", ((Number) maxAttendees).longValue());
+        }
+    }
+
+    static void foldStatusArrays(Map<String, Object> data, Map<String, Object> changes) {
+        String[] arrays = {"waitingList", "selectedList", "acceptedList", "declinedList"};
+        Map<String, Object> added = new HashMap<>();
+        EntrantStatusMap legacy = EntrantStatusMap.fromFields(null,
+                (List<String>) data.get(arrays[0]), (List<String>) data.get(arrays[1]),
+                (List<String>) data.get(arrays[2]), (List<String>) data.get(arrays[3]));
+        Object stored = data.get(EntrantStatusMap.FIELD);
+        Map<String, Object> statuses = stored instanceof Map ? (Map<String, Object>) stored : new HashMap<>();
+        // Only entrants the map has never seen; anything in the map is newer than the arrays
+        for (String deviceId : legacy.ids()) {
+            if (!statuses.containsKey(deviceId)) {
+                added.put(deviceId, legacy.statusOf(deviceId).name());
+            }
+        }
+        if (!added.isEmpty() || !(stored instanceof Map)) {
+            changes.put(EntrantStatusMap.FIELD, added);
+        }
+        for (String array : arrays) {
+            if (data.containsKey(array)) changes.put(array, null);
+        }
+    }
+
+    static void addTypedDates(Map<String, Object> data, Map<String, Object> changes) {
+        for (String[] field : EventDates.FIELDS) {
+            Object text = data.get(field[0]);
+            Long day = text instanceof String ? EventDates.parse((String) text) : null;
+            Object stored = data.get(field[1]);
+            // Unreadable dates get no typed field; range queries then leave the event out
+            if (day != null && !(stored instanceof Number && ((Number) stored).longValue() == day)) {
+                changes.put(field[1], day);
+            }
+        }
+    }
+
+    static void defaultNotificationPreferences(Map<String, Object> data, Map<String, Object> changes) {
+        for (String field : new String[]{"notificationsEnabled", "allowAdminNotifications",
+                "allowOrganizerNotifications"}) {
+            if (data.get(field) == null) changes.put(field, true);
+        }
+    }
+
+    static void fillNotificationStatus(Map<String, Object> data, Map<String, Object> changes) {
+        boolean invitation = data.get("expiresAt") != null;
+        if (data.get("status") == null) changes.put("status", invitation ? "pending" : "info");
+        if (data.get("type") == null) changes.put("type", invitation ? "invitation" : "custom");
+    }
+
+    private static void copyIfMissing(Map<String, Object> data, Map<String, Object> changes,
+                                      String from, String to) {
+        Object value = data.get(from);
+        Object existing = data.get(to);
+        if (value instanceof String && !((String) value).isEmpty()
+                && (existing == null || "".equals(existing))) {
+            changes.put(to, value);
+        }
+    }
+}
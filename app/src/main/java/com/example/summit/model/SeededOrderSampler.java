@@ -0,0 +1,121 @@
+package com.example.summit.model;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Draws waiting list entrants in the order fixed by a {@link LotteryState}.
+ * <p>
+ * Each device ID is given a 64-bit rank derived from the state's seed. Entrants
+ * ranked after the cursor are drawn first, in increasing rank; entrants ranked
+ * at or before it (people who joined after earlier rounds passed their place)
+ * follow once the end of the order is reached.
+ * <p>
+ * Ranks are computed once and kept in a heap, so preparing a round costs O(n)
+ * and each draw O(log n). Nothing is shuffled, and the state that reproduces
+ * the order is just the seed and cursor.
+ */
+public class SeededOrderSampler implements IndexSampler {
+    private final LotteryState state;
+    private final long[] ranks;
+    private final boolean[] wrapped;
+    private final int[] heap;
+    private int heapSize;
+
+    /**
+     * @param entrants Entrants that can be drawn this round
+     * @param state    Draw order and cursor; advanced as entrants are drawn
+     */
+    public SeededOrderSampler(List<Entrant> entrants, LotteryState state) {
+        this.state = state;
+        int n = entrants.size();
+        this.ranks = new long[n];
+        this.wrapped = new boolean[n];
+        this.heap = new int[n];
+
+        boolean started = state.getDrawn() > 0;
+        for (int i = 0; i < n; i++) {
+            ranks[i] = rankOf(state.getSeed(), entrants.get(i).getDeviceId());
+            wrapped[i] = started && ranks[i] <= state.getCursor();
+            heap[i] = i;
+        }
+        heapSize = n;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Draws the next entrant in the seeded order and advances the state's cursor.
+     *
+     * @return Position of the entrant in the list given to the constructor
+     * @throws NoSuchElementException if every entrant has been drawn
+     */
+    @Override
+    public int next() {
+        if (heapSize == 0) {
+            throw new NoSuchElementException("All entrants have been drawn");
+        }
+        int top = heap[0];
+        heap[0] = heap[--heapSize];
+        siftDown(0);
+        state.advance(ranks[top]);
+        return top;
+    }
+
+    @Override
+    public int remaining() {
+        return heapSize;
+    }
+
+    /**
+     * Computes an entrant's rank in the draw order for a seed.
+     *
+     * @param seed     The lottery seed
+     * @param deviceId The entrant's device ID
+     * @return The rank; lower ranks are drawn first
+     */
+    public static long rankOf(long seed, String deviceId) {
+        // 64-bit FNV-1a over the ID, then mixed with the seed
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < deviceId.length(); i++) {
+            hash ^= deviceId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix64(hash ^ seed);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private boolean before(int a, int b) {
+        if (wrapped[a] != wrapped[b]) {
+            return !wrapped[a];
+        }
+        return ranks[a] < ranks[b];
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < heapSize && before(heap[right], heap[left])) {
+                smallest = right;
+            }
+            if (!before(heap[smallest], heap[i])) {
+                return;
+            }
+            int tmp = heap[i];
+            heap[i] = heap[smallest];
+            heap[smallest] = tmp;
+            i = smallest;
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.example.summit.model;
 
-import com.google.firebase.firestore.FirebaseFirestore;
-
 /**
  * Manages the business logic for event sign-ups, waiting lists, and invitations.
  * <p>
@@ -64,7 +62,7 @@ public class SignUp {
      * {@code false} if the entrant was already on the list.
      */
     public boolean joinEvent(Entrant entrant, WaitingList list) {
-        if (!list.getEntrants().contains(entrant)) {
+        if (!list.contains(entrant)) {
             list.addEntrant(entrant);
             return true;
         }
@@ -75,22 +73,17 @@ public class SignUp {
      * Directly adds an entrant to an event's waiting list in Firestore.
      * <p>
      * This method writes the {@link Entrant} object to the 'waitingList' subcollection
-     * of a specific event document, using the entrant's device ID as the document ID.
+     * of a specific event document, using the entrant's device ID as the document ID,
+     * and counts them in the event's {@code waitingCount} (see {@link WaitingListStore}).
      * It includes success and failure logging to the console.
      *
      * @param entrant The entrant object to be saved to Firestore.
      * @param eventId The unique identifier for the event.
      */
     public void joinEventFirestore(Entrant entrant, String eventId) {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-
-        db.collection("events")
-                .document(eventId)
-                .collection("waitingList")
-                .document(entrant.getDeviceId())
-                .set(entrant)
-                .addOnSuccessListener(aVoid -> {
-                    System.out.println("Entrant added to waiting list!");
+        WaitingListStore.join(eventId, entrant)
+                .addOnSuccessListener(added -> {
+                    System.out.println(added ? "Entrant added to waiting list!" : "Entrant already on waiting list");
                 })
                 .addOnFailureListener(e -> {
                     System.out.println("Failed to add entrant: " + e.getMessage());
@@ -109,7 +102,7 @@ public class SignUp {
      * {@code false} if the entrant was not found on the list.
      */
     public boolean leaveEvent(Entrant entrant, WaitingList list) {
-        if (list.getEntrants().contains(entrant)) {
+        if (list.contains(entrant)) {
             list.removeEntrant(entrant);
             return true;
         }
@@ -0,0 +1,158 @@
+package com.example.summit.model;
+
+import com.example.summit.interfaces.EntrantStratumPolicy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Draws positions so that each stratum's reserved seats are filled from its own entrants.
+ * <p>
+ * The waiting list is bucketed by stratum in one pass (a counting sort, so no entrant
+ * is moved more than once), and every bucket gets its own {@link PartialShuffleSampler}.
+ * Draws first go round-robin over the strata that still have quota, each drawing
+ * from its own bucket. Once every quota is met, or its bucket is empty, the remaining
+ * entrants of all buckets form a single overflow pool: the next draw picks a bucket in
+ * proportion to how many entrants it has left, so every remaining entrant is equally
+ * likely. Entrants without a stratum only ever join the overflow pool.
+ * <p>
+ * Building the sampler costs O(n) for n entrants; each draw after that costs O(k) for k
+ * strata, however long the waiting list is.
+ */
+public class StratifiedSampler implements IndexSampler {
+    private final SplittableRandom random;
+
+    // Positions grouped by stratum; bucket s is members[bucketStart[s] .. bucketStart[s + 1])
+    private final int[] members;
+    private final int[] bucketStart;
+    private final PartialShuffleSampler[] buckets;
+    private final int[] quotaLeft;
+    private final String[] strata;
+
+    private int quotaTotal;
+    private int roundRobin;
+    private int remaining;
+
+    /**
+     * @param entrants The waiting list
+     * @param policy   Decides each entrant's stratum and each stratum's quota
+     * @param seed     Seed that fixes the draw order
+     */
+    public StratifiedSampler(List<Entrant> entrants, EntrantStratumPolicy policy, long seed) {
+        this.random = new SplittableRandom(seed);
+        int n = entrants.size();
+
+        // Bucket 0 holds entrants without a stratum; it has no quota
+        Map<String, Integer> ids = new HashMap<>();
+        int[] stratumOf = new int[n];
+        int[] counts = new int[16];
+        for (int i = 0; i < n; i++) {
+            String key = policy.stratumOf(entrants.get(i));
+            int id = 0;
+            if (key != null) {
+                Integer known = ids.get(key);
+                if (known == null) {
+                    known = ids.size() + 1;
+                    ids.put(key, known);
+                    counts = grow(counts, known + 1);
+                }
+                id = known;
+            }
+            stratumOf[i] = id;
+            counts[id]++;
+        }
+
+        int bucketCount = ids.size() + 1;
+        this.strata = new String[bucketCount];
+        for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+            strata[entry.getValue()] = entry.getKey();
+        }
+
+        this.bucketStart = new int[bucketCount + 1];
+        for (int s = 0; s < bucketCount; s++) {
+            bucketStart[s + 1] = bucketStart[s] + counts[s];
+        }
+        this.members = new int[n];
+        int[] fill = new int[bucketCount];
+        for (int i = 0; i < n; i++) {
+            int s = stratumOf[i];
+            members[bucketStart[s] + fill[s]++] = i;
+        }
+
+        this.buckets = new PartialShuffleSampler[bucketCount];
+        this.quotaLeft = new int[bucketCount];
+        for (int s = 0; s < bucketCount; s++) {
+            buckets[s] = new PartialShuffleSampler(counts[s], random.nextLong());
+            if (s > 0) {
+                quotaLeft[s] = Math.min(Math.max(policy.quotaOf(strata[s]), 0), counts[s]);
+                quotaTotal += quotaLeft[s];
+            }
+        }
+        this.remaining = n;
+    }
+
+    @Override
+    public int next() {
+        if (remaining == 0) {
+            throw new NoSuchElementException("Every position has been drawn");
+        }
+        int s = quotaTotal > 0 ? nextQuotaStratum() : nextOverflowBucket();
+        remaining--;
+        return members[bucketStart[s] + buckets[s].next()];
+    }
+
+    @Override
+    public int remaining() {
+        return remaining;
+    }
+
+    /**
+     * @return Reserved seats not yet drawn, across all strata
+     */
+    public int getQuotaRemaining() {
+        return quotaTotal;
+    }
+
+    /**
+     * @return Number of distinct strata on the waiting list, not counting entrants without one
+     */
+    public int getStratumCount() {
+        return strata.length - 1;
+    }
+
+    private int nextQuotaStratum() {
+        int bucketCount = quotaLeft.length;
+        while (quotaLeft[roundRobin] == 0) {
+            roundRobin = (roundRobin + 1) % bucketCount;
+        }
+        int s = roundRobin;
+        quotaLeft[s]--;
+        quotaTotal--;
+        roundRobin = (roundRobin + 1) % bucketCount;
+        return s;
+    }
+
+    // Picks a bucket in proportion to its undrawn entrants
+    private int nextOverflowBucket() {
+        int r = random.nextInt(remaining);
+        for (int s = 0; s < buckets.length; s++) {
+            r -= buckets[s].remaining();
+            if (r < 0) {
+                return s;
+            }
+        }
+        throw new IllegalStateException("Bucket counts out of sync");
+    }
+
+    private static int[] grow(int[] array, int minLength) {
+        if (array.length >= minLength) {
+            return array;
+        }
+        int[] grown = new int[Math.max(minLength, array.length * 2)];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+}
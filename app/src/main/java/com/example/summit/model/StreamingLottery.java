@@ -0,0 +1,257 @@
+package com.example.summit.model;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Runs a lottery over an event's {@code events/{eventId}/waitingList} subcollection
+ * (see {@link WaitingListStore}) without loading the whole waiting list.
+ * <p>
+ * The subcollection is read one page at a time, ordered by document ID, and every
+ * entrant ID is offered to a {@link ReservoirSampler}. Only the current page and the
+ * winners are held in memory, so memory use stays flat as the waiting list grows.
+ * <p>
+ * The winners are then committed like a {@link LotteryDraw}: in one transaction keyed
+ * by the draw ID that re-checks capacity, removes the winners from the subcollection
+ * and the event's {@code waitingCount}, marks them {@link EntrantStatus#SELECTED},
+ * writes the draw log and their invitations.
+ * Winners who left the waiting list while it was being read are skipped.
+ * <p>
+ * Events that draw by city ({@code lotteryCityQuotas} or {@code lotteryCityWeights})
+ * cannot be sampled this way: every waiting entrant, with their city, is collected
+ * from the pages and drawn like {@link LotteryDraw} does, so their memory use grows
+ * with the waiting list.
+ * <p>
+ * Each winner costs two writes here (removing their waiting list document and their
+ * invitation), so one pass draws at most {@link #MAX_INVITES} winners, half as many
+ * as a {@link LotteryDraw}; while spots stay open after a full pass, the waiting
+ * list is read again for the next part of the draw.
+ */
+public class StreamingLottery {
+
+    /**
+     * Most winners one transaction invites: with the event update and the draw log,
+     * two writes each, that is {@link BatchLottery#MAX_BATCH_OPS} writes.
+     */
+    public static final int MAX_INVITES = (BatchLottery.MAX_BATCH_OPS - 2) / 2;
+
+    private StreamingLottery() {}
+
+    /**
+     * Draws entrants from the waiting list subcollection into every open spot of an event.
+     *
+     * @param eventId The event to draw for
+     * @param drawId  Unique ID for this draw; reuse it when retrying the same draw
+     * @return A task holding the draw's result
+     */
+    public static Task<LotteryDraw.Result> run(String eventId, String drawId) {
+        return runParts(eventId, drawId, 0, new ArrayList<>());
+    }
+
+    private static Task<LotteryDraw.Result> runParts(String eventId, String drawId, int part,
+                                                     List<LotteryDraw.Result> done) {
+        return runPart(eventId, LotteryDraw.partId(drawId, part)).onSuccessTask(result -> {
+            done.add(result);
+            return LotteryDraw.filledPart(result, MAX_INVITES)
+                    ? runParts(eventId, drawId, part + 1, done)
+                    : Tasks.forResult(LotteryDraw.combine(done));
+        });
+    }
+
+    private static Task<LotteryDraw.Result> runPart(String eventId, String drawId) {
+        DocumentReference eventRef = FirebaseFirestore.getInstance().collection("events").document(eventId);
+        long seed = new SecureRandom().nextLong();
+
+        return eventRef.get().onSuccessTask(doc -> {
+            if (!doc.exists()) {
+                return Tasks.forResult(new LotteryDraw.Result(LotteryDraw.Status.NOT_FOUND, new ArrayList<>()));
+            }
+            int open = Math.min(openSpots(doc), MAX_INVITES);
+            if (open <= 0) {
+                return Tasks.forResult(new LotteryDraw.Result(LotteryDraw.Status.FULL, new ArrayList<>()));
+            }
+
+            if (LotteryDraw.needsProfiles(doc.getData())) {
+                return drawByCity(doc, open, seed)
+                        .onSuccessTask(winners -> commit(eventId, drawId, seed, winners, "city"));
+            }
+
+            ReservoirSampler<String> reservoir = new ReservoirSampler<>(open, seed);
+            return WaitingListStore.forEachPage(eventId, page -> {
+                        for (DocumentSnapshot d : page) {
+                            reservoir.offer(d.getId());
+                        }
+                    })
+                    .onSuccessTask(ignored -> commit(eventId, drawId, seed, reservoir.getSample(), "reservoir"));
+        });
+    }
+
+    /**
+     * Draws by the event's city quotas or weights, which need every waiting entrant's
+     * city at once. The waiting list documents are the entrants' profiles, so the
+     * cities come from the pages; only the profiles of entrants holding a spot are
+     * loaded, for the quotas they already use.
+     */
+    private static Task<List<String>> drawByCity(DocumentSnapshot doc, int open, long seed) {
+        WaitingList waiting = new WaitingList();
+        List<String> holding = EntrantStatusMap.from(doc).idsWith(EntrantStatus.SELECTED, EntrantStatus.ACCEPTED);
+        return WaitingListStore.forEachPage(doc.getId(), page -> {
+                    for (DocumentSnapshot d : page) {
+                        // The draw only reads the city
+                        Entrant entrant = new Entrant(d.getId());
+                        String city = d.getString("city");
+                        if (city != null) entrant.setCity(city);
+                        waiting.addEntrant(entrant);
+                    }
+                })
+                .onSuccessTask(ignored -> LotteryDraw.loadProfiles(holding))
+                .onSuccessTask(taken -> Tasks.forResult(
+                        LotteryDraw.drawByCity(doc.getData(), waiting, taken.values(), open, seed)));
+    }
+
+    private static Task<LotteryDraw.Result> commit(String eventId, String drawId, long seed,
+                                                   List<String> winners, String mode) {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference drawRef = eventRef.collection("draws").document(drawId);
+
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot previous = transaction.get(drawRef);
+            if (previous.exists()) {
+                List<String> ids = (List<String>) previous.get("invitedIds");
+                return new LotteryDraw.Result(LotteryDraw.Status.ALREADY_APPLIED,
+                        ids != null ? ids : new ArrayList<>());
+            }
+
+            DocumentSnapshot doc = transaction.get(eventRef);
+            if (!doc.exists()) {
+                return new LotteryDraw.Result(LotteryDraw.Status.NOT_FOUND, new ArrayList<>());
+            }
+            int open = Math.min(openSpots(doc), MAX_INVITES);
+
+            // Keep only winners still on the waiting list, up to the spots still open
+            List<DocumentReference> winnerRefs = new ArrayList<>();
+            for (String entrantId : winners) {
+                if (winnerRefs.size() >= open) break;
+                DocumentReference ref = eventRef.collection(WaitingListStore.COLLECTION).document(entrantId);
+                if (transaction.get(ref).exists()) {
+                    winnerRefs.add(ref);
+                }
+            }
+            if (winnerRefs.isEmpty()) {
+                return new LotteryDraw.Result(open <= 0 ? LotteryDraw.Status.FULL
+                        : LotteryDraw.Status.EMPTY_WAITING_LIST, new ArrayList<>());
+            }
+
+            List<String> invitedIds = new ArrayList<>();
+            for (DocumentReference ref : winnerRefs) {
+                invitedIds.add(ref.getId());
+            }
+
+            long timestamp = System.currentTimeMillis();
+            Part committed = new Part(eventId, doc.getString("title"), drawId, seed, mode, invitedIds,
+                    timestamp, InvitationExpiry.deadlineFor(doc, timestamp));
+            committed.writeTo(LotteryDraw.writerFor(transaction), eventRef, drawRef,
+                    id -> eventRef.collection(WaitingListStore.COLLECTION).document(id),
+                    id -> db.collection("notifications").document(drawId + "_" + id));
+            return new LotteryDraw.Result(LotteryDraw.Status.APPLIED, invitedIds);
+        });
+    }
+
+    /**
+     * The winners of one part of a draw and the writes that commit them.
+     */
+    public static final class Part {
+        private final String eventId;
+        private final String title;
+        private final String drawId;
+        private final long seed;
+        private final String mode;
+        private final List<String> invitedIds;
+        private final long timestamp;
+        private final long expiresAt;
+
+        /**
+         * @param eventId    The event drawn for
+         * @param title      The event's title, for the invitations
+         * @param drawId     ID the part is logged under
+         * @param seed       Seed the winners were drawn with
+         * @param mode       How they were drawn, for the log
+         * @param invitedIds The winners, all still on the waiting list
+         * @param timestamp  Time of the draw, in epoch milliseconds
+         * @param expiresAt  Deadline of the invitations
+         */
+        public Part(String eventId, String title, String drawId, long seed, String mode,
+                    List<String> invitedIds, long timestamp, long expiresAt) {
+            this.eventId = eventId;
+            this.title = title;
+            this.drawId = drawId;
+            this.seed = seed;
+            this.mode = mode;
+            this.invitedIds = invitedIds;
+            this.timestamp = timestamp;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Removes the winners from the waiting list, marks them selected on the event,
+         * logs the draw and writes their invitations.
+         *
+         * @param writer        Where the writes go
+         * @param eventRef      The event
+         * @param drawRef       The draw log entry
+         * @param waitingRef    A winner's waiting list document
+         * @param invitationRef A winner's invitation document
+         */
+        public void writeTo(LotteryDraw.Writer writer, DocumentReference eventRef, DocumentReference drawRef,
+                            Function<String, DocumentReference> waitingRef,
+                            Function<String, DocumentReference> invitationRef) {
+            for (String entrantId : invitedIds) {
+                writer.delete(waitingRef.apply(entrantId));
+            }
+
+            List<Object> moreUpdates = new ArrayList<>();
+            moreUpdates.add(FieldPath.of(WaitingListStore.COUNT_FIELD));
+            moreUpdates.add(FieldValue.increment(-invitedIds.size()));
+            for (String entrantId : invitedIds) {
+                moreUpdates.add(EntrantStatusMap.fieldFor(entrantId));
+                moreUpdates.add(EntrantStatus.SELECTED.name());
+                moreUpdates.add(FieldPath.of("invitationExpiresAt", entrantId));
+                moreUpdates.add(expiresAt);
+            }
+            writer.update(eventRef,
+                    FieldPath.of("lotterySeed"), seed,
+                    moreUpdates.toArray());
+
+            Map<String, Object> log = new HashMap<>();
+            log.put("drawId", drawId);
+            log.put("invitedIds", invitedIds);
+            log.put("seed", seed);
+            log.put("timestamp", timestamp);
+            log.put("mode", mode);
+            writer.set(drawRef, log);
+
+            for (String entrantId : invitedIds) {
+                writer.set(invitationRef.apply(entrantId),
+                        InvitationNotification.create(eventId, title, entrantId, timestamp, expiresAt));
+            }
+        }
+    }
+
+    private static int openSpots(DocumentSnapshot eventDoc) {
+        Long capacity = eventDoc.getLong("capacity");
+        return (capacity != null ? capacity.intValue() : 0) - EntrantStatusMap.from(eventDoc).countHoldingSpots();
+    }
+}
@@ -1,32 +1,48 @@
 package com.example.summit.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a waiting list for an event.
  * <p>
  * This class manages a collection of {@link Entrant} objects, ensuring that
  * each entrant can only be added to the list once.
+ * <p>
+ * Entrants are indexed by device ID in an insertion-ordered hash map, so adding,
+ * removing, membership checks and lookups by ID all take O(1), and entrants keep
+ * the order they joined in, which the lottery relies on.
  */
 public class WaitingList {
-    private List<Entrant> entrants;
+    private final Map<String, Entrant> entrants;
+
+    // Cached result of getEntrants(); cleared whenever the list changes
+    private volatile List<Entrant> orderedView;
 
     /**
      * Initializes empty waiting list.
      */
     public WaitingList() {
-        this.entrants = new ArrayList<>();
+        this.entrants = new LinkedHashMap<>();
     }
 
     /**
      * Adds an entrant to the waiting list if not already added.
+     * <p>
+     * An entrant is already on the list if an entrant with the same device ID is.
      *
      * @param entrant The {@link Entrant} to add to the list.
+     * @throws IllegalArgumentException if the entrant has no device ID.
      */
     public void addEntrant(Entrant entrant) {
-        if (!entrants.contains(entrant)) {
-            entrants.add(entrant);
+        if (entrant.getDeviceId() == null) {
+            throw new IllegalArgumentException("Entrant has no device ID");
+        }
+        if (entrants.putIfAbsent(entrant.getDeviceId(), entrant) == null) {
+            orderedView = null;
         }
     }
 
@@ -38,7 +54,19 @@ public class WaitingList {
      * @param entrant The {@link Entrant} to remove from the list.
      */
     public void removeEntrant (Entrant entrant) {
-        entrants.remove(entrant);
+        if (entrant.getDeviceId() != null && entrants.remove(entrant.getDeviceId()) != null) {
+            orderedView = null;
+        }
+    }
+
+    /**
+     * Checks whether an entrant with the same device ID is on the list.
+     *
+     * @param entrant The {@link Entrant} to look for.
+     * @return {@code true} if the entrant is on the list.
+     */
+    public boolean contains(Entrant entrant) {
+        return entrant.getDeviceId() != null && entrants.containsKey(entrant.getDeviceId());
     }
 
     /**
@@ -52,11 +80,20 @@ public class WaitingList {
 
     /**
      * Retrieves the complete list of entrants on the waiting list.
+     * <p>
+     * The list is in the order entrants joined and cannot be modified; use
+     * {@link #addEntrant(Entrant)} and {@link #removeEntrant(Entrant)} instead.
+     * It is built on the first call after a change and reused until the next one.
      *
      * @return A {@link List} containing all {@link Entrant} objects on the list.
      */
     public List<Entrant> getEntrants() { //to retrieve entire list of entrants
-        return entrants;
+        List<Entrant> view = orderedView;
+        if (view == null) {
+            view = Collections.unmodifiableList(new ArrayList<>(entrants.values()));
+            orderedView = view;
+        }
+        return view;
     }
 
     /**
@@ -69,11 +106,6 @@ public class WaitingList {
      * with that ID is found.
      */
     public Entrant getEntrantById(String id) {
-        for (Entrant entrant : entrants) {
-            if (entrant.getDeviceId().equals(id)) {
-                return entrant;
-            }
-        }
-        return null;
+        return entrants.get(id);
     }
 }
@@ -0,0 +1,315 @@
+package com.example.summit.model;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.Transaction;
+
+import java.util.List;
+
+/**
+ * Reads and writes an event's waiting list, wherever the event stores it.
+ * <p>
+ * By default an event keeps every entrant in its {@link EntrantStatusMap}, on the
+ * event document itself. That document is capped at 1 MiB and every screen that
+ * opens the event downloads the whole map, so events with {@code waitingListStorage}
+ * set to {@link #STORAGE_SUBCOLLECTION} keep their waiting entrants in the
+ * {@code events/{eventId}/waitingList} subcollection instead, one document per
+ * entrant named by device ID. Only entrants who were drawn stay in the event's
+ * status map, and that is bounded by the capacity plus declines.
+ * <p>
+ * The number of waiting entrants is kept in the event's {@code waitingCount} field,
+ * updated in the same transaction that adds or removes a waiting list document, so
+ * detail screens can show it without reading the subcollection. Screens that need
+ * every entrant (the lottery, the CSV export, the map) read the subcollection one
+ * page at a time with {@link #forEachPage(String, PageHandler)}.
+ * <p>
+ * Entrants join with {@link #join(String, Entrant, String)}, which reads the event
+ * and checks its registration window, location requirement and optional
+ * {@code maxWaitingList} limit in the same transaction that adds the entrant. Two
+ * entrants racing for the last place both read the same count, so Firestore retries
+ * the later commit and it sees the list is full.
+ */
+public class WaitingListStore {
+
+    /**
+     * Event field naming where the waiting list is stored.
+     */
+    public static final String STORAGE_FIELD = "waitingListStorage";
+
+    /**
+     * Value of {@link #STORAGE_FIELD} when the waiting list lives in the subcollection.
+     */
+    public static final String STORAGE_SUBCOLLECTION = "subcollection";
+
+    /**
+     * Name of the subcollection holding the waiting entrants.
+     */
+    public static final String COLLECTION = "waitingList";
+
+    /**
+     * Event field holding the number of documents in the subcollection.
+     */
+    public static final String COUNT_FIELD = "waitingCount";
+
+    /**
+     * Event field holding the most entrants the waiting list takes; missing or 0 means no limit.
+     */
+    public static final String LIMIT_FIELD = "maxWaitingList";
+
+    /**
+     * Number of waiting list documents read per query.
+     */
+    static final int PAGE_SIZE = 500;
+
+    private WaitingListStore() {}
+
+    /**
+     * Receives the waiting list one page at a time.
+     */
+    public interface PageHandler {
+        /**
+         * @param page Up to {@link #PAGE_SIZE} waiting list documents, ordered by device ID
+         */
+        void onPage(List<DocumentSnapshot> page);
+    }
+
+    /**
+     * Outcome of {@link #join(String, Entrant, String)}.
+     */
+    public enum JoinResult {
+        /** The entrant was added to the waiting list. */
+        JOINED,
+        /** The entrant is already waiting or was already drawn; nothing was written. */
+        ALREADY_JOINED,
+        /** The waiting list has reached the event's limit. */
+        FULL,
+        /** Today is outside the event's registration window. */
+        REGISTRATION_CLOSED,
+        /** The event requires a location and the entrant is not sharing one. */
+        LOCATION_REQUIRED,
+        /** The event does not exist. */
+        NO_EVENT
+    }
+
+    /**
+     * @param eventDoc The event
+     * @return Whether the event's waiting list lives in the subcollection
+     */
+    public static boolean usesSubcollection(DocumentSnapshot eventDoc) {
+        return STORAGE_SUBCOLLECTION.equals(eventDoc.getString(STORAGE_FIELD));
+    }
+
+    /**
+     * @param eventDoc The event
+     * @return Number of entrants waiting, without reading the waiting list
+     */
+    public static long waitingCount(DocumentSnapshot eventDoc) {
+        if (usesSubcollection(eventDoc)) {
+            Long count = eventDoc.getLong(COUNT_FIELD);
+            return count != null ? Math.max(count, 0) : 0;
+        }
+        return EntrantStatusMap.from(eventDoc).count(EntrantStatus.WAITING);
+    }
+
+    /**
+     * Decides whether an entrant may join an event's waiting list.
+     *
+     * @param registrationStart First day of registration as "yyyy-MM-dd", or null if open
+     * @param registrationEnd   Last day of registration as "yyyy-MM-dd", or null if open
+     * @param locationRequired  Whether the event requires the entrant's location
+     * @param entrant           The entrant joining
+     * @param limit             Most entrants the waiting list takes; null or 0 for no limit
+     * @param waiting           Number of entrants waiting now
+     * @param today             Today's date as "yyyy-MM-dd"
+     * @return {@link JoinResult#JOINED} if the entrant may join, otherwise why not
+     */
+    public static JoinResult checkJoin(String registrationStart, String registrationEnd, boolean locationRequired,
+                                       Entrant entrant, Long limit, long waiting, String today) {
+        // Compared as days; a missing or unreadable date leaves that side of the window open
+        Long day = EventDates.parse(today);
+        Long start = EventDates.parse(registrationStart);
+        Long end = EventDates.parse(registrationEnd);
+        if (day != null && (start != null && day < start || end != null && day > end)) {
+            return JoinResult.REGISTRATION_CLOSED;
+        }
+        if (locationRequired && !(Boolean.TRUE.equals(entrant.getLocationShared()) && entrant.getLocation() != null)) {
+            return JoinResult.LOCATION_REQUIRED;
+        }
+        if (limit != null && limit > 0 && waiting >= limit) {
+            return JoinResult.FULL;
+        }
+        return JoinResult.JOINED;
+    }
+
+    /**
+     * Adds an entrant to an event's waiting list if {@link #checkJoin} allows it.
+     * <p>
+     * The event is read, checked and written in one transaction, so the waiting list
+     * never grows past its limit however many entrants join at once. The entrant is
+     * added wherever the event keeps its waiting list: the subcollection (counted in
+     * {@link #COUNT_FIELD}) or the event's status map.
+     *
+     * @param eventId The event to join
+     * @param entrant The entrant joining
+     * @param today   Today's date as "yyyy-MM-dd", the format events store
+     * @return A task holding the outcome
+     */
+    public static Task<JoinResult> join(String eventId, Entrant entrant, String today) {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        String entrantId = entrant.getDeviceId();
+        DocumentReference entryRef = eventRef.collection(COLLECTION).document(entrantId);
+
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot eventDoc = transaction.get(eventRef);
+            if (!eventDoc.exists()) {
+                return JoinResult.NO_EVENT;
+            }
+            JoinResult result = checkJoin(transaction, eventDoc, EntrantStatusMap.from(eventDoc),
+                    entrant, waitingCount(eventDoc), today);
+            if (result != JoinResult.JOINED) {
+                return result;
+            }
+
+            if (usesSubcollection(eventDoc)) {
+                transaction.set(entryRef, entrant);
+                transaction.update(eventRef, COUNT_FIELD, FieldValue.increment(1));
+            } else {
+                transaction.update(eventRef, EntrantStatusMap.fieldFor(entrantId), EntrantStatus.WAITING.name());
+            }
+            return JoinResult.JOINED;
+        });
+    }
+
+    /**
+     * Checks an entrant against an event inside a transaction, including whether they already joined.
+     * <p>
+     * Only reads, so a transaction can check several entrants before it writes any of them.
+     *
+     * @param transaction The transaction the event was read in
+     * @param eventDoc    The event, which must exist
+     * @param statuses    The event's statuses, including entrants admitted earlier in the transaction
+     * @param entrant     The entrant joining
+     * @param waiting     Number of entrants waiting, including those admitted earlier in the transaction
+     * @param today       The date the entrant asked to join, as "yyyy-MM-dd"
+     * @return {@link JoinResult#JOINED} if the entrant may join, otherwise why not
+     */
+    static JoinResult checkJoin(Transaction transaction, DocumentSnapshot eventDoc, EntrantStatusMap statuses,
+                                Entrant entrant, long waiting, String today) throws FirebaseFirestoreException {
+        String entrantId = entrant.getDeviceId();
+        EntrantStatus status = statuses.statusOf(entrantId);
+        if (status == EntrantStatus.WAITING || status != null && status.holdsSpot()) {
+            return JoinResult.ALREADY_JOINED;
+        }
+        if (usesSubcollection(eventDoc)
+                && transaction.get(eventDoc.getReference().collection(COLLECTION).document(entrantId)).exists()) {
+            return JoinResult.ALREADY_JOINED;
+        }
+        return checkJoin(eventDoc.getString("registrationStart"),
+                eventDoc.getString("registrationEnd"),
+                Boolean.TRUE.equals(eventDoc.getBoolean("requiredLocation")),
+                entrant, eventDoc.getLong(LIMIT_FIELD), waiting, today);
+    }
+
+    /**
+     * Adds an entrant to an event's waiting list subcollection and counts them,
+     * without checking the event's limit or registration window.
+     * <p>
+     * Joining twice is harmless: an entrant who already has a waiting list document
+     * is neither written nor counted again.
+     *
+     * @param eventId The event to join
+     * @param entrant The entrant joining; saved as their waiting list document
+     * @return A task holding whether the entrant was added
+     */
+    public static Task<Boolean> join(String eventId, Entrant entrant) {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference entryRef = eventRef.collection(COLLECTION).document(entrant.getDeviceId());
+
+        return db.runTransaction(transaction -> {
+            if (transaction.get(entryRef).exists()) {
+                return false;
+            }
+            transaction.set(entryRef, entrant);
+            transaction.update(eventRef, COUNT_FIELD, FieldValue.increment(1));
+            return true;
+        });
+    }
+
+    /**
+     * @param eventId   The event
+     * @param entrantId An entrant's device ID
+     * @return A task holding whether the entrant has a waiting list document
+     */
+    public static Task<Boolean> isWaiting(String eventId, String entrantId) {
+        return FirebaseFirestore.getInstance()
+                .collection("events").document(eventId)
+                .collection(COLLECTION).document(entrantId)
+                .get()
+                .onSuccessTask(doc -> Tasks.forResult(doc.exists()));
+    }
+
+    /**
+     * Reads the whole waiting list subcollection, one page at a time.
+     * <p>
+     * Pages are ordered by document ID and each query starts after the last
+     * document of the previous page, so only one page is held at a time.
+     *
+     * @param eventId The event
+     * @param handler Called with every page, in order
+     * @return A task that completes after the last page
+     */
+    public static Task<Void> forEachPage(String eventId, PageHandler handler) {
+        CollectionReference waitingRef = FirebaseFirestore.getInstance()
+                .collection("events").document(eventId).collection(COLLECTION);
+        return readPages(waitingRef, null, handler);
+    }
+
+    /**
+     * Reads every entrant's status, including a waiting list kept in the subcollection.
+     * <p>
+     * An entrant with a waiting list document counts as waiting even if the status map
+     * still holds an earlier decline, since they joined again after it.
+     *
+     * @param eventDoc The event
+     * @return A task holding the statuses; already complete if the event keeps its waiting list inline
+     */
+    public static Task<EntrantStatusMap> loadStatuses(DocumentSnapshot eventDoc) {
+        EntrantStatusMap statuses = EntrantStatusMap.from(eventDoc);
+        if (!usesSubcollection(eventDoc)) {
+            return Tasks.forResult(statuses);
+        }
+        return forEachPage(eventDoc.getId(), page -> {
+            for (DocumentSnapshot doc : page) {
+                statuses.set(doc.getId(), EntrantStatus.WAITING);
+            }
+        }).onSuccessTask(ignored -> Tasks.forResult(statuses));
+    }
+
+    private static Task<Void> readPages(CollectionReference waitingRef, DocumentSnapshot after,
+                                        PageHandler handler) {
+        Query page = waitingRef.orderBy(FieldPath.documentId()).limit(PAGE_SIZE);
+        if (after != null) {
+            page = page.startAfter(after);
+        }
+        return page.get().onSuccessTask(snapshot -> {
+            List<DocumentSnapshot> docs = snapshot.getDocuments();
+            if (!docs.isEmpty()) {
+                handler.onPage(docs);
+            }
+            if (docs.size() < PAGE_SIZE) {
+                return Tasks.forResult(null);
+            }
+            return readPages(waitingRef, docs.get(docs.size() - 1), handler);
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.summit.utils;
+
+import com.example.summit.model.Event;
+import com.example.summit.model.EventDates;
+import com.example.summit.model.EventDescription;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Events indexed by when they take place and when they take registrations.
+ * <p>
+ * Days are read with {@link EventDates}, so events saved before the typed date
+ * fields existed are indexed from their text dates. An event with no start date is
+ * left out of {@link #overlapping}; one with no end date lasts a single day. A
+ * missing registration date leaves that side of the window open, as it does when
+ * joining the waiting list.
+ */
+public class EventDateIndex {
+
+    private final IntervalIndex<Event> takingPlace;
+    private final IntervalIndex<Event> registration;
+
+    /**
+     * @param events The events to index; ones without a description are skipped
+     */
+    public EventDateIndex(List<Event> events) {
+        List<Event> dated = new ArrayList<>();
+        List<Event> described = new ArrayList<>();
+        for (Event event : events) {
+            EventDescription d = event.getDescription();
+            if (d == null) continue;
+            described.add(event);
+            if (EventDates.eventStart(d) != null) dated.add(event);
+        }
+        takingPlace = new IntervalIndex<>(dated,
+                e -> EventDates.eventStart(e.getDescription()),
+                e -> {
+                    Long end = EventDates.eventEnd(e.getDescription());
+                    return end != null ? end : EventDates.eventStart(e.getDescription());
+                });
+        registration = new IntervalIndex<>(described,
+                e -> {
+                    Long start = EventDates.registrationStart(e.getDescription());
+                    return start != null ? start : Long.MIN_VALUE;
+                },
+                e -> {
+                    Long end = EventDates.registrationEnd(e.getDescription());
+                    return end != null ? end : Long.MAX_VALUE;
+                });
+    }
+
+    /**
+     * @param from First day, inclusive, as an epoch day
+     * @param to   Last day, inclusive, as an epoch day
+     * @return Events taking place on any day of the range
+     */
+    public List<Event> overlapping(long from, long to) {
+        return takingPlace.overlapping(from, to);
+    }
+
+    /**
+     * @param day An epoch day
+     * @return Events taking registrations on the day
+     */
+    public List<Event> registrationOpen(long day) {
+        return registration.containing(day);
+    }
+}
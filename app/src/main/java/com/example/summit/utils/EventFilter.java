@@ -0,0 +1,174 @@
+package com.example.summit.utils;
+
+import com.example.summit.model.Event;
+import com.example.summit.model.EventDates;
+import com.example.summit.model.EventDescription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The criteria of the event filter dialog, parsed once and applied to many events.
+ * <p>
+ * {@link #compile} parses the capacity and dates and lowercases the keyword and
+ * location up front, and keeps only the criteria that were filled in, as a short
+ * array of checks. The checks run against a {@link Projection} of each event
+ * holding its lowercased text, capacity and dates as epoch days. Projections are
+ * made the first time an event is filtered and kept for as long as the event
+ * object is, so filtering the same events again allocates nothing per event. An
+ * event given a new {@link EventDescription} is projected again.
+ */
+public class EventFilter {
+
+    /**
+     * Largest capacity the filter accepts; larger values are treated as this.
+     */
+    static final long MAX_CAPACITY = 10000;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    // Keyed by identity; dropped when the event is no longer used
+    private static final Map<Event, Projection> projections = new WeakHashMap<>();
+
+    /**
+     * One check of a compiled filter.
+     */
+    private interface Criterion {
+        boolean test(Projection p);
+    }
+
+    /**
+     * What the filter reads from an event, normalized once.
+     */
+    public static final class Projection {
+        final EventDescription source;
+        final String title;
+        final String description;
+        final String location;
+        final Long capacity;
+        final long startDay;
+        final long endDay;
+
+        Projection(EventDescription d) {
+            source = d;
+            title = lower(d.getTitle());
+            description = lower(d.getDescription());
+            location = lower(d.getLocation());
+            capacity = d.getCapacity();
+            startDay = orNoDate(EventDates.eventStart(d));
+            endDay = orNoDate(EventDates.eventEnd(d));
+        }
+    }
+
+    private final Criterion[] criteria;
+
+    private EventFilter(Criterion[] criteria) {
+        this.criteria = criteria;
+    }
+
+    /**
+     * Parses the filter dialog's inputs. Empty inputs, and a capacity or dates that
+     * cannot be parsed, do not filter anything.
+     *
+     * @param keyword   Text the title or description must contain, any case
+     * @param location  The exact location, any case
+     * @param capacity  Largest capacity, as typed
+     * @param startDate Earliest start, "yyyy-MM-dd"; only used with {@code endDate}
+     * @param endDate   Latest end, "yyyy-MM-dd"; only used with {@code startDate}
+     * @return The filter
+     */
+    public static EventFilter compile(String keyword, String location, String capacity,
+                                      String startDate, String endDate) {
+        List<Criterion> criteria = new ArrayList<>();
+
+        if (!keyword.isEmpty()) {
+            String lower = keyword.toLowerCase(Locale.ROOT);
+            criteria.add(p -> (p.title != null && p.title.contains(lower))
+                    || (p.description != null && p.description.contains(lower)));
+        }
+
+        if (!location.isEmpty()) {
+            String lower = location.toLowerCase(Locale.ROOT);
+            criteria.add(p -> lower.equals(p.location));
+        }
+
+        if (!capacity.isEmpty()) {
+            try {
+                long max = Math.min(Long.parseLong(capacity), MAX_CAPACITY);
+                criteria.add(p -> p.capacity != null && p.capacity <= max);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+
+        long from = orNoDate(EventDates.parse(startDate));
+        long to = orNoDate(EventDates.parse(endDate));
+        if (from != NO_DATE && to != NO_DATE) {
+            // Events without both dates are not filtered out
+            criteria.add(p -> p.startDay == NO_DATE || p.endDay == NO_DATE
+                    || (p.startDay >= from && p.endDay <= to));
+        }
+
+        return new EventFilter(criteria.toArray(new Criterion[0]));
+    }
+
+    /**
+     * @return Whether no criteria were filled in, so every event matches
+     */
+    public boolean isEmpty() {
+        return criteria.length == 0;
+    }
+
+    /**
+     * @param event An event
+     * @return Whether it meets every criterion; events without a description never do
+     */
+    public boolean test(Event event) {
+        Projection p = projectionOf(event);
+        if (p == null) return false;
+        for (Criterion criterion : criteria) {
+            if (!criterion.test(p)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param events Events to filter
+     * @return The ones that match, in the same order
+     */
+    public List<Event> apply(List<Event> events) {
+        List<Event> result = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            if (test(event)) result.add(event);
+        }
+        return result;
+    }
+
+    /**
+     * @param event An event
+     * @return Its projection, made on first use; null if it has no description
+     */
+    public static Projection projectionOf(Event event) {
+        EventDescription d = event.getDescription();
+        if (d == null) return null;
+        synchronized (projections) {
+            Projection p = projections.get(event);
+            if (p == null || p.source != d) {
+                p = new Projection(d);
+                projections.put(event, p);
+            }
+            return p;
+        }
+    }
+
+    private static String lower(String text) {
+        return text != null ? text.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static long orNoDate(Long day) {
+        return day != null ? day : NO_DATE;
+    }
+}
@@ -11,13 +11,10 @@ import android.widget.EditText;
 
 import com.example.summit.R;
 import com.example.summit.model.Event;
-import com.example.summit.model.EventDescription;
 
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Utility class for filtering and searching events.
@@ -27,28 +24,22 @@ public class EventFilterUtil {
 
     /**
      * Filter events by keyword only (search functionality)
+     *
+     * @param index  Index kept in sync with {@code events}
+     * @param events All events, returned as they are for an empty keyword
+     * @return Events matching every word of the keyword, best match first
      */
-    public static List<Event> searchByKeyword(List<Event> events, String keyword) {
+    public static List<Event> searchByKeyword(EventSearchIndex index, List<Event> events, String keyword) {
         if (keyword.isEmpty()) {
             return new ArrayList<>(events);
         }
-
-        List<Event> result = new ArrayList<>();
-        for (Event e : events) {
-            EventDescription d = e.getDescription();
-            if (d == null) continue;
-
-            String lower = keyword.toLowerCase();
-            if ((d.getTitle() != null && d.getTitle().toLowerCase().contains(lower)) ||
-                    (d.getDescription() != null && d.getDescription().toLowerCase().contains(lower))) {
-                result.add(e);
-            }
-        }
-        return result;
+        return index.search(keyword);
     }
 
     /**
      * Filter events by multiple criteria
+     *
+     * @see EventFilter#compile
      */
     public static List<Event> filterEvents(
             List<Event> events,
@@ -58,73 +49,18 @@ public class EventFilterUtil {
             String startDate,
             String endDate
     ) {
-        List<Event> result = new ArrayList<>();
-
-        for (Event e : events) {
-            EventDescription d = e.getDescription();
-            if (d == null) continue;
-
-            if (matchesCriteria(d, keyword, location, capacityStr, startDate, endDate)) {
-                result.add(e);
-            }
-        }
-
-        return result;
-    }
-
-    /**
-     * Check if an event matches all filter criteria
-     */
-    private static boolean matchesCriteria(
-            EventDescription d,
-            String keyword,
-            String location,
-            String capacityStr,
-            String startDate,
-            String endDate
-    ) {
-        // KEYWORD
-        boolean okKeyword = true;
-        if (!keyword.isEmpty()) {
-            String lower = keyword.toLowerCase();
-            okKeyword = (d.getTitle() != null && d.getTitle().toLowerCase().contains(lower)) ||
-                    (d.getDescription() != null && d.getDescription().toLowerCase().contains(lower));
-        }
-
-        // LOCATION
-        boolean okLocation = true;
-        if (!location.isEmpty()) {
-            okLocation = d.getLocation() != null && d.getLocation().equalsIgnoreCase(location);
-        }
-
-        // CAPACITY
-        boolean okCapacity = true;
-        if (!capacityStr.isEmpty()) {
-            try {
-                long cap = Long.parseLong(capacityStr);
-                if (cap > 10000) cap = 10000;
-                okCapacity = d.getCapacity() != null && d.getCapacity() <= cap;
-            } catch (NumberFormatException ignored) {
-            }
-        }
-
-        // DATE RANGE
-        boolean okDate = true;
-        if (!startDate.isEmpty() && !endDate.isEmpty() &&
-                d.getEventStart() != null && d.getEventEnd() != null) {
-            okDate = d.getEventStart().compareTo(startDate) >= 0 &&
-                    d.getEventEnd().compareTo(endDate) <= 0;
-        }
-
-        return okKeyword && okLocation && okCapacity && okDate;
+        return EventFilter.compile(keyword, location, capacityStr, startDate, endDate).apply(events);
     }
 
     /**
      * Show filter dialog and return filtered events via callback
+     *
+     * @param locations Events per location, offered in the location dropdown
      */
     public static void showFilterDialog(
             Context context,
             List<Event> allEvents,
+            FacetCounts locations,
             FilterCallback callback
     ) {
         LayoutInflater inflater = LayoutInflater.from(context);
@@ -136,20 +72,7 @@ public class EventFilterUtil {
         EditText startDateInput = dialogView.findViewById(R.id.input_start);
         EditText endDateInput = dialogView.findViewById(R.id.input_end);
 
-        // Populate locations dropdown
-        Set<String> locationsSet = new HashSet<>();
-        for (Event e : allEvents) {
-            EventDescription d = e.getDescription();
-            if (d != null && d.getLocation() != null && !d.getLocation().isEmpty()) {
-                locationsSet.add(d.getLocation());
-            }
-        }
-        ArrayAdapter<String> adapterLoc = new ArrayAdapter<>(
-                context,
-                android.R.layout.simple_dropdown_item_1line,
-                new ArrayList<>(locationsSet)
-        );
-        locationInput.setAdapter(adapterLoc);
+        showLocations(context, locationInput, locations);
 
         // Date pickers
         startDateInput.setOnClickListener(v -> showDatePicker(context, startDateInput));
@@ -176,6 +99,21 @@ public class EventFilterUtil {
                 .show();
     }
 
+    /**
+     * Offers locations with their event counts in a dropdown. Picking one fills in
+     * just the location, without its count.
+     */
+    public static void showLocations(Context context, AutoCompleteTextView locationInput, FacetCounts locations) {
+        ArrayAdapter<FacetCounts.Facet> adapterLoc = new ArrayAdapter<>(
+                context,
+                android.R.layout.simple_dropdown_item_1line,
+                locations.facets()
+        );
+        locationInput.setAdapter(adapterLoc);
+        locationInput.setOnItemClickListener((parent, view, position, id) ->
+                locationInput.setText(((FacetCounts.Facet) parent.getItemAtPosition(position)).getValue(), false));
+    }
+
     /**
      * Show date picker dialog
      */
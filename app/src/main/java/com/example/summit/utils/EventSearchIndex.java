@@ -0,0 +1,213 @@
+package com.example.summit.utils;
+
+import com.example.summit.model.Event;
+import com.example.summit.model.EventDescription;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * An inverted index over the words in event titles and descriptions, for keyword search.
+ * <p>
+ * Text is split into words on anything that is not a letter or digit, lowercased, and
+ * has its accents removed, so "Café" is found by "cafe". Every prefix of a word is
+ * indexed along with the word, so a search for "yog" finds "Yoga". Each word or
+ * prefix maps straight to the events containing it and their precomputed score: a
+ * title hit counts {@link #TITLE_WEIGHT} times a description hit, repeated words
+ * count once per occurrence, and a prefix counts {@link #PREFIX_WEIGHT} of a whole
+ * word. A search looks up each query word once and intersects the results, so it
+ * costs the number of matching events, not the length of their descriptions.
+ * <p>
+ * The index is kept up to date event by event: {@link #sync(List)} only re-indexes
+ * events whose title or description changed and drops events that are gone. Methods
+ * are synchronized so a search may run off the main thread.
+ */
+public class EventSearchIndex {
+
+    /**
+     * How much more a word in the title counts than one in the description.
+     */
+    static final float TITLE_WEIGHT = 3f;
+
+    /**
+     * How much a prefix of a word counts compared to the whole word.
+     */
+    static final float PREFIX_WEIGHT = 0.5f;
+
+    /**
+     * Longest word indexed; longer words are cut, and so are query words, so they still match.
+     */
+    static final int MAX_WORD_LENGTH = 24;
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * What is indexed for one event, so it can be removed or compared on the next sync.
+     */
+    private static class Entry {
+        final Event event;
+        final String title;
+        final String description;
+        final Set<String> keys;
+
+        Entry(Event event, String title, String description, Set<String> keys) {
+            this.event = event;
+            this.title = title;
+            this.description = description;
+            this.keys = keys;
+        }
+    }
+
+    // Word or prefix -> event ID -> score
+    private final Map<String, Map<String, Float>> postings = new HashMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Makes the index hold exactly these events. Events already indexed with the same
+     * title and description are only re-pointed at the new object.
+     *
+     * @param events The events; ones without an ID are skipped
+     */
+    public synchronized void sync(List<Event> events) {
+        Set<String> present = new HashSet<>();
+        for (Event event : events) {
+            if (event.getId() == null) continue;
+            present.add(event.getId());
+            put(event);
+        }
+        for (String id : new ArrayList<>(entries.keySet())) {
+            if (!present.contains(id)) remove(id);
+        }
+    }
+
+    /**
+     * Adds an event, or re-indexes it if its title or description changed.
+     *
+     * @param event The event; ignored if it has no ID
+     */
+    public synchronized void put(Event event) {
+        String id = event.getId();
+        if (id == null) return;
+        EventDescription d = event.getDescription();
+        String title = d != null ? d.getTitle() : null;
+        String description = d != null ? d.getDescription() : null;
+
+        Entry old = entries.get(id);
+        if (old != null && Objects.equals(old.title, title) && Objects.equals(old.description, description)) {
+            entries.put(id, new Entry(event, title, description, old.keys));
+            return;
+        }
+        if (old != null) remove(id);
+
+        Map<String, Float> scores = new HashMap<>();
+        addWords(scores, title, TITLE_WEIGHT);
+        addWords(scores, description, 1f);
+        for (Map.Entry<String, Float> score : scores.entrySet()) {
+            postings.computeIfAbsent(score.getKey(), k -> new HashMap<>()).put(id, score.getValue());
+        }
+        entries.put(id, new Entry(event, title, description, scores.keySet()));
+    }
+
+    /**
+     * @param eventId An event's ID; nothing happens if it is not indexed
+     */
+    public synchronized void remove(String eventId) {
+        Entry entry = entries.remove(eventId);
+        if (entry == null) return;
+        for (String key : entry.keys) {
+            Map<String, Float> events = postings.get(key);
+            events.remove(eventId);
+            if (events.isEmpty()) postings.remove(key);
+        }
+    }
+
+    /**
+     * @return Number of events indexed
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Finds the events containing every word of a query, each as a whole word or the start of one.
+     *
+     * @param query What the user typed
+     * @return The matching events, best first; empty if the query has no words
+     */
+    public synchronized List<Event> search(String query) {
+        List<String> words = words(query);
+        if (words.isEmpty()) return new ArrayList<>();
+
+        List<Map<String, Float>> matches = new ArrayList<>();
+        for (String word : words) {
+            Map<String, Float> events = postings.get(word);
+            if (events == null) return new ArrayList<>();
+            matches.add(events);
+        }
+        // Walk the rarest word's events and look the others up
+        Map<String, Float> rarest = Collections.min(matches, (a, b) -> Integer.compare(a.size(), b.size()));
+        Map<String, Float> totals = new HashMap<>();
+        for (String id : rarest.keySet()) {
+            float total = 0;
+            for (Map<String, Float> events : matches) {
+                Float score = events.get(id);
+                if (score == null) {
+                    total = -1;
+                    break;
+                }
+                total += score;
+            }
+            if (total >= 0) totals.put(id, total);
+        }
+
+        List<Event> results = new ArrayList<>(totals.size());
+        for (String id : totals.keySet()) {
+            results.add(entries.get(id).event);
+        }
+        results.sort((a, b) -> {
+            int byScore = Float.compare(totals.get(b.getId()), totals.get(a.getId()));
+            if (byScore != 0) return byScore;
+            String titleA = entries.get(a.getId()).title, titleB = entries.get(b.getId()).title;
+            int byTitle = String.CASE_INSENSITIVE_ORDER.compare(titleA != null ? titleA : "", titleB != null ? titleB : "");
+            return byTitle != 0 ? byTitle : a.getId().compareTo(b.getId());
+        });
+        return results;
+    }
+
+    /**
+     * Splits text into indexable words.
+     *
+     * @param text Any text, may be null
+     * @return Its words, lowercased, without accents and cut to {@link #MAX_WORD_LENGTH}
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) return words;
+        String folded = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String word : SEPARATORS.split(folded)) {
+            if (word.isEmpty()) continue;
+            words.add(word.length() > MAX_WORD_LENGTH ? word.substring(0, MAX_WORD_LENGTH) : word);
+        }
+        return words;
+    }
+
+    private static void addWords(Map<String, Float> scores, String text, float weight) {
+        for (String word : words(text)) {
+            for (int end = 1; end <= word.length(); end++) {
+                float score = end == word.length() ? weight : weight * PREFIX_WEIGHT;
+                scores.merge(word.substring(0, end), score, Float::sum);
+            }
+        }
+    }
+}
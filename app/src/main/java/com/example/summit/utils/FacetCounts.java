@@ -0,0 +1,128 @@
+package com.example.summit.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * How many documents have each value of one field, such as users per city, for
+ * showing the choices of a filter with their counts.
+ * <p>
+ * Counts are kept up to date one document at a time: {@link #put} moves a document
+ * from its old value's count to its new one, and {@link #remove} takes it out. Values
+ * are kept sorted, ignoring case, so listing the choices with {@link #facets()} costs
+ * the number of distinct values rather than the number of documents. Methods are
+ * synchronized so counts may be updated off the main thread.
+ */
+public class FacetCounts {
+
+    private static final Comparator<String> ORDER =
+            String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    /**
+     * One value and how many documents have it. Shown as "value (count)".
+     */
+    public static class Facet {
+        private final String value;
+        private final int count;
+
+        public Facet(String value, int count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        public String getValue() { return value; }
+
+        public int getCount() { return count; }
+
+        @Override
+        public String toString() {
+            return value + " (" + count + ")";
+        }
+    }
+
+    // Document key -> its value
+    private final Map<String, String> values = new HashMap<>();
+    // Value -> documents with it
+    private final TreeMap<String, Integer> counts = new TreeMap<>(ORDER);
+
+    /**
+     * Records a document's value, replacing any it had before.
+     *
+     * @param key   Identifies the document
+     * @param value The document's value; null or empty removes the document
+     */
+    public synchronized void put(String key, String value) {
+        if (value == null || value.isEmpty()) {
+            remove(key);
+            return;
+        }
+        String old = values.put(key, value);
+        if (value.equals(old)) return;
+        if (old != null) decrement(old);
+        counts.merge(value, 1, Integer::sum);
+    }
+
+    /**
+     * @param key Identifies a document; nothing happens if it was never put
+     */
+    public synchronized void remove(String key) {
+        String old = values.remove(key);
+        if (old != null) decrement(old);
+    }
+
+    /**
+     * Makes the counts cover exactly these documents. Documents whose value is
+     * unchanged cost a lookup; only changed and missing ones touch the counts.
+     *
+     * @param valuesByKey Every document's value, by key
+     */
+    public synchronized void sync(Map<String, String> valuesByKey) {
+        Iterator<Map.Entry<String, String>> it = values.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            if (!valuesByKey.containsKey(entry.getKey())) {
+                it.remove();
+                decrement(entry.getValue());
+            }
+        }
+        for (Map.Entry<String, String> entry : valuesByKey.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * @param value A value
+     * @return Documents with it
+     */
+    public synchronized int count(String value) {
+        Integer count = counts.get(value);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * @return Documents with any value
+     */
+    public synchronized int total() {
+        return values.size();
+    }
+
+    /**
+     * @return Every value with its count, sorted ignoring case
+     */
+    public synchronized List<Facet> facets() {
+        List<Facet> facets = new ArrayList<>(counts.size());
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            facets.add(new Facet(entry.getKey(), entry.getValue()));
+        }
+        return facets;
+    }
+
+    private void decrement(String value) {
+        counts.computeIfPresent(value, (v, count) -> count > 1 ? count - 1 : null);
+    }
+}
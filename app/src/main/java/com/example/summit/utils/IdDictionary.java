@@ -0,0 +1,69 @@
+package com.example.summit.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns each distinct string ID a dense int, starting at 0, and maps it back.
+ * <p>
+ * Sets of IDs can then be stored as {@link RoaringBitmap}s of those ints, and each
+ * string is held once here no matter how many sets contain it. Codes are never
+ * reused or removed, so a dictionary should live only as long as the sets that use
+ * it (one event's statuses, for example) to keep its codes dense and its memory bounded. Methods are synchronized so one dictionary can be shared by
+ * sets built on different threads.
+ */
+public class IdDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+
+    /**
+     * @param id A string ID
+     * @return The ID's code, assigning the next free one if it has none yet
+     */
+    public synchronized int intern(String id) {
+        Integer code = codes.get(id);
+        if (code == null) {
+            code = ids.size();
+            codes.put(id, code);
+            ids.add(id);
+        }
+        return code;
+    }
+
+    /**
+     * @param id A string ID
+     * @return The ID's code, or -1 if it has none
+     */
+    public synchronized int codeOf(String id) {
+        Integer code = codes.get(id);
+        return code != null ? code : -1;
+    }
+
+    /**
+     * @param code A code returned by {@link #intern(String)}
+     * @return The ID it was assigned to
+     */
+    public synchronized String idOf(int code) {
+        return ids.get(code);
+    }
+
+    /**
+     * @param codes A set of codes from this dictionary
+     * @return The IDs, in code order
+     */
+    public synchronized List<String> idsOf(RoaringBitmap codes) {
+        List<String> result = new ArrayList<>(codes.getCardinality());
+        codes.forEach(code -> result.add(ids.get(code)));
+        return result;
+    }
+
+    /**
+     * @return Number of IDs with a code
+     */
+    public synchronized int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.summit.utils;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Filters and sorts a list as the user types, off the main thread.
+ * <p>
+ * Each item's search text is lowercased, and its sort text turned into a
+ * {@link CollationKey}, once when the items are set, so neither is recomputed per
+ * keystroke. A search waits for typing to pause for the debounce time and then runs
+ * on a background thread; a newer search cancels a waiting one and stops one already
+ * running. When the query contains the previous query, with the same filter and
+ * order, it can only match fewer items, so only the previous matches are checked
+ * again. They are already in order, so nothing is sorted either.
+ *
+ * @param <T> The items searched
+ */
+public class IncrementalSearch<T> {
+
+    /**
+     * Items checked between looks at whether the search is still wanted.
+     */
+    static final int CHECK_INTERVAL = 1024;
+
+    private static final ScheduledExecutorService sharedWorker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "incremental-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * An item with its search text and sort key worked out.
+     */
+    public static final class Entry<T> {
+        private final T item;
+        private final String text;
+        private final CollationKey sortKey;
+
+        Entry(T item, String text, CollationKey sortKey) {
+            this.item = item;
+            this.text = text;
+            this.sortKey = sortKey;
+        }
+
+        public T getItem() { return item; }
+
+        public CollationKey getSortKey() { return sortKey; }
+    }
+
+    /**
+     * Receives the results of a search that was not cancelled.
+     */
+    public interface Listener<T> {
+        /**
+         * @param query   The query, lowercased and trimmed
+         * @param results Matching items, in order
+         */
+        void onResults(String query, List<T> results);
+    }
+
+    private final ScheduledExecutorService worker;
+    private final Executor results;
+    private final long debounceMillis;
+    private final Function<T, String> searchText;
+    private final Function<T, String> sortText;
+    private final Collator collator;
+
+    // Bumped by every search, so runs for older ones stop
+    private final AtomicLong generation = new AtomicLong();
+    private ScheduledFuture<?> waiting;
+
+    // Only touched on the worker thread
+    private List<Entry<T>> entries = new ArrayList<>();
+    private final Map<Comparator<Entry<T>>, List<Entry<T>>> sorted = new IdentityHashMap<>();
+    private List<Entry<T>> lastMatches;
+    private String lastQuery;
+    private String lastFilterKey;
+    private Comparator<Entry<T>> lastOrder;
+
+    /**
+     * Creates a search that runs on a background thread shared by all searches.
+     *
+     * @param results        Where results are delivered, normally the main thread
+     * @param debounceMillis How long typing must pause before searching
+     * @param searchText     The text of an item the query must be found in
+     * @param sortText       The text of an item {@link #bySortKey()} sorts on
+     */
+    public IncrementalSearch(Executor results, long debounceMillis,
+                             Function<T, String> searchText, Function<T, String> sortText) {
+        this(sharedWorker, results, debounceMillis, searchText, sortText);
+    }
+
+    /**
+     * Creates a search that runs on the given single-threaded scheduler.
+     */
+    public IncrementalSearch(ScheduledExecutorService worker, Executor results, long debounceMillis,
+                             Function<T, String> searchText, Function<T, String> sortText) {
+        this.worker = worker;
+        this.results = results;
+        this.debounceMillis = debounceMillis;
+        this.searchText = searchText;
+        this.sortText = sortText;
+        collator = Collator.getInstance();
+        // Ignores case like compareToIgnoreCase, but orders accented letters properly
+        collator.setStrength(Collator.SECONDARY);
+    }
+
+    /**
+     * @return An order on the sort text, using the precomputed collation keys
+     */
+    public static <T> Comparator<Entry<T>> bySortKey() {
+        return (a, b) -> a.sortKey.compareTo(b.sortKey);
+    }
+
+    /**
+     * Replaces the items searched. Searches requested after this see the new items.
+     *
+     * @param items The items; copied
+     */
+    public void setItems(List<T> items) {
+        List<T> copy = new ArrayList<>(items);
+        worker.execute(() -> {
+            List<Entry<T>> built = new ArrayList<>(copy.size());
+            for (T item : copy) {
+                String text = searchText.apply(item);
+                String sort = sortText.apply(item);
+                built.add(new Entry<>(item, text != null ? text.toLowerCase(Locale.ROOT) : "",
+                        collator.getCollationKey(sort != null ? sort : "")));
+            }
+            entries = built;
+            sorted.clear();
+            lastMatches = null;
+        });
+    }
+
+    /**
+     * Searches once typing pauses, cancelling any earlier search not yet delivered.
+     *
+     * @param query     What the user typed; matched anywhere in the search text, any case
+     * @param filterKey Names the filter; searches with equal keys must use the same filter
+     * @param filter    Which items may match at all
+     * @param order     Order of the results; keep one instance per order so it is recognized
+     * @param listener  Told the results on the results executor
+     */
+    public void search(String query, String filterKey, Predicate<T> filter,
+                       Comparator<Entry<T>> order, Listener<T> listener) {
+        String normalized = query.trim().toLowerCase(Locale.ROOT);
+        long run = generation.incrementAndGet();
+        synchronized (this) {
+            if (waiting != null) waiting.cancel(false);
+            waiting = worker.schedule(() -> run(run, normalized, filterKey, filter, order, listener),
+                    debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void run(long run, String query, String filterKey, Predicate<T> filter,
+                     Comparator<Entry<T>> order, Listener<T> listener) {
+        if (generation.get() != run) return;
+
+        boolean narrowing = lastMatches != null && order == lastOrder
+                && filterKey.equals(lastFilterKey) && query.contains(lastQuery);
+        List<Entry<T>> source = narrowing ? lastMatches : sortedBy(order);
+
+        List<Entry<T>> matches = new ArrayList<>();
+        for (int i = 0; i < source.size(); i++) {
+            if (i % CHECK_INTERVAL == 0 && generation.get() != run) return;
+            Entry<T> entry = source.get(i);
+            if ((query.isEmpty() || entry.text.contains(query))
+                    && (narrowing || filter.test(entry.item))) {
+                matches.add(entry);
+            }
+        }
+        lastMatches = matches;
+        lastQuery = query;
+        lastFilterKey = filterKey;
+        lastOrder = order;
+
+        List<T> found = new ArrayList<>(matches.size());
+        for (Entry<T> entry : matches) found.add(entry.item);
+        List<T> delivered = Collections.unmodifiableList(found);
+        results.execute(() -> {
+            // A newer search may have started while these were on their way
+            if (generation.get() == run) listener.onResults(query, delivered);
+        });
+    }
+
+    private List<Entry<T>> sortedBy(Comparator<Entry<T>> order) {
+        List<Entry<T>> list = sorted.get(order);
+        if (list == null) {
+            list = new ArrayList<>(entries);
+            list.sort(order);
+            sorted.put(order, list);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.summit.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Items spanning a closed range of days, indexed to find the ones overlapping a range.
+ * <p>
+ * Items are sorted by start and read as a balanced binary tree laid out in the sorted
+ * array: the middle of any slice is that slice's root. Each root also records the
+ * latest end in its slice, so a search skips every slice that ends too early, and
+ * everything right of a root that starts too late. A search visits O(log n) roots for
+ * each item it finds instead of checking every item. The index is built once and not
+ * changed; build a new one when the items change.
+ *
+ * @param <T> The items
+ */
+public class IntervalIndex<T> {
+
+    private final List<T> items;
+    private final long[] starts;
+    private final long[] ends;
+    // Latest end in the slice rooted at each index
+    private final long[] maxEnds;
+
+    /**
+     * @param items The items; ones that end before they start are never found
+     * @param start First day of an item, inclusive
+     * @param end   Last day of an item, inclusive
+     */
+    public IntervalIndex(List<T> items, ToLongFunction<T> start, ToLongFunction<T> end) {
+        int n = items.size();
+        Integer[] order = new Integer[n];
+        long[] unsortedStarts = new long[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            unsortedStarts[i] = start.applyAsLong(items.get(i));
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> unsortedStarts[i]));
+
+        this.items = new ArrayList<>(n);
+        starts = new long[n];
+        ends = new long[n];
+        maxEnds = new long[n];
+        for (int i = 0; i < n; i++) {
+            T item = items.get(order[i]);
+            this.items.add(item);
+            starts[i] = unsortedStarts[order[i]];
+            ends[i] = end.applyAsLong(item);
+        }
+        computeMaxEnds(0, n);
+    }
+
+    private long computeMaxEnds(int lo, int hi) {
+        if (lo >= hi) return Long.MIN_VALUE;
+        int mid = (lo + hi) >>> 1;
+        maxEnds[mid] = Math.max(ends[mid], Math.max(computeMaxEnds(lo, mid), computeMaxEnds(mid + 1, hi)));
+        return maxEnds[mid];
+    }
+
+    /**
+     * @return Number of items
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * @param from First day, inclusive
+     * @param to   Last day, inclusive
+     * @return Items sharing at least one day with the range, in order of start
+     */
+    public List<T> overlapping(long from, long to) {
+        List<T> found = new ArrayList<>();
+        if (from <= to) collect(0, items.size(), from, to, found);
+        return found;
+    }
+
+    /**
+     * @param day A day
+     * @return Items spanning the day, in order of start
+     */
+    public List<T> containing(long day) {
+        return overlapping(day, day);
+    }
+
+    private void collect(int lo, int hi, long from, long to, List<T> found) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        if (maxEnds[mid] < from) return;
+        collect(lo, mid, from, to, found);
+        if (starts[mid] > to) return;
+        if (ends[mid] >= from) found.add(items.get(mid));
+        collect(mid + 1, hi, from, to, found);
+    }
+}
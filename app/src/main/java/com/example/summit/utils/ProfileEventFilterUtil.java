@@ -4,18 +4,16 @@ import android.app.AlertDialog;
 import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
-import android.widget.ArrayAdapter;
 import android.widget.AutoCompleteTextView;
 import android.widget.EditText;
 
 import com.example.summit.R;
 import com.example.summit.model.Event;
-import com.example.summit.model.EventDescription;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 /**
  * Extension of EventFilterUtil for profile events that include status information
@@ -37,8 +35,12 @@ public class ProfileEventFilterUtil {
 
     /**
      * Search events with status by keyword
+     *
+     * @param index Index kept in sync with {@code events}
+     * @return Events matching every word of the keyword, best match first, with their statuses
      */
     public static FilterResult searchByKeyword(
+            EventSearchIndex index,
             List<Event> events,
             List<String> statuses,
             String keyword
@@ -47,20 +49,15 @@ public class ProfileEventFilterUtil {
             return new FilterResult(events, statuses);
         }
 
-        List<Event> resultEvents = new ArrayList<>();
-        List<String> resultStatuses = new ArrayList<>();
-
+        Map<String, String> statusById = new HashMap<>();
         for (int i = 0; i < events.size(); i++) {
-            Event e = events.get(i);
-            EventDescription d = e.getDescription();
-            if (d == null) continue;
+            statusById.put(events.get(i).getId(), statuses.get(i));
+        }
 
-            String lower = keyword.toLowerCase();
-            if ((d.getTitle() != null && d.getTitle().toLowerCase().contains(lower)) ||
-                    (d.getDescription() != null && d.getDescription().toLowerCase().contains(lower))) {
-                resultEvents.add(e);
-                resultStatuses.add(statuses.get(i));
-            }
+        List<Event> resultEvents = index.search(keyword);
+        List<String> resultStatuses = new ArrayList<>();
+        for (Event e : resultEvents) {
+            resultStatuses.add(statusById.get(e.getId()));
         }
 
         return new FilterResult(resultEvents, resultStatuses);
@@ -78,22 +75,13 @@ public class ProfileEventFilterUtil {
             String startDate,
             String endDate
     ) {
-        List<Event> resultEvents = new ArrayList<>();
-        List<String> resultStatuses = new ArrayList<>();
+        EventFilter filter = EventFilter.compile(keyword, location, capacityStr, startDate, endDate);
+        List<Event> resultEvents = new ArrayList<>(events.size());
+        List<String> resultStatuses = new ArrayList<>(events.size());
 
         for (int i = 0; i < events.size(); i++) {
             Event e = events.get(i);
-            EventDescription d = e.getDescription();
-            if (d == null) continue;
-
-            // Reuse the filter logic from EventFilterUtil
-            List<Event> singleEventList = new ArrayList<>();
-            singleEventList.add(e);
-            List<Event> filtered = EventFilterUtil.filterEvents(
-                    singleEventList, keyword, location, capacityStr, startDate, endDate
-            );
-
-            if (!filtered.isEmpty()) {
+            if (filter.test(e)) {
                 resultEvents.add(e);
                 resultStatuses.add(statuses.get(i));
             }
@@ -104,11 +92,14 @@ public class ProfileEventFilterUtil {
 
     /**
      * Show filter dialog for profile events
+     *
+     * @param locations Events per location, offered in the location dropdown
      */
     public static void showFilterDialog(
             Context context,
             List<Event> allEvents,
             List<String> allStatuses,
+            FacetCounts locations,
             ProfileFilterCallback callback
     ) {
         LayoutInflater inflater = LayoutInflater.from(context);
@@ -120,20 +111,7 @@ public class ProfileEventFilterUtil {
         EditText startDateInput = dialogView.findViewById(R.id.input_start);
         EditText endDateInput = dialogView.findViewById(R.id.input_end);
 
-        // Populate locations
-        Set<String> locationsSet = new HashSet<>();
-        for (Event e : allEvents) {
-            EventDescription d = e.getDescription();
-            if (d != null && d.getLocation() != null && !d.getLocation().isEmpty()) {
-                locationsSet.add(d.getLocation());
-            }
-        }
-        ArrayAdapter<String> adapterLoc = new ArrayAdapter<>(
-                context,
-                android.R.layout.simple_dropdown_item_1line,
-                new ArrayList<>(locationsSet)
-        );
-        locationInput.setAdapter(adapterLoc);
+        EventFilterUtil.showLocations(context, locationInput, locations);
 
         // Date pickers
         startDateInput.setOnClickListener(v ->
@@ -0,0 +1,517 @@
+package com.example.summit.utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of non-negative ints, laid out like a Roaring bitmap.
+ * <p>
+ * Values are split by their high 16 bits into chunks of 65536. Each chunk that
+ * holds anything gets its own container: a sorted {@code char[]} while it holds up
+ * to {@value #ARRAY_MAX} values (2 bytes each), or a 65536-bit {@code long[]} once
+ * it holds more (8 KiB however full). Chunks are kept in key order, so a lookup is
+ * a binary search over the chunks and then one inside the container.
+ * <p>
+ * Union, intersection and difference work a chunk at a time and skip chunks only
+ * one side has, so dense ID ranges such as those handed out by
+ * {@link IdDictionary} combine a word (64 IDs) at a time. This class is not thread
+ * safe.
+ */
+public class RoaringBitmap {
+
+    /**
+     * Most values an array container holds before it becomes a bitmap container.
+     */
+    static final int ARRAY_MAX = 4096;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    /**
+     * @param value A non-negative value
+     * @return Whether the value was added; false if it was already present
+     */
+    public boolean add(int value) {
+        if (value < 0) throw new IllegalArgumentException("Negative value: " + value);
+        char key = highBits(value);
+        int i = indexOf(key);
+        if (i < 0) {
+            i = -i - 1;
+            insertAt(i, key, new ArrayContainer());
+        } else if (containers[i].contains(lowBits(value))) {
+            return false;
+        }
+        containers[i] = containers[i].add(lowBits(value));
+        return true;
+    }
+
+    /**
+     * @param value A non-negative value
+     * @return Whether the value was removed; false if it was not present
+     */
+    public boolean remove(int value) {
+        if (value < 0) return false;
+        int i = indexOf(highBits(value));
+        if (i < 0 || !containers[i].contains(lowBits(value))) return false;
+        containers[i] = containers[i].remove(lowBits(value));
+        if (containers[i].cardinality() == 0) {
+            removeAt(i);
+        }
+        return true;
+    }
+
+    /**
+     * @param value A non-negative value
+     * @return Whether the set holds the value
+     */
+    public boolean contains(int value) {
+        if (value < 0) return false;
+        int i = indexOf(highBits(value));
+        return i >= 0 && containers[i].contains(lowBits(value));
+    }
+
+    /**
+     * @return Number of values in the set
+     */
+    public int getCardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].cardinality();
+        }
+        return total;
+    }
+
+    /**
+     * @return Whether the set is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param other Another set
+     * @return A new set holding the values in either set
+     */
+    public RoaringBitmap or(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0, j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || i < size && keys[i] < other.keys[j]) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else if (i >= size || other.keys[j] < keys[i]) {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.append(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param other Another set
+     * @return A new set holding the values in both sets
+     */
+    public RoaringBitmap and(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (other.keys[j] < keys[i]) {
+                j++;
+            } else {
+                Container both = containers[i].and(other.containers[j]);
+                if (both.cardinality() > 0) result.append(keys[i], both);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param other Another set
+     * @return A new set holding the values in this set but not in {@code other}
+     */
+    public RoaringBitmap andNot(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0, j = 0;
+        while (i < size) {
+            if (j >= other.size || keys[i] < other.keys[j]) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else if (other.keys[j] < keys[i]) {
+                j++;
+            } else {
+                Container rest = containers[i].andNot(other.containers[j]);
+                if (rest.cardinality() > 0) result.append(keys[i], rest);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calls {@code action} with every value, in increasing order.
+     *
+     * @param action Called once per value
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * @return Every value, in increasing order
+     */
+    public int[] toArray() {
+        int[] values = new int[getCardinality()];
+        int[] next = {0};
+        forEach(value -> values[next[0]++] = value);
+        return values;
+    }
+
+    /**
+     * @return Approximate number of bytes the set's containers use
+     */
+    public long sizeInBytes() {
+        long bytes = keys.length * 2L + containers.length * 4L;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RoaringBitmap)) return false;
+        return Arrays.equals(toArray(), ((RoaringBitmap) o).toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    private static char highBits(int value) {
+        return (char) (value >>> 16);
+    }
+
+    private static char lowBits(int value) {
+        return (char) value;
+    }
+
+    private int indexOf(char key) {
+        // Appending in key order is the common case; check the last chunk first
+        if (size > 0 && keys[size - 1] == key) return size - 1;
+        int low = 0, high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) low = mid + 1;
+            else if (keys[mid] > key) high = mid - 1;
+            else return mid;
+        }
+        return -(low + 1);
+    }
+
+    private void insertAt(int i, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = container;
+        size++;
+    }
+
+    private void removeAt(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        containers[--size] = null;
+    }
+
+    private void append(char key, Container container) {
+        insertAt(size, key, container);
+    }
+
+    /**
+     * The values of one 65536-value chunk. Operations that change the cardinality
+     * return the container to use from then on, which may be of the other kind.
+     */
+    private abstract static class Container {
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract Container or(Container other);
+
+        abstract Container and(Container other);
+
+        abstract Container andNot(Container other);
+
+        abstract Container copy();
+
+        abstract void forEach(int high, IntConsumer action);
+
+        abstract long sizeInBytes();
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) return this;
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_MAX));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer that = (ArrayContainer) other;
+            if (cardinality + that.cardinality > ARRAY_MAX) {
+                return toBitmap().or(that);
+            }
+            char[] merged = new char[cardinality + that.cardinality];
+            int i = 0, j = 0, n = 0;
+            while (i < cardinality && j < that.cardinality) {
+                char a = values[i], b = that.values[j];
+                if (a < b) {
+                    merged[n++] = a;
+                    i++;
+                } else if (b < a) {
+                    merged[n++] = b;
+                    j++;
+                } else {
+                    merged[n++] = a;
+                    i++;
+                    j++;
+                }
+            }
+            while (i < cardinality) merged[n++] = values[i++];
+            while (j < that.cardinality) merged[n++] = that.values[j++];
+            return new ArrayContainer(merged, n);
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] kept = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) kept[n++] = values[i];
+            }
+            return new ArrayContainer(kept, n);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] kept = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) kept[n++] = values[i];
+            }
+            return new ArrayContainer(kept, n);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(high | values[i]);
+            }
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 16 + values.length * 2L;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.set(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[1024], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        void set(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+        }
+
+        @Override
+        Container add(char value) {
+            set(value);
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+            }
+            return cardinality <= ARRAY_MAX ? toArrayContainer() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] result = words.clone();
+            if (other instanceof BitmapContainer) {
+                long[] that = ((BitmapContainer) other).words;
+                for (int i = 0; i < result.length; i++) result[i] |= that[i];
+                return fromWords(result);
+            }
+            BitmapContainer union = new BitmapContainer(result, cardinality);
+            other.forEach(0, value -> union.set((char) value));
+            return union;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] result = words.clone();
+            long[] that = ((BitmapContainer) other).words;
+            for (int i = 0; i < result.length; i++) result[i] &= that[i];
+            return fromWords(result);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            long[] result = words.clone();
+            if (other instanceof BitmapContainer) {
+                long[] that = ((BitmapContainer) other).words;
+                for (int i = 0; i < result.length; i++) result[i] &= ~that[i];
+            } else {
+                other.forEach(0, value -> result[value >>> 6] &= ~(1L << value));
+            }
+            return fromWords(result);
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(high | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 16 + words.length * 8L;
+        }
+
+        private static Container fromWords(long[] words) {
+            int cardinality = 0;
+            for (long word : words) cardinality += Long.bitCount(word);
+            BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+            return cardinality <= ARRAY_MAX ? bitmap.toArrayContainer() : bitmap;
+        }
+
+        private ArrayContainer toArrayContainer() {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int[] n = {0};
+            forEach(0, value -> values[n[0]++] = (char) value);
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+}
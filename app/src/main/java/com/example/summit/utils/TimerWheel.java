@@ -0,0 +1,135 @@
+package com.example.summit.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * A hashed timer wheel that tracks many deadlines and reports the ones that have passed.
+ * <p>
+ * Time is split into ticks of {@code tickMillis}. Each deadline is stored in the slot
+ * for the first tick starting at or after it ({@code tick mod slots}), so scheduling and cancelling cost O(1), and
+ * advancing the wheel only looks at the slots for the ticks that went by instead of
+ * every tracked deadline. Deadlines more than one revolution away share a slot with
+ * nearer ones and are simply left in place until their own tick comes round.
+ * <p>
+ * The wheel reads the time from a {@link LongSupplier}, so tests can drive it with a
+ * simulated clock. Methods are synchronized so the wheel can be fed from one thread
+ * and advanced from another.
+ *
+ * @param <K> Key identifying each deadline
+ */
+public class TimerWheel<K> {
+
+    private static class Timeout<K> {
+        final K key;
+        final long tick;
+        boolean cancelled;
+
+        Timeout(K key, long tick) {
+            this.key = key;
+            this.tick = tick;
+        }
+    }
+
+    private final LongSupplier clock;
+    private final long tickMillis;
+    private final List<List<Timeout<K>>> slots;
+    private final Map<K, Timeout<K>> timeouts = new HashMap<>();
+
+    // First tick that has not been processed yet
+    private long currentTick;
+
+    /**
+     * @param clock      Source of the current time in epoch milliseconds
+     * @param tickMillis Length of one tick; deadlines are reported at this resolution
+     * @param slotCount  Number of slots in the wheel
+     */
+    public TimerWheel(LongSupplier clock, long tickMillis, int slotCount) {
+        if (tickMillis <= 0 || slotCount <= 0) {
+            throw new IllegalArgumentException("tickMillis and slotCount must be positive");
+        }
+        this.clock = clock;
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = clock.getAsLong() / tickMillis;
+    }
+
+    /**
+     * Tracks a deadline, replacing any deadline already tracked for the key.
+     *
+     * @param key      Key for the deadline
+     * @param deadline Time the deadline passes, in epoch milliseconds
+     */
+    public synchronized void schedule(K key, long deadline) {
+        cancel(key);
+        // Round up, so a deadline inside a tick is not reported before it passes
+        long tick = Math.max(Math.floorDiv(deadline + tickMillis - 1, tickMillis), currentTick);
+        Timeout<K> timeout = new Timeout<>(key, tick);
+        timeouts.put(key, timeout);
+        slots.get(slotOf(tick)).add(timeout);
+    }
+
+    /**
+     * Stops tracking a deadline.
+     *
+     * @param key Key for the deadline
+     * @return {@code true} if a deadline was tracked for the key
+     */
+    public synchronized boolean cancel(K key) {
+        Timeout<K> timeout = timeouts.remove(key);
+        if (timeout == null) {
+            return false;
+        }
+        timeout.cancelled = true; // removed from its slot the next time the slot is visited
+        return true;
+    }
+
+    /**
+     * Advances the wheel to the clock's current time.
+     *
+     * @return Keys whose deadlines have passed since the last call; they are no longer tracked
+     */
+    public synchronized List<K> expire() {
+        long targetTick = clock.getAsLong() / tickMillis;
+        List<K> expired = new ArrayList<>();
+        if (targetTick < currentTick) {
+            return expired;
+        }
+
+        // After a full revolution every slot has been visited, so stop there
+        long steps = Math.min(targetTick - currentTick + 1, slots.size());
+        for (long i = 0; i < steps; i++) {
+            Iterator<Timeout<K>> it = slots.get(slotOf(currentTick + i)).iterator();
+            while (it.hasNext()) {
+                Timeout<K> timeout = it.next();
+                if (timeout.cancelled) {
+                    it.remove();
+                } else if (timeout.tick <= targetTick) {
+                    it.remove();
+                    timeouts.remove(timeout.key);
+                    expired.add(timeout.key);
+                }
+            }
+        }
+        currentTick = targetTick + 1;
+        return expired;
+    }
+
+    /**
+     * @return Number of deadlines being tracked
+     */
+    public synchronized int size() {
+        return timeouts.size();
+    }
+
+    private int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.size());
+    }
+}
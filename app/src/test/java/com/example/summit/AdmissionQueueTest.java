@@ -0,0 +1,38 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.AdmissionQueue;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+
+public class AdmissionQueueTest {
+
+    @Test
+    public void testRequestDayIsTheOrganizersDayWhenQueued() {
+        ZoneId edmonton = ZoneId.of("America/Edmonton");
+        // 23:30 in Edmonton is already the next day in UTC
+        Date queuedAt = Date.from(ZonedDateTime.of(2025, 3, 31, 23, 30, 0, 0, edmonton).toInstant());
+
+        assertEquals("2025-03-31", AdmissionQueue.requestDay(queuedAt, edmonton));
+        assertEquals("2025-04-01", AdmissionQueue.requestDay(queuedAt, ZoneId.of("UTC")));
+        assertNull(AdmissionQueue.requestDay(null, edmonton));
+    }
+
+    @Test
+    public void testOnlyContendedJoinsAreQueued() {
+        assertTrue(AdmissionQueue.isContention(new FirebaseFirestoreException("busy",
+                FirebaseFirestoreException.Code.ABORTED)));
+        assertFalse(AdmissionQueue.isContention(new FirebaseFirestoreException("denied",
+                FirebaseFirestoreException.Code.PERMISSION_DENIED)));
+        assertFalse(AdmissionQueue.isContention(new IllegalStateException("offline")));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.AliasSampler;
+import com.example.summit.model.CityWeightPolicy;
+import com.example.summit.model.Entrant;
+import com.example.summit.model.LotterySystem;
+import com.example.summit.model.WaitingList;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class AliasSamplerTest {
+    @Test
+    public void testDrawsEveryPositiveWeightOnce() {
+        AliasSampler sampler = new AliasSampler(new double[]{1, 0, 5, 2, 0, 3}, 11L);
+        Set<Integer> seen = new HashSet<>();
+
+        assertEquals(4, sampler.remaining());
+        while (sampler.remaining() > 0) {
+            assertTrue(seen.add(sampler.next()));
+        }
+        assertEquals(4, seen.size());
+        assertTrue("Zero weights are never drawn", !seen.contains(1) && !seen.contains(4));
+    }
+
+    @Test
+    public void testHeavierIndexIsDrawnFirstMoreOften() {
+        int heavyFirst = 0;
+        for (long seed = 0; seed < 2000; seed++) {
+            AliasSampler sampler = new AliasSampler(new double[]{1, 3}, seed);
+            if (sampler.next() == 1) heavyFirst++;
+        }
+        // Expected 1500 of 2000
+        assertTrue("heavy drawn first " + heavyFirst + " times", heavyFirst > 1400 && heavyFirst < 1600);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNegativeWeights() {
+        new AliasSampler(new double[]{1, -1}, 0L);
+    }
+
+    @Test
+    public void testLargeWeightedDrawHasNoDuplicates() {
+        double[] weights = new double[100000];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 1 + (i % 7);
+        }
+        AliasSampler sampler = new AliasSampler(weights, 5L);
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < 60000; i++) {
+            assertTrue(seen.add(sampler.next()));
+        }
+    }
+
+    @Test
+    public void testCityWeightedLottery() {
+        WaitingList waitingList = new WaitingList();
+        for (int i = 0; i < 20; i++) {
+            Entrant entrant = new Entrant(String.valueOf(i));
+            entrant.setCity(i < 10 ? "Edmonton" : "Calgary");
+            waitingList.addEntrant(entrant);
+        }
+        Map<String, Integer> weights = new HashMap<>();
+        weights.put("edmonton", 0);
+
+        LotterySystem lottery = new LotterySystem(20, 3L);
+        lottery.setWeightPolicy(new CityWeightPolicy(weights, 1.0));
+        List<Entrant> invited = lottery.sampleEntrants(waitingList, 20);
+
+        assertEquals(10, invited.size());
+        for (Entrant entrant : invited) {
+            assertEquals("Calgary", entrant.getCity());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.BatchLottery;
+import com.example.summit.model.EntrantStatus;
+import com.example.summit.model.EntrantStatusMap;
+import com.example.summit.model.LotteryDraw;
+import com.example.summit.model.WaitingListStore;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class BatchLotteryTest {
+
+    private static Map<String, Object> event(int capacity, String... statuses) {
+        Map<String, String> byId = new HashMap<>();
+        for (int i = 0; i < statuses.length; i++) {
+            byId.put("device" + i, statuses[i]);
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("capacity", (long) capacity);
+        data.put(EntrantStatusMap.FIELD, byId);
+        return data;
+    }
+
+    @Test
+    public void testPrecheckSkipsEventsWithNothingToDraw() {
+        String waiting = EntrantStatus.WAITING.name();
+        String selected = EntrantStatus.SELECTED.name();
+
+        assertNull(BatchLottery.precheck(event(2, waiting, selected)));
+        assertEquals(LotteryDraw.Status.FULL, BatchLottery.precheck(event(1, waiting, selected)));
+        assertEquals(LotteryDraw.Status.EMPTY_WAITING_LIST, BatchLottery.precheck(event(5, selected)));
+
+        // A subcollection waiting list is only known by its count
+        Map<String, Object> streamed = event(5, selected);
+        streamed.put(WaitingListStore.STORAGE_FIELD, WaitingListStore.STORAGE_SUBCOLLECTION);
+        assertEquals(LotteryDraw.Status.EMPTY_WAITING_LIST, BatchLottery.precheck(streamed));
+        streamed.put(WaitingListStore.COUNT_FIELD, 3L);
+        assertNull(BatchLottery.precheck(streamed));
+    }
+
+    @Test
+    public void testRunsOfOneDayShareDrawIds() {
+        String run = BatchLottery.runIdFor("2025-05-01");
+        assertEquals(run, BatchLottery.runIdFor("2025-05-01"));
+        assertEquals(BatchLottery.drawIdFor(run, "e1"), BatchLottery.drawIdFor(BatchLottery.runIdFor("2025-05-01"), "e1"));
+        assertFalse(BatchLottery.drawIdFor(run, "e1").equals(BatchLottery.drawIdFor(run, "e2")));
+        assertFalse(run.equals(BatchLottery.runIdFor("2025-05-02")));
+
+        assertEquals("org1", BatchLottery.cursorIdFor("org1"));
+        assertEquals("all", BatchLottery.cursorIdFor(null));
+    }
+
+    @Test
+    public void testCursorOnlyMovesPastCompleteRuns() {
+        BatchLottery.EventSummary drawn = BatchLottery.EventSummary.drawn("e1", "Swim",
+                new LotteryDraw.Result(LotteryDraw.Status.APPLIED, Arrays.asList("a", "b")));
+        BatchLottery.EventSummary full = BatchLottery.EventSummary.drawn("e2", null,
+                new LotteryDraw.Result(LotteryDraw.Status.FULL, Collections.emptyList()));
+        BatchLottery.EventSummary failed = BatchLottery.EventSummary.failed("e3", "Yoga", "contention");
+
+        BatchLottery.Report complete = new BatchLottery.Report("batch-1", Arrays.asList(drawn, full));
+        assertTrue(complete.isComplete());
+        assertEquals(2, complete.getTotalInvited());
+        assertEquals("Swim: APPLIED (2 invited)\ne2: FULL", complete.toText());
+
+        BatchLottery.Report partial = new BatchLottery.Report("batch-1", Arrays.asList(drawn, failed));
+        assertFalse(partial.isComplete());
+        assertEquals("Swim: APPLIED (2 invited)\nYoga: FAILED (contention)", partial.toText());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.CatalogQuery;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class CatalogQueryTest {
+
+    @Test
+    public void testMatchesEveryWordAsPrefix() {
+        assertEquals("morning* yoga*", CatalogQuery.match(Arrays.asList("morning", "yoga")));
+    }
+
+    @Test
+    public void testCorrectsTypos() {
+        Map<String, Integer> vocabulary = new HashMap<>();
+        vocabulary.put("yoga", 4);
+        vocabulary.put("yoghurt", 1);
+        vocabulary.put("youth", 9);
+
+        assertEquals("yoga", CatalogQuery.correct("yoag", vocabulary));      // swapped letters
+        assertEquals("yoghurt", CatalogQuery.correct("yoghrt", vocabulary)); // missing letter
+        assertEquals("yoghurt", CatalogQuery.correct("yohg", vocabulary));   // partly typed
+        assertNull(CatalogQuery.correct("yacht", vocabulary));
+        assertNull("Two letters are too short to guess", CatalogQuery.correct("yx", vocabulary));
+    }
+
+    @Test
+    public void testTitleHitsAndRareWordsScoreHigher() {
+        // One phrase, three columns (title, description, location), 10 rows
+        byte[] inTitle = matchinfo(1, 3, 10, 1, 1, 1, 0, 5, 5, 0, 0, 0);
+        byte[] inDescription = matchinfo(1, 3, 10, 0, 1, 1, 1, 5, 5, 0, 0, 0);
+        byte[] rareInDescription = matchinfo(1, 3, 10, 0, 0, 0, 1, 1, 1, 0, 0, 0);
+        assertTrue(CatalogQuery.score(inTitle) > CatalogQuery.score(inDescription));
+        assertTrue(CatalogQuery.score(rareInDescription) > CatalogQuery.score(inDescription));
+    }
+
+    private static byte[] matchinfo(int... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 4).order(ByteOrder.nativeOrder());
+        for (int value : values) buffer.putInt(value);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.Entrant;
+import com.example.summit.model.EntrantCsvReader;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+public class EntrantCsvReaderTest {
+
+    @Test
+    public void testReadsColumnsInAnyOrder() throws IOException {
+        EntrantCsvReader reader = new EntrantCsvReader(new StringReader(
+                "Email,Phone,Name,Device ID\n"
+                        + "kai@example.com,555-1234,\"Tanaka, Kai\",dev-1\n"
+                        + "\n"
+                        + "ANA@Example.com,,\"Ana \"\"A\"\" Lee\",\n"));
+
+        Entrant first = reader.next();
+        assertEquals("Tanaka, Kai", first.getName());
+        assertEquals("dev-1", first.getDeviceId());
+        assertEquals("555-1234", first.getPhone());
+
+        Entrant second = reader.next();
+        assertEquals("Ana \"A\" Lee", second.getName());
+        assertEquals("ana@example.com", second.getEmail());
+        assertEquals(EntrantCsvReader.deviceIdFor("ana@example.com"), second.getDeviceId());
+
+        assertNull(reader.next());
+        assertEquals(0, reader.getRejectedCount());
+    }
+
+    @Test
+    public void testRejectsInvalidAndDuplicateRows() throws IOException {
+        EntrantCsvReader reader = new EntrantCsvReader(new StringReader(
+                "name,email\n"
+                        + "Kai,kai@example.com\n"
+                        + ",nobody@example.com\n"
+                        + "Bad,not-an-email\n"
+                        + "Kai Again,KAI@example.com\n"
+                        + "Mo,mo@example.com\n"));
+
+        List<Entrant> chunk = reader.nextChunk(10);
+        assertEquals(2, chunk.size());
+        assertEquals("Mo", chunk.get(1).getName());
+        assertEquals(3, reader.getRejectedCount());
+        assertEquals("Line 3: missing name", reader.getRejections().get(0));
+        assertTrue(reader.getRejections().get(2).startsWith("Line 5: duplicate"));
+    }
+
+    @Test
+    public void testChunksAreStableAcrossReads() throws IOException {
+        // Resuming an import relies on the same file splitting into the same chunks
+        StringBuilder csv = new StringBuilder("name,email\n");
+        for (int i = 0; i < 25; i++) {
+            csv.append("Entrant ").append(i).append(",e").append(i).append("@example.com\n");
+            if (i % 5 == 0) csv.append("Broken,\n");
+        }
+
+        EntrantCsvReader first = new EntrantCsvReader(new StringReader(csv.toString()));
+        EntrantCsvReader second = new EntrantCsvReader(new StringReader(csv.toString()));
+        for (int chunk = 0; chunk < 3; chunk++) {
+            List<Entrant> a = first.nextChunk(10);
+            List<Entrant> b = second.nextChunk(10);
+            assertEquals(a.size(), b.size());
+            for (int i = 0; i < a.size(); i++) {
+                assertEquals(a.get(i).getDeviceId(), b.get(i).getDeviceId());
+            }
+        }
+        assertEquals(5, first.getRejectedCount());
+        assertTrue(first.nextChunk(10).isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void testHeaderNeedsNameAndEmail() throws IOException {
+        new EntrantCsvReader(new StringReader("name,phone\nKai,555\n"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.summit.model.Entrant;
+import com.example.summit.model.EntrantImport;
+import com.example.summit.model.EntrantStatus;
+import com.example.summit.model.EntrantStatusMap;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EntrantImportTest {
+
+    private static List<String> ids(List<Entrant> entrants) {
+        List<String> ids = new ArrayList<>();
+        for (Entrant e : entrants) ids.add(e.getDeviceId());
+        return ids;
+    }
+
+    @Test
+    public void testChunkStopsAtTheWaitingListLimit() {
+        Map<String, Object> event = new HashMap<>();
+        Map<String, String> statuses = new HashMap<>();
+        statuses.put("a", EntrantStatus.WAITING.name());
+        statuses.put("b", EntrantStatus.DECLINED.name());
+        event.put(EntrantStatusMap.FIELD, statuses);
+
+        List<Entrant> rows = Arrays.asList(new Entrant("a"), new Entrant("b"), new Entrant("c"),
+                new Entrant("d"), new Entrant("e"));
+        // One entrant is waiting already, and the limit is three
+        EntrantImport.Chunk chunk = EntrantImport.sort(rows, EntrantStatusMap.fromData(event),
+                Collections.emptySet(), 3L, 1);
+
+        assertEquals(Arrays.asList("a", "b"), ids(chunk.getAlreadyJoined()));
+        assertEquals(Arrays.asList("c", "d"), ids(chunk.getJoining()));
+        assertEquals(Collections.singletonList("e"), ids(chunk.getFull()));
+    }
+
+    @Test
+    public void testSubcollectionEntriesCountAsJoined() {
+        List<Entrant> rows = Arrays.asList(new Entrant("a"), new Entrant("b"));
+        EntrantImport.Chunk chunk = EntrantImport.sort(rows, EntrantStatusMap.fromData(null),
+                Collections.singleton("a"), null, 100);
+
+        assertEquals(Collections.singletonList("a"), ids(chunk.getAlreadyJoined()));
+        assertEquals(Collections.singletonList("b"), ids(chunk.getJoining()));
+        assertEquals(0, chunk.getFull().size());
+    }
+}
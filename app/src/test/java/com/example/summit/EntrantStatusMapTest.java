@@ -0,0 +1,114 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.EntrantStatus;
+import com.example.summit.model.EntrantStatusMap;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class EntrantStatusMapTest {
+
+    @Test
+    public void testReadsStatusField() {
+        Map<String, Object> field = new HashMap<>();
+        field.put("a", "WAITING");
+        field.put("b", "SELECTED");
+        field.put("c", "ACCEPTED");
+        field.put("d", "bogus");
+
+        EntrantStatusMap map = EntrantStatusMap.fromFields(field, null, null, null, null);
+        assertEquals(3, map.size());
+        assertEquals(EntrantStatus.SELECTED, map.statusOf("b"));
+        assertNull(map.statusOf("d"));
+        assertEquals(2, map.countHoldingSpots());
+    }
+
+    @Test
+    public void testLegacyListsAreMerged() {
+        // Accepted entrants also stayed in selectedList; declines were removed from it
+        EntrantStatusMap map = EntrantStatusMap.fromFields(null,
+                Arrays.asList("w1", "w2"),
+                Arrays.asList("s1", "a1"),
+                Arrays.asList("a1"),
+                Arrays.asList("d1"));
+
+        assertEquals(5, map.size());
+        assertEquals(EntrantStatus.ACCEPTED, map.statusOf("a1"));
+        assertEquals(1, map.count(EntrantStatus.SELECTED));
+        assertEquals(2, map.countHoldingSpots());
+        assertEquals(Arrays.asList("w1", "w2"), map.idsWith(EntrantStatus.WAITING));
+    }
+
+    @Test
+    public void testStatusFieldOverridesLegacyLists() {
+        Map<String, Object> field = new HashMap<>();
+        field.put("w1", "SELECTED");
+        field.put("s1", "DECLINED");
+
+        EntrantStatusMap map = EntrantStatusMap.fromFields(field,
+                Arrays.asList("w1", "w2"), Arrays.asList("s1"), null, null);
+
+        assertEquals(EntrantStatus.SELECTED, map.statusOf("w1"));
+        assertEquals(EntrantStatus.DECLINED, map.statusOf("s1"));
+        assertEquals(1, map.count(EntrantStatus.WAITING));
+        assertEquals(1, map.countHoldingSpots());
+    }
+
+    @Test
+    public void testSetKeepsCountsInSync() {
+        EntrantStatusMap map = new EntrantStatusMap();
+        map.set("a", EntrantStatus.WAITING);
+        map.set("b", EntrantStatus.WAITING);
+        map.set("a", EntrantStatus.SELECTED);
+        map.set("a", EntrantStatus.DECLINED);
+        map.set("b", null);
+
+        assertEquals(1, map.size());
+        assertEquals(0, map.count(EntrantStatus.WAITING, EntrantStatus.SELECTED));
+        assertEquals(1, map.count(EntrantStatus.DECLINED));
+        assertTrue(map.ids().contains("a"));
+    }
+
+    @Test
+    public void testFromValue() {
+        assertEquals(EntrantStatus.ACCEPTED, EntrantStatus.fromValue("ACCEPTED"));
+        assertNull(EntrantStatus.fromValue("accepted"));
+        assertNull(EntrantStatus.fromValue(null));
+        assertNull(EntrantStatus.fromValue(3L));
+    }
+
+    @Test
+    public void testCodesAreScopedToOneMap() {
+        EntrantStatusMap first = new EntrantStatusMap();
+        for (int i = 0; i < 1000; i++) {
+            first.set("device-" + i, EntrantStatus.WAITING);
+        }
+        // A second event's codes start from 0 however many entrants other events have
+        EntrantStatusMap second = new EntrantStatusMap();
+        second.set("device-999", EntrantStatus.WAITING);
+        assertArrayEquals(new int[]{0}, second.membersWith(EntrantStatus.WAITING).toArray());
+    }
+
+    @Test
+    public void testIdsIsALiveView() {
+        EntrantStatusMap map = new EntrantStatusMap();
+        map.set("a", EntrantStatus.WAITING);
+        Set<String> ids = map.ids();
+        map.set("b", EntrantStatus.SELECTED);
+        map.set("a", null);
+
+        assertEquals(Collections.singleton("b"), ids);
+        assertFalse(ids.contains("a"));
+    }
+}
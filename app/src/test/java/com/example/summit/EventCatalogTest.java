@@ -0,0 +1,47 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.EventCatalog;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+public class EventCatalogTest {
+
+    @Test
+    public void testEntryKeepsOnlyTheText() {
+        Map<String, Object> event = new HashMap<>();
+        event.put("title", "Swim");
+        event.put("location", "Pool");
+        event.put("capacity", 20L);
+        event.put("posterBase64", "AAAA");
+        event.put("entrantStatus", new HashMap<>());
+
+        Map<String, Object> entry = EventCatalog.entryFor(event);
+        assertEquals(new HashSet<>(Arrays.asList("title", "location", "capacity", "deleted",
+                EventCatalog.UPDATED_FIELD)), entry.keySet());
+        assertEquals("Swim", entry.get("title"));
+        assertEquals(false, entry.get("deleted"));
+    }
+
+    @Test
+    public void testEditsOnlyCarryWhatChanged() {
+        // An edit writes some fields; the entry must not blank out the others
+        Map<String, Object> edit = new HashMap<>();
+        edit.put("registrationEnd", "2025-06-01");
+        Map<String, Object> entry = EventCatalog.entryFor(edit);
+        assertEquals("2025-06-01", entry.get("registrationEnd"));
+        assertFalse(entry.containsKey("title"));
+
+        Map<String, Object> tombstone = EventCatalog.tombstone();
+        assertEquals(true, tombstone.get("deleted"));
+        assertTrue(tombstone.containsKey(EventCatalog.UPDATED_FIELD));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.Event;
+import com.example.summit.model.EventDescription;
+import com.example.summit.utils.EventFilter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EventFilterTest {
+
+    private static Event event(String title, String location, Long capacity, String start, String end) {
+        EventDescription d = new EventDescription();
+        d.setTitle(title);
+        d.setDescription("An event");
+        d.setLocation(location);
+        d.setCapacity(capacity);
+        d.setEventStart(start);
+        d.setEventEnd(end);
+        return new Event(d);
+    }
+
+    @Test
+    public void testCriteria() {
+        Event swim = event("Swim Meet", "Edmonton", 30L, "2025-06-01", "2025-06-02");
+
+        assertTrue(EventFilter.compile("", "", "", "", "").isEmpty());
+        assertTrue(EventFilter.compile("MEET", "edmonton", "50", "2025-05-01", "2025-06-30").test(swim));
+        assertFalse(EventFilter.compile("", "Calgary", "", "", "").test(swim));
+        assertFalse(EventFilter.compile("", "", "20", "", "").test(swim));
+        assertFalse(EventFilter.compile("", "", "", "2025-06-02", "2025-06-30").test(swim));
+        // Unparseable input and a lone date are ignored, as before
+        assertTrue(EventFilter.compile("", "", "lots", "2025-07-01", "").test(swim));
+        assertFalse(EventFilter.compile("", "", "", "", "").test(new Event()));
+    }
+
+    @Test
+    public void testChangedDescriptionIsProjectedAgain() {
+        Event event = event("Chess Night", "Edmonton", 10L, null, null);
+        EventFilter chess = EventFilter.compile("chess", "", "", "", "");
+        assertTrue(chess.test(event));
+
+        event.setDescription(event("Go Night", "Edmonton", 10L, null, null).getDescription());
+        assertFalse(chess.test(event));
+    }
+
+    @Test
+    public void testRepeatFilteringReusesProjections() {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(event("Event " + i, i % 2 == 0 ? "Edmonton" : "Calgary", (long) i,
+                    "2025-06-01", "2025-06-03"));
+        }
+        EventFilter filter = EventFilter.compile("event 1", "edmonton", "50", "2025-05-01", "2025-06-30");
+        int matches = count(filter, events); // projects every event once
+
+        List<EventFilter.Projection> first = new ArrayList<>();
+        for (Event event : events) {
+            first.add(EventFilter.projectionOf(event));
+        }
+        // Another filter over the same events reads the same projections
+        assertEquals(matches, count(EventFilter.compile("event 1", "edmonton", "50", "2025-05-01",
+                "2025-06-30"), events));
+        for (int i = 0; i < events.size(); i++) {
+            assertSame(first.get(i), EventFilter.projectionOf(events.get(i)));
+        }
+    }
+
+    private static int count(EventFilter filter, List<Event> events) {
+        int matches = 0;
+        for (int i = 0; i < events.size(); i++) {
+            if (filter.test(events.get(i))) matches++;
+        }
+        return matches;
+    }
+}
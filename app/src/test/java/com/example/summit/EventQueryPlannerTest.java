@@ -0,0 +1,33 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.EventQueryPlanner;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class EventQueryPlannerTest {
+
+    @Test
+    public void testPlansOnlyFilterOnEquality() {
+        assertEquals("[organizerId == org1]",
+                EventQueryPlanner.forOrganizer("org1").getServerFilters().toString());
+        assertTrue(EventQueryPlanner.all().getServerFilters().isEmpty());
+    }
+
+    @Test
+    public void testIndexFileHasNoUnusedEventIndexes() throws IOException {
+        String file = new String(Files.readAllBytes(Paths.get("..", "firestore.indexes.json")),
+                StandardCharsets.UTF_8);
+        // No query filters on these, so an index on them would only cost writes
+        assertFalse(file.contains("\"locationKey\""));
+        assertFalse(file.contains("\"capacity\""));
+    }
+}
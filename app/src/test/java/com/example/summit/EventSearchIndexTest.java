@@ -0,0 +1,79 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.Event;
+import com.example.summit.model.EventDescription;
+import com.example.summit.utils.EventSearchIndex;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class EventSearchIndexTest {
+
+    private static Event event(String id, String title, String description) {
+        EventDescription d = new EventDescription();
+        d.setTitle(title);
+        d.setDescription(description);
+        Event e = new Event(d);
+        e.setId(id);
+        return e;
+    }
+
+    private static List<String> ids(List<Event> events) {
+        List<String> ids = new ArrayList<>();
+        for (Event e : events) ids.add(e.getId());
+        return ids;
+    }
+
+    @Test
+    public void testPrefixesAndAccentsMatch() {
+        EventSearchIndex index = new EventSearchIndex();
+        index.sync(Arrays.asList(
+                event("1", "Café Crème Social", "Coffee tasting downtown"),
+                event("2", "Morning Yoga", "Stretch in the park")));
+
+        assertEquals(Collections.singletonList("1"), ids(index.search("cafe")));
+        assertEquals(Collections.singletonList("1"), ids(index.search("CRÈM")));
+        assertEquals(Collections.singletonList("2"), ids(index.search("yog park")));
+        assertTrue(index.search("yoga coffee").isEmpty());
+        assertTrue(index.search("  !! ").isEmpty());
+    }
+
+    @Test
+    public void testTitleAndRepeatedWordsRankHigher() {
+        EventSearchIndex index = new EventSearchIndex();
+        index.sync(Arrays.asList(
+                event("desc", "Open House", "Swim lessons for kids"),
+                event("title", "Swim Meet", "Races all afternoon"),
+                event("twice", "Open Water", "Swim, then swim back"),
+                event("prefix", "Swimming Gala", "Races")));
+
+        assertEquals(Arrays.asList("title", "twice", "prefix", "desc"), ids(index.search("swim")));
+    }
+
+    @Test
+    public void testSyncUpdatesInPlace() {
+        EventSearchIndex index = new EventSearchIndex();
+        Event tennis = event("1", "Tennis Clinic", "Bring a racket");
+        index.sync(Arrays.asList(tennis, event("2", "Chess Night", "Boards provided")));
+
+        // Same text in a new object: still found, and the new object is returned
+        Event reloaded = event("1", "Tennis Clinic", "Bring a racket");
+        index.sync(Arrays.asList(reloaded, event("2", "Chess Night", "Boards provided")));
+        assertSame(reloaded, index.search("tennis").get(0));
+
+        // Changed and removed events drop their old words
+        index.sync(Collections.singletonList(event("1", "Padel Clinic", "Bring a racket")));
+        assertEquals(1, index.size());
+        assertTrue(index.search("tennis").isEmpty());
+        assertTrue(index.search("chess").isEmpty());
+        assertEquals(Collections.singletonList("1"), ids(index.search("padel")));
+    }
+}
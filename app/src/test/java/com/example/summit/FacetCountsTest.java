@@ -0,0 +1,50 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.summit.utils.FacetCounts;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FacetCountsTest {
+
+    @Test
+    public void testCountsFollowEachDocument() {
+        FacetCounts cities = new FacetCounts();
+        cities.put("a", "Edmonton");
+        cities.put("b", "calgary");
+        cities.put("c", "Edmonton");
+        assertEquals("[calgary (1), Edmonton (2)]", cities.facets().toString());
+
+        cities.put("a", "Calgary"); // moved
+        cities.put("c", "Edmonton"); // unchanged
+        cities.remove("b");
+        cities.remove("missing");
+        cities.put("d", ""); // no value
+        assertEquals("[Calgary (1), Edmonton (1)]", cities.facets().toString());
+        assertEquals(0, cities.count("calgary"));
+        assertEquals(2, cities.total());
+    }
+
+    @Test
+    public void testSyncTouchesOnlyChanges() {
+        FacetCounts locations = new FacetCounts();
+        Map<String, String> events = new HashMap<>();
+        events.put("e1", "Hall");
+        events.put("e2", "Gym");
+        locations.sync(events);
+
+        events.remove("e1");
+        events.put("e3", "Gym");
+        locations.sync(events);
+        List<String> values = new ArrayList<>();
+        for (FacetCounts.Facet facet : locations.facets()) values.add(facet.getValue());
+        assertEquals(List.of("Gym"), values);
+        assertEquals(2, locations.count("Gym"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.summit.utils.IncrementalSearch;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class IncrementalSearchTest {
+
+    private static final Comparator<IncrementalSearch.Entry<String>> BY_NAME = IncrementalSearch.bySortKey();
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void tearDown() {
+        worker.shutdownNow();
+    }
+
+    private IncrementalSearch<String> search(long debounceMillis) {
+        return new IncrementalSearch<>(worker, Runnable::run, debounceMillis, Function.identity(), Function.identity());
+    }
+
+    /**
+     * Searches and waits for the results.
+     */
+    private static List<String> await(IncrementalSearch<String> search, String query, String filterKey,
+                                      AtomicInteger filterCalls) throws InterruptedException {
+        List<String> found = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        search.search(query, filterKey, name -> {
+            filterCalls.incrementAndGet();
+            return !name.startsWith("Z");
+        }, BY_NAME, (q, results) -> {
+            found.addAll(results);
+            done.countDown();
+        });
+        done.await(5, TimeUnit.SECONDS);
+        return found;
+    }
+
+    @Test
+    public void testNarrowsPreviousResults() throws InterruptedException {
+        IncrementalSearch<String> search = search(0);
+        search.setItems(Arrays.asList("bob", "Émile", "Anna", "Zoe", "Annabel", "emma"));
+        AtomicInteger filterCalls = new AtomicInteger();
+
+        // Sorted ignoring case, with accented letters next to plain ones
+        assertEquals(Arrays.asList("Anna", "Annabel", "bob", "Émile", "emma"),
+                await(search, "", "all", filterCalls));
+        assertEquals(6, filterCalls.get());
+
+        // Extends the last query: only the last matches are checked, and the filter is not run again
+        assertEquals(Arrays.asList("Anna", "Annabel"), await(search, " AN", "all", filterCalls));
+        assertEquals(Arrays.asList("Annabel"), await(search, "annab", "all", filterCalls));
+        assertEquals(6, filterCalls.get());
+
+        // A shorter query, or another filter, starts over; the filter runs on items the query matches
+        assertEquals(Arrays.asList("Anna", "Annabel"), await(search, "an", "all", filterCalls));
+        assertEquals(8, filterCalls.get());
+        await(search, "an", "other", filterCalls);
+        assertEquals(10, filterCalls.get());
+    }
+
+    @Test
+    public void testOnlyTheLatestSearchIsDelivered() throws InterruptedException {
+        IncrementalSearch<String> search = search(50);
+        search.setItems(Arrays.asList("anna", "bob", "carl"));
+        List<String> queries = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        for (String query : new String[]{"a", "an", "ann", "b"}) {
+            search.search(query, "all", name -> true, BY_NAME, (q, results) -> {
+                queries.add(q + "=" + results);
+                done.countDown();
+            });
+        }
+        done.await(5, TimeUnit.SECONDS);
+        Thread.sleep(100);
+        assertEquals(Arrays.asList("b=[bob]"), queries);
+    }
+}
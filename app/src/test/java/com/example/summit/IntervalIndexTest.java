@@ -0,0 +1,85 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.Event;
+import com.example.summit.model.EventDates;
+import com.example.summit.model.EventDescription;
+import com.example.summit.utils.EventDateIndex;
+import com.example.summit.utils.IntervalIndex;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class IntervalIndexTest {
+
+    @Test
+    public void testMatchesScanningEveryInterval() {
+        Random random = new Random(7);
+        List<long[]> intervals = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long start = random.nextInt(1000);
+            intervals.add(new long[]{start, start + random.nextInt(30)});
+        }
+        IntervalIndex<long[]> index = new IntervalIndex<>(intervals, iv -> iv[0], iv -> iv[1]);
+
+        for (int q = 0; q < 200; q++) {
+            long from = random.nextInt(1100) - 50;
+            long to = from + random.nextInt(20);
+            HashSet<long[]> expected = new HashSet<>();
+            for (long[] iv : intervals) {
+                if (iv[0] <= to && iv[1] >= from) expected.add(iv);
+            }
+            List<long[]> found = index.overlapping(from, to);
+            assertEquals(expected.size(), found.size());
+            assertEquals(expected, new HashSet<>(found));
+        }
+        assertTrue(index.overlapping(5, 4).isEmpty());
+    }
+
+    @Test
+    public void testEventDateIndex() {
+        Event typed = event("2025-06-01", "2025-06-03", "2025-05-01", "2025-05-20");
+        // Saved before typed fields; read from the text, including single-digit months
+        Event legacy = event(null, null, "2025-5-10", null);
+        legacy.getDescription().setEventStart("2025-6-3");
+        Event undated = event(null, null, null, null);
+        typed.getDescription().setEventStartDay(EventDates.parse("2025-06-01"));
+        EventDateIndex index = new EventDateIndex(Arrays.asList(typed, legacy, undated));
+
+        assertEquals(Arrays.asList(typed, legacy), index.overlapping(day("2025-06-03"), day("2025-06-10")));
+        assertEquals(Arrays.asList(typed), index.overlapping(day("2025-05-25"), day("2025-06-01")));
+        // A missing registration date leaves that side open
+        assertEquals(Arrays.asList(undated, typed), index.registrationOpen(day("2025-05-05")));
+        assertEquals(Arrays.asList(undated, legacy), index.registrationOpen(day("2025-07-01")));
+    }
+
+    @Test
+    public void testParsesStoredDates() {
+        assertEquals(Long.valueOf(LocalDate.of(2025, 3, 9).toEpochDay()), EventDates.parse(" 2025/3/9 "));
+        assertNull(EventDates.parse("March 9"));
+        assertNull(EventDates.parse(""));
+        assertEquals("2025-03-09", EventDates.format(LocalDate.of(2025, 3, 9).toEpochDay()));
+    }
+
+    private static Event event(String start, String end, String regStart, String regEnd) {
+        EventDescription d = new EventDescription();
+        d.setEventStart(start);
+        d.setEventEnd(end);
+        d.setRegistrationStart(regStart);
+        d.setRegistrationEnd(regEnd);
+        return new Event(d);
+    }
+
+    private static long day(String date) {
+        return EventDates.parse(date);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.InvitationExpiry;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+public class InvitationExpiryTest {
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Pending invitations held in memory, by notification ID.
+     */
+    private static class FakeDeadlines implements InvitationExpiry.Scheduler.Deadlines {
+        final Map<String, Long> pending = new HashMap<>();
+        final List<String> expired = new ArrayList<>();
+
+        @Override
+        public void expire(long now, Runnable done) {
+            Iterator<Map.Entry<String, Long>> it = pending.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Long> invitation = it.next();
+                if (invitation.getValue() <= now) {
+                    expired.add(invitation.getKey());
+                    it.remove();
+                }
+            }
+            done.run();
+        }
+
+        @Override
+        public void loadUpcoming(long since, BiConsumer<String, Long> found) {
+            for (Map.Entry<String, Long> invitation : pending.entrySet()) {
+                if (invitation.getValue() > since) found.accept(invitation.getKey(), invitation.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testInvitationSentAfterStartExpires() {
+        AtomicLong clock = new AtomicLong(100 * MINUTE);
+        FakeDeadlines deadlines = new FakeDeadlines();
+        InvitationExpiry.Scheduler scheduler = new InvitationExpiry.Scheduler(deadlines, clock::get);
+        scheduler.start();
+        scheduler.stop(); // the test drives the ticks itself
+
+        // Sent by the lottery once the scheduler is already running
+        deadlines.pending.put("late-invite", 103 * MINUTE);
+
+        for (int i = 1; i <= InvitationExpiry.Scheduler.RELOAD_TICKS + 3; i++) {
+            clock.set((100 + i) * MINUTE);
+            scheduler.tick();
+        }
+        assertEquals(1, deadlines.expired.size());
+        assertEquals("late-invite", deadlines.expired.get(0));
+        assertTrue(deadlines.pending.isEmpty());
+    }
+
+    @Test
+    public void testTrackedInvitationExpiresOnItsTick() {
+        AtomicLong clock = new AtomicLong(100 * MINUTE);
+        FakeDeadlines deadlines = new FakeDeadlines();
+        InvitationExpiry.Scheduler scheduler = new InvitationExpiry.Scheduler(deadlines, clock::get);
+
+        deadlines.pending.put("invite", 101 * MINUTE + 1);
+        scheduler.track("invite", 101 * MINUTE + 1);
+
+        clock.set(101 * MINUTE);
+        scheduler.tick();
+        assertTrue(deadlines.expired.isEmpty());
+        clock.set(102 * MINUTE);
+        scheduler.tick();
+        assertEquals(1, deadlines.expired.size());
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.Entrant;
+import com.example.summit.model.EntrantStatus;
+import com.example.summit.model.EntrantStatusMap;
+import com.example.summit.model.LotteryDraw;
+import com.example.summit.model.WaitingList;
+import com.example.summit.model.WaitingListStore;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LotteryDrawTest {
+
+    private static Map<String, Object> event(int capacity, int waiting) {
+        Map<String, String> statuses = new HashMap<>();
+        for (int i = 0; i < waiting; i++) {
+            statuses.put("device" + i, EntrantStatus.WAITING.name());
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("capacity", (long) capacity);
+        data.put(EntrantStatusMap.FIELD, statuses);
+        return data;
+    }
+
+    private static List<String> ids(int from, int to) {
+        List<String> ids = new ArrayList<>();
+        for (int i = from; i < to; i++) ids.add("device" + i);
+        return ids;
+    }
+
+    private static Entrant from(String id, String city) {
+        Entrant e = new Entrant(id);
+        e.setCity(city);
+        return e;
+    }
+
+    @Test
+    public void testLargeDrawFitsOneTransaction() {
+        LotteryDraw.Plan plan = LotteryDraw.plan("e1", event(2000, 1000), 42L, null, LotteryDraw.MAX_INVITES);
+
+        assertEquals(LotteryDraw.Status.APPLIED, plan.getResult().getStatus());
+        assertEquals(LotteryDraw.MAX_INVITES, plan.getResult().getInvitedIds().size());
+        assertEquals(500, plan.writeCount());
+        assertTrue(LotteryDraw.filledPart(plan.getResult()));
+    }
+
+    @Test
+    public void testSmallDrawIsOnePart() {
+        LotteryDraw.Plan plan = LotteryDraw.plan("e1", event(10, 30), 42L, null, LotteryDraw.MAX_INVITES);
+
+        assertEquals(10, plan.getResult().getInvitedIds().size());
+        assertFalse(LotteryDraw.filledPart(plan.getResult()));
+        assertEquals(LotteryDraw.Status.FULL,
+                LotteryDraw.plan("e1", event(0, 30), 42L, null, LotteryDraw.MAX_INVITES).getResult().getStatus());
+    }
+
+    @Test
+    public void testPartsAreCombined() {
+        assertEquals("draw1", LotteryDraw.partId("draw1", 0));
+        assertEquals("draw1-2", LotteryDraw.partId("draw1", 2));
+
+        LotteryDraw.Result first = new LotteryDraw.Result(LotteryDraw.Status.ALREADY_APPLIED,
+                ids(0, LotteryDraw.MAX_INVITES));
+        LotteryDraw.Result second = new LotteryDraw.Result(LotteryDraw.Status.APPLIED,
+                ids(LotteryDraw.MAX_INVITES, 600));
+        LotteryDraw.Result last = new LotteryDraw.Result(LotteryDraw.Status.EMPTY_WAITING_LIST,
+                Collections.emptyList());
+
+        LotteryDraw.Result combined = LotteryDraw.combine(Arrays.asList(first, second, last));
+        assertEquals(LotteryDraw.Status.APPLIED, combined.getStatus());
+        assertEquals(ids(0, 600), combined.getInvitedIds());
+
+        // A retry that finds every part applied changes nothing
+        LotteryDraw.Result retried = LotteryDraw.combine(Arrays.asList(first, last));
+        assertEquals(LotteryDraw.Status.ALREADY_APPLIED, retried.getStatus());
+        assertSame(last, LotteryDraw.combine(Collections.singletonList(last)));
+    }
+
+    @Test
+    public void testSubcollectionDrawKeepsCityQuotas() {
+        Map<String, Object> data = event(4, 0);
+        data.put(WaitingListStore.STORAGE_FIELD, WaitingListStore.STORAGE_SUBCOLLECTION);
+        assertNull(LotteryDraw.drawByCity(data, new WaitingList(), Collections.emptyList(), 4, 1L));
+        assertFalse(LotteryDraw.needsProfiles(data));
+
+        Map<String, Object> quotas = new HashMap<>();
+        quotas.put("Edmonton", 3);
+        data.put("lotteryCityQuotas", quotas);
+        assertTrue(LotteryDraw.needsProfiles(data));
+
+        // As StreamingLottery collects them: only IDs and cities
+        WaitingList waiting = new WaitingList();
+        for (int i = 0; i < 20; i++) {
+            waiting.addEntrant(from("far" + i, "Calgary"));
+        }
+        for (int i = 0; i < 3; i++) {
+            waiting.addEntrant(from("local" + i, "Edmonton"));
+        }
+        // One Edmonton seat is already held, so two are left for the waiting list
+        List<Entrant> taken = Collections.singletonList(from("held", "edmonton"));
+
+        for (long seed = 0; seed < 20; seed++) {
+            List<String> invited = LotteryDraw.drawByCity(data, waiting, taken, 4, seed);
+            assertEquals(4, invited.size());
+            int local = 0;
+            for (String id : invited) {
+                if (id.startsWith("local")) local++;
+            }
+            assertTrue("seed " + seed + " drew " + invited, local >= 2);
+        }
+    }
+
+    @Test
+    public void testDrawDoesNotDependOnStoredOrder() {
+        Map<String, Object> forward = event(5, 0);
+        Map<String, Object> backward = event(5, 0);
+        Map<String, String> ascending = new LinkedHashMap<>();
+        Map<String, String> descending = new LinkedHashMap<>();
+        for (int i = 0; i < 50; i++) {
+            ascending.put("device" + i, EntrantStatus.WAITING.name());
+            descending.put("device" + (49 - i), EntrantStatus.WAITING.name());
+        }
+        forward.put(EntrantStatusMap.FIELD, ascending);
+        backward.put(EntrantStatusMap.FIELD, descending);
+
+        assertEquals(LotteryDraw.plan("e1", forward, 42L, null, LotteryDraw.MAX_INVITES).getResult().getInvitedIds(),
+                LotteryDraw.plan("e1", backward, 42L, null, LotteryDraw.MAX_INVITES).getResult().getInvitedIds());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.EntrantStatus;
+import com.example.summit.model.EntrantStatusMap;
+import com.example.summit.model.LotterySimulator;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class LotterySimulatorTest {
+
+    @Test
+    public void testHistoryFromEventStatuses() {
+        Map<String, Object> field = new HashMap<>();
+        field.put("b", EntrantStatus.ACCEPTED.name());
+        field.put("c", EntrantStatus.ACCEPTED.name());
+        field.put("w", EntrantStatus.WAITING.name());
+        // One accept left in the legacy array, as before the migration removed it
+        LotterySimulator.History history = LotterySimulator.History.of(EntrantStatusMap.fromFields(field,
+                null, null, Arrays.asList("a"), Arrays.asList("d")));
+        assertEquals(3, history.getAccepted());
+        assertEquals(1, history.getDeclined());
+        assertEquals(0.75, history.getAcceptRate(), 1e-9);
+
+        LotterySimulator.History none = LotterySimulator.History.of(new EntrantStatusMap());
+        assertEquals(0.5, none.getAcceptRate(), 1e-9);
+        assertEquals(4, history.plus(none).getAccepted() + history.plus(none).getDeclined());
+    }
+
+    @Test
+    public void testSameSeedSameResults() {
+        LotterySimulator.History history = new LotterySimulator.History(30, 20);
+        LotterySimulator.Outcome a = new LotterySimulator(20, 200, history, 500, 7L).simulate(1.5);
+        LotterySimulator.Outcome b = new LotterySimulator(20, 200, history, 500, 7L).simulate(1.5);
+        assertEquals(a.getMeanAccepted(), b.getMeanAccepted(), 0.0);
+        assertEquals(a.getFillProbability(), b.getFillProbability(), 0.0);
+    }
+
+    @Test
+    public void testMeanAcceptedFollowsHistory() {
+        // 500 of 1000 accepted, so about half of 40 invitees accept
+        LotterySimulator.History history = new LotterySimulator.History(500, 500);
+        LotterySimulator.Outcome outcome = new LotterySimulator(40, 1000, history, 2000, 1L).simulate(1.0);
+
+        assertEquals(40, outcome.getInvites());
+        assertEquals(20.0, outcome.getMeanAccepted(), 1.0);
+        assertTrue(outcome.getAcceptedLow() <= outcome.getMeanAccepted());
+        assertTrue(outcome.getAcceptedHigh() >= outcome.getMeanAccepted());
+        assertTrue(outcome.getFillProbability() < 0.01);
+    }
+
+    @Test
+    public void testRecommendsOversamplingWhenHalfDecline() {
+        LotterySimulator.History history = new LotterySimulator.History(500, 500);
+        LotterySimulator simulator = new LotterySimulator(40, 1000, history, 2000, 2L);
+        LotterySimulator.Recommendation rec = simulator.recommend(0.9, 4.0, 0.1);
+
+        assertTrue(rec.isTargetMet());
+        LotterySimulator.Outcome chosen = rec.getChosen();
+        assertTrue(chosen.getFactor() > 2.0 && chosen.getFactor() < 3.0);
+        assertTrue(chosen.getFillLower() >= 0.9);
+        assertTrue(chosen.getFillLower() <= chosen.getFillProbability());
+        assertTrue(chosen.getFillUpper() >= chosen.getFillProbability());
+    }
+
+    @Test
+    public void testNoOversamplingWhenEveryoneAccepts() {
+        LotterySimulator.History history = new LotterySimulator.History(2000, 0);
+        LotterySimulator.Recommendation rec =
+                new LotterySimulator(10, 100, history, 1000, 3L).recommend(0.9, 3.0, 0.25);
+
+        assertTrue(rec.isTargetMet());
+        assertEquals(1.0, rec.getChosen().getFactor(), 1e-9);
+        assertEquals(1, rec.getOutcomes().size());
+    }
+
+    @Test
+    public void testShortWaitingListCapsInvites() {
+        LotterySimulator.History history = new LotterySimulator.History(10, 10);
+        LotterySimulator.Recommendation rec =
+                new LotterySimulator(10, 12, history, 500, 4L).recommend(0.99, 5.0, 0.5);
+
+        assertFalse(rec.isTargetMet());
+        assertEquals(12, rec.getChosen().getInvites());
+        assertTrue(rec.getOutcomes().size() < 9);
+    }
+}
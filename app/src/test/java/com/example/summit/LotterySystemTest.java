@@ -8,6 +8,8 @@ import com.example.summit.model.WaitingList;
 
 import org.junit.Test;
 
+import java.util.List;
+
 public class LotterySystemTest {
     @Test
     public void lotterySystemIsCorrect() {
@@ -26,4 +28,34 @@ public class LotterySystemTest {
 
         assertEquals(2, lotterySystem.getInvited().size());
     }
+
+    @Test
+    public void lotteryWithSameSeedIsReproducible() {
+        WaitingList waitingList = new WaitingList();
+        for (int i = 0; i < 1000; i++) {
+            waitingList.addEntrant(new Entrant(String.valueOf(i)));
+        }
+
+        List<Entrant> first = new LotterySystem(5, 99L).sampleEntrants(waitingList, 5);
+        List<Entrant> second = new LotterySystem(5, 99L).sampleEntrants(waitingList, 5);
+
+        assertEquals(5, first.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getDeviceId(), second.get(i).getDeviceId());
+        }
+    }
+
+    @Test
+    public void lotteryDoesNotReorderWaitingList() {
+        WaitingList waitingList = new WaitingList();
+        for (int i = 0; i < 10; i++) {
+            waitingList.addEntrant(new Entrant(String.valueOf(i)));
+        }
+
+        new LotterySystem(10, 5L).sampleEntrants(waitingList, 10);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(String.valueOf(i), waitingList.getEntrants().get(i).getDeviceId());
+        }
+    }
 }
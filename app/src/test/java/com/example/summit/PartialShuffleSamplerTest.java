@@ -0,0 +1,74 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.PartialShuffleSampler;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+public class PartialShuffleSamplerTest {
+    @Test
+    public void testDrawsDistinctIndicesInRange() {
+        PartialShuffleSampler sampler = new PartialShuffleSampler(50, 42L);
+        Set<Integer> seen = new HashSet<>();
+
+        for (int i = 0; i < 50; i++) {
+            int index = sampler.next();
+            assertTrue(index >= 0 && index < 50);
+            assertTrue("Index drawn twice: " + index, seen.add(index));
+        }
+        assertEquals(0, sampler.remaining());
+    }
+
+    @Test
+    public void testSameSeedGivesSameOrder() {
+        int[] first = new PartialShuffleSampler(100000, 7L).next(10);
+        int[] second = new PartialShuffleSampler(100000, 7L).next(10);
+
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void testSplitDrawsMatchSingleDraw() {
+        PartialShuffleSampler split = new PartialShuffleSampler(1000, 3L);
+        int[] a = split.next(4);
+        int[] b = split.next(6);
+        int[] whole = new PartialShuffleSampler(1000, 3L).next(10);
+
+        int[] joined = new int[10];
+        System.arraycopy(a, 0, joined, 0, 4);
+        System.arraycopy(b, 0, joined, 4, 6);
+        assertArrayEquals(whole, joined);
+        assertEquals(10, split.getCursor());
+    }
+
+    @Test
+    public void testNextCountStopsWhenExhausted() {
+        PartialShuffleSampler sampler = new PartialShuffleSampler(3, 1L);
+
+        assertEquals(3, sampler.next(10).length);
+        assertEquals(0, sampler.next(10).length);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testNextThrowsWhenExhausted() {
+        PartialShuffleSampler sampler = new PartialShuffleSampler(1, 1L);
+        sampler.next();
+        sampler.next();
+    }
+
+    @Test
+    public void testDifferentSeedsUsuallyDiffer() {
+        int[] first = new PartialShuffleSampler(100000, 1L).next(5);
+        int[] second = new PartialShuffleSampler(100000, 2L).next(5);
+
+        assertFalse(java.util.Arrays.equals(first, second));
+    }
+}
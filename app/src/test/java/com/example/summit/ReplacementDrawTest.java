@@ -0,0 +1,21 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.summit.model.ReplacementDraw;
+
+import org.junit.Test;
+
+public class ReplacementDrawTest {
+    @Test
+    public void testFailedRefillsBackOff() {
+        long base = ReplacementDraw.Watcher.RETRY_BASE_MS;
+        assertEquals(base, ReplacementDraw.Watcher.retryDelay(1));
+        assertEquals(2 * base, ReplacementDraw.Watcher.retryDelay(2));
+        assertEquals(4 * base, ReplacementDraw.Watcher.retryDelay(3));
+
+        // A refill that keeps failing is still retried, just no more often than the cap
+        assertEquals(ReplacementDraw.Watcher.RETRY_MAX_MS, ReplacementDraw.Watcher.retryDelay(20));
+        assertEquals(ReplacementDraw.Watcher.RETRY_MAX_MS, ReplacementDraw.Watcher.retryDelay(1000));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.ReservoirSampler;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ReservoirSamplerTest {
+    @Test
+    public void testShortStreamKeepsEverything() {
+        ReservoirSampler<String> sampler = new ReservoirSampler<>(5, 1L);
+        sampler.offer("a");
+        sampler.offer("b");
+
+        assertEquals(2, sampler.getSample().size());
+        assertEquals(2, sampler.getSeen());
+    }
+
+    @Test
+    public void testLongStreamKeepsKDistinctItems() {
+        ReservoirSampler<Integer> sampler = new ReservoirSampler<>(10, 2L);
+        for (int i = 0; i < 100000; i++) {
+            sampler.offer(i);
+        }
+
+        List<Integer> sample = sampler.getSample();
+        assertEquals(10, sample.size());
+        assertEquals(10, new HashSet<>(sample).size());
+        assertEquals(100000, sampler.getSeen());
+    }
+
+    @Test
+    public void testSampleIsRoughlyUniform() {
+        // Each of 10 items should be picked by about 30% of 3-item samples
+        int[] picked = new int[10];
+        for (long seed = 0; seed < 5000; seed++) {
+            ReservoirSampler<Integer> sampler = new ReservoirSampler<>(3, seed);
+            for (int i = 0; i < 10; i++) {
+                sampler.offer(i);
+            }
+            for (int item : sampler.getSample()) {
+                picked[item]++;
+            }
+        }
+        for (int count : picked) {
+            assertTrue("picked " + count + " times", count > 1300 && count < 1700);
+        }
+    }
+
+    @Test
+    public void testZeroSizeKeepsNothing() {
+        ReservoirSampler<Integer> sampler = new ReservoirSampler<>(0, 3L);
+        for (int i = 0; i < 10; i++) {
+            sampler.offer(i);
+        }
+        Set<Integer> sample = new HashSet<>(sampler.getSample());
+        assertTrue(sample.isEmpty());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.utils.IdDictionary;
+import com.example.summit.utils.RoaringBitmap;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class RoaringBitmapTest {
+
+    @Test
+    public void testAddRemoveContains() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        assertTrue(bitmap.add(5));
+        assertFalse(bitmap.add(5));
+        assertTrue(bitmap.add(70_000));
+        assertTrue(bitmap.contains(5));
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(6));
+
+        assertTrue(bitmap.remove(5));
+        assertFalse(bitmap.remove(5));
+        assertEquals(1, bitmap.getCardinality());
+        assertArrayEquals(new int[]{70_000}, bitmap.toArray());
+    }
+
+    @Test
+    public void testSetOperationsMatchTreeSet() {
+        // Sparse and dense chunks, so both container kinds and their conversions are used
+        Random random = new Random(42);
+        RoaringBitmap a = new RoaringBitmap(), b = new RoaringBitmap();
+        TreeSet<Integer> setA = new TreeSet<>(), setB = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            int x = random.nextInt(12_000);
+            int y = 60_000 + random.nextInt(200_000);
+            a.add(x);
+            setA.add(x);
+            b.add(x / 2);
+            setB.add(x / 2);
+            if (i % 3 == 0) {
+                a.add(y);
+                setA.add(y);
+            }
+        }
+        for (int i = 0; i < 6_000; i++) {
+            int x = random.nextInt(12_000);
+            a.remove(x);
+            setA.remove(x);
+        }
+
+        assertArrayEquals(toArray(setA), a.toArray());
+        assertEquals(setA.size(), a.getCardinality());
+
+        TreeSet<Integer> union = new TreeSet<>(setA);
+        union.addAll(setB);
+        assertArrayEquals(toArray(union), a.or(b).toArray());
+
+        TreeSet<Integer> both = new TreeSet<>(setA);
+        both.retainAll(setB);
+        assertArrayEquals(toArray(both), a.and(b).toArray());
+
+        TreeSet<Integer> rest = new TreeSet<>(setA);
+        rest.removeAll(setB);
+        assertArrayEquals(toArray(rest), a.andNot(b).toArray());
+        assertEquals(rest.size(), a.andNot(b).getCardinality());
+    }
+
+    @Test
+    public void testDenseCodesAreSmall() {
+        // 100k entrants would be 100k strings in a List<String>; dense codes fit in two bitmap chunks
+        IdDictionary dictionary = new IdDictionary();
+        RoaringBitmap waiting = new RoaringBitmap();
+        for (int i = 0; i < 100_000; i++) {
+            waiting.add(dictionary.intern("device-" + i));
+        }
+        assertEquals(100_000, waiting.getCardinality());
+        assertTrue("Bitmap took " + waiting.sizeInBytes() + " bytes", waiting.sizeInBytes() < 25_000);
+        assertEquals("device-99999", dictionary.idOf(dictionary.codeOf("device-99999")));
+        assertEquals(-1, dictionary.codeOf("missing"));
+    }
+
+    private static int[] toArray(TreeSet<Integer> set) {
+        return Arrays.stream(set.toArray(new Integer[0])).mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.EventDates;
+import com.example.summit.model.SchemaMigrator;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SchemaMigratorTest {
+
+    @Test
+    public void testLegacyEventIsBroughtToLatestVersion() {
+        Map<String, Object> event = new HashMap<>();
+        event.put("requireLocation", true);
+        event.put("startDate", "2025-05-01");
+        event.put("eventEnd", "2025-05-02");
+        event.put("endDate", "2025-06-01");
+        event.put("maxAttendees", 40L);
+        event.put("waitingList", Arrays.asList("a", "b"));
+        event.put("selectedList", Collections.singletonList("b"));
+        event.put("entrantStatus", Collections.singletonMap("a", "DECLINED"));
+
+        Map<String, Object> changes = SchemaMigrator.migrate("events", event);
+
+        assertEquals(true, changes.get("requiredLocation"));
+        assertTrue(changes.containsKey("requireLocation"));
+        assertNull(changes.get("requireLocation"));
+        assertEquals("2025-05-01", changes.get("eventStart"));
+        assertFalse("An existing eventEnd is kept", changes.containsKey("eventEnd"));
+        assertEquals(40L, changes.get("capacity"));
+        // Only entrants missing from the map are added; the map already knows "a"
+        assertEquals(Collections.singletonMap("b", "SELECTED"), changes.get("entrantStatus"));
+        assertTrue(changes.containsKey("waitingList"));
+        assertNull(changes.get("waitingList"));
+        // Typed days come from the dates as they are after the earlier steps
+        assertEquals(LocalDate.of(2025, 5, 1).toEpochDay(), changes.get(EventDates.EVENT_START_DAY));
+        assertEquals(LocalDate.of(2025, 5, 2).toEpochDay(), changes.get(EventDates.EVENT_END_DAY));
+        assertFalse(changes.containsKey(EventDates.REGISTRATION_END_DAY));
+        assertEquals(SchemaMigrator.latestVersion("events"), changes.get(SchemaMigrator.VERSION_FIELD));
+    }
+
+    @Test
+    public void testCurrentDocumentsAreLeftAlone() {
+        Map<String, Object> event = new HashMap<>();
+        event.put("requiredLocation", false);
+        event.put(SchemaMigrator.VERSION_FIELD, (long) SchemaMigrator.latestVersion("events"));
+        assertTrue(SchemaMigrator.migrate("events", event).isEmpty());
+
+        // Already in shape but never stamped: only the version is written
+        Map<String, Object> entrant = new HashMap<>();
+        entrant.put("notificationsEnabled", false);
+        entrant.put("allowAdminNotifications", true);
+        entrant.put("allowOrganizerNotifications", true);
+        Map<String, Object> changes = SchemaMigrator.migrate("entrants", entrant);
+        assertEquals(Collections.singleton(SchemaMigrator.VERSION_FIELD), changes.keySet());
+    }
+
+    @Test
+    public void testOnlyMissingStepsRun() {
+        // At version 1 the rename has already run, so a leftover requireLocation stays
+        Map<String, Object> event = new HashMap<>();
+        event.put(SchemaMigrator.VERSION_FIELD, 1L);
+        event.put("requireLocation", true);
+        Map<String, Object> changes = SchemaMigrator.migrate("events", event);
+        assertFalse(changes.containsKey("requireLocation"));
+        assertEquals(new HashMap<>(), changes.get("entrantStatus"));
+    }
+
+    @Test
+    public void testNotificationsGetStatusAndType() {
+        Map<String, Object> invitation = new HashMap<>();
+        invitation.put("expiresAt", 1000L);
+        Map<String, Object> changes = SchemaMigrator.migrate("notifications", invitation);
+        assertEquals("pending", changes.get("status"));
+        assertEquals("invitation", changes.get("type"));
+
+        Map<String, Object> custom = new HashMap<>();
+        custom.put("status", "info");
+        changes = SchemaMigrator.migrate("notifications", custom);
+        assertFalse(changes.containsKey("status"));
+        assertEquals("custom", changes.get("type"));
+    }
+
+    @Test
+    public void testRunIdFollowsLatestVersions() {
+        assertEquals("schema-events" + SchemaMigrator.latestVersion("events")
+                        + "-entrants" + SchemaMigrator.latestVersion("entrants")
+                        + "-notifications" + SchemaMigrator.latestVersion("notifications"),
+                SchemaMigrator.currentRunId());
+    }
+
+    @Test
+    public void testOnlyOneDeviceHoldsAnUnfinishedRun() {
+        assertTrue(SchemaMigrator.mayClaim(null, "a", 1000));
+
+        Map<String, Object> checkpoint = new HashMap<>();
+        checkpoint.put("owner", "a");
+        checkpoint.put("leaseUntil", 2000L);
+        assertTrue("The owner renews its own claim", SchemaMigrator.mayClaim(checkpoint, "a", 1000));
+        assertFalse(SchemaMigrator.mayClaim(checkpoint, "b", 1000));
+        assertTrue("A lapsed claim is taken over", SchemaMigrator.mayClaim(checkpoint, "b", 3000));
+
+        Map<String, Object> cursors = new HashMap<>();
+        cursors.put("events", Collections.singletonMap("done", true));
+        cursors.put("entrants", Collections.singletonMap("done", true));
+        checkpoint.put("cursors", cursors);
+        assertFalse(SchemaMigrator.isComplete(checkpoint));
+
+        cursors.put("notifications", Collections.singletonMap("done", true));
+        assertTrue(SchemaMigrator.isComplete(checkpoint));
+        assertFalse("A finished run is not run again", SchemaMigrator.mayClaim(checkpoint, "b", 3000));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.Entrant;
+import com.example.summit.model.LotteryState;
+import com.example.summit.model.LotterySystem;
+import com.example.summit.model.WaitingList;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class SeededOrderSamplerTest {
+
+    private static WaitingList waitingListOf(List<String> ids) {
+        WaitingList list = new WaitingList();
+        for (String id : ids) {
+            list.addEntrant(new Entrant(id));
+        }
+        return list;
+    }
+
+    private static List<String> idsOf(List<Entrant> entrants) {
+        List<String> ids = new ArrayList<>();
+        for (Entrant e : entrants) {
+            ids.add(e.getDeviceId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void testRoundsContinueTheSameOrder() {
+        List<String> waiting = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            waiting.add("device" + i);
+        }
+
+        // One round of 10
+        List<String> allAtOnce = idsOf(new LotterySystem(10, new LotteryState(42L))
+                .sampleEntrants(waitingListOf(waiting), 10));
+
+        // Two rounds of 5, removing drawn entrants and persisting the state in between
+        LotteryState state = new LotteryState(42L);
+        List<String> first = idsOf(new LotterySystem(5, state).sampleEntrants(waitingListOf(waiting), 5));
+        waiting.removeAll(first);
+        Map<String, Object> stored = state.toMap();
+
+        LotteryState restored = LotteryState.fromMap(stored);
+        List<String> second = idsOf(new LotterySystem(5, restored).sampleEntrants(waitingListOf(waiting), 5));
+
+        List<String> combined = new ArrayList<>(first);
+        combined.addAll(second);
+        assertEquals(allAtOnce, combined);
+        assertEquals(10, restored.getDrawn());
+    }
+
+    @Test
+    public void testOrderDoesNotDependOnListPosition() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add("device" + i);
+        }
+        List<String> reversed = new ArrayList<>(ids);
+        java.util.Collections.reverse(reversed);
+
+        List<String> a = idsOf(new LotterySystem(50, new LotteryState(7L)).sampleEntrants(waitingListOf(ids), 50));
+        List<String> b = idsOf(new LotterySystem(50, new LotteryState(7L)).sampleEntrants(waitingListOf(reversed), 50));
+
+        assertEquals(a, b);
+    }
+
+    @Test
+    public void testLateJoinersAreStillDrawn() {
+        List<String> waiting = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            waiting.add("device" + i);
+        }
+        LotteryState state = new LotteryState(3L);
+        List<String> first = idsOf(new LotterySystem(20, state).sampleEntrants(waitingListOf(waiting), 10));
+        waiting.removeAll(first);
+        for (int i = 20; i < 30; i++) {
+            waiting.add("device" + i);
+        }
+
+        List<String> rest = idsOf(new LotterySystem(20, state).sampleEntrants(waitingListOf(waiting), 20));
+
+        Set<String> everyone = new HashSet<>(first);
+        everyone.addAll(rest);
+        assertEquals(20, rest.size());
+        assertEquals(30, everyone.size());
+    }
+
+    @Test
+    public void testMissingStateIsNull() {
+        assertTrue(LotteryState.fromMap(null) == null);
+        assertTrue(LotteryState.fromMap(new java.util.HashMap<>()) == null);
+    }
+}
@@ -7,18 +7,19 @@ import com.example.summit.model.WaitingList;
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Transaction;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.ArrayList;
-
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
@@ -45,6 +46,15 @@ class SignUpTest {
     private MockedStatic<Firebase> mockedFirebase;
     private MockedStatic<FirebaseFirestore> mockedFirestore;
 
+    // Firestore path to an entrant's waiting list document, mocked by mockJoinTransaction
+    private final String testEventId = "event-123";
+    private final String testEntrantId = "entrant-abc";
+    private FirebaseFirestore mockDb;
+    private CollectionReference mockEventsCol;
+    private DocumentReference mockEventDoc;
+    private CollectionReference mockWaitingListCol;
+    private DocumentReference mockEntrantDoc;
+
     @BeforeEach
     void setUp() {
         signUp = new SignUp();
@@ -97,9 +107,7 @@ class SignUpTest {
 
     @Test
     void joinEvent_EntrantNotOnList_AddsEntrantAndReturnsTrue() {
-        ArrayList<Entrant> emptyList = new ArrayList<>();
-
-        when(mockList.getEntrants()).thenReturn(emptyList);
+        when(mockList.contains(mockEntrant)).thenReturn(false);
 
         boolean result = signUp.joinEvent(mockEntrant, mockList);
 
@@ -109,9 +117,7 @@ class SignUpTest {
 
     @Test
     void joinEvent_EntrantAlreadyOnList_DoesNotAddAndReturnsFalse() {
-        ArrayList<Entrant> listWithEntrant = new ArrayList<>();
-        listWithEntrant.add(mockEntrant);
-        when(mockList.getEntrants()).thenReturn(listWithEntrant);
+        when(mockList.contains(mockEntrant)).thenReturn(true);
 
         boolean result = signUp.joinEvent(mockEntrant, mockList);
 
@@ -121,18 +127,43 @@ class SignUpTest {
     }
 
     @Test
-    void joinEventFirestore_WhenCalled_BuildsCorrectFirestoreQuery() {
-        String testEventId = "event-123";
-        String testEntrantId = "entrant-abc";
+    void joinEventFirestore_WhenCalled_BuildsCorrectFirestoreQuery() throws Exception {
+        Transaction mockTransaction = mockJoinTransaction(false);
+
+        assertTrue(joinAndApply(mockTransaction), "Should add an entrant who is not waiting yet");
+
+        mockedFirestore.verify(FirebaseFirestore::getInstance);
+        verify(mockDb).collection("events");
+        verify(mockEventsCol).document(testEventId);
+        verify(mockEventDoc).collection("waitingList");
+        verify(mockWaitingListCol).document(testEntrantId);
+        verify(mockTransaction).set(mockEntrantDoc, mockEntrant); // Verifies the correct object was passed
+        verify(mockTransaction).update(eq(mockEventDoc), eq("waitingCount"), any());
+    }
 
+    @Test
+    void joinEventFirestore_AlreadyWaiting_DoesNotCountTwice() throws Exception {
+        Transaction mockTransaction = mockJoinTransaction(true);
+
+        assertFalse(joinAndApply(mockTransaction), "Should not add an entrant twice");
+
+        verify(mockTransaction, never()).set(any(DocumentReference.class), any());
+        verify(mockTransaction, never()).update(any(DocumentReference.class), anyString(), any());
+    }
+
+    /**
+     * Mocks the Firestore path to the entrant's waiting list document and a
+     * transaction that finds it present or missing.
+     */
+    private Transaction mockJoinTransaction(boolean alreadyWaiting) throws Exception {
         when(mockEntrant.getDeviceId()).thenReturn(testEntrantId);
 
-        FirebaseFirestore mockDb = mock(FirebaseFirestore.class);
-        CollectionReference mockEventsCol = mock(CollectionReference.class);
-        DocumentReference mockEventDoc = mock(DocumentReference.class);
-        CollectionReference mockWaitingListCol = mock(CollectionReference.class);
-        DocumentReference mockEntrantDoc = mock(DocumentReference.class);
-        Task<Void> mockTask = mock(Task.class);
+        mockDb = mock(FirebaseFirestore.class);
+        mockEventsCol = mock(CollectionReference.class);
+        mockEventDoc = mock(DocumentReference.class);
+        mockWaitingListCol = mock(CollectionReference.class);
+        mockEntrantDoc = mock(DocumentReference.class);
+        Task<Boolean> mockTask = mock(Task.class);
 
         mockedFirestore.when(FirebaseFirestore::getInstance).thenReturn(mockDb);
 
@@ -140,26 +171,32 @@ class SignUpTest {
         when(mockEventsCol.document(testEventId)).thenReturn(mockEventDoc);
         when(mockEventDoc.collection("waitingList")).thenReturn(mockWaitingListCol);
         when(mockWaitingListCol.document(testEntrantId)).thenReturn(mockEntrantDoc);
-        when(mockEntrantDoc.set(mockEntrant)).thenReturn(mockTask);
+        when(mockDb.runTransaction(any(Transaction.Function.class))).thenReturn(mockTask);
 
         when(mockTask.addOnSuccessListener(any())).thenReturn(mockTask);
         when(mockTask.addOnFailureListener(any())).thenReturn(mockTask);
 
+        Transaction mockTransaction = mock(Transaction.class);
+        DocumentSnapshot mockSnapshot = mock(DocumentSnapshot.class);
+        when(mockTransaction.get(mockEntrantDoc)).thenReturn(mockSnapshot);
+        when(mockSnapshot.exists()).thenReturn(alreadyWaiting);
+        return mockTransaction;
+    }
+
+    /**
+     * Calls joinEventFirestore and runs the transaction it started against the mock.
+     */
+    private boolean joinAndApply(Transaction mockTransaction) throws Exception {
         signUp.joinEventFirestore(mockEntrant, testEventId);
 
-        mockedFirestore.verify(FirebaseFirestore::getInstance);
-        verify(mockDb).collection("events");
-        verify(mockEventsCol).document(testEventId);
-        verify(mockEventDoc).collection("waitingList");
-        verify(mockWaitingListCol).document(testEntrantId);
-        verify(mockEntrantDoc).set(mockEntrant); // Verifies the correct object was passed
+        ArgumentCaptor<Transaction.Function<Boolean>> function = ArgumentCaptor.forClass(Transaction.Function.class);
+        verify(mockDb).runTransaction(function.capture());
+        return function.getValue().apply(mockTransaction);
     }
 
     @Test
     void leaveEvent_EntrantOnList_RemovesEntrantAndReturnsTrue() {
-        ArrayList<Entrant> listWithEntrant = new ArrayList<>();
-        listWithEntrant.add(mockEntrant);
-        when(mockList.getEntrants()).thenReturn(listWithEntrant);
+        when(mockList.contains(mockEntrant)).thenReturn(true);
 
         boolean result = signUp.leaveEvent(mockEntrant, mockList);
 
@@ -169,8 +206,7 @@ class SignUpTest {
 
     @Test
     void leaveEvent_EntrantNotOnList_DoesNotRemoveAndReturnsFalse() {
-        ArrayList<Entrant> emptyList = new ArrayList<>();
-        when(mockList.getEntrants()).thenReturn(emptyList);
+        when(mockList.contains(mockEntrant)).thenReturn(false);
 
         boolean result = signUp.leaveEvent(mockEntrant, mockList);
 
@@ -0,0 +1,131 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.CityQuotaPolicy;
+import com.example.summit.model.Entrant;
+import com.example.summit.model.LotterySystem;
+import com.example.summit.model.StratifiedSampler;
+import com.example.summit.model.WaitingList;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class StratifiedSamplerTest {
+
+    private static List<Entrant> entrants(String... cities) {
+        List<Entrant> list = new ArrayList<>();
+        for (int i = 0; i < cities.length; i++) {
+            Entrant e = new Entrant("d" + i);
+            e.setCity(cities[i]);
+            list.add(e);
+        }
+        return list;
+    }
+
+    private static Map<String, Integer> quotas(Object... cityThenQuota) {
+        Map<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < cityThenQuota.length; i += 2) {
+            map.put((String) cityThenQuota[i], (Integer) cityThenQuota[i + 1]);
+        }
+        return map;
+    }
+
+    @Test
+    public void testQuotasAreFilledFirst() {
+        // 2 Edmonton, 8 Calgary; 2 seats reserved for Edmonton
+        List<Entrant> list = entrants("Edmonton", "Calgary", "Calgary", "Edmonton", "Calgary",
+                "Calgary", "Calgary", "Calgary", "Calgary", "Calgary");
+        for (long seed = 0; seed < 50; seed++) {
+            StratifiedSampler sampler = new StratifiedSampler(list, new CityQuotaPolicy(quotas("edmonton", 2)), seed);
+            Set<Integer> firstTwo = new HashSet<>(Arrays.asList(sampler.next(), sampler.next()));
+            assertEquals(new HashSet<>(Arrays.asList(0, 3)), firstTwo);
+        }
+    }
+
+    @Test
+    public void testDrawsEveryPositionOnce() {
+        List<Entrant> list = entrants("A", "B", null, "A", "C", "B", null, "A");
+        StratifiedSampler sampler = new StratifiedSampler(list,
+                new CityQuotaPolicy(quotas("A", 1, "B", 5, "Z", 3)), 9L);
+
+        assertEquals(3, sampler.getStratumCount());
+        assertEquals(3, sampler.getQuotaRemaining()); // B only has 2 entrants
+        Set<Integer> seen = new HashSet<>();
+        while (sampler.remaining() > 0) {
+            assertTrue(seen.add(sampler.next()));
+        }
+        assertEquals(8, seen.size());
+    }
+
+    @Test
+    public void testLeftoverQuotaFlowsToOverflow() {
+        // Quota of 5 for a city with one entrant; other 4 seats go to everyone else
+        List<Entrant> list = entrants("Banff", "X", "Y", "Z", "W", "V");
+        WaitingList wl = new WaitingList();
+        for (Entrant e : list) wl.addEntrant(e);
+
+        LotterySystem lottery = new LotterySystem(5, 4L);
+        lottery.setStratumPolicy(new CityQuotaPolicy(quotas("Banff", 5)));
+        List<Entrant> drawn = lottery.sampleEntrants(wl, 5);
+
+        assertEquals(5, drawn.size());
+        assertEquals("d0", drawn.get(0).getDeviceId());
+    }
+
+    @Test
+    public void testOverflowIsUniform() {
+        // After the quota, the 4 remaining entrants are equally likely to be drawn next
+        List<Entrant> list = entrants("A", "A", "B", "B", null);
+        int[] counts = new int[5];
+        for (long seed = 0; seed < 4000; seed++) {
+            StratifiedSampler sampler = new StratifiedSampler(list, new CityQuotaPolicy(quotas("A", 1)), seed);
+            sampler.next();
+            counts[sampler.next()]++;
+        }
+        for (int i = 2; i < 5; i++) {
+            assertTrue("position " + i + " drawn " + counts[i], counts[i] > 850 && counts[i] < 1150);
+        }
+        assertTrue(counts[0] + counts[1] > 850 && counts[0] + counts[1] < 1150);
+    }
+
+    @Test
+    public void testMinusRemovesTakenSeats() {
+        CityQuotaPolicy policy = new CityQuotaPolicy(quotas("Edmonton", 2, "Calgary", 1));
+        CityQuotaPolicy left = policy.minus(entrants(" edmonton ", "Calgary", "Calgary", null));
+        assertEquals(1, left.quotaOf("edmonton"));
+        assertEquals(0, left.quotaOf("calgary"));
+    }
+
+    @Test
+    public void testLargeWaitingListIsFast() {
+        int n = 100_000;
+        Map<String, Integer> cityQuotas = new HashMap<>();
+        List<Entrant> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Entrant e = new Entrant("d" + i);
+            e.setCity("city" + (i % 40));
+            list.add(e);
+        }
+        for (int c = 0; c < 40; c++) {
+            cityQuotas.put("city" + c, 5);
+        }
+
+        long start = System.nanoTime();
+        StratifiedSampler sampler = new StratifiedSampler(list, new CityQuotaPolicy(cityQuotas), 1L);
+        for (int i = 0; i < 1000; i++) {
+            sampler.next();
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("took " + millis + " ms", millis < 500);
+        assertEquals(0, sampler.getQuotaRemaining());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.model.BatchLottery;
+import com.example.summit.model.LotteryDraw;
+import com.example.summit.model.StreamingLottery;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldPath;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class StreamingLotteryTest {
+
+    /**
+     * Counts writes without sending them anywhere.
+     */
+    private static class CountingWriter implements LotteryDraw.Writer {
+        int writes;
+
+        @Override
+        public void set(DocumentReference ref, Map<String, Object> data) { writes++; }
+
+        @Override
+        public void update(DocumentReference ref, FieldPath field, Object value, Object... more) { writes++; }
+
+        @Override
+        public void delete(DocumentReference ref) { writes++; }
+    }
+
+    private static List<String> ids(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) ids.add("device" + i);
+        return ids;
+    }
+
+    @Test
+    public void testFullPartFitsOneTransaction() {
+        StreamingLottery.Part part = new StreamingLottery.Part("e1", "Swim", "draw1", 42L, "reservoir",
+                ids(StreamingLottery.MAX_INVITES), 1000L, 2000L);
+        CountingWriter writer = new CountingWriter();
+        part.writeTo(writer, null, null, id -> null, id -> null);
+
+        assertTrue(writer.writes + " writes", writer.writes <= BatchLottery.MAX_BATCH_OPS);
+        // One more winner would not fit
+        assertTrue(writer.writes + 2 > BatchLottery.MAX_BATCH_OPS);
+    }
+
+    @Test
+    public void testFullPartContinuesTheDraw() {
+        LotteryDraw.Result full = new LotteryDraw.Result(LotteryDraw.Status.APPLIED,
+                ids(StreamingLottery.MAX_INVITES));
+        assertTrue(LotteryDraw.filledPart(full, StreamingLottery.MAX_INVITES));
+        assertFalse(LotteryDraw.filledPart(new LotteryDraw.Result(LotteryDraw.Status.APPLIED,
+                ids(StreamingLottery.MAX_INVITES - 1)), StreamingLottery.MAX_INVITES));
+        assertEquals(249, StreamingLottery.MAX_INVITES);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.summit.utils.TimerWheel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TimerWheelTest {
+    private static final long TICK = 1000;
+
+    private AtomicLong clock;
+    private TimerWheel<String> wheel;
+
+    @Before
+    public void setUp() {
+        clock = new AtomicLong(10_000);
+        wheel = new TimerWheel<>(clock::get, TICK, 8);
+    }
+
+    @Test
+    public void testNothingExpiresBeforeDeadline() {
+        wheel.schedule("a", 15_000);
+        clock.set(14_000);
+        assertTrue(wheel.expire().isEmpty());
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void testExpiresOnceDeadlinePasses() {
+        wheel.schedule("a", 15_000);
+        wheel.schedule("b", 17_000);
+
+        clock.set(15_000);
+        assertEquals(Arrays.asList("a"), wheel.expire());
+        clock.set(20_000);
+        assertEquals(Arrays.asList("b"), wheel.expire());
+        assertEquals(0, wheel.size());
+        assertTrue(wheel.expire().isEmpty());
+    }
+
+    @Test
+    public void testCancelledDeadlineNeverExpires() {
+        wheel.schedule("a", 12_000);
+        assertTrue(wheel.cancel("a"));
+        assertFalse(wheel.cancel("a"));
+
+        clock.set(13_000);
+        assertTrue(wheel.expire().isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testRescheduleReplacesDeadline() {
+        wheel.schedule("a", 12_000);
+        wheel.schedule("a", 14_000);
+
+        clock.set(12_000);
+        assertTrue(wheel.expire().isEmpty());
+        clock.set(14_000);
+        assertEquals(Arrays.asList("a"), wheel.expire());
+    }
+
+    @Test
+    public void testDeadlineBeyondOneRevolution() {
+        // 8 slots of 1s: 12s and 20s share a slot
+        wheel.schedule("near", 12_000);
+        wheel.schedule("far", 20_000);
+
+        clock.set(12_000);
+        assertEquals(Arrays.asList("near"), wheel.expire());
+        clock.set(19_000);
+        assertTrue(wheel.expire().isEmpty());
+        clock.set(20_000);
+        assertEquals(Arrays.asList("far"), wheel.expire());
+    }
+
+    @Test
+    public void testLongGapExpiresEverything() {
+        for (int i = 0; i < 50; i++) {
+            wheel.schedule("k" + i, 10_000 + i * 700L);
+        }
+        clock.set(1_000_000);
+        List<String> expired = wheel.expire();
+        assertEquals(50, expired.size());
+        assertEquals(50, new HashSet<>(expired).size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testPastDeadlineExpiresOnNextAdvance() {
+        wheel.schedule("late", 1_000);
+        assertEquals(Arrays.asList("late"), wheel.expire());
+    }
+
+    @Test
+    public void testDeadlineInsideATickIsNotReportedEarly() {
+        wheel.schedule("a", 15_500);
+        clock.set(15_000);
+        assertTrue(wheel.expire().isEmpty());
+        clock.set(15_999);
+        assertTrue(wheel.expire().isEmpty());
+        clock.set(16_000);
+        assertEquals(Arrays.asList("a"), wheel.expire());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.summit;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.summit.model.Entrant;
+import com.example.summit.model.WaitingListStore;
+import com.example.summit.model.WaitingListStore.JoinResult;
+import com.google.firebase.firestore.GeoPoint;
+
+import org.junit.Test;
+
+public class WaitingListStoreTest {
+
+    private static final String TODAY = "2025-03-15";
+
+    @Test
+    public void testRegistrationWindowIsInclusive() {
+        Entrant e = new Entrant("a");
+        assertEquals(JoinResult.JOINED,
+                WaitingListStore.checkJoin("2025-03-15", "2025-03-15", false, e, null, 0, TODAY));
+        assertEquals(JoinResult.REGISTRATION_CLOSED,
+                WaitingListStore.checkJoin("2025-03-16", "2025-04-01", false, e, null, 0, TODAY));
+        assertEquals(JoinResult.REGISTRATION_CLOSED,
+                WaitingListStore.checkJoin("2025-03-01", "2025-03-14", false, e, null, 0, TODAY));
+        assertEquals(JoinResult.JOINED,
+                WaitingListStore.checkJoin(null, "", false, e, null, 0, TODAY));
+    }
+
+    @Test
+    public void testLocationRequired() {
+        Entrant e = new Entrant("a");
+        assertEquals(JoinResult.LOCATION_REQUIRED,
+                WaitingListStore.checkJoin(null, null, true, e, null, 0, TODAY));
+
+        e.setLocationShared(true);
+        assertEquals(JoinResult.LOCATION_REQUIRED,
+                WaitingListStore.checkJoin(null, null, true, e, null, 0, TODAY));
+
+        e.setLocation(new GeoPoint(53.5, -113.5));
+        assertEquals(JoinResult.JOINED,
+                WaitingListStore.checkJoin(null, null, true, e, null, 0, TODAY));
+    }
+
+    @Test
+    public void testLimit() {
+        Entrant e = new Entrant("a");
+        assertEquals(JoinResult.JOINED, WaitingListStore.checkJoin(null, null, false, e, 3L, 2, TODAY));
+        assertEquals(JoinResult.FULL, WaitingListStore.checkJoin(null, null, false, e, 3L, 3, TODAY));
+        // 0 means no limit
+        assertEquals(JoinResult.JOINED, WaitingListStore.checkJoin(null, null, false, e, 0L, 1000, TODAY));
+    }
+}
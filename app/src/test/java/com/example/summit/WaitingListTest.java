@@ -1,6 +1,10 @@
 package com.example.summit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import com.example.summit.model.Entrant;
 import com.example.summit.model.WaitingList;
@@ -21,11 +25,76 @@ public class WaitingListTest {
         Entrant e = new Entrant("1234", "Kai", "121312", "12312");
         waitingList.addEntrant(e);
 
-        waitingList.addEntrant(new Entrant("12312", "Kaidfasf", "121312", "12312"));
+        waitingList.addEntrant(new Entrant("12312", "Kaidfasf", "121313", "12312"));
         waitingList.removeEntrant(e);
 
         assertEquals(waitingList.getEntrants().size(), 1);
     }
 
-}
+    @Test
+    public void testSameDeviceIdIsOnlyAddedOnce() {
+        WaitingList waitingList = new WaitingList();
+        Entrant first = new Entrant("Kai", "kai@example.com", "dev-1", "1");
+        waitingList.addEntrant(first);
+        waitingList.addEntrant(new Entrant("Kai again", "other@example.com", "dev-1", "2"));
+
+        assertEquals(1, waitingList.getTotalEntrants());
+        assertSame(first, waitingList.getEntrantById("dev-1"));
+        assertTrue(waitingList.contains(new Entrant("dev-1")));
+    }
+
+    @Test
+    public void testLookupAndRemoveById() {
+        WaitingList waitingList = new WaitingList();
+        waitingList.addEntrant(new Entrant("a"));
+        waitingList.addEntrant(new Entrant("b"));
+
+        waitingList.removeEntrant(new Entrant("a"));
+        assertFalse(waitingList.contains(new Entrant("a")));
+        assertNull(waitingList.getEntrantById("a"));
+        assertEquals("b", waitingList.getEntrantById("b").getDeviceId());
+    }
 
+    @Test
+    public void testKeepsJoinOrder() {
+        WaitingList waitingList = new WaitingList();
+        for (String id : new String[]{"c", "a", "d", "b"}) {
+            waitingList.addEntrant(new Entrant(id));
+        }
+        waitingList.removeEntrant(new Entrant("a"));
+        waitingList.addEntrant(new Entrant("a"));
+
+        StringBuilder order = new StringBuilder();
+        for (Entrant e : waitingList.getEntrants()) {
+            order.append(e.getDeviceId());
+        }
+        assertEquals("cdba", order.toString());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testEntrantsViewIsReadOnly() {
+        WaitingList waitingList = new WaitingList();
+        waitingList.getEntrants().add(new Entrant("x"));
+    }
+
+    @Test
+    public void testAddingNeverScansTheList() {
+        // A List.contains check compared each new entrant with every earlier one,
+        // which made building the list quadratic
+        int[] comparisons = {0};
+        WaitingList waitingList = new WaitingList();
+        for (int i = 0; i < 1000; i++) {
+            waitingList.addEntrant(new Entrant("device-" + i) {
+                @Override
+                public boolean equals(Object o) {
+                    comparisons[0]++;
+                    return super.equals(o);
+                }
+            });
+        }
+        waitingList.addEntrant(new Entrant("device-0"));
+
+        assertEquals(1000, waitingList.getTotalEntrants());
+        assertEquals(0, comparisons[0]);
+    }
+}